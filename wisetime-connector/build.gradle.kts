@@ -42,6 +42,8 @@ tasks {
 
   test {
     useJUnitPlatform()
+    // ./gradlew test -Pbenchmark=true --tests '*BenchmarkTest' runs the benchmarks
+    systemProperty("benchmark", providers.gradleProperty("benchmark").getOrElse("false"))
     testLogging {
       events(TestLogEvent.SKIPPED, TestLogEvent.FAILED)
     }
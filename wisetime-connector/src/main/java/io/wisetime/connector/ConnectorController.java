@@ -4,9 +4,19 @@
 
 package io.wisetime.connector;
 
+import io.wisetime.connector.adjunct_keywords.KeywordExtractor;
 import io.wisetime.connector.api_client.ApiClient;
 import io.wisetime.connector.controller.ConnectorControllerBuilderImpl;
+import io.wisetime.connector.datastore.SqLiteStats;
+import io.wisetime.connector.datastore.StoreBackend;
+import io.wisetime.connector.datastore.StoreCacheMode;
+import io.wisetime.connector.datastore.StoreCacheStats;
+import io.wisetime.connector.lease.Lease;
 import io.wisetime.connector.metric.MetricInfo;
+import io.wisetime.connector.metric.RunMetricsInfo;
+import io.wisetime.connector.scheduler.TaskStats;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Main entry point of WiseTime connector. Sample usage:
@@ -64,6 +74,36 @@ public interface ConnectorController {
    */
   MetricInfo getMetrics();
 
+  /**
+   * Returns run statistics of the scheduled connector tasks, such as the tag and activity type syncs.
+   *
+   * @return statistics per task, ordered by task name
+   */
+  List<TaskStats> getTaskStats();
+
+  /**
+   * Returns execution metrics of the connector runners: run durations, outcomes and skipped runs.
+   *
+   * @return metrics per runner
+   */
+  List<RunMetricsInfo> getRunnerMetrics();
+
+  /**
+   * Returns hit, miss and flush counts of the in-memory connector store cache.
+   *
+   * @return the cache statistics, or empty if the store is not cached
+   * @see Builder#withStoreCache(StoreCacheMode)
+   */
+  Optional<StoreCacheStats> getStoreCacheStats();
+
+  /**
+   * Returns connection, query and write-ahead log metrics of the local database.
+   *
+   * @return the local database statistics
+   * @see io.wisetime.connector.datastore.SqLiteProfile
+   */
+  SqLiteStats getLocalDatabaseStats();
+
   ConnectorModule getConnectorModule();
 
   /**
@@ -159,6 +199,75 @@ public interface ConnectorController {
      */
     Builder withActivityTypeSyncSlowLoopIntervalMinutes(int minutes);
 
+    /**
+     * Register a {@link KeywordExtractor} to be run on a schedule. Extracted keywords are uploaded to WiseTime in
+     * batches. Keyword sync is not scheduled unless an extractor is registered.
+     */
+    Builder withKeywordExtractor(KeywordExtractor keywordExtractor);
+
+    /**
+     * Set connector interval to run the keyword extractor.
+     */
+    Builder withKeywordSyncIntervalMinutes(int minutes);
+
+    /**
+     * Set the minimum interval between full keyword sweeps. Keyword runs in between are incremental sweeps.
+     */
+    Builder withKeywordFullSyncIntervalMinutes(int minutes);
+
+    /**
+     * Let the tag and activity type sync intervals adapt to the amount of changes found. Syncs run more often, down to
+     * a quarter of the configured interval, while changes are found, and less often, up to four times the configured
+     * interval, while idle. Disabled by default.
+     */
+    Builder withAdaptiveSyncIntervals(boolean enabled);
+
+    /**
+     * Start a local admin HTTP server on the given port. It listens on the loopback interface only and exposes health,
+     * Prometheus metrics, runner states, and triggers to run or pause the tag, activity type and keyword syncs.
+     * Disabled by default. Connectors of a {@link io.wisetime.connector.controller.ConnectorHost} need a port each.
+     */
+    Builder withAdminServerPort(int port);
+
+    /**
+     * Run as one of an active/passive pair of instances sharing the persistent local database, see
+     * {@link #requirePersistentStorage(boolean)}. Only the instance holding the lease row fetches posted time and
+     * runs the syncs. The lease is renewed every third of its ttl, and a standby instance takes over once it has not
+     * been renewed for {@code ttlSeconds}. The instances must run with synchronised clocks.
+     */
+    Builder useLocalLease(int ttlSeconds);
+
+    /**
+     * Like {@link #useLocalLease(int)}, with a lease kept elsewhere, for example in a shared database.
+     */
+    Builder withLease(Lease lease, int ttlSeconds);
+
+    /**
+     * Cache the {@link io.wisetime.connector.datastore.ConnectorStore} of the connector in memory, see
+     * {@link StoreCacheMode} for the durability of writes in each mode. Disabled by default.
+     */
+    Builder withStoreCache(StoreCacheMode mode);
+
+    /**
+     * Like {@link #withStoreCache(StoreCacheMode)}, keeping up to {@code maxEntries} keys in memory and, in
+     * {@link StoreCacheMode#WRITE_BEHIND} mode, committing writes every {@code flushIntervalSeconds}.
+     */
+    Builder withStoreCache(StoreCacheMode mode, int maxEntries, int flushIntervalSeconds);
+
+    /**
+     * Keep the {@link io.wisetime.connector.datastore.ConnectorStore} of the connector in the given backend, see
+     * {@link StoreBackend}. Defaults to {@link StoreBackend#SQLITE}.
+     */
+    Builder withStoreBackend(StoreBackend backend);
+
+    /**
+     * Write a snapshot of the local database every {@code intervalMinutes}, keeping the latest {@code retainCount}
+     * snapshots. Snapshots do not block writes to the database. Disabled by default.
+     *
+     * @see io.wisetime.connector.datastore.SqLiteBackup
+     */
+    Builder withLocalDatabaseBackup(int intervalMinutes, int retainCount);
+
     /**
      * Instructs ConnectorController not to processed time groups (neither by long polling mechanism nor webhook)
      * and not to sync activity types.
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * Context of a single scheduled run of a {@link WiseTimeConnector} sync method.
+ * <p>
+ * Long running syncs should check {@link #shouldStop()} between units of work, e.g. after each uploaded batch, and
+ * return once it is true, saving a checkpoint to continue from on the next run. The run should stop when the deadline
+ * passes, which is when the next run would be due, when it is cancelled because the connector is shutting down, or
+ * when this instance of an active/passive pair is no longer the active one.
+ * <p>
+ * Progress reported through {@link #reportProgress(long)} counts as work done for adaptive sync intervals, from any
+ * thread.
+ */
+public class RunContext {
+
+  private final Instant deadline;
+  private final LongConsumer progressListener;
+  private final BooleanSupplier activeGate;
+  private final AtomicLong progress = new AtomicLong();
+  private volatile boolean cancelled;
+
+  /**
+   * @param deadline time by which the run should complete, or null if there is no deadline
+   * @param progressListener notified of the number of items processed on each progress report
+   */
+  public RunContext(Instant deadline, LongConsumer progressListener) {
+    this(deadline, progressListener, () -> true);
+  }
+
+  /**
+   * @param deadline time by which the run should complete, or null if there is no deadline
+   * @param progressListener notified of the number of items processed on each progress report
+   * @param activeGate whether the run may continue, e.g. false once the failover lease is lost
+   */
+  public RunContext(Instant deadline, LongConsumer progressListener, BooleanSupplier activeGate) {
+    this.deadline = deadline;
+    this.progressListener = progressListener;
+    this.activeGate = activeGate;
+  }
+
+  /**
+   * @return a context without deadline, e.g. to call a sync method outside the scheduled runs
+   */
+  public static RunContext unbounded() {
+    return new RunContext(null, items -> { });
+  }
+
+  public Optional<Instant> getDeadline() {
+    return Optional.ofNullable(deadline);
+  }
+
+  public boolean isDeadlineExceeded() {
+    return deadline != null && !Instant.now().isBefore(deadline);
+  }
+
+  /**
+   * @return whether there is enough time left before the deadline for work of the given duration
+   */
+  public boolean hasTimeFor(Duration duration) {
+    return deadline == null || !Instant.now().plus(duration).isAfter(deadline);
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Requests the run to stop at the next opportunity.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * @return whether the run should stop, because it was cancelled, its deadline has passed or this instance is no
+   *     longer the active one
+   */
+  public boolean shouldStop() {
+    return cancelled || isDeadlineExceeded() || !activeGate.getAsBoolean();
+  }
+
+  /**
+   * Reports items processed by the run, such as tags uploaded.
+   */
+  public void reportProgress(long items) {
+    if (items > 0) {
+      progress.addAndGet(items);
+      progressListener.accept(items);
+    }
+  }
+
+  /**
+   * @return total number of items reported as processed during the run
+   */
+  public long getProgress() {
+    return progress.get();
+  }
+}
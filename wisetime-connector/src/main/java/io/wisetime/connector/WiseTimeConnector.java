@@ -31,6 +31,14 @@ public interface WiseTimeConnector {
    */
   void performTagUpdate();
 
+  /**
+   * Variant of {@link #performTagUpdate()} called by the scheduled tag sync. Override to stop long runs cleanly when
+   * {@link RunContext#shouldStop()} turns true. Calls {@link #performTagUpdate()} by default.
+   */
+  default void performTagUpdate(RunContext runContext) {
+    performTagUpdate();
+  }
+
   /**
    * Called on a schedule. If the previously called method is still running when the next scheduled run should occur, the
    * scheduled run will be skipped, allowing time for the previous method to complete it's operation.
@@ -40,6 +48,16 @@ public interface WiseTimeConnector {
     // default no slow update loop is required
   }
 
+  /**
+   * Variant of {@link #performTagUpdateSlowLoop()} called by the scheduled tag slow loop. Calls
+   * {@link #performTagUpdateSlowLoop()} by default.
+   *
+   * @see #performTagUpdate(RunContext)
+   */
+  default void performTagUpdateSlowLoop(RunContext runContext) {
+    performTagUpdateSlowLoop();
+  }
+
   /**
    * Called on a schedule. If the previously called method is still running when the next scheduled run should occur, the
    * scheduled run will be skipped, allowing time for the previous method to complete it's operation.
@@ -48,6 +66,16 @@ public interface WiseTimeConnector {
     // default no activity type update supplied
   }
 
+  /**
+   * Variant of {@link #performActivityTypeUpdate()} called by the scheduled activity type sync. Calls
+   * {@link #performActivityTypeUpdate()} by default.
+   *
+   * @see #performTagUpdate(RunContext)
+   */
+  default void performActivityTypeUpdate(RunContext runContext) {
+    performActivityTypeUpdate();
+  }
+
   /**
    * Called on a schedule. If the previously called method is still running when the next scheduled run should occur, the
    * scheduled run will be skipped, allowing time for the previous method to complete it's operation.
@@ -58,6 +86,16 @@ public interface WiseTimeConnector {
     // default no activity type update slow loop supplied
   }
 
+  /**
+   * Variant of {@link #performActivityTypeUpdateSlowLoop()} called by the scheduled activity type slow loop. Calls
+   * {@link #performActivityTypeUpdateSlowLoop()} by default.
+   *
+   * @see #performTagUpdate(RunContext)
+   */
+  default void performActivityTypeUpdateSlowLoop(RunContext runContext) {
+    performActivityTypeUpdateSlowLoop();
+  }
+
   /**
    * Called via the defined webhook or via the listening fetch client when a user posts time to the given team.
    * <p>
@@ -22,7 +22,7 @@ public class ActivityTypeRunner extends BaseRunner {
 
   @Override
   protected void performAction() {
-    connector.performActivityTypeUpdate();
+    connector.performActivityTypeUpdate(getRunContext());
   }
 
   @Override
@@ -25,7 +25,7 @@ public class ActivityTypeSlowLoopRunner extends BaseRunner {
 
   @Override
   protected void performAction() {
-    connector.performActivityTypeUpdateSlowLoop();
+    connector.performActivityTypeUpdateSlowLoop(getRunContext());
   }
 
   @Override
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.activity_type;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.connector.datastore.ConnectorStore;
+import io.wisetime.connector.utils.BaseRunner;
+import io.wisetime.connector.utils.SyncSnapshot;
+import io.wisetime.generated.connect.ActivityType;
+import io.wisetime.generated.connect.SyncActivityTypesRequest;
+import io.wisetime.generated.connect.SyncActivityTypesResponse;
+import io.wisetime.generated.connect.SyncSession;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Uploads activity types to WiseTime, taking care of sync sessions, batching and change detection so connectors only
+ * have to supply the activity types of the connected system.
+ * <p>
+ * A fingerprint of every uploaded activity type is kept in the {@link ConnectorStore}:
+ * <ul>
+ * <li>{@link #fullSync(Collection)} uploads all activity types within a sync session, so that WiseTime deletes the ones
+ * no longer present. WiseTime deletes everything not sent during the session, so a session can't skip unchanged items;
+ * instead the whole session is skipped when nothing was added, changed or removed since the last upload. A session is
+ * still run once the last one is older than the full sync interval, which repairs any drift on the WiseTime side that
+ * the local fingerprints can't see.</li>
+ * <li>{@link #deltaSync(Collection)} uploads only the activity types that were added or changed, without a session.</li>
+ * </ul>
+ * Uploads are split into batches of at most {@value #MAX_BATCH_SIZE} activity types, sent in parallel on upload threads
+ * kept by the engine, which exit when idle.
+ */
+@Slf4j
+public class ActivityTypeSyncEngine {
+
+  public static final int MAX_BATCH_SIZE = 2000;
+  private static final int MIN_BATCH_SIZE = 100;
+  private static final int DEFAULT_PARALLELISM = 4;
+  private static final Duration DEFAULT_FULL_SYNC_INTERVAL = Duration.ofHours(24);
+  private static final long UPLOAD_THREAD_IDLE_SECONDS = 60;
+
+  @VisibleForTesting
+  static final String SNAPSHOT_KEY = "wt_activity_type_sync_snapshot";
+  @VisibleForTesting
+  static final String LAST_FULL_SYNC_KEY = "wt_activity_type_last_full_sync";
+
+  private final ApiClient apiClient;
+  private final ConnectorStore connectorStore;
+  private final SyncSnapshot snapshot;
+  private final int parallelism;
+  private final long fullSyncIntervalMs;
+  private final ExecutorService uploadExecutor;
+
+  public ActivityTypeSyncEngine(ApiClient apiClient, ConnectorStore connectorStore) {
+    this(apiClient, connectorStore, DEFAULT_PARALLELISM);
+  }
+
+  /**
+   * @param parallelism maximum number of batches uploaded at the same time
+   */
+  public ActivityTypeSyncEngine(ApiClient apiClient, ConnectorStore connectorStore, int parallelism) {
+    this(apiClient, connectorStore, parallelism, DEFAULT_FULL_SYNC_INTERVAL);
+  }
+
+  /**
+   * @param parallelism maximum number of batches uploaded at the same time
+   * @param fullSyncInterval how long {@link #fullSync(Collection)} may skip sessions because nothing changed locally
+   */
+  public ActivityTypeSyncEngine(ApiClient apiClient, ConnectorStore connectorStore, int parallelism,
+      Duration fullSyncInterval) {
+    Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+    this.apiClient = apiClient;
+    this.connectorStore = connectorStore;
+    this.snapshot = new SyncSnapshot(connectorStore, SNAPSHOT_KEY);
+    this.parallelism = parallelism;
+    this.fullSyncIntervalMs = fullSyncInterval.toMillis();
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism,
+        UPLOAD_THREAD_IDLE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), uploadThreadFactory());
+    executor.allowCoreThreadTimeOut(true);
+    this.uploadExecutor = executor;
+  }
+
+  /**
+   * Makes the activity types in WiseTime match the provided ones, deleting any activity types not in the collection.
+   * The sync session is cancelled if any of the uploads fails.
+   *
+   * @param activityTypes all activity types of the connected system
+   * @throws IOException if the session could not be completed, in which case no activity types were deleted
+   */
+  public ActivityTypeSyncResult fullSync(Collection<ActivityType> activityTypes) throws IOException {
+    final Map<String, String> previous = snapshot.load();
+    final Map<String, ActivityType> byCode = byCode(activityTypes);
+    final Map<String, String> current = fingerprints(byCode);
+    final long now = System.currentTimeMillis();
+    final boolean fullSyncDue = now - connectorStore.getLong(LAST_FULL_SYNC_KEY).orElse(0L) >= fullSyncIntervalMs;
+    if (!previous.isEmpty() && current.equals(previous) && !fullSyncDue) {
+      log.debug("No activity type changes since the last sync, skipping full sync of {} activity types", current.size());
+      return new ActivityTypeSyncResult(0, current.size(), 0, false);
+    }
+
+    final SyncSession session = apiClient.activityTypesStartSyncSession();
+    try {
+      upload(new ArrayList<>(byCode.values()), session.getSyncSessionId());
+      apiClient.activityTypesCompleteSyncSession(session);
+    } catch (IOException | RuntimeException e) {
+      cancelQuietly(session);
+      throw e;
+    }
+    snapshot.save(current);
+    connectorStore.putLong(LAST_FULL_SYNC_KEY, now);
+
+    final int removed = (int) previous.keySet().stream().filter(code -> !current.containsKey(code)).count();
+    log.info("Synced {} activity types, {} removed", current.size(), removed);
+    return new ActivityTypeSyncResult(current.size(), 0, removed, true);
+  }
+
+  /**
+   * Uploads the activity types that were added or changed since they were last uploaded. Activity types missing from
+   * the collection are left untouched.
+   */
+  public ActivityTypeSyncResult deltaSync(Collection<ActivityType> activityTypes) throws IOException {
+    final Map<String, String> previous = snapshot.load();
+    final Map<String, ActivityType> byCode = byCode(activityTypes);
+    final Map<String, String> current = fingerprints(byCode);
+
+    final List<ActivityType> changed = new ArrayList<>();
+    current.forEach((code, fingerprint) -> {
+      if (!fingerprint.equals(previous.get(code))) {
+        changed.add(byCode.get(code));
+      }
+    });
+    if (changed.isEmpty()) {
+      return new ActivityTypeSyncResult(0, current.size(), 0, false);
+    }
+
+    upload(changed, null);
+    final Map<String, String> updated = new HashMap<>(previous);
+    changed.forEach(activityType -> updated.put(activityType.getCode(), current.get(activityType.getCode())));
+    snapshot.save(updated);
+    return new ActivityTypeSyncResult(changed.size(), current.size() - changed.size(), 0, false);
+  }
+
+  /**
+   * Spreads the activity types over the available upload threads, within the limits of a single request.
+   */
+  @VisibleForTesting
+  int batchSize(int activityTypeCount) {
+    final int perThread = (activityTypeCount + parallelism - 1) / parallelism;
+    return Math.max(MIN_BATCH_SIZE, Math.min(MAX_BATCH_SIZE, perThread));
+  }
+
+  private void upload(List<ActivityType> activityTypes, String syncSessionId) throws IOException {
+    if (activityTypes.isEmpty()) {
+      return;
+    }
+    final List<List<ActivityType>> batches = Lists.partition(activityTypes, batchSize(activityTypes.size()));
+    if (batches.size() == 1) {
+      send(batches.get(0), syncSessionId);
+      return;
+    }
+
+    final List<Future<Void>> futures = new ArrayList<>(batches.size());
+    try {
+      for (List<ActivityType> batch : batches) {
+        futures.add(uploadExecutor.submit(() -> {
+          send(batch, syncSessionId);
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+      // the uploads ran on the pool threads, credit them to the runner calling the engine
+      BaseRunner.recordWork(activityTypes.size());
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Failed to upload activity types", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while uploading activity types");
+    } finally {
+      // stops any batches still in flight after a failure
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  private void send(List<ActivityType> batch, String syncSessionId) throws IOException {
+    final SyncActivityTypesResponse response = apiClient.syncActivityTypes(new SyncActivityTypesRequest()
+        .activityTypes(batch)
+        .syncSessionId(syncSessionId));
+    if (response != null && response.getErrors() != null && !response.getErrors().isEmpty()) {
+      throw new IOException("WiseTime rejected activity types: " + response.getErrors());
+    }
+  }
+
+  private void cancelQuietly(SyncSession session) {
+    try {
+      apiClient.activityTypesCancelSyncSession(session);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to cancel activity types sync session {}", session.getSyncSessionId(), e);
+    }
+  }
+
+  private static ThreadFactory uploadThreadFactory() {
+    final AtomicInteger threadCount = new AtomicInteger();
+    return runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+      thread.setName("activity-type-uploader-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static Map<String, ActivityType> byCode(Collection<ActivityType> activityTypes) {
+    final Map<String, ActivityType> byCode = new LinkedHashMap<>();
+    for (ActivityType activityType : activityTypes) {
+      if (StringUtils.isBlank(activityType.getCode())) {
+        log.warn("Skipping activity type without a code: {}", activityType);
+        continue;
+      }
+      if (byCode.put(activityType.getCode(), activityType) != null) {
+        log.warn("Duplicate activity type code '{}', only the last one is uploaded", activityType.getCode());
+      }
+    }
+    return byCode;
+  }
+
+  private static Map<String, String> fingerprints(Map<String, ActivityType> byCode) {
+    final Map<String, String> fingerprints = new HashMap<>();
+    byCode.forEach((code, activityType) -> fingerprints.put(code, SyncSnapshot.fingerprint(activityType)));
+    return fingerprints;
+  }
+}
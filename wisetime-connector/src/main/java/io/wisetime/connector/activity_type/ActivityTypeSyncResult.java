@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.activity_type;
+
+import lombok.Data;
+
+/**
+ * Outcome of an {@link ActivityTypeSyncEngine} run.
+ */
+@Data
+public class ActivityTypeSyncResult {
+
+  /**
+   * Number of activity types sent to WiseTime.
+   */
+  private final int uploaded;
+
+  /**
+   * Number of activity types skipped because they did not change since they were last uploaded.
+   */
+  private final int unchanged;
+
+  /**
+   * Number of previously uploaded activity types that are no longer present and were removed by the sync session.
+   */
+  private final int removed;
+
+  /**
+   * Whether a sync session was used, i.e. whether WiseTime was asked to delete activity types not in the upload.
+   */
+  private final boolean syncSessionUsed;
+}
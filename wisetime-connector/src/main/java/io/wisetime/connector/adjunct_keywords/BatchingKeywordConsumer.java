@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.adjunct_keywords;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Suppliers;
+import io.wisetime.connector.api_client.AddKeywordsResult;
+import io.wisetime.connector.api_client.AddKeywordsResult.AddKeywordsStatus;
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.generated.connect.AddKeywordsRequest;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Default {@link KeywordConsumer} that streams keyword updates to WiseTime in batches.
+ * <p>
+ * Updates are placed on a bounded queue and picked up by background uploader threads, which group them into
+ * {@link ApiClient#tagAddKeywordsBatch(List)} calls of up to {@code batchSize} requests. When the queue is full
+ * {@link #persistKeywordAsync(KeywordUpdate)} blocks until an uploader has made room, so a fast extractor can not run
+ * arbitrarily far ahead of the uploads. {@link #flushUploadQueue()} acts as a barrier: it returns once every update
+ * accepted before the call has been uploaded or dropped, and rethrows the first upload error since the previous
+ * flush.
+ * <p>
+ * If a {@link SentKeywordIndex} is supplied, keywords already sent for a tag are trimmed from each update before it is
+ * queued, and updates left without new keywords are dropped.
+ * <p>
+ * The uploader threads and the sent keyword index are only set up once the first update is accepted, so a connector
+ * whose extractor has nothing to send pays nothing for them at startup.
+ */
+@Slf4j
+public class BatchingKeywordConsumer implements KeywordConsumer, AutoCloseable {
+
+  private static final int DEFAULT_UPLOADER_THREADS = 2;
+  private static final long POLL_INTERVAL_MS = 250;
+
+  private final ApiClient apiClient;
+  private final int batchSize;
+  private final BlockingQueue<KeywordUpdate> uploadQueue;
+  private final int uploaderThreads;
+  private final AtomicReference<IOException> uploadFailure = new AtomicReference<>();
+  private final Supplier<SentKeywordIndex> sentKeywordIndex;
+
+  // started with the first accepted update, guarded by this
+  private ExecutorService uploaders;
+
+  // number of accepted updates that are yet to be uploaded, guarded by pendingLock
+  private final Object pendingLock = new Object();
+  private long pendingUpdates;
+
+  private volatile boolean closed;
+
+  public BatchingKeywordConsumer(ApiClient apiClient, int batchSize) {
+    this(apiClient, batchSize, (SentKeywordIndex) null);
+  }
+
+  public BatchingKeywordConsumer(ApiClient apiClient, int batchSize, SentKeywordIndex sentKeywordIndex) {
+    this(apiClient, batchSize, () -> sentKeywordIndex);
+  }
+
+  /**
+   * @param sentKeywordIndex creates the index of keywords already sent when it is first needed, may return null
+   */
+  public BatchingKeywordConsumer(ApiClient apiClient, int batchSize, Supplier<SentKeywordIndex> sentKeywordIndex) {
+    // allow a few batches to queue up while the uploaders are busy
+    this(apiClient, batchSize, batchSize * 4, DEFAULT_UPLOADER_THREADS, sentKeywordIndex);
+  }
+
+  public BatchingKeywordConsumer(ApiClient apiClient, int batchSize, int queueCapacity, int uploaderThreads) {
+    this(apiClient, batchSize, queueCapacity, uploaderThreads, (SentKeywordIndex) null);
+  }
+
+  /**
+   * @param sentKeywordIndex optional index of keywords already sent, may be null
+   */
+  public BatchingKeywordConsumer(ApiClient apiClient, int batchSize, int queueCapacity, int uploaderThreads,
+      SentKeywordIndex sentKeywordIndex) {
+    this(apiClient, batchSize, queueCapacity, uploaderThreads, () -> sentKeywordIndex);
+  }
+
+  private BatchingKeywordConsumer(ApiClient apiClient, int batchSize, int queueCapacity, int uploaderThreads,
+      Supplier<SentKeywordIndex> sentKeywordIndex) {
+    Preconditions.checkArgument(batchSize > 0, "batchSize must be positive");
+    Preconditions.checkArgument(queueCapacity > 0, "queueCapacity must be positive");
+    Preconditions.checkArgument(uploaderThreads > 0, "uploaderThreads must be positive");
+    this.apiClient = apiClient;
+    this.batchSize = batchSize;
+    this.uploaderThreads = uploaderThreads;
+    this.sentKeywordIndex = Suppliers.memoize(sentKeywordIndex::get);
+    this.uploadQueue = new ArrayBlockingQueue<>(queueCapacity);
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  @Override
+  public void persistKeywordAsync(KeywordUpdate update) throws IOException {
+    Preconditions.checkState(!closed, "keyword consumer has been closed");
+    // the failure is left for the flush barrier to report
+    final IOException failure = uploadFailure.get();
+    if (failure != null) {
+      throw failure;
+    }
+    if (update.getAdditionalKeywords().isEmpty()) {
+      return;
+    }
+    final SentKeywordIndex sentIndex = sentKeywordIndex.get();
+    final KeywordUpdate keywordUpdate;
+    if (sentIndex == null) {
+      keywordUpdate = update;
+    } else {
+      final Optional<KeywordUpdate> unsent = sentIndex.trimSent(update);
+      if (unsent.isEmpty()) {
+        return;
+      }
+      keywordUpdate = unsent.get();
+    }
+
+    startUploaders();
+    synchronized (pendingLock) {
+      pendingUpdates++;
+    }
+    try {
+      // waits while the queue is full: this is the backpressure on the extractor
+      while (!uploadQueue.offer(keywordUpdate, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        if (closed) {
+          // the uploaders may have stopped, nothing would take the update off the full queue
+          markUploaded(1);
+          throw new IllegalStateException("keyword consumer was closed while waiting to queue keyword update");
+        }
+      }
+    } catch (InterruptedException e) {
+      markUploaded(1);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to queue keyword update");
+    }
+    if (closed && uploadersStopped()) {
+      // queued after close() dropped the queued updates, so nothing else counts it down
+      dropQueuedUpdates();
+    }
+  }
+
+  @Override
+  public void flushUploadQueue() throws IOException {
+    synchronized (pendingLock) {
+      while (pendingUpdates > 0) {
+        try {
+          pendingLock.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for keyword uploads to complete");
+        }
+      }
+    }
+    rethrowUploadFailure();
+  }
+
+  /**
+   * Uploads anything still queued, then stops the uploader threads. Updates that could not be uploaded before the
+   * uploaders stopped are dropped, and reported as an upload failure by the next flush.
+   */
+  @Override
+  public void close() {
+    final ExecutorService uploaders;
+    synchronized (this) {
+      closed = true;
+      uploaders = this.uploaders;
+    }
+    if (uploaders == null) {
+      // nothing was ever queued
+      return;
+    }
+    uploaders.shutdown();
+    try {
+      if (!uploaders.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.warn("Keyword uploaders did not finish within a minute");
+        uploaders.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      uploaders.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    dropQueuedUpdates();
+  }
+
+  /**
+   * Counts down updates left on the queue once the uploaders have stopped, so that a flush does not wait for them.
+   */
+  private void dropQueuedUpdates() {
+    final List<KeywordUpdate> dropped = new ArrayList<>();
+    uploadQueue.drainTo(dropped);
+    if (dropped.isEmpty()) {
+      return;
+    }
+    log.warn("Keyword uploaders stopped, {} updates dropped", dropped.size());
+    uploadFailure.compareAndSet(null,
+        new IOException(dropped.size() + " keyword updates dropped when the uploaders stopped"));
+    markUploaded(dropped.size());
+  }
+
+  private synchronized boolean uploadersStopped() {
+    return uploaders != null && uploaders.isTerminated();
+  }
+
+  private synchronized void startUploaders() {
+    Preconditions.checkState(!closed, "keyword consumer has been closed");
+    if (uploaders != null) {
+      return;
+    }
+    uploaders = Executors.newFixedThreadPool(uploaderThreads, uploaderThreadFactory());
+    for (int i = 0; i < uploaderThreads; i++) {
+      uploaders.submit(this::uploadLoop);
+    }
+  }
+
+  private void uploadLoop() {
+    final List<KeywordUpdate> batch = new ArrayList<>(batchSize);
+    while (!closed || !uploadQueue.isEmpty()) {
+      try {
+        final KeywordUpdate first = uploadQueue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        uploadQueue.drainTo(batch, batchSize - 1);
+        upload(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        markUploaded(batch.size());
+        batch.clear();
+      }
+    }
+  }
+
+  private void upload(List<KeywordUpdate> batch) {
+    final List<AddKeywordsRequest> requests = toRequests(batch);
+    if (requests.isEmpty()) {
+      return;
+    }
+    try {
+      final List<AddKeywordsResult> results = apiClient.tagAddKeywordsBatch(requests);
+      for (int i = 0; i < results.size(); i++) {
+        final AddKeywordsResult result = results.get(i);
+        if (result.getStatus() == AddKeywordsStatus.TAG_NOT_FOUND) {
+          log.debug("Skipped keywords for unknown tag '{}'", result.getTagName());
+        } else if (sentKeywordIndex.get() != null) {
+          // results are returned in request order
+          final AddKeywordsRequest request = requests.get(i);
+          sentKeywordIndex.get().recordSent(request.getTagName(), request.getAdditionalKeywords());
+        }
+      }
+    } catch (IOException e) {
+      onUploadFailure(e);
+    } catch (RuntimeException e) {
+      onUploadFailure(new IOException("Failed to upload keyword batch", e));
+    }
+  }
+
+  /**
+   * Updates for the same tag within a batch are merged into a single request.
+   */
+  private List<AddKeywordsRequest> toRequests(List<KeywordUpdate> batch) {
+    final Map<String, Set<String>> keywordsByTag = new LinkedHashMap<>();
+    for (KeywordUpdate update : batch) {
+      final String tagName = update.getTagId().getName();
+      if (StringUtils.isBlank(tagName)) {
+        log.warn("Keyword update without a tag name can not be uploaded, skipping {}", update.getTagId());
+        continue;
+      }
+      keywordsByTag.computeIfAbsent(tagName, name -> new LinkedHashSet<>())
+          .addAll(update.getAdditionalKeywords());
+    }
+    return keywordsByTag.entrySet().stream()
+        .map(entry -> new AddKeywordsRequest()
+            .tagName(entry.getKey())
+            .additionalKeywords(new ArrayList<>(entry.getValue())))
+        .collect(Collectors.toList());
+  }
+
+  private void onUploadFailure(IOException e) {
+    log.error("Failed to upload keyword batch", e);
+    uploadFailure.compareAndSet(null, e);
+  }
+
+  private void rethrowUploadFailure() throws IOException {
+    final IOException failure = uploadFailure.getAndSet(null);
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void markUploaded(int count) {
+    if (count == 0) {
+      return;
+    }
+    synchronized (pendingLock) {
+      pendingUpdates -= count;
+      if (pendingUpdates <= 0) {
+        pendingLock.notifyAll();
+      }
+    }
+  }
+
+  private static ThreadFactory uploaderThreadFactory() {
+    final AtomicInteger threadCount = new AtomicInteger();
+    return runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+      thread.setName("keyword-uploader-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -18,9 +18,17 @@ import lombok.experimental.Accessors;
 @Accessors(chain = true)
 public class KeywordConfig {
 
+  public static final int DEFAULT_BATCH_SIZE = 100;
+
   private final ConnectorStore connectStore;
   private final SyncScope syncScope;
 
-  private int batchSize = 100;
+  private int batchSize = DEFAULT_BATCH_SIZE;
+
+  /**
+   * Start time (epoch millis) of the last completed sweep for this sync scope, or 0 if the scope has never completed.
+   * A {@link SyncScope#DELTA_SYNC} extractor only needs to fetch records changed since then.
+   */
+  private long cursorEpochMs;
 
 }
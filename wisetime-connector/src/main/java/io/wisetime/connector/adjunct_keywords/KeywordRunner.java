@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.adjunct_keywords;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.wisetime.connector.api_client.SyncScope;
+import io.wisetime.connector.datastore.ConnectorStore;
+import io.wisetime.connector.utils.BaseRunner;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the registered {@link KeywordExtractor} on a schedule, enforcing a singleton runner pattern in the event that the
+ * previous sweep has not completed prior to the next scheduled check.
+ * <p>
+ * Each run is either a {@link SyncScope#FULL_SYNC} or a {@link SyncScope#DELTA_SYNC} sweep. A full sweep runs when the
+ * last completed full sweep is older than the full sync interval, otherwise an incremental sweep runs. The start time of
+ * the last completed sweep is persisted per scope in the {@link ConnectorStore} and passed to the extractor as
+ * {@link KeywordConfig#getCursorEpochMs()}, so incremental sweeps survive restarts.
+ */
+@Slf4j
+public class KeywordRunner extends BaseRunner {
+
+  @VisibleForTesting
+  static final String CURSOR_KEY_PREFIX = "wt_keyword_runner_cursor_";
+
+  private final KeywordExtractor keywordExtractor;
+  private final ConnectorStore connectorStore;
+  private final BatchingKeywordConsumer keywordConsumer;
+  private final long fullSyncIntervalMs;
+
+  public KeywordRunner(KeywordExtractor keywordExtractor,
+      ConnectorStore connectorStore,
+      BatchingKeywordConsumer keywordConsumer,
+      long fullSyncIntervalMs) {
+    this.keywordExtractor = keywordExtractor;
+    this.connectorStore = connectorStore;
+    this.keywordConsumer = keywordConsumer;
+    this.fullSyncIntervalMs = fullSyncIntervalMs;
+  }
+
+  @Override
+  protected void performAction() {
+    if (!keywordExtractor.validateExpectedState()) {
+      throw new IllegalStateException("Keyword extractor environment is not in the expected state, skipping sweep");
+    }
+    final long sweepStart = System.currentTimeMillis();
+    final SyncScope syncScope = nextSyncScope(sweepStart);
+    final KeywordConfig keywordConfig = new KeywordConfig(connectorStore, syncScope)
+        .setBatchSize(keywordConsumer.getBatchSize())
+        .setCursorEpochMs(getCursor(syncScope));
+
+    log.debug("Starting {} keyword sweep from cursor {}", syncScope, keywordConfig.getCursorEpochMs());
+    keywordExtractor.fetchKeywords(keywordConfig, keywordConsumer);
+    try {
+      keywordConsumer.flushUploadQueue();
+    } catch (IOException e) {
+      // cursor is not advanced, the same range is swept again on the next run
+      throw new UncheckedIOException("Failed to upload keywords for " + syncScope + " sweep", e);
+    }
+
+    putCursor(syncScope, sweepStart);
+    if (syncScope == SyncScope.FULL_SYNC && getCursor(SyncScope.DELTA_SYNC) < sweepStart) {
+      // a full sweep covers every change an incremental sweep would have picked up
+      putCursor(SyncScope.DELTA_SYNC, sweepStart);
+    }
+  }
+
+  @VisibleForTesting
+  SyncScope nextSyncScope(long now) {
+    final long lastFullSweep = getCursor(SyncScope.FULL_SYNC);
+    return now - lastFullSweep >= fullSyncIntervalMs ? SyncScope.FULL_SYNC : SyncScope.DELTA_SYNC;
+  }
+
+  private long getCursor(SyncScope syncScope) {
+    return connectorStore.getLong(CURSOR_KEY_PREFIX + syncScope.name()).orElse(0L);
+  }
+
+  private void putCursor(SyncScope syncScope, long cursorEpochMs) {
+    connectorStore.putLong(CURSOR_KEY_PREFIX + syncScope.name(), cursorEpochMs);
+  }
+
+  /**
+   * Releases the extractor and stops the upload threads.
+   */
+  public void close() {
+    keywordExtractor.close();
+    keywordConsumer.close();
+  }
+
+  @Override
+  protected Logger getLogger() {
+    return LoggerFactory.getLogger(keywordExtractor.getClass());
+  }
+}
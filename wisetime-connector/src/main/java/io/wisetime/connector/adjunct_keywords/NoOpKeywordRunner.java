@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.adjunct_keywords;
+
+/**
+ * No op keyword runner for connectors that have not registered a {@link KeywordExtractor}.
+ *
+ * @see io.wisetime.connector.ConnectorController.Builder#withKeywordExtractor(KeywordExtractor)
+ */
+public class NoOpKeywordRunner extends KeywordRunner {
+
+  public NoOpKeywordRunner() {
+    super(null, null, null, 0);
+  }
+
+  @Override
+  public void run() {
+  }
+
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public boolean isHealthy() {
+    return true;
+  }
+}
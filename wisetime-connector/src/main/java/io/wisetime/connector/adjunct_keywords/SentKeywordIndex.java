@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.adjunct_keywords;
+
+import static io.wisetime.connector.datastore.CoreLocalDbTable.TABLE_KEYWORDS_SENT;
+
+import com.google.common.collect.Lists;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hashing;
+import io.wisetime.connector.datastore.SqLiteHelper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Remembers which keywords have already been uploaded for a tag, so that repeated sweeps only send new keywords.
+ * <p>
+ * A 64 bit fingerprint of each (tag name, keyword) pair is persisted in the {@code keywords_sent} table. The table is
+ * fronted by an in-memory bloom filter: a keyword the filter has never seen is new without touching the database, and
+ * only possible matches are confirmed with an indexed lookup. Fingerprints expire after {@link #RETENTION_DAYS} days so
+ * that keywords are eventually re-sent, e.g. if a tag was deleted and recreated in WiseTime. Expired fingerprints are
+ * ignored by the lookup, and deleted whenever the filter is rebuilt.
+ * <p>
+ * Updates for tags identified only by external id are passed through untrimmed, as the fingerprint is keyed on the tag
+ * name.
+ */
+@Slf4j
+public class SentKeywordIndex {
+
+  static final long RETENTION_DAYS = 30;
+  private static final int MIN_EXPECTED_FINGERPRINTS = 100_000;
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+  // keep well below the SQLite host parameter limit
+  private static final int MAX_QUERY_PARAMS = 500;
+
+  private final SqLiteHelper sqLiteHelper;
+  private volatile BloomFilter<Long> filter;
+  private volatile long filterCapacity;
+
+  public SentKeywordIndex(SqLiteHelper sqLiteHelper) {
+    this.sqLiteHelper = sqLiteHelper;
+    sqLiteHelper.createTable(TABLE_KEYWORDS_SENT);
+    rebuildFilter();
+  }
+
+  /**
+   * @return the update with any keywords already sent for its tag removed, or empty if no new keywords remain
+   */
+  public Optional<KeywordUpdate> trimSent(KeywordUpdate keywordUpdate) {
+    final String tagName = keywordUpdate.getTagId().getName();
+    if (StringUtils.isBlank(tagName)) {
+      return Optional.of(keywordUpdate);
+    }
+    final Map<Long, String> maybeSent = new LinkedHashMap<>();
+    final Set<String> unsent = new HashSet<>();
+    final BloomFilter<Long> currentFilter = filter;
+    for (String keyword : keywordUpdate.getAdditionalKeywords()) {
+      final long fingerprint = fingerprint(tagName, keyword);
+      if (currentFilter.mightContain(fingerprint)) {
+        maybeSent.put(fingerprint, keyword);
+      } else {
+        unsent.add(keyword);
+      }
+    }
+
+    if (!maybeSent.isEmpty()) {
+      final Set<Long> sent = findPersisted(maybeSent.keySet());
+      maybeSent.forEach((fingerprint, keyword) -> {
+        if (!sent.contains(fingerprint)) {
+          unsent.add(keyword);
+        }
+      });
+    }
+
+    if (unsent.isEmpty()) {
+      return Optional.empty();
+    }
+    if (unsent.size() == keywordUpdate.getAdditionalKeywords().size()) {
+      return Optional.of(keywordUpdate);
+    }
+    return Optional.of(new KeywordUpdate()
+        .setTagId(keywordUpdate.getTagId())
+        .setAdditionalKeywords(unsent));
+  }
+
+  /**
+   * Records that the keywords have been accepted by WiseTime for the tag.
+   */
+  public void recordSent(String tagName, Collection<String> keywords) {
+    if (keywords.isEmpty()) {
+      return;
+    }
+    final long now = System.currentTimeMillis();
+    final List<Long> fingerprints = keywords.stream()
+        .map(keyword -> fingerprint(tagName, keyword))
+        .collect(Collectors.toList());
+    final Stream<List<?>> rows = fingerprints.stream().map(fingerprint -> List.of(fingerprint, now));
+    SqLiteHelper.await(sqLiteHelper.writeNoResult(query -> query
+        .batch("INSERT OR REPLACE INTO " + TABLE_KEYWORDS_SENT.getName() + " (fingerprint, sent_ts) VALUES (?,?)")
+        .params(rows)
+        .run()));
+
+    final BloomFilter<Long> currentFilter = filter;
+    fingerprints.forEach(currentFilter::put);
+    if (currentFilter.approximateElementCount() > filterCapacity) {
+      // the false positive rate degrades beyond the expected insertions, size up from the table
+      rebuildFilter();
+    }
+  }
+
+  private Set<Long> findPersisted(Collection<Long> fingerprints) {
+    final Set<Long> persisted = new HashSet<>();
+    for (List<Long> chunk : Lists.partition(List.copyOf(fingerprints), MAX_QUERY_PARAMS)) {
+      final String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+      final List<Object> params = new ArrayList<>(chunk);
+      params.add(expiryCutoff());
+      persisted.addAll(sqLiteHelper.readQuery()
+          .select("SELECT fingerprint FROM " + TABLE_KEYWORDS_SENT.getName()
+              + " WHERE fingerprint IN (" + placeholders + ") AND sent_ts >= ?")
+          .params(params)
+          .listResult(rs -> rs.getLong(1)));
+    }
+    return persisted;
+  }
+
+  private void deleteExpired() {
+    SqLiteHelper.await(sqLiteHelper.writeNoResult(query -> query
+        .update("DELETE FROM " + TABLE_KEYWORDS_SENT.getName() + " WHERE sent_ts < ?")
+        .params(expiryCutoff())
+        .run()));
+  }
+
+  private static long expiryCutoff() {
+    return System.currentTimeMillis() - TimeUnit.DAYS.toMillis(RETENTION_DAYS);
+  }
+
+  private synchronized void rebuildFilter() {
+    deleteExpired();
+    final long persistedCount = sqLiteHelper.readQuery()
+        .select("SELECT COUNT(*) FROM " + TABLE_KEYWORDS_SENT.getName())
+        .singleResult(rs -> rs.getLong(1));
+    final long capacity = Math.max(MIN_EXPECTED_FINGERPRINTS, persistedCount * 2);
+    final BloomFilter<Long> rebuilt = BloomFilter.create(Funnels.longFunnel(), capacity, FALSE_POSITIVE_RATE);
+    sqLiteHelper.readQuery()
+        .select("SELECT fingerprint FROM " + TABLE_KEYWORDS_SENT.getName())
+        .iterateResult(rs -> rs.getLong(1), rebuilt::put);
+    filter = rebuilt;
+    filterCapacity = capacity;
+    log.debug("Loaded {} sent keyword fingerprints", persistedCount);
+  }
+
+  static long fingerprint(String tagName, String keyword) {
+    return Hashing.murmur3_128().newHasher()
+        .putString(tagName, StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(keyword, StandardCharsets.UTF_8)
+        .hash()
+        .asLong();
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.admin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.wisetime.connector.ConnectorController;
+import io.wisetime.connector.api_client.support.TolerantObjectMapper;
+import io.wisetime.connector.scheduler.ConnectorScheduler;
+import io.wisetime.connector.scheduler.ScheduledTask;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lightweight HTTP server for inspecting and operating a running connector. It only listens on the loopback interface.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *   <li>{@code GET /health}: 200 if the connector is healthy, 503 otherwise</li>
+ *   <li>{@code GET /metrics}: connector, runner, scheduler and store cache metrics in the Prometheus text format</li>
+ *   <li>{@code GET /runners}: state and statistics of the scheduled tasks and runners as JSON</li>
+ *   <li>{@code POST /runners/{task}/run}: runs a task now instead of waiting for its next scheduled run</li>
+ *   <li>{@code POST /runners/{task}/pause} and {@code POST /runners/{task}/resume}</li>
+ * </ul>
+ * Only the tasks passed in as controllable can be triggered or paused.
+ */
+@Slf4j
+public class AdminServer implements AutoCloseable {
+
+  private static final String RUNNERS_PATH = "/runners";
+
+  private final ConnectorController controller;
+  private final ConnectorScheduler scheduler;
+  private final Set<String> controllableTasks;
+  private final ObjectMapper objectMapper = TolerantObjectMapper.create()
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  /**
+   * @param port port to listen on, 0 for any free port
+   */
+  public AdminServer(int port, ConnectorController controller, ConnectorScheduler scheduler,
+      Set<String> controllableTasks) throws IOException {
+    this.controller = controller;
+    this.scheduler = scheduler;
+    this.controllableTasks = ImmutableSet.copyOf(controllableTasks);
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    this.executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+      thread.setName("connector-admin-server");
+      thread.setDaemon(true);
+      return thread;
+    });
+    server.setExecutor(executor);
+    server.createContext("/health", exchange -> handle(exchange, "GET", this::health));
+    server.createContext("/metrics", exchange -> handle(exchange, "GET", this::metrics));
+    server.createContext(RUNNERS_PATH, this::runners);
+  }
+
+  public void start() {
+    server.start();
+    log.info("Admin server listening on http://{}:{}", server.getAddress().getHostString(), getPort());
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void health(HttpExchange exchange) throws IOException {
+    final boolean healthy = controller.isHealthy();
+    sendJson(exchange, healthy ? 200 : 503, ImmutableMap.of("healthy", healthy));
+  }
+
+  private void metrics(HttpExchange exchange) throws IOException {
+    final String body = PrometheusFormatter.format(controller.isHealthy(), controller.getMetrics(),
+        controller.getRunnerMetrics(), controller.getTaskStats(), controller.getStoreCacheStats(),
+        controller.getLocalDatabaseStats());
+    send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", body);
+  }
+
+  private void runners(HttpExchange exchange) throws IOException {
+    final String path = exchange.getRequestURI().getPath();
+    if (path.equals(RUNNERS_PATH) || path.equals(RUNNERS_PATH + "/")) {
+      handle(exchange, "GET", runnerExchange -> sendJson(runnerExchange, 200, ImmutableMap.of(
+          "tasks", controller.getTaskStats(),
+          "runners", controller.getRunnerMetrics())));
+      return;
+    }
+    // /runners/{task}/{action}
+    final String[] segments = path.substring(RUNNERS_PATH.length() + 1).split("/");
+    if (segments.length != 2) {
+      sendError(exchange, 404, "Not found");
+      return;
+    }
+    handle(exchange, "POST", actionExchange -> runnerAction(actionExchange, segments[0], segments[1]));
+  }
+
+  private void runnerAction(HttpExchange exchange, String taskName, String action) throws IOException {
+    final Optional<ScheduledTask> task = scheduler.getTask(taskName)
+        .filter(scheduledTask -> controllableTasks.contains(taskName));
+    if (!task.isPresent()) {
+      sendError(exchange, 404, "Unknown task " + taskName);
+      return;
+    }
+    switch (action) {
+      case "run":
+        if (!scheduler.runNow(taskName)) {
+          sendError(exchange, 409, "Task " + taskName + " is paused or stopped");
+          return;
+        }
+        log.info("Run of {} requested through the admin server", taskName);
+        break;
+      case "pause":
+        task.get().pause();
+        log.info("{} paused through the admin server", taskName);
+        break;
+      case "resume":
+        task.get().resume();
+        log.info("{} resumed through the admin server", taskName);
+        break;
+      default:
+        sendError(exchange, 404, "Unknown action " + action);
+        return;
+    }
+    sendJson(exchange, 202, task.get().getStats());
+  }
+
+  private void handle(HttpExchange exchange, String method, ExchangeHandler handler) throws IOException {
+    try {
+      if (!method.equals(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Allow", method);
+        sendError(exchange, 405, "Method not allowed");
+        return;
+      }
+      handler.handle(exchange);
+    } catch (RuntimeException e) {
+      log.error("Admin request {} {} failed", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+      sendError(exchange, 500, "Internal error");
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+    send(exchange, status, "application/json", objectMapper.writeValueAsString(body));
+  }
+
+  private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+    sendJson(exchange, status, ImmutableMap.of("error", message));
+  }
+
+  private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+    final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream responseBody = exchange.getResponseBody()) {
+      responseBody.write(bytes);
+    }
+  }
+
+  @FunctionalInterface
+  private interface ExchangeHandler {
+    void handle(HttpExchange exchange) throws IOException;
+  }
+}
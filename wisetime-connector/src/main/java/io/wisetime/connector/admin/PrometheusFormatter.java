@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.admin;
+
+import io.wisetime.connector.datastore.SqLiteStats;
+import io.wisetime.connector.datastore.StoreCacheStats;
+import io.wisetime.connector.metric.MetricInfo;
+import io.wisetime.connector.metric.RunMetricsInfo;
+import io.wisetime.connector.scheduler.TaskStats;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Renders the connector metrics in the Prometheus text exposition format.
+ */
+class PrometheusFormatter {
+
+  private static final String PREFIX = "wisetime_connector_";
+
+  private final StringBuilder out = new StringBuilder();
+
+  static String format(boolean healthy, MetricInfo metrics, List<RunMetricsInfo> runners, List<TaskStats> tasks,
+      Optional<StoreCacheStats> storeCache, SqLiteStats localDatabase) {
+    final PrometheusFormatter formatter = new PrometheusFormatter();
+    formatter.header("healthy", "gauge", "Whether the connector passes its health check");
+    formatter.sample("healthy", "", healthy ? 1 : 0);
+
+    formatter.header("processed_tags_total", "counter", "Tags uploaded to WiseTime");
+    formatter.sample("processed_tags_total", "", metrics.getProcessedTags());
+    formatter.header("processed_time_groups_total", "counter", "Posted time groups processed");
+    formatter.sample("processed_time_groups_total", "", metrics.getProcessedTimeGroups());
+
+    formatter.formatRunners(runners);
+    formatter.formatTasks(tasks);
+    storeCache.ifPresent(formatter::formatStoreCache);
+    formatter.formatLocalDatabase(localDatabase);
+    return formatter.out.toString();
+  }
+
+  private void formatRunners(List<RunMetricsInfo> runners) {
+    header("runner_runs_total", "counter", "Runner runs by result");
+    for (RunMetricsInfo runner : runners) {
+      final String name = runner.getRunnerName();
+      sample("runner_runs_total", labels("runner", name, "result", "success"), runner.getSuccessCount());
+      sample("runner_runs_total", labels("runner", name, "result", "failure"), runner.getFailureCount());
+      sample("runner_runs_total", labels("runner", name, "result", "skipped_overlap"),
+          runner.getSkippedOverlapCount());
+    }
+
+    header("runner_duration_ms", "histogram", "Duration of completed runner runs in milliseconds");
+    for (RunMetricsInfo runner : runners) {
+      final String name = runner.getRunnerName();
+      long cumulative = 0;
+      for (Map.Entry<Long, Long> bucket : runner.getDurationHistogram().entrySet()) {
+        cumulative += bucket.getValue();
+        final String upperBound = bucket.getKey() == Long.MAX_VALUE ? "+Inf" : String.valueOf(bucket.getKey());
+        sample("runner_duration_ms_bucket", labels("runner", name, "le", upperBound), cumulative);
+      }
+      sample("runner_duration_ms_sum", labels("runner", name), runner.getTotalDurationMs());
+      sample("runner_duration_ms_count", labels("runner", name), cumulative);
+    }
+
+    header("runner_seconds_since_success", "gauge", "Time since the last successful run, absent before the first one");
+    for (RunMetricsInfo runner : runners) {
+      if (runner.getTimeSinceLastSuccess() != null) {
+        sample("runner_seconds_since_success", labels("runner", runner.getRunnerName()),
+            runner.getTimeSinceLastSuccess().getSeconds());
+      }
+    }
+  }
+
+  private void formatTasks(List<TaskStats> tasks) {
+    header("task_runs_total", "counter", "Scheduled task runs");
+    tasks.forEach(task -> sample("task_runs_total", labels("task", task.getTaskName()), task.getRuns()));
+    header("task_failures_total", "counter", "Scheduled task runs that ended with an exception");
+    tasks.forEach(task -> sample("task_failures_total", labels("task", task.getTaskName()), task.getFailures()));
+    header("task_timeouts_total", "counter", "Scheduled task runs interrupted for exceeding their timeout");
+    tasks.forEach(task -> sample("task_timeouts_total", labels("task", task.getTaskName()), task.getTimeouts()));
+    header("task_last_duration_ms", "gauge", "Duration of the last run of the scheduled task in milliseconds");
+    tasks.forEach(task -> sample("task_last_duration_ms", labels("task", task.getTaskName()),
+        task.getLastDurationMs()));
+    header("task_paused", "gauge", "Whether the scheduled task is paused");
+    tasks.forEach(task -> sample("task_paused", labels("task", task.getTaskName()), task.isPaused() ? 1 : 0));
+  }
+
+  private void formatStoreCache(StoreCacheStats stats) {
+    header("store_cache_requests_total", "counter", "Connector store reads by whether they were answered from memory");
+    sample("store_cache_requests_total", labels("result", "hit"), stats.getHits());
+    sample("store_cache_requests_total", labels("result", "miss"), stats.getMisses());
+    header("store_cache_evictions_total", "counter", "Keys evicted from the connector store cache");
+    sample("store_cache_evictions_total", "", stats.getEvictions());
+    header("store_cache_entries", "gauge", "Keys held in the connector store cache");
+    sample("store_cache_entries", "", stats.getEntries());
+    header("store_cache_pending_writes", "gauge", "Connector store writes not yet committed to the local database");
+    sample("store_cache_pending_writes", "", stats.getPendingWrites());
+    header("store_cache_flushes_total", "counter", "Commits of pending connector store writes by result");
+    sample("store_cache_flushes_total", labels("result", "success"), stats.getFlushes());
+    sample("store_cache_flushes_total", labels("result", "failure"), stats.getFailedFlushes());
+  }
+
+  private void formatLocalDatabase(SqLiteStats stats) {
+    header("sqlite_profile", "gauge", "Performance profile of the local database");
+    sample("sqlite_profile", labels("profile", stats.getProfile().name()), 1);
+    header("sqlite_queries_total", "counter", "Local database connection uses");
+    sample("sqlite_queries_total", "", stats.getQueries());
+    header("sqlite_group_commits_total", "counter", "Transactions committed by the local database writer thread");
+    sample("sqlite_group_commits_total", "", stats.getGroupCommits());
+    header("sqlite_wal_size_bytes", "gauge", "Size of the local database write-ahead log file");
+    sample("sqlite_wal_size_bytes", "", stats.getWalSizeBytes());
+    header("sqlite_wal_frames", "gauge", "Frames in the write-ahead log at the last checkpoint by whether it copied them");
+    sample("sqlite_wal_frames", labels("state", "checkpointed"), stats.getCheckpointedWalFrames());
+    sample("sqlite_wal_frames", labels("state", "pending"),
+        stats.getWalFrames() - stats.getCheckpointedWalFrames());
+    header("sqlite_checkpoints_total", "counter", "Background write-ahead log checkpoints by whether they were busy");
+    sample("sqlite_checkpoints_total", labels("result", "complete"), stats.getCheckpoints() - stats.getBusyCheckpoints());
+    sample("sqlite_checkpoints_total", labels("result", "busy"), stats.getBusyCheckpoints());
+  }
+
+  private void header(String name, String type, String help) {
+    out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+  }
+
+  private void sample(String name, String labels, long value) {
+    out.append(PREFIX).append(name).append(labels).append(' ').append(value).append('\n');
+  }
+
+  /**
+   * @param namesAndValues alternating label names and values
+   */
+  private static String labels(String... namesAndValues) {
+    final StringBuilder labels = new StringBuilder("{");
+    for (int i = 0; i < namesAndValues.length; i += 2) {
+      if (i > 0) {
+        labels.append(',');
+      }
+      labels.append(namesAndValues[i]).append("=\"").append(escape(namesAndValues[i + 1])).append('"');
+    }
+    return labels.append('}').toString();
+  }
+
+  private static String escape(String labelValue) {
+    return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
@@ -93,7 +93,126 @@ public enum ConnectorConfigKey implements RuntimeConfigKey {
   /**
    * Time interval to run activity types synchronization in slow loop in minutes.
    */
-  ACTIVITY_TYPE_SYNC_SLOW_LOOP_INTERVAL_MIN("ACTIVITY_TYPE_SYNC_SLOW_LOOP_INTERVAL_MIN");
+  ACTIVITY_TYPE_SYNC_SLOW_LOOP_INTERVAL_MIN("ACTIVITY_TYPE_SYNC_SLOW_LOOP_INTERVAL_MIN"),
+
+  /**
+   * Time interval to run the registered keyword extractor in minutes.
+   */
+  KEYWORD_SYNC_INTERVAL_MIN("KEYWORD_SYNC_INTERVAL_MIN"),
+
+  /**
+   * Minimum time between full keyword sweeps in minutes. Runs in between are incremental sweeps.
+   */
+  KEYWORD_FULL_SYNC_INTERVAL_MIN("KEYWORD_FULL_SYNC_INTERVAL_MIN"),
+
+  /**
+   * Number of threads running the scheduled connector tasks, i.e. the maximum number of tasks running at once. The
+   * health check, failover lease heartbeat and time group status updates run on threads of their own and are not
+   * counted.
+   */
+  SCHEDULER_WORKER_THREADS("SCHEDULER_WORKER_THREADS"),
+
+  /**
+   * Maximum random deviation from the scheduled interval of connector tasks, in percent of the interval.
+   */
+  SCHEDULER_JITTER_PERCENT("SCHEDULER_JITTER_PERCENT"),
+
+  /**
+   * Whether the tag and activity type sync intervals adapt to the amount of changes found: between a quarter and four
+   * times the configured interval.
+   */
+  ADAPTIVE_SYNC_INTERVALS("ADAPTIVE_SYNC_INTERVALS"),
+
+  /**
+   * Total weight of concurrent uploads to WiseTime. Posting time takes priority over background syncs within this
+   * budget.
+   */
+  UPLOAD_CONCURRENCY_BUDGET("UPLOAD_CONCURRENCY_BUDGET"),
+
+  /**
+   * How long, in seconds, the connector waits on stop for time groups being posted and their status updates to
+   * complete.
+   */
+  DRAIN_TIMEOUT_SECONDS("DRAIN_TIMEOUT_SECONDS"),
+
+  /**
+   * Port of the local admin HTTP server, which exposes health, metrics and runner controls on the loopback interface
+   * only. The admin server is disabled if not set. Must not be set for a connector host, where each tenant would bind
+   * the same port.
+   */
+  ADMIN_SERVER_PORT("ADMIN_SERVER_PORT"),
+
+  /**
+   * Run as one of an active/passive pair of instances: only the instance holding the lease row in the local SQLite
+   * database fetches posted time and runs the syncs. Requires persistent storage shared by the instances.
+   */
+  LEASE_ENABLED("LEASE_ENABLED"),
+
+  /**
+   * How long, in seconds, the lease is held without being renewed. A standby instance takes over at most this long
+   * after the active instance stops renewing it.
+   */
+  LEASE_TTL_SECONDS("LEASE_TTL_SECONDS"),
+
+  /**
+   * How the local database connections are managed: POOLED (default) keeps a writer connection, a few read
+   * connections and their prepared statements open, PER_QUERY opens a new connection for every query.
+   */
+  SQLITE_CONNECTION_MODE("SQLITE_CONNECTION_MODE"),
+
+  /**
+   * Performance profile of the local database: THROUGHPUT (default), BALANCED or DURABLE. See
+   * {@link io.wisetime.connector.datastore.SqLiteProfile} for what each profile trades off.
+   */
+  SQLITE_PROFILE("SQLITE_PROFILE"),
+
+  /**
+   * How often, in minutes, a snapshot of the local database is written. Snapshots are disabled by default.
+   */
+  SQLITE_BACKUP_INTERVAL_MINUTES("SQLITE_BACKUP_INTERVAL_MINUTES"),
+
+  /**
+   * Number of local database snapshots kept, 3 by default.
+   */
+  SQLITE_BACKUP_RETAIN_COUNT("SQLITE_BACKUP_RETAIN_COUNT"),
+
+  /**
+   * Directory local database snapshots are written to. Defaults to a "backups" directory next to the database. When set,
+   * the snapshots are written to a subdirectory named after the directory of the database, so that connectors sharing
+   * the setting, such as the tenants of a connector host, keep their snapshots apart.
+   */
+  SQLITE_BACKUP_DIR("SQLITE_BACKUP_DIR"),
+
+  /**
+   * Whether a missing or corrupt local database is restored from the latest snapshot on startup. Disabled by default.
+   */
+  SQLITE_RESTORE_FROM_BACKUP("SQLITE_RESTORE_FROM_BACKUP"),
+
+  /**
+   * Where the connector store keeps its keys: SQLITE (default), in the local database, or LOG_STRUCTURED, in
+   * memory-mapped segment files next to it. The store is not cached in memory with LOG_STRUCTURED, and its segment
+   * files are not part of the local database snapshots, see SQLITE_BACKUP_DIR. LOG_STRUCTURED is ignored when
+   * LEASE_ENABLED is set.
+   */
+  STORE_BACKEND("STORE_BACKEND"),
+
+  /**
+   * Whether the connector store is cached in memory: DISABLED (default), WRITE_THROUGH, where writes are committed
+   * before they return, or WRITE_BEHIND, where writes are committed in the background and the latest ones are lost if
+   * the process dies. The store is not cached when LEASE_ENABLED is set, since the standby instance would keep
+   * values the active instance has since changed.
+   */
+  STORE_CACHE_MODE("STORE_CACHE_MODE"),
+
+  /**
+   * Number of connector store keys kept in memory when the store is cached.
+   */
+  STORE_CACHE_MAX_ENTRIES("STORE_CACHE_MAX_ENTRIES"),
+
+  /**
+   * How often, in seconds, writes to the cached connector store are committed in WRITE_BEHIND mode.
+   */
+  STORE_CACHE_FLUSH_INTERVAL_SECONDS("STORE_CACHE_FLUSH_INTERVAL_SECONDS");
 
   private final String configKey;
 
@@ -10,6 +10,7 @@ import io.wisetime.connector.api_client.ApiClient;
 import io.wisetime.connector.config.info.ConnectorInfoProvider;
 import io.wisetime.connector.health.HealthIndicator;
 import io.wisetime.connector.log.LogbackConfigurator;
+import io.wisetime.connector.metric.RunMetrics;
 import io.wisetime.connector.utils.RuntimeEnvironmentUtil;
 import io.wisetime.generated.connect.ManagedConfigRequest;
 import io.wisetime.generated.connect.ManagedConfigResponse;
@@ -20,6 +21,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -43,6 +45,8 @@ public class ManagedConfigRunner extends TimerTask implements HealthIndicator {
   private final WiseTimeConnector wiseTimeConnector;
   private final ApiClient apiClient;
   private final ConnectorInfoProvider connectorInfoProvider;
+  @Getter
+  private final RunMetrics runMetrics = new RunMetrics(ManagedConfigRunner.class.getSimpleName());
 
   @Getter(AccessLevel.PACKAGE)
   @Setter(AccessLevel.PACKAGE)
@@ -68,10 +72,13 @@ public class ManagedConfigRunner extends TimerTask implements HealthIndicator {
 
   @Override
   public void run() {
+    // the fetch started at startup may still be running when the first scheduled run starts
     if (!runLock.compareAndSet(false, true)) {
       log.info("Skip manage config timer instantiation, previous manage config process is yet to complete");
+      runMetrics.recordSkippedOverlap();
       return;
     }
+    final long startNanos = System.nanoTime();
     try {
       if (RuntimeConfig.getBoolean(() -> "MANAGED_LOGGING").orElse(true)) {
         final ZoneId zoneId = ZoneId.of(connectorInfoProvider.get().getClientTimeZoneOffset());
@@ -84,8 +91,10 @@ public class ManagedConfigRunner extends TimerTask implements HealthIndicator {
 
       // note config success date/time
       lastSuccessfulRun = ZonedDateTime.now();
+      runMetrics.recordSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
 
     } catch (Exception e) {
+      runMetrics.recordFailure(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
       LoggerFactory.getLogger(ManagedConfigRunner.class).error("Failed to load managed config", e);
     } finally {
       // ensure lock is released
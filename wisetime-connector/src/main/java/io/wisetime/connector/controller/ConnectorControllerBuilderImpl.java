@@ -8,11 +8,17 @@ import com.google.common.base.Preconditions;
 import io.wisetime.connector.ConnectorController;
 import io.wisetime.connector.ConnectorController.Builder;
 import io.wisetime.connector.WiseTimeConnector;
+import io.wisetime.connector.adjunct_keywords.KeywordExtractor;
 import io.wisetime.connector.api_client.ApiClient;
 import io.wisetime.connector.api_client.DefaultApiClient;
 import io.wisetime.connector.config.ConnectorConfigKey;
 import io.wisetime.connector.config.RuntimeConfig;
 import io.wisetime.connector.config.RuntimeConfigKey;
+import io.wisetime.connector.datastore.SqLiteHelper;
+import io.wisetime.connector.datastore.StoreBackend;
+import io.wisetime.connector.datastore.StoreCacheMode;
+import io.wisetime.connector.lease.Lease;
+import io.wisetime.connector.lease.SqLiteLease;
 import java.util.Optional;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +38,22 @@ public class ConnectorControllerBuilderImpl implements ConnectorController.Build
   private int tagSyncSlowLoopIntervalMinutes = DEFAULT_TAG_SYNC_SLOW_LOOP_INTERVAL_MINUTES;
   private int activityTypeSyncIntervalMinutes = DEFAULT_ACTIVITY_TYPE_SYNC_INTERVAL_MINUTES;
   private int activityTypeSyncSlowLoopIntervalMinutes = DEFAULT_ACTIVITY_TYPE_SYNC_SLOW_LOOP_INTERVAL_MINUTES;
+  private int keywordSyncIntervalMinutes = DEFAULT_KEYWORD_SYNC_INTERVAL_MINUTES;
+  private int keywordFullSyncIntervalMinutes = DEFAULT_KEYWORD_FULL_SYNC_INTERVAL_MINUTES;
+  private boolean adaptiveSyncIntervals = false;
+  private int adminServerPort = ADMIN_SERVER_DISABLED;
+  private boolean leaseEnabled = false;
+  private Lease lease;
+  private int leaseTtlSeconds = DEFAULT_LEASE_TTL_SECONDS;
+  private StoreCacheMode storeCacheMode = StoreCacheMode.DISABLED;
+  private int storeCacheMaxEntries = DEFAULT_STORE_CACHE_MAX_ENTRIES;
+  private int storeCacheFlushIntervalSeconds = DEFAULT_STORE_CACHE_FLUSH_INTERVAL_SECONDS;
+  private StoreBackend storeBackend = StoreBackend.SQLITE;
+  private int localDatabaseBackupIntervalMinutes = LOCAL_DATABASE_BACKUP_DISABLED;
+  private int localDatabaseBackupRetainCount = DEFAULT_LOCAL_DATABASE_BACKUP_RETAIN_COUNT;
+
+  @Getter
+  private KeywordExtractor keywordExtractor;
 
   @Getter
   private WiseTimeConnector wiseTimeConnector;
@@ -112,6 +134,83 @@ public class ConnectorControllerBuilderImpl implements ConnectorController.Build
     return this;
   }
 
+  @Override
+  public ConnectorController.Builder withKeywordExtractor(KeywordExtractor keywordExtractor) {
+    this.keywordExtractor = keywordExtractor;
+    return this;
+  }
+
+  @Override
+  public ConnectorController.Builder withKeywordSyncIntervalMinutes(int minutes) {
+    this.keywordSyncIntervalMinutes = minutes;
+    return this;
+  }
+
+  @Override
+  public ConnectorController.Builder withKeywordFullSyncIntervalMinutes(int minutes) {
+    this.keywordFullSyncIntervalMinutes = minutes;
+    return this;
+  }
+
+  @Override
+  public ConnectorController.Builder withAdaptiveSyncIntervals(boolean enabled) {
+    this.adaptiveSyncIntervals = enabled;
+    return this;
+  }
+
+  @Override
+  public ConnectorController.Builder withAdminServerPort(int port) {
+    Preconditions.checkArgument(port >= 0 && port <= 65535, "invalid admin server port %s", port);
+    this.adminServerPort = port;
+    return this;
+  }
+
+  @Override
+  public ConnectorController.Builder useLocalLease(int ttlSeconds) {
+    Preconditions.checkArgument(ttlSeconds > 0, "lease ttl must be positive");
+    this.leaseEnabled = true;
+    this.leaseTtlSeconds = ttlSeconds;
+    return this;
+  }
+
+  @Override
+  public ConnectorController.Builder withLease(Lease lease, int ttlSeconds) {
+    Preconditions.checkArgument(ttlSeconds > 0, "lease ttl must be positive");
+    this.lease = Preconditions.checkNotNull(lease);
+    this.leaseTtlSeconds = ttlSeconds;
+    return this;
+  }
+
+  @Override
+  public ConnectorController.Builder withStoreCache(StoreCacheMode mode) {
+    return withStoreCache(mode, DEFAULT_STORE_CACHE_MAX_ENTRIES, DEFAULT_STORE_CACHE_FLUSH_INTERVAL_SECONDS);
+  }
+
+  @Override
+  public ConnectorController.Builder withStoreCache(StoreCacheMode mode, int maxEntries, int flushIntervalSeconds) {
+    Preconditions.checkArgument(maxEntries > 0, "max cache entries must be positive");
+    Preconditions.checkArgument(flushIntervalSeconds > 0, "flush interval must be positive");
+    this.storeCacheMode = Preconditions.checkNotNull(mode);
+    this.storeCacheMaxEntries = maxEntries;
+    this.storeCacheFlushIntervalSeconds = flushIntervalSeconds;
+    return this;
+  }
+
+  @Override
+  public ConnectorController.Builder withStoreBackend(StoreBackend backend) {
+    this.storeBackend = Preconditions.checkNotNull(backend);
+    return this;
+  }
+
+  @Override
+  public ConnectorController.Builder withLocalDatabaseBackup(int intervalMinutes, int retainCount) {
+    Preconditions.checkArgument(intervalMinutes > 0, "backup interval must be positive");
+    Preconditions.checkArgument(retainCount > 0, "retained snapshot count must be positive");
+    this.localDatabaseBackupIntervalMinutes = intervalMinutes;
+    this.localDatabaseBackupRetainCount = retainCount;
+    return this;
+  }
+
   @Override
   public Builder disablePostedTimeFetching() {
     postedTimeLoadMode = PostedTimeLoadMode.DISABLED;
@@ -140,6 +239,19 @@ public class ConnectorControllerBuilderImpl implements ConnectorController.Build
 
   @Override
   public ConnectorController build() {
+    prepareBuild();
+    return new ConnectorControllerImpl(this);
+  }
+
+  /**
+   * Builds a connector that runs within a {@link ConnectorHost}.
+   */
+  ConnectorControllerImpl buildHosted(HostContext hostContext) {
+    prepareBuild();
+    return new ConnectorControllerImpl(this, hostContext);
+  }
+
+  private void prepareBuild() {
     Preconditions.checkNotNull(wiseTimeConnector,
         "an implementation of '%s' interface must be supplied",
         WiseTimeConnector.class.getSimpleName());
@@ -157,7 +269,6 @@ public class ConnectorControllerBuilderImpl implements ConnectorController.Build
 
       apiClient = new DefaultApiClient(apiKey);
     }
-    return new ConnectorControllerImpl(this);
   }
 
   @Override
@@ -211,6 +322,109 @@ public class ConnectorControllerBuilderImpl implements ConnectorController.Build
         .orElse(activityTypeSyncSlowLoopIntervalMinutes);
   }
 
+  @Override
+  public int getKeywordSyncIntervalMinutes() {
+    return RuntimeConfig.getInt(ConnectorConfigKey.KEYWORD_SYNC_INTERVAL_MIN)
+        .orElse(keywordSyncIntervalMinutes);
+  }
+
+  @Override
+  public int getKeywordFullSyncIntervalMinutes() {
+    return RuntimeConfig.getInt(ConnectorConfigKey.KEYWORD_FULL_SYNC_INTERVAL_MIN)
+        .orElse(keywordFullSyncIntervalMinutes);
+  }
+
+  @Override
+  public int getSchedulerWorkerThreads() {
+    return RuntimeConfig.getInt(ConnectorConfigKey.SCHEDULER_WORKER_THREADS)
+        .orElse(DEFAULT_SCHEDULER_WORKER_THREADS);
+  }
+
+  @Override
+  public int getSchedulerJitterPercent() {
+    return RuntimeConfig.getInt(ConnectorConfigKey.SCHEDULER_JITTER_PERCENT)
+        .orElse(DEFAULT_SCHEDULER_JITTER_PERCENT);
+  }
+
+  @Override
+  public boolean isAdaptiveSyncIntervals() {
+    return RuntimeConfig.getBoolean(ConnectorConfigKey.ADAPTIVE_SYNC_INTERVALS)
+        .orElse(adaptiveSyncIntervals);
+  }
+
+  @Override
+  public int getUploadConcurrencyBudget() {
+    return RuntimeConfig.getInt(ConnectorConfigKey.UPLOAD_CONCURRENCY_BUDGET)
+        .orElse(DEFAULT_UPLOAD_CONCURRENCY_BUDGET);
+  }
+
+  @Override
+  public int getDrainTimeoutSeconds() {
+    return RuntimeConfig.getInt(ConnectorConfigKey.DRAIN_TIMEOUT_SECONDS)
+        .orElse(DEFAULT_DRAIN_TIMEOUT_SECONDS);
+  }
+
+  @Override
+  public int getAdminServerPort() {
+    return RuntimeConfig.getInt(ConnectorConfigKey.ADMIN_SERVER_PORT)
+        .orElse(adminServerPort);
+  }
+
+  @Override
+  public Lease getLease(SqLiteHelper sqLiteHelper) {
+    if (lease != null) {
+      return lease;
+    }
+    if (RuntimeConfig.getBoolean(ConnectorConfigKey.LEASE_ENABLED).orElse(leaseEnabled)) {
+      return new SqLiteLease(sqLiteHelper);
+    }
+    return null;
+  }
+
+  @Override
+  public int getLeaseTtlSeconds() {
+    return RuntimeConfig.getInt(ConnectorConfigKey.LEASE_TTL_SECONDS)
+        .orElse(leaseTtlSeconds);
+  }
+
+  @Override
+  public StoreCacheMode getStoreCacheMode() {
+    return RuntimeConfig.getString(ConnectorConfigKey.STORE_CACHE_MODE)
+        .map(StoreCacheMode::valueOf)
+        .orElse(storeCacheMode);
+  }
+
+  @Override
+  public int getStoreCacheMaxEntries() {
+    return RuntimeConfig.getInt(ConnectorConfigKey.STORE_CACHE_MAX_ENTRIES)
+        .orElse(storeCacheMaxEntries);
+  }
+
+  @Override
+  public int getStoreCacheFlushIntervalSeconds() {
+    return RuntimeConfig.getInt(ConnectorConfigKey.STORE_CACHE_FLUSH_INTERVAL_SECONDS)
+        .orElse(storeCacheFlushIntervalSeconds);
+  }
+
+  @Override
+  public StoreBackend getStoreBackend() {
+    return RuntimeConfig.getString(ConnectorConfigKey.STORE_BACKEND)
+        .map(StoreBackend::valueOf)
+        .orElse(storeBackend);
+  }
+
+  @Override
+  public int getLocalDatabaseBackupIntervalMinutes() {
+    return RuntimeConfig.getInt(ConnectorConfigKey.SQLITE_BACKUP_INTERVAL_MINUTES)
+        .orElse(localDatabaseBackupIntervalMinutes);
+  }
+
+  @Override
+  public int getLocalDatabaseBackupRetainCount() {
+    return RuntimeConfig.getInt(ConnectorConfigKey.SQLITE_BACKUP_RETAIN_COUNT)
+        .orElse(localDatabaseBackupRetainCount);
+  }
+
 
   private void checkDeprecatedKey(RuntimeConfigKey configKey) {
     if (RuntimeConfig.getString(configKey).isPresent()) {
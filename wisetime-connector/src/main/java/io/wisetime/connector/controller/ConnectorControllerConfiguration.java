@@ -5,7 +5,12 @@
 package io.wisetime.connector.controller;
 
 import io.wisetime.connector.WiseTimeConnector;
+import io.wisetime.connector.adjunct_keywords.KeywordExtractor;
 import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.connector.datastore.SqLiteHelper;
+import io.wisetime.connector.datastore.StoreBackend;
+import io.wisetime.connector.datastore.StoreCacheMode;
+import io.wisetime.connector.lease.Lease;
 
 /**
  * Configuration class for {@link ConnectorControllerImpl}.
@@ -22,6 +27,36 @@ public interface ConnectorControllerConfiguration {
 
   int DEFAULT_ACTIVITY_TYPE_SYNC_SLOW_LOOP_INTERVAL_MINUTES = 15;
 
+  int DEFAULT_KEYWORD_SYNC_INTERVAL_MINUTES = 5;
+
+  int DEFAULT_KEYWORD_FULL_SYNC_INTERVAL_MINUTES = 24 * 60;
+
+  int DEFAULT_SCHEDULER_WORKER_THREADS = 4;
+
+  int DEFAULT_SCHEDULER_JITTER_PERCENT = 10;
+
+  int DEFAULT_UPLOAD_CONCURRENCY_BUDGET = 4;
+
+  int DEFAULT_DRAIN_TIMEOUT_SECONDS = 30;
+
+  /**
+   * Admin server port that leaves the admin server disabled.
+   */
+  int ADMIN_SERVER_DISABLED = -1;
+
+  int DEFAULT_LEASE_TTL_SECONDS = 15;
+
+  int DEFAULT_STORE_CACHE_MAX_ENTRIES = 10_000;
+
+  int DEFAULT_STORE_CACHE_FLUSH_INTERVAL_SECONDS = 5;
+
+  /**
+   * Local database backup interval that leaves backups disabled.
+   */
+  int LOCAL_DATABASE_BACKUP_DISABLED = 0;
+
+  int DEFAULT_LOCAL_DATABASE_BACKUP_RETAIN_COUNT = 3;
+
   WiseTimeConnector getWiseTimeConnector();
 
   ApiClient getApiClient();
@@ -43,4 +78,48 @@ public interface ConnectorControllerConfiguration {
   int getActivityTypeSyncIntervalMinutes();
 
   int getActivityTypeSyncSlowLoopIntervalMinutes();
+
+  /**
+   * @return the registered keyword extractor, or null if keyword sync is not used by the connector
+   */
+  KeywordExtractor getKeywordExtractor();
+
+  int getKeywordSyncIntervalMinutes();
+
+  int getKeywordFullSyncIntervalMinutes();
+
+  int getSchedulerWorkerThreads();
+
+  int getSchedulerJitterPercent();
+
+  boolean isAdaptiveSyncIntervals();
+
+  int getUploadConcurrencyBudget();
+
+  int getDrainTimeoutSeconds();
+
+  /**
+   * @return admin server port, or {@link #ADMIN_SERVER_DISABLED}
+   */
+  int getAdminServerPort();
+
+  /**
+   * @return the lease that an instance must hold to fetch posted time and run the syncs, or null if the connector runs
+   *     without failover
+   */
+  Lease getLease(SqLiteHelper sqLiteHelper);
+
+  int getLeaseTtlSeconds();
+
+  StoreCacheMode getStoreCacheMode();
+
+  int getStoreCacheMaxEntries();
+
+  int getStoreCacheFlushIntervalSeconds();
+
+  StoreBackend getStoreBackend();
+
+  int getLocalDatabaseBackupIntervalMinutes();
+
+  int getLocalDatabaseBackupRetainCount();
 }
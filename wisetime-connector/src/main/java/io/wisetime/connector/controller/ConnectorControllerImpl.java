@@ -6,6 +6,7 @@ package io.wisetime.connector.controller;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+import com.google.common.collect.ImmutableSet;
 import io.wisetime.connector.ConnectorController;
 import io.wisetime.connector.ConnectorModule;
 import io.wisetime.connector.ConnectorModule.IntervalConfig;
@@ -14,17 +15,40 @@ import io.wisetime.connector.activity_type.ActivityTypeRunner;
 import io.wisetime.connector.activity_type.ActivityTypeSlowLoopRunner;
 import io.wisetime.connector.activity_type.NoOpActivityTypeRunner;
 import io.wisetime.connector.activity_type.NoOpActivityTypeSlowLoopRunner;
+import io.wisetime.connector.adjunct_keywords.BatchingKeywordConsumer;
+import io.wisetime.connector.adjunct_keywords.KeywordConfig;
+import io.wisetime.connector.adjunct_keywords.KeywordRunner;
+import io.wisetime.connector.adjunct_keywords.NoOpKeywordRunner;
+import io.wisetime.connector.adjunct_keywords.SentKeywordIndex;
+import io.wisetime.connector.admin.AdminServer;
 import io.wisetime.connector.api_client.ApiClient;
 import io.wisetime.connector.config.ManagedConfigRunner;
 import io.wisetime.connector.config.info.ConnectorInfoProvider;
 import io.wisetime.connector.config.info.ConstantConnectorInfoProvider;
+import io.wisetime.connector.datastore.CachingConnectorStore;
+import io.wisetime.connector.datastore.ConnectorStore;
 import io.wisetime.connector.datastore.FileStore;
+import io.wisetime.connector.datastore.LogStructuredStore;
+import io.wisetime.connector.datastore.SqLiteBackup;
 import io.wisetime.connector.datastore.SqLiteHelper;
+import io.wisetime.connector.datastore.SqLiteStats;
+import io.wisetime.connector.datastore.StoreBackend;
+import io.wisetime.connector.datastore.StoreCacheMode;
+import io.wisetime.connector.datastore.StoreCacheStats;
 import io.wisetime.connector.health.HealthCheck;
 import io.wisetime.connector.health.HealthIndicator;
+import io.wisetime.connector.lease.Lease;
+import io.wisetime.connector.lease.LeaseKeeper;
 import io.wisetime.connector.metric.ApiClientMetricWrapper;
 import io.wisetime.connector.metric.MetricInfo;
 import io.wisetime.connector.metric.MetricService;
+import io.wisetime.connector.metric.RunMetrics;
+import io.wisetime.connector.metric.RunMetricsInfo;
+import io.wisetime.connector.scheduler.ApiClientGovernorWrapper;
+import io.wisetime.connector.scheduler.ConnectorScheduler;
+import io.wisetime.connector.scheduler.ResourceGovernor;
+import io.wisetime.connector.scheduler.TaskSchedule;
+import io.wisetime.connector.scheduler.TaskStats;
 import io.wisetime.connector.tag.ApiClientTagWrapper;
 import io.wisetime.connector.tag.NoOpTagRunner;
 import io.wisetime.connector.tag.NoOpTagSlowLoopRunner;
@@ -32,14 +56,24 @@ import io.wisetime.connector.tag.TagRunner;
 import io.wisetime.connector.tag.TagSlowLoopRunner;
 import io.wisetime.connector.time_poster.NoOpTimePoster;
 import io.wisetime.connector.time_poster.TimePoster;
+import io.wisetime.connector.time_poster.deduplication.TimeGroupIdStore;
 import io.wisetime.connector.time_poster.long_polling.FetchClientTimePoster;
-import java.util.Timer;
+import io.wisetime.connector.utils.ApiClientWorkWrapper;
+import io.wisetime.connector.utils.BaseRunner;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -55,6 +89,22 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class ConnectorControllerImpl implements ConnectorController, HealthIndicator {
 
+  private static final long MIN_ADAPTIVE_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
+  private static final int ADAPTIVE_INTERVAL_RANGE = 4;
+  private static final long MAX_LOW_PRIORITY_WAIT_MS = TimeUnit.SECONDS.toMillis(30);
+  private static final String TAG_SYNC_TASK = "tag-sync";
+  private static final String TAG_SLOW_LOOP_SYNC_TASK = "tag-slow-loop-sync";
+  private static final String ACTIVITY_TYPE_SYNC_TASK = "activity-type-sync";
+  private static final String ACTIVITY_TYPE_SLOW_LOOP_SYNC_TASK = "activity-type-slow-loop-sync";
+  private static final String KEYWORD_SYNC_TASK = "keyword-sync";
+  private static final String STORE_FLUSH_TASK = "store-flush";
+  private static final String STORE_EXPIRY_TASK = "store-expiry";
+  private static final String SQLITE_CHECKPOINT_TASK = "sqlite-checkpoint";
+  private static final String SQLITE_BACKUP_TASK = "sqlite-backup";
+  private static final String STORE_COMPACTION_TASK = "store-compaction";
+  // tasks that can be triggered and paused through the admin server
+  private static final Set<String> ADMIN_CONTROLLABLE_TASKS = ImmutableSet.of(TAG_SYNC_TASK, TAG_SLOW_LOOP_SYNC_TASK,
+      ACTIVITY_TYPE_SYNC_TASK, ACTIVITY_TYPE_SLOW_LOOP_SYNC_TASK, KEYWORD_SYNC_TASK);
 
   private final AtomicReference<ExecutorService> connectorExecutor = new AtomicReference<>();
   private final TimePoster timePoster;
@@ -65,46 +115,103 @@ public class ConnectorControllerImpl implements ConnectorController, HealthIndic
   private final TagSlowLoopRunner tagSlowLoopRunner;
   private final ActivityTypeRunner activityTypeRunner;
   private final ActivityTypeSlowLoopRunner activityTypeSlowLoopRunner;
+  private final KeywordRunner keywordRunner;
   private final HealthCheck healthRunner;
   private final ManagedConfigRunner managedConfigRunner;
 
   private final MetricService metricService;
 
-  private final Timer healthCheckTimer;
-  private final Timer tagTimer;
-  private final Timer tagSlowLoopTimer;
-  private final Timer activityTypeTimer;
-  private final Timer activityTypeSlowLoopTimer;
-  private final Timer managedConfigTimer;
+  private final ConnectorScheduler scheduler;
+  // null unless the connector runs in a ConnectorHost
+  private final HostContext hostContext;
+  private final ResourceGovernor resourceGovernor;
+  private final Duration drainTimeout;
+  private final int adminServerPort;
+  private volatile AdminServer adminServer;
+  // null unless the connector runs as one of an active/passive pair
+  private final LeaseKeeper leaseKeeper;
+  private final SqLiteHelper sqLiteHelper;
+  private final FileStore fileStore;
+  // null unless the connector store is kept in segment files
+  private final LogStructuredStore logStructuredStore;
+  // null unless the connector store is cached in memory
+  private final CachingConnectorStore cachingStore;
+  private final Duration storeFlushInterval;
+  // null unless local database snapshots are enabled
+  private final SqLiteBackup localDatabaseBackup;
+  private final Duration localDatabaseBackupInterval;
 
   @Getter
-  private final TimerTaskSchedule tagTaskSchedule;
+  private final TaskSchedule tagTaskSchedule;
   @Getter
-  private final TimerTaskSchedule tagSlowLoopTaskSchedule;
+  private final TaskSchedule tagSlowLoopTaskSchedule;
   @Getter
-  private final TimerTaskSchedule activityTypeTaskSchedule;
+  private final TaskSchedule activityTypeTaskSchedule;
   @Getter
-  private final TimerTaskSchedule activityTypeSlowLoopTaskSchedule;
+  private final TaskSchedule activityTypeSlowLoopTaskSchedule;
+  @Getter
+  private final TaskSchedule keywordTaskSchedule;
+
+  @Getter
+  private final TaskSchedule healthTaskSchedule;
 
   @Getter
-  private final TimerTaskSchedule healthTaskSchedule;
+  private final TaskSchedule managedConfigTaskSchedule;
 
   ConnectorControllerImpl(ConnectorControllerConfiguration configuration) {
+    this(configuration, null);
+  }
+
+  ConnectorControllerImpl(ConnectorControllerConfiguration configuration, HostContext hostContext) {
+    this.hostContext = hostContext;
+    final StartupPhases startupPhases = new StartupPhases("construction");
+    // the local database is set up in the background while the runners and api client are assembled
+    final CompletableFuture<SqLiteHelper> localStore = startupPhases.runAsync("local-store",
+        () -> hostContext == null
+            ? new SqLiteHelper(configuration.isForcePersistentStorage())
+            : new SqLiteHelper(new File(hostContext.getDataDir(), "wisetime.sqlite")));
+    // hosted connectors must not share the static file store singleton
+    final CompletableFuture<FileStore> fileStoreSetup = localStore.thenApply(sqLiteHelper ->
+        startupPhases.run("file-store", () -> hostContext == null
+            ? FileStore.getInstance(sqLiteHelper)
+            : new FileStore(sqLiteHelper)));
+    // tables are created one after the other, SQLite allows a single writer
+    final boolean postingEnabled =
+        configuration.getPostedTimeLoadMode() == ConnectorControllerBuilderImpl.PostedTimeLoadMode.LONG_POLL;
+    final CompletableFuture<TimeGroupIdStore> timeGroupIdStoreSetup = fileStoreSetup.thenCombine(localStore,
+        (fileStore, sqLiteHelper) -> postingEnabled
+            ? startupPhases.run("time-group-store", () -> new TimeGroupIdStore(sqLiteHelper))
+            : null);
+
     metricService = new MetricService();
+    if (hostContext == null) {
+      scheduler = new ConnectorScheduler("connector-scheduler",
+          configuration.getSchedulerWorkerThreads(),
+          configuration.getSchedulerJitterPercent() / 100.0);
+      resourceGovernor = new ResourceGovernor(configuration.getUploadConcurrencyBudget(), MAX_LOW_PRIORITY_WAIT_MS);
+    } else {
+      scheduler = hostContext.getScheduler();
+      resourceGovernor = hostContext.getResourceGovernor();
+    }
     wiseTimeConnector = configuration.getWiseTimeConnector();
+    drainTimeout = Duration.ofSeconds(configuration.getDrainTimeoutSeconds());
+    adminServerPort = configuration.getAdminServerPort();
 
-    tagTaskSchedule = new TimerTaskSchedule(
+    tagTaskSchedule = new TaskSchedule(
         TimeUnit.SECONDS.toMillis(15),
         TimeUnit.MINUTES.toMillis(configuration.getTagSyncIntervalMinutes()));
-    tagSlowLoopTaskSchedule = new TimerTaskSchedule(
+    tagSlowLoopTaskSchedule = new TaskSchedule(
         TimeUnit.SECONDS.toMillis(15),
         TimeUnit.MINUTES.toMillis(configuration.getTagSyncSlowLoopIntervalMinutes()));
-    activityTypeTaskSchedule = new TimerTaskSchedule(
+    activityTypeTaskSchedule = new TaskSchedule(
         TimeUnit.SECONDS.toMillis(15),
         TimeUnit.MINUTES.toMillis(configuration.getActivityTypeSyncIntervalMinutes()));
-    activityTypeSlowLoopTaskSchedule = new TimerTaskSchedule(
+    activityTypeSlowLoopTaskSchedule = new TaskSchedule(
         TimeUnit.MINUTES.toMillis(1),
         TimeUnit.MINUTES.toMillis(configuration.getActivityTypeSyncSlowLoopIntervalMinutes()));
+    keywordTaskSchedule = new TaskSchedule(
+        TimeUnit.SECONDS.toMillis(30),
+        TimeUnit.MINUTES.toMillis(configuration.getKeywordSyncIntervalMinutes()));
 
     tagRunner = createTagRunner(configuration, wiseTimeConnector);
     tagSlowLoopRunner = createTagSlowLoopRunner(configuration, wiseTimeConnector);
@@ -112,21 +219,90 @@ public class ConnectorControllerImpl implements ConnectorController, HealthIndic
     activityTypeRunner = createActivityTypeRunner(configuration, wiseTimeConnector);
     activityTypeSlowLoopRunner = createActivityTypeSlowLoopRunner(configuration, wiseTimeConnector);
 
+    // a run should give way once the next run would be due
+    tagRunner.setRunBudget(Duration.ofMillis(tagTaskSchedule.getPeriodMs()));
+    tagSlowLoopRunner.setRunBudget(Duration.ofMillis(tagSlowLoopTaskSchedule.getPeriodMs()));
+    activityTypeRunner.setRunBudget(Duration.ofMillis(activityTypeTaskSchedule.getPeriodMs()));
+    activityTypeSlowLoopRunner.setRunBudget(Duration.ofMillis(activityTypeSlowLoopTaskSchedule.getPeriodMs()));
+
+    if (configuration.isAdaptiveSyncIntervals()) {
+      enableAdaptiveInterval(tagRunner, tagTaskSchedule);
+      enableAdaptiveInterval(activityTypeRunner, activityTypeTaskSchedule);
+    }
+
     ApiClient apiClient = new ApiClientMetricWrapper(configuration.getApiClient(), metricService);
     apiClient = new ApiClientTagWrapper(apiClient, tagRunner);
+    apiClient = new ApiClientWorkWrapper(apiClient);
+    apiClient = new ApiClientGovernorWrapper(apiClient, resourceGovernor);
 
-    healthTaskSchedule = new TimerTaskSchedule(
+    healthTaskSchedule = new TaskSchedule(
         TimeUnit.SECONDS.toMillis(5),
-        TimeUnit.MINUTES.toMillis(1)
+        TimeUnit.MINUTES.toMillis(1),
+        TimeUnit.MINUTES.toMillis(2)
     );
+    managedConfigTaskSchedule = new TaskSchedule(
+        TimeUnit.SECONDS.toMillis(15),
+        TimeUnit.MINUTES.toMillis(5),
+        TimeUnit.MINUTES.toMillis(5));
     healthRunner = new HealthCheck(apiClient, wiseTimeConnector);
 
-    final SqLiteHelper sqLiteHelper = new SqLiteHelper(configuration.isForcePersistentStorage());
-    final FileStore fileStore = FileStore.getInstance(sqLiteHelper);
+    sqLiteHelper = StartupPhases.await(localStore);
+    fileStore = StartupPhases.await(fileStoreSetup);
+
+    final Lease lease = configuration.getLease(sqLiteHelper);
+    leaseKeeper = lease == null ? null : new LeaseKeeper(lease, Duration.ofSeconds(configuration.getLeaseTtlSeconds()));
+    // a standby instance keeps its runners scheduled and healthy, but they do nothing until it holds the lease
+    final BooleanSupplier activeGate = leaseKeeper == null ? () -> true : leaseKeeper;
+    Stream.of(tagRunner, tagSlowLoopRunner, activityTypeRunner, activityTypeSlowLoopRunner)
+        .forEach(runner -> runner.setRunGate(activeGate));
+
+    if (configuration.getStoreBackend() == StoreBackend.LOG_STRUCTURED && leaseKeeper != null) {
+      // the segments are locked by the active instance, and their index is only read when the store is opened
+      log.warn("The connector store is kept in the local database, the {} backend can not be shared by the instances "
+          + "of a lease", StoreBackend.LOG_STRUCTURED);
+      logStructuredStore = null;
+    } else if (configuration.getStoreBackend() == StoreBackend.LOG_STRUCTURED) {
+      logStructuredStore = startupPhases.run("log-structured-store", () -> new LogStructuredStore(
+          new File(sqLiteHelper.getDatabaseFile().getAbsoluteFile().getParentFile(), "connector-store"),
+          LogStructuredStore.DEFAULT_SEGMENT_SIZE_BYTES, fileStore));
+    } else {
+      logStructuredStore = null;
+    }
+    if (configuration.getStoreCacheMode() == StoreCacheMode.DISABLED) {
+      cachingStore = null;
+    } else if (logStructuredStore != null) {
+      log.warn("The connector store is not cached in memory, its {} backend already reads from memory",
+          StoreBackend.LOG_STRUCTURED);
+      cachingStore = null;
+    } else if (leaseKeeper != null) {
+      // the standby's cache would hold the cursors from before the active instance moved them
+      log.warn("The connector store is not cached in memory, the cache assumes it is the only writer and the lease "
+          + "lets another instance write to the store");
+      cachingStore = null;
+    } else {
+      cachingStore = new CachingConnectorStore(fileStore, configuration.getStoreCacheMode(),
+          configuration.getStoreCacheMaxEntries());
+    }
+    storeFlushInterval = Duration.ofSeconds(configuration.getStoreCacheFlushIntervalSeconds());
+    localDatabaseBackupInterval = Duration.ofMinutes(configuration.getLocalDatabaseBackupIntervalMinutes());
+    localDatabaseBackup = localDatabaseBackupInterval.isZero() || localDatabaseBackupInterval.isNegative()
+        ? null
+        : new SqLiteBackup(sqLiteHelper, sqLiteHelper.getBackupDir(), configuration.getLocalDatabaseBackupRetainCount());
+    if (localDatabaseBackup != null && logStructuredStore != null) {
+      log.warn("Local database snapshots do not include the connector store, its {} backend keeps it in segment files",
+          StoreBackend.LOG_STRUCTURED);
+    }
+    // everything writing to the store goes through the cache, which assumes it is the only writer
+    final ConnectorStore connectorStore;
+    if (logStructuredStore != null) {
+      connectorStore = logStructuredStore;
+    } else {
+      connectorStore = cachingStore == null ? fileStore : cachingStore;
+    }
 
     connectorModule = new ConnectorModule(
         apiClient,
-        fileStore,
+        connectorStore,
         IntervalConfig.builder()
             .setTagIntervalMinutes(
                 (int) MILLISECONDS.toMinutes(tagTaskSchedule.getPeriodMs()))
@@ -139,8 +315,11 @@ public class ConnectorControllerImpl implements ConnectorController, HealthIndic
             .build()
     );
 
+    keywordRunner = createKeywordRunner(configuration, apiClient, sqLiteHelper, connectorStore);
+    keywordRunner.setRunGate(activeGate);
+
     final ConnectorInfoProvider connectorInfoProvider = new ConstantConnectorInfoProvider();
-    timePoster = createTimePoster(configuration, apiClient, sqLiteHelper);
+    timePoster = createTimePoster(configuration, apiClient, timeGroupIdStoreSetup, scheduler, activeGate);
 
     managedConfigRunner = new ManagedConfigRunner(wiseTimeConnector, apiClient, connectorInfoProvider);
 
@@ -148,15 +327,10 @@ public class ConnectorControllerImpl implements ConnectorController, HealthIndic
         tagSlowLoopRunner,
         activityTypeRunner,
         activityTypeSlowLoopRunner,
+        keywordRunner,
         timePoster,
         managedConfigRunner);
-
-    healthCheckTimer = new Timer("health-check-timer", true);
-    tagTimer = new Timer("tag-check-timer", true);
-    tagSlowLoopTimer = new Timer("tag-slow-loop-timer", true);
-    activityTypeTimer = new Timer("activity-type-timer", true);
-    activityTypeSlowLoopTimer = new Timer("activity-type-slow-loop-timer", true);
-    managedConfigTimer = new Timer("manage-config-timer", true);
+    startupPhases.complete();
   }
 
   /**
@@ -175,37 +349,66 @@ public class ConnectorControllerImpl implements ConnectorController, HealthIndic
       return;
     }
 
-    // Init may take a while to complete if connector runs self checks
-    wiseTimeConnector.init(connectorModule);
-
-    try {
-      timePoster.start();
-    } catch (Exception e) {
-      throw new RuntimeException(e);
+    final StartupPhases startupPhases = new StartupPhases("start");
+    if (leaseKeeper != null) {
+      // find out whether this instance is active before anything is scheduled
+      startupPhases.run("lease", leaseKeeper);
     }
+    // the first managed config fetch brings up remote logging, it does not need to wait for the connector init
+    startupPhases.runAsync("managed-config", managedConfigRunner);
 
-    healthRunner.setShutdownFunction(this::stop);
-
-    healthCheckTimer.scheduleAtFixedRate(healthRunner,
-        healthTaskSchedule.getInitialDelayMs(), healthTaskSchedule.getPeriodMs());
-
-    tagTimer.scheduleAtFixedRate(tagRunner,
-        tagTaskSchedule.getInitialDelayMs(), tagTaskSchedule.getPeriodMs());
-
-    tagSlowLoopTimer.scheduleAtFixedRate(tagSlowLoopRunner,
-        tagSlowLoopTaskSchedule.getInitialDelayMs(), tagSlowLoopTaskSchedule.getPeriodMs());
+    // Init may take a while to complete if connector runs self checks
+    startupPhases.run("connector-init", () -> wiseTimeConnector.init(connectorModule));
 
-    activityTypeTimer.scheduleAtFixedRate(activityTypeRunner,
-        activityTypeTaskSchedule.getInitialDelayMs(), activityTypeTaskSchedule.getPeriodMs());
+    startupPhases.run("time-poster", () -> {
+      try {
+        timePoster.start();
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
 
-    activityTypeSlowLoopTimer.scheduleAtFixedRate(activityTypeSlowLoopRunner,
-        activityTypeSlowLoopTaskSchedule.getInitialDelayMs(), activityTypeSlowLoopTaskSchedule.getPeriodMs());
+    healthRunner.setShutdownFunction(this::stop);
 
-    TimerTaskSchedule managedConfigTaskSchedule = new TimerTaskSchedule(
-        TimeUnit.SECONDS.toMillis(15),
-        TimeUnit.MINUTES.toMillis(5));
-    managedConfigTimer.scheduleAtFixedRate(managedConfigRunner,
-        managedConfigTaskSchedule.getInitialDelayMs(), managedConfigTaskSchedule.getPeriodMs());
+    startupPhases.run("scheduling", () -> {
+      // kept off the worker pool, so that slow syncs occupying every worker can't hold up detecting the stall
+      scheduler.scheduleDedicated("health-check", healthRunner, healthTaskSchedule);
+      if (leaseKeeper != null) {
+        final long heartbeatMs = leaseKeeper.getHeartbeatInterval().toMillis();
+        scheduler.scheduleDedicated("lease-heartbeat", leaseKeeper,
+            new TaskSchedule(heartbeatMs, heartbeatMs, heartbeatMs));
+      }
+      scheduler.schedule(TAG_SYNC_TASK, tagRunner, tagTaskSchedule);
+      scheduler.schedule(TAG_SLOW_LOOP_SYNC_TASK, tagSlowLoopRunner, tagSlowLoopTaskSchedule);
+      scheduler.schedule(ACTIVITY_TYPE_SYNC_TASK, activityTypeRunner, activityTypeTaskSchedule);
+      scheduler.schedule(ACTIVITY_TYPE_SLOW_LOOP_SYNC_TASK, activityTypeSlowLoopRunner, activityTypeSlowLoopTaskSchedule);
+      scheduler.schedule(KEYWORD_SYNC_TASK, keywordRunner, keywordTaskSchedule);
+      if (cachingStore != null) {
+        final long flushMs = storeFlushInterval.toMillis();
+        scheduler.schedule(STORE_FLUSH_TASK, cachingStore::flush, new TaskSchedule(flushMs, flushMs));
+      }
+      // a standby instance leaves the maintenance of the shared local database to the active one
+      scheduler.schedule(STORE_EXPIRY_TASK, whenActive(fileStore::deleteExpired),
+          new TaskSchedule(TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(10)));
+      final long checkpointMs = sqLiteHelper.getProfile().getCheckpointInterval().toMillis();
+      scheduler.schedule(SQLITE_CHECKPOINT_TASK, whenActive(sqLiteHelper::checkpoint),
+          new TaskSchedule(checkpointMs, checkpointMs));
+      if (logStructuredStore != null) {
+        scheduler.schedule(STORE_COMPACTION_TASK, whenActive(logStructuredStore::compactIfNeeded),
+            new TaskSchedule(TimeUnit.MINUTES.toMillis(5), TimeUnit.MINUTES.toMillis(5)));
+      }
+      if (localDatabaseBackup != null) {
+        final long backupMs = localDatabaseBackupInterval.toMillis();
+        scheduler.schedule(SQLITE_BACKUP_TASK, whenActive(localDatabaseBackup::backup),
+            new TaskSchedule(backupMs, backupMs));
+      }
+      // the managed config runner skips the fetch while the config fetched above is still current
+      scheduler.schedule("managed-config", managedConfigRunner, managedConfigTaskSchedule);
+    });
+    if (adminServerPort != ConnectorControllerConfiguration.ADMIN_SERVER_DISABLED) {
+      startupPhases.run("admin-server", this::startAdminServer);
+    }
+    startupPhases.complete();
 
     final boolean terminateSuccess = connectorExecutor.get().awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
     log.info("Connector stopped, graceful termination: {}", terminateSuccess);
@@ -215,32 +418,35 @@ public class ConnectorControllerImpl implements ConnectorController, HealthIndic
   public void stop() {
     log.info("Stopping connector");
     try {
-      healthRunner.cancel();
-      healthCheckTimer.cancel();
-      healthCheckTimer.purge();
-
-      managedConfigTimer.cancel();
-      managedConfigTimer.purge();
-
-      tagTimer.cancel();
-      tagTimer.purge();
-
-      tagSlowLoopTimer.cancel();
-      tagSlowLoopTimer.purge();
+      if (adminServer != null) {
+        adminServer.close();
+      }
+      // runs in progress are asked to stop rather than interrupted, stop() may itself be called from the health check;
+      // runs dispatched while time posting drains are skipped
+      Stream.of(tagRunner, tagSlowLoopRunner, activityTypeRunner, activityTypeSlowLoopRunner, keywordRunner)
+          .forEach(BaseRunner::stopRuns);
+      // let posts in progress finish and their statuses reach WiseTime before anything is interrupted
+      if (!timePoster.drain(drainTimeout)) {
+        log.warn("Time posting did not drain within {}, unfinished time groups will be retried", drainTimeout);
+      }
+      scheduler.close();
       timePoster.stop();
-
-      activityTypeTimer.cancel();
-      activityTypeTimer.purge();
-
-      activityTypeSlowLoopTimer.cancel();
-      activityTypeSlowLoopTimer.purge();
+      keywordRunner.close();
 
       connectorExecutor.get().shutdownNow();
       if (!connectorExecutor.get().awaitTermination(60, TimeUnit.SECONDS)) {
-        log.error("Failed to gracefully stop connector. Halting process now");
-        System.exit(-1);
+        if (hostContext == null) {
+          log.error("Failed to gracefully stop connector. Halting process now");
+          System.exit(-1);
+        }
+        // other connectors of the host keep running
+        log.error("Failed to gracefully stop connector {}", hostContext.getTenantId());
       }
 
+      if (leaseKeeper != null) {
+        // nothing runs any more, a standby instance can take over without waiting for the lease to expire
+        leaseKeeper.release();
+      }
       connectorModule.getApiClient().shutdown();
 
     } catch (Exception e) {
@@ -248,6 +454,16 @@ public class ConnectorControllerImpl implements ConnectorController, HealthIndic
     } finally {
       connectorExecutor.set(null);
       wiseTimeConnector.shutdown();
+      if (cachingStore != null) {
+        // the connector may write to its store until it has shut down
+        cachingStore.close();
+      }
+      if (logStructuredStore != null) {
+        logStructuredStore.close();
+      }
+      // last, the stores above write through to the local database when they are closed
+      FileStore.releaseInstance(sqLiteHelper);
+      sqLiteHelper.close();
     }
   }
 
@@ -261,14 +477,75 @@ public class ConnectorControllerImpl implements ConnectorController, HealthIndic
     return metricService.getMetrics();
   }
 
+  @Override
+  public List<TaskStats> getTaskStats() {
+    return scheduler.getStats();
+  }
+
+  @Override
+  public List<RunMetricsInfo> getRunnerMetrics() {
+    return Stream.concat(
+            Stream.of(
+                tagRunner.getRunMetrics(),
+                tagSlowLoopRunner.getRunMetrics(),
+                activityTypeRunner.getRunMetrics(),
+                activityTypeSlowLoopRunner.getRunMetrics(),
+                keywordRunner.getRunMetrics(),
+                managedConfigRunner.getRunMetrics()),
+            timePoster.getRunMetrics().stream())
+        .map(RunMetrics::getInfo)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Optional<StoreCacheStats> getStoreCacheStats() {
+    return Optional.ofNullable(cachingStore).map(CachingConnectorStore::getStats);
+  }
+
+  @Override
+  public SqLiteStats getLocalDatabaseStats() {
+    return sqLiteHelper.getStats();
+  }
+
   @Override
   public ConnectorModule getConnectorModule() {
     return connectorModule;
   }
 
+  /**
+   * @return the task, skipped while this instance is the standby of an active/passive pair
+   */
+  private Runnable whenActive(Runnable task) {
+    return () -> {
+      if (leaseKeeper == null || leaseKeeper.isHeld()) {
+        task.run();
+      }
+    };
+  }
+
+  private void startAdminServer() {
+    try {
+      adminServer = new AdminServer(adminServerPort, this, scheduler, ADMIN_CONTROLLABLE_TASKS);
+      adminServer.start();
+    } catch (IOException e) {
+      // the connector works without it
+      log.error("Failed to start the admin server on port {}", adminServerPort, e);
+    }
+  }
+
+  private static void enableAdaptiveInterval(BaseRunner runner, TaskSchedule schedule) {
+    final long periodMs = schedule.getPeriodMs();
+    runner.enableAdaptiveInterval(
+        Math.max(MIN_ADAPTIVE_INTERVAL_MS, periodMs / ADAPTIVE_INTERVAL_RANGE),
+        periodMs * ADAPTIVE_INTERVAL_RANGE,
+        periodMs);
+  }
+
   private TimePoster createTimePoster(ConnectorControllerConfiguration configuration,
       ApiClient apiClient,
-      SqLiteHelper sqLiteHelper) {
+      CompletableFuture<TimeGroupIdStore> timeGroupIdStore,
+      ConnectorScheduler scheduler,
+      BooleanSupplier activeGate) {
     final ConnectorControllerBuilderImpl.PostedTimeLoadMode mode = configuration.getPostedTimeLoadMode();
     switch (mode) {
       case LONG_POLL:
@@ -277,8 +554,11 @@ public class ConnectorControllerImpl implements ConnectorController, HealthIndic
             apiClient,
             healthRunner,
             connectorExecutor::get,
-            sqLiteHelper,
-            configuration.getFetchClientLimit());
+            scheduler,
+            resourceGovernor,
+            StartupPhases.await(timeGroupIdStore),
+            configuration.getFetchClientLimit(),
+            activeGate);
       case DISABLED:
         return new NoOpTimePoster();
       default:
@@ -339,11 +619,18 @@ public class ConnectorControllerImpl implements ConnectorController, HealthIndic
     }
   }
 
-  @Data
-  @AllArgsConstructor
-  static class TimerTaskSchedule {
-
-    private long initialDelayMs;
-    private long periodMs;
+  private KeywordRunner createKeywordRunner(ConnectorControllerConfiguration configuration,
+      ApiClient apiClient,
+      SqLiteHelper sqLiteHelper,
+      ConnectorStore connectorStore) {
+    if (configuration.getKeywordExtractor() == null) {
+      return new NoOpKeywordRunner();
+    }
+    return new KeywordRunner(
+        configuration.getKeywordExtractor(),
+        connectorStore,
+        // the sent keyword index is loaded on the first sweep rather than during startup
+        new BatchingKeywordConsumer(apiClient, KeywordConfig.DEFAULT_BATCH_SIZE, () -> new SentKeywordIndex(sqLiteHelper)),
+        TimeUnit.MINUTES.toMillis(configuration.getKeywordFullSyncIntervalMinutes()));
   }
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.controller;
+
+import static io.wisetime.connector.controller.ConnectorControllerConfiguration.DEFAULT_SCHEDULER_JITTER_PERCENT;
+import static io.wisetime.connector.controller.ConnectorControllerConfiguration.DEFAULT_SCHEDULER_WORKER_THREADS;
+import static io.wisetime.connector.controller.ConnectorControllerConfiguration.DEFAULT_UPLOAD_CONCURRENCY_BUDGET;
+
+import com.google.common.base.Preconditions;
+import io.wisetime.connector.ConnectorController;
+import io.wisetime.connector.config.ConnectorConfigKey;
+import io.wisetime.connector.config.RuntimeConfig;
+import io.wisetime.connector.metric.MetricInfo;
+import io.wisetime.connector.metric.RunMetricsInfo;
+import io.wisetime.connector.scheduler.ConnectorScheduler;
+import io.wisetime.connector.scheduler.ResourceGovernor;
+import io.wisetime.connector.scheduler.TaskStats;
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs several connectors, each with its own API key and local store, in one JVM.
+ * <p>
+ * The connectors share the scheduler threads and the upload concurrency budget of the host, and the HTTP connection
+ * pool of the default API client, which is process-wide. Each connector keeps its own SQLite store in a sub-directory
+ * of the host data directory named after its tenant id, its own task statistics and its own lifecycle: a connector
+ * that stops, for example after failing its health check, does not stop the others.
+ * <p>
+ * API keys must be passed to each connector's builder. The {@code API_KEY} setting would apply to every connector, so
+ * it must not be set when hosting.
+ */
+@Slf4j
+public class ConnectorHost implements AutoCloseable {
+
+  private static final Pattern TENANT_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
+  private static final long MAX_LOW_PRIORITY_WAIT_MS = TimeUnit.SECONDS.toMillis(30);
+
+  private final File dataDir;
+  private final ConnectorScheduler scheduler;
+  private final ResourceGovernor resourceGovernor;
+
+  // guarded by this
+  private final Map<String, ConnectorControllerImpl> connectors = new LinkedHashMap<>();
+  private final Map<String, Thread> connectorThreads = new LinkedHashMap<>();
+  private boolean started;
+  private boolean closed;
+
+  /**
+   * Creates a host with the scheduler and upload settings of the runtime configuration.
+   */
+  public ConnectorHost(File dataDir) {
+    this(dataDir,
+        RuntimeConfig.getInt(ConnectorConfigKey.SCHEDULER_WORKER_THREADS).orElse(DEFAULT_SCHEDULER_WORKER_THREADS),
+        RuntimeConfig.getInt(ConnectorConfigKey.UPLOAD_CONCURRENCY_BUDGET).orElse(DEFAULT_UPLOAD_CONCURRENCY_BUDGET));
+  }
+
+  /**
+   * @param dataDir parent directory of the connectors' local stores
+   * @param schedulerWorkerThreads maximum number of tasks running at the same time across all connectors
+   * @param uploadConcurrencyBudget total weight of concurrent uploads to WiseTime across all connectors
+   */
+  public ConnectorHost(File dataDir, int schedulerWorkerThreads, int uploadConcurrencyBudget) {
+    Preconditions.checkArgument(dataDir.isDirectory() || dataDir.mkdirs(),
+        "Host data directory can not be created: '%s'", dataDir.getAbsolutePath());
+    this.dataDir = dataDir;
+    this.scheduler = new ConnectorScheduler("connector-host", schedulerWorkerThreads,
+        RuntimeConfig.getInt(ConnectorConfigKey.SCHEDULER_JITTER_PERCENT).orElse(DEFAULT_SCHEDULER_JITTER_PERCENT)
+            / 100.0);
+    this.resourceGovernor = new ResourceGovernor(uploadConcurrencyBudget, MAX_LOW_PRIORITY_WAIT_MS);
+  }
+
+  /**
+   * Builds a connector to run in this host. If the host has already been started, the connector starts straight away.
+   *
+   * @param tenantId unique id of the connector within the host, letters, digits, '-' and '_' only
+   * @param builder  builder from {@link ConnectorController#newBuilder()}, configured with the connector's API key
+   * @return the hosted connector, to be started and stopped through the host
+   */
+  public synchronized ConnectorController addConnector(String tenantId, ConnectorController.Builder builder) {
+    Preconditions.checkState(!closed, "connector host has been closed");
+    Preconditions.checkArgument(TENANT_ID_PATTERN.matcher(tenantId).matches(), "invalid tenant id '%s'", tenantId);
+    Preconditions.checkArgument(!connectors.containsKey(tenantId), "tenant '%s' is already hosted", tenantId);
+    Preconditions.checkArgument(builder instanceof ConnectorControllerBuilderImpl,
+        "builder must be created with ConnectorController.newBuilder()");
+    Preconditions.checkState(!RuntimeConfig.getString(ConnectorConfigKey.API_KEY).isPresent(),
+        "%s must not be set when hosting several connectors, pass each API key to the connector's builder",
+        ConnectorConfigKey.API_KEY.getConfigKey());
+    // every tenant would try to bind the same port
+    Preconditions.checkState(!RuntimeConfig.getInt(ConnectorConfigKey.ADMIN_SERVER_PORT).isPresent(),
+        "%s must not be set when hosting several connectors, set a port per connector on its builder if needed",
+        ConnectorConfigKey.ADMIN_SERVER_PORT.getConfigKey());
+
+    final File tenantDir = new File(dataDir, tenantId);
+    Preconditions.checkArgument(tenantDir.isDirectory() || tenantDir.mkdirs(),
+        "Data directory of tenant '%s' can not be created: '%s'", tenantId, tenantDir.getAbsolutePath());
+
+    final ConnectorScheduler tenantScheduler = scheduler.createChild(tenantId);
+    final ConnectorControllerImpl connector;
+    try {
+      connector = ((ConnectorControllerBuilderImpl) builder).buildHosted(
+          new HostContext(tenantId, tenantScheduler, resourceGovernor, tenantDir));
+    } catch (RuntimeException e) {
+      tenantScheduler.close();
+      throw e;
+    }
+    connectors.put(tenantId, connector);
+    if (started) {
+      startConnector(tenantId, connector);
+    }
+    return connector;
+  }
+
+  /**
+   * Starts all hosted connectors, each on its own thread. Returns without waiting for them to stop.
+   */
+  public synchronized void start() {
+    Preconditions.checkState(!closed, "connector host has been closed");
+    if (started) {
+      return;
+    }
+    started = true;
+    connectors.forEach(this::startConnector);
+  }
+
+  /**
+   * Stops all hosted connectors and the shared scheduler. The host can not be restarted.
+   */
+  @Override
+  public void close() {
+    final Map<String, ConnectorControllerImpl> toStop = new LinkedHashMap<>();
+    final List<Thread> threads;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      // connectors that were never started have nothing to stop
+      connectorThreads.keySet().forEach(tenantId -> toStop.put(tenantId, connectors.get(tenantId)));
+      threads = List.copyOf(connectorThreads.values());
+    }
+    toStop.forEach((tenantId, connector) -> {
+      log.info("Stopping hosted connector {}", tenantId);
+      connector.stop();
+    });
+    for (Thread thread : threads) {
+      try {
+        thread.join(TimeUnit.MINUTES.toMillis(1));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    scheduler.close();
+  }
+
+  public synchronized Optional<ConnectorController> getConnector(String tenantId) {
+    return Optional.ofNullable(connectors.get(tenantId));
+  }
+
+  /**
+   * @return metrics of each hosted connector by tenant id
+   */
+  public synchronized Map<String, MetricInfo> getMetrics() {
+    final Map<String, MetricInfo> metrics = new LinkedHashMap<>();
+    connectors.forEach((tenantId, connector) -> metrics.put(tenantId, connector.getMetrics()));
+    return metrics;
+  }
+
+  /**
+   * @return runner metrics of each hosted connector by tenant id
+   */
+  public synchronized Map<String, List<RunMetricsInfo>> getRunnerMetrics() {
+    final Map<String, List<RunMetricsInfo>> metrics = new LinkedHashMap<>();
+    connectors.forEach((tenantId, connector) -> metrics.put(tenantId, connector.getRunnerMetrics()));
+    return metrics;
+  }
+
+  /**
+   * @return statistics of the scheduled tasks of all hosted connectors, named {@code <tenant id>/<task>}
+   */
+  public List<TaskStats> getTaskStats() {
+    return scheduler.getStats();
+  }
+
+  private void startConnector(String tenantId, ConnectorControllerImpl connector) {
+    final Thread thread = new Thread(() -> {
+      try {
+        // blocks until the connector is stopped
+        connector.start();
+      } catch (Exception e) {
+        log.error("Hosted connector {} failed", tenantId, e);
+      }
+    }, "connector-host-" + tenantId);
+    thread.setDaemon(true);
+    connectorThreads.put(tenantId, thread);
+    thread.start();
+  }
+}
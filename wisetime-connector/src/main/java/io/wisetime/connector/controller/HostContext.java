@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.controller;
+
+import io.wisetime.connector.scheduler.ConnectorScheduler;
+import io.wisetime.connector.scheduler.ResourceGovernor;
+import java.io.File;
+import lombok.Data;
+
+/**
+ * Resources a {@link ConnectorHost} shares with, or sets aside for, one of its connectors.
+ */
+@Data
+class HostContext {
+
+  private final String tenantId;
+
+  /**
+   * Child of the host scheduler, owned by the connector.
+   */
+  private final ConnectorScheduler scheduler;
+
+  /**
+   * Shared by all connectors of the host.
+   */
+  private final ResourceGovernor resourceGovernor;
+
+  /**
+   * Directory of the connector's own SQLite store.
+   */
+  private final File dataDir;
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.controller;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Times the phases of connector startup and logs how long each one took.
+ * <p>
+ * Phases that do not depend on each other can be started with {@link #runAsync(String, Supplier)} and joined with
+ * {@link #await(CompletableFuture)} once their result is needed.
+ */
+@Slf4j
+class StartupPhases {
+
+  private final String stage;
+  private final long startNanos = System.nanoTime();
+  private final Map<String, Long> durationsMs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+  StartupPhases(String stage) {
+    this.stage = stage;
+  }
+
+  <T> T run(String phase, Supplier<T> action) {
+    final long phaseStartNanos = System.nanoTime();
+    try {
+      final T result = action.get();
+      completed(phase, phaseStartNanos);
+      return result;
+    } catch (RuntimeException e) {
+      failed(phase, phaseStartNanos);
+      throw e;
+    }
+  }
+
+  void run(String phase, Runnable action) {
+    run(phase, () -> {
+      action.run();
+      return null;
+    });
+  }
+
+  <T> CompletableFuture<T> runAsync(String phase, Supplier<T> action) {
+    return CompletableFuture.supplyAsync(() -> run(phase, action));
+  }
+
+  CompletableFuture<Void> runAsync(String phase, Runnable action) {
+    return CompletableFuture.runAsync(() -> run(phase, action));
+  }
+
+  /**
+   * Waits for a phase started with {@code runAsync}, rethrowing its failure unwrapped.
+   */
+  static <T> T await(CompletableFuture<T> phase) {
+    try {
+      return phase.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Logs the total time of the stage since this instance was created.
+   */
+  void complete() {
+    log.info("Connector {} completed in {} ms, phases: {}", stage, elapsedMs(startNanos), durationsMs);
+  }
+
+  Map<String, Long> getDurationsMs() {
+    synchronized (durationsMs) {
+      return new LinkedHashMap<>(durationsMs);
+    }
+  }
+
+  private void completed(String phase, long phaseStartNanos) {
+    final long durationMs = elapsedMs(phaseStartNanos);
+    durationsMs.put(phase, durationMs);
+    log.info("Connector {} phase '{}' completed in {} ms", stage, phase, durationMs);
+  }
+
+  private void failed(String phase, long phaseStartNanos) {
+    log.warn("Connector {} phase '{}' failed after {} ms", stage, phase, elapsedMs(phaseStartNanos));
+  }
+
+  private static long elapsedMs(long fromNanos) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fromNanos);
+  }
+}
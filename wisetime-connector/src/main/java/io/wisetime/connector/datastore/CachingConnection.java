@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A long-lived connection that keeps its prepared statements for reuse.
+ * <p>
+ * {@link #getConnection()} hands out a view of the connection on which {@code close()} does nothing, and on which
+ * {@code prepareStatement(sql)} returns a cached statement when there is one. Closing such a statement clears its
+ * parameters and returns it to the cache. Only one thread may use the connection at a time.
+ */
+@Slf4j
+class CachingConnection {
+
+  private final Connection connection;
+  private final SqLiteStatsRecorder stats;
+  private final Connection view;
+
+  // least recently used first
+  private final Map<String, PreparedStatement> statements;
+  private final Set<PreparedStatement> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+  // evicted while in use, closed once released
+  private final Set<PreparedStatement> evicted = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  CachingConnection(Connection connection, int statementCacheSize, SqLiteStatsRecorder stats) {
+    this.connection = connection;
+    this.stats = stats;
+    this.statements = new LinkedHashMap<>(statementCacheSize, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+        if (size() <= statementCacheSize) {
+          return false;
+        }
+        if (inUse.contains(eldest.getValue())) {
+          evicted.add(eldest.getValue());
+        } else {
+          closeQuietly(eldest.getValue());
+        }
+        return true;
+      }
+    };
+    this.view = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[]{Connection.class}, new ConnectionHandler());
+  }
+
+  Connection getConnection() {
+    return view;
+  }
+
+  /**
+   * Prepares the connection for the next user after a use that may have left a transaction open.
+   */
+  void reset() throws SQLException {
+    if (!connection.getAutoCommit()) {
+      connection.rollback();
+      connection.setAutoCommit(true);
+    }
+  }
+
+  void close() {
+    statements.values().forEach(CachingConnection::closeQuietly);
+    statements.clear();
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      log.warn("Failed to close local database connection", e);
+    }
+  }
+
+  private PreparedStatement prepare(String sql) throws SQLException {
+    final PreparedStatement cached = statements.get(sql);
+    if (cached != null && !inUse.contains(cached)) {
+      stats.statementCacheHit();
+      inUse.add(cached);
+      return statementView(cached);
+    }
+    stats.statementCacheMiss();
+    final PreparedStatement statement = connection.prepareStatement(sql);
+    if (cached != null) {
+      // the same statement is already open further up the stack, this one is not kept
+      return statement;
+    }
+    statements.put(sql, statement);
+    inUse.add(statement);
+    return statementView(statement);
+  }
+
+  private void release(PreparedStatement statement) throws SQLException {
+    inUse.remove(statement);
+    if (evicted.remove(statement)) {
+      statement.close();
+      return;
+    }
+    statement.clearParameters();
+    statement.clearBatch();
+  }
+
+  private PreparedStatement statementView(PreparedStatement statement) {
+    return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+        new Class<?>[]{PreparedStatement.class}, new StatementHandler(statement));
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static void closeQuietly(PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      log.debug("Failed to close cached statement", e);
+    }
+  }
+
+  private class ConnectionHandler implements InvocationHandler {
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          // the connection is returned to its pool by the connection provider
+          return null;
+        case "isClosed":
+          return connection.isClosed();
+        case "prepareStatement":
+          if (args.length == 1) {
+            return prepare((String) args[0]);
+          }
+          return CachingConnection.invoke(connection, method, args);
+        case "unwrap":
+          return connection.unwrap((Class<?>) args[0]);
+        default:
+          return CachingConnection.invoke(connection, method, args);
+      }
+    }
+  }
+
+  private class StatementHandler implements InvocationHandler {
+
+    private final PreparedStatement statement;
+    private boolean released;
+
+    StatementHandler(PreparedStatement statement) {
+      this.statement = statement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (!released) {
+            released = true;
+            release(statement);
+          }
+          return null;
+        case "isClosed":
+          return released || statement.isClosed();
+        case "getConnection":
+          return view;
+        default:
+          return CachingConnection.invoke(statement, method, args);
+      }
+    }
+  }
+}
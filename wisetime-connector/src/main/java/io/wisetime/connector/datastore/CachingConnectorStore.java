@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the most recently used values of a {@link FileStore} in memory, so that cursors and flags read on every run do
+ * not go to the local database each time.
+ * <p>
+ * Absent values are cached as well, and cached values expire with their ttl. In {@link StoreCacheMode#WRITE_BEHIND}
+ * mode writes are only applied in memory and committed to the delegate store by {@link #flush()}, all pending writes
+ * in one transaction. Pending writes are always kept, even beyond the size of the cache; once there are as many as the
+ * cache holds entries, the writing thread flushes them. In {@link StoreCacheMode#WRITE_THROUGH} mode a committed write
+ * removes the key from the cache, and the next read loads it again.
+ * <p>
+ * The cache assumes it is the only writer of the delegate store, so it is not used when instances share the store
+ * through a lease.
+ */
+@Slf4j
+public class CachingConnectorStore implements ConnectorStore, AutoCloseable {
+
+  private final FileStore delegate;
+  private final StoreCacheMode mode;
+  private final int maxPendingWrites;
+
+  private final Cache<String, StoreEntry> cache;
+  // writes not yet committed to the delegate, an absent entry is a pending delete; guarded by this
+  private final Map<String, StoreEntry> pending = new LinkedHashMap<>();
+  // bumped by every write so that values read from the delegate before the write are not cached; guarded by this
+  private long generation;
+  // one flush at a time, so that a slower flush cannot commit older values after a newer one
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder flushes = new LongAdder();
+  private final LongAdder flushedWrites = new LongAdder();
+  private final LongAdder failedFlushes = new LongAdder();
+
+  /**
+   * @param maxEntries number of keys kept in memory, least recently used keys are evicted first
+   */
+  public CachingConnectorStore(FileStore delegate, StoreCacheMode mode, int maxEntries) {
+    Preconditions.checkArgument(mode != StoreCacheMode.DISABLED, "cache mode must not be %s", mode);
+    Preconditions.checkArgument(maxEntries > 0, "max cache entries must be positive");
+    this.delegate = Preconditions.checkNotNull(delegate);
+    this.mode = mode;
+    this.maxPendingWrites = maxEntries;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxEntries)
+        .recordStats()
+        .build();
+  }
+
+  @Override
+  public Optional<String> getString(String key) {
+    final long readGeneration;
+    synchronized (this) {
+      final StoreEntry known = lookup(key);
+      if (known != null) {
+        hits.increment();
+        return known.valueAt(System.currentTimeMillis());
+      }
+      readGeneration = generation;
+    }
+    misses.increment();
+    final StoreEntry entry = delegate.getEntries(List.of(key)).getOrDefault(key, StoreEntry.absent());
+    cacheLoaded(readGeneration, ImmutableMap.of(key, entry));
+    return entry.valueAt(System.currentTimeMillis());
+  }
+
+  @Override
+  public void putString(String key, String value) {
+    write(ImmutableMap.of(key, StoreEntry.of(value)), () -> delegate.putString(key, value));
+  }
+
+  @Override
+  public void putString(String key, String value, Duration ttl) {
+    final StoreEntry entry = StoreEntry.withTtl(value, ttl, System.currentTimeMillis());
+    write(ImmutableMap.of(key, entry), () -> delegate.putString(key, value, ttl));
+  }
+
+  @Override
+  public Optional<Long> getLong(String key) {
+    return getString(key).flatMap(CachingConnectorStore::parseLong);
+  }
+
+  @Override
+  public void putLong(String key, long value) {
+    putString(key, String.valueOf(value));
+  }
+
+  @Override
+  public void putLong(String key, long value, Duration ttl) {
+    putString(key, String.valueOf(value), ttl);
+  }
+
+  @Override
+  public Map<String, String> getMany(Collection<String> keys) {
+    final Set<String> distinctKeys = new LinkedHashSet<>(keys);
+    final Map<String, StoreEntry> entries = new HashMap<>();
+    final List<String> missing = new ArrayList<>();
+    final long readGeneration;
+    synchronized (this) {
+      for (String key : distinctKeys) {
+        final StoreEntry known = lookup(key);
+        if (known == null) {
+          missing.add(key);
+        } else {
+          entries.put(key, known);
+        }
+      }
+      readGeneration = generation;
+    }
+    hits.add(distinctKeys.size() - missing.size());
+    if (!missing.isEmpty()) {
+      misses.add(missing.size());
+      final Map<String, StoreEntry> loaded = delegate.getEntries(missing);
+      final Map<String, StoreEntry> loadedEntries = new HashMap<>();
+      missing.forEach(key -> loadedEntries.put(key, loaded.getOrDefault(key, StoreEntry.absent())));
+      cacheLoaded(readGeneration, loadedEntries);
+      entries.putAll(loadedEntries);
+    }
+    final long nowMs = System.currentTimeMillis();
+    final Map<String, String> values = new HashMap<>();
+    entries.forEach((key, entry) -> entry.valueAt(nowMs).ifPresent(value -> values.put(key, value)));
+    return values;
+  }
+
+  @Override
+  public void putMany(Map<String, String> values) {
+    final Map<String, String> valuesCopy = new LinkedHashMap<>(values);
+    final Map<String, StoreEntry> written = new LinkedHashMap<>();
+    valuesCopy.forEach((key, value) -> written.put(key, StoreEntry.of(value)));
+    write(written, () -> delegate.putMany(valuesCopy));
+  }
+
+  @Override
+  public void delete(String key) {
+    write(ImmutableMap.of(key, StoreEntry.absent()), () -> delegate.delete(key));
+  }
+
+  @Override
+  public void deleteMany(Collection<String> keys) {
+    final List<String> keysCopy = List.copyOf(keys);
+    final Map<String, StoreEntry> written = new LinkedHashMap<>();
+    keysCopy.forEach(key -> written.put(key, StoreEntry.absent()));
+    write(written, () -> delegate.deleteMany(keysCopy));
+  }
+
+  /**
+   * Always reads from the delegate store, as the cache cannot tell whether it holds every key with the prefix. Pending
+   * writes are applied to the result.
+   */
+  @Override
+  public Map<String, String> getByPrefix(String keyPrefix) {
+    final Map<String, StoreEntry> pendingBefore;
+    final long readGeneration;
+    synchronized (this) {
+      // a pending write may be flushed while the delegate is read
+      pendingBefore = pendingWithPrefix(keyPrefix);
+      readGeneration = generation;
+    }
+    misses.increment();
+    final Map<String, StoreEntry> stored = delegate.getEntriesByPrefix(keyPrefix);
+    final Map<String, StoreEntry> loadedEntries = new HashMap<>(stored);
+    // the stored value of a pending key may be out of date by the time the write is flushed
+    loadedEntries.keySet().removeAll(pendingBefore.keySet());
+    cacheLoaded(readGeneration, loadedEntries);
+
+    final TreeMap<String, StoreEntry> entries = new TreeMap<>(stored);
+    synchronized (this) {
+      entries.putAll(pendingBefore);
+      entries.putAll(pendingWithPrefix(keyPrefix));
+    }
+    final long nowMs = System.currentTimeMillis();
+    final Map<String, String> values = new LinkedHashMap<>();
+    entries.forEach((key, entry) -> entry.valueAt(nowMs).ifPresent(value -> values.put(key, value)));
+    return values;
+  }
+
+  /**
+   * Pending writes are committed in the same transaction as the operations, which run directly on the delegate store.
+   * The keys they touch are unknown, so the cache is cleared afterwards.
+   */
+  @Override
+  public void inTransaction(Consumer<ConnectorStore> operations) {
+    flushLock.lock();
+    try {
+      final Map<String, StoreEntry> batch = pendingSnapshot();
+      try {
+        delegate.inTransaction(store -> {
+          applyTo(store, batch);
+          operations.accept(store);
+        });
+      } finally {
+        synchronized (this) {
+          generation++;
+          cache.invalidateAll();
+        }
+      }
+      flushed(batch);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Commits the pending writes to the delegate store in one transaction. Does nothing unless in
+   * {@link StoreCacheMode#WRITE_BEHIND} mode. Writes that fail to be committed stay pending.
+   */
+  public void flush() {
+    flushLock.lock();
+    try {
+      final Map<String, StoreEntry> batch = pendingSnapshot();
+      if (batch.isEmpty()) {
+        return;
+      }
+      try {
+        delegate.inTransaction(store -> applyTo(store, batch));
+      } catch (RuntimeException e) {
+        failedFlushes.increment();
+        throw e;
+      }
+      flushed(batch);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Flushes the pending writes. The store remains usable.
+   */
+  @Override
+  public void close() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      log.error("Failed to commit {} cached writes to the local database", getStats().getPendingWrites(), e);
+    }
+  }
+
+  public synchronized StoreCacheStats getStats() {
+    return new StoreCacheStats(
+        mode,
+        hits.sum(),
+        misses.sum(),
+        cache.stats().evictionCount(),
+        cache.size(),
+        pending.size(),
+        flushes.sum(),
+        flushedWrites.sum(),
+        failedFlushes.sum());
+  }
+
+  /**
+   * @return the known entry of the key, or null if it has to be read from the delegate store
+   */
+  private StoreEntry lookup(String key) {
+    final StoreEntry pendingEntry = pending.get(key);
+    return pendingEntry != null ? pendingEntry : cache.getIfPresent(key);
+  }
+
+  private synchronized void cacheLoaded(long readGeneration, Map<String, StoreEntry> entries) {
+    if (readGeneration == generation) {
+      cache.putAll(entries);
+    }
+  }
+
+  private void write(Map<String, StoreEntry> entries, Runnable delegateWrite) {
+    if (mode == StoreCacheMode.WRITE_BEHIND) {
+      final boolean flushNow;
+      synchronized (this) {
+        generation++;
+        pending.putAll(entries);
+        cache.putAll(entries);
+        flushNow = pending.size() >= maxPendingWrites;
+      }
+      if (flushNow) {
+        flush();
+      }
+      return;
+    }
+    try {
+      delegateWrite.run();
+    } finally {
+      // concurrent writes of a key may commit in one order and get here in the other, so the written values are not
+      // cached; the next read loads whichever was committed last. A failed write may or may not have been committed.
+      synchronized (this) {
+        generation++;
+        cache.invalidateAll(entries.keySet());
+      }
+    }
+  }
+
+  private synchronized Map<String, StoreEntry> pendingSnapshot() {
+    return new LinkedHashMap<>(pending);
+  }
+
+  private Map<String, StoreEntry> pendingWithPrefix(String keyPrefix) {
+    final Map<String, StoreEntry> matching = new LinkedHashMap<>();
+    pending.forEach((key, entry) -> {
+      if (key.startsWith(keyPrefix)) {
+        matching.put(key, entry);
+      }
+    });
+    return matching;
+  }
+
+  private void flushed(Map<String, StoreEntry> batch) {
+    synchronized (this) {
+      // keys written again since the snapshot stay pending
+      batch.forEach(pending::remove);
+    }
+    flushes.increment();
+    flushedWrites.add(batch.size());
+  }
+
+  private static void applyTo(ConnectorStore store, Map<String, StoreEntry> writes) {
+    final long nowMs = System.currentTimeMillis();
+    final Map<String, String> puts = new LinkedHashMap<>();
+    final List<String> deletes = new ArrayList<>();
+    writes.forEach((key, entry) -> {
+      if (entry.valueAt(nowMs).isEmpty()) {
+        // deleted, or expired before it was flushed
+        deletes.add(key);
+      } else if (entry.expires()) {
+        store.putString(key, entry.getValue(), Duration.ofMillis(entry.getExpiresAtMs() - nowMs));
+      } else {
+        puts.put(key, entry.getValue());
+      }
+    });
+    if (!puts.isEmpty()) {
+      store.putMany(puts);
+    }
+    if (!deletes.isEmpty()) {
+      store.deleteMany(deletes);
+    }
+  }
+
+  private static Optional<Long> parseLong(String value) {
+    try {
+      return Optional.of(Long.valueOf(value));
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+}
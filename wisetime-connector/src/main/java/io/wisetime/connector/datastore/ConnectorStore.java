@@ -5,7 +5,12 @@
 package io.wisetime.connector.datastore;
 
 import io.wisetime.connector.WiseTimeConnector;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * {@link WiseTimeConnector} implementations can use this storage to persist data between
@@ -32,6 +37,21 @@ public interface ConnectorStore {
    */
   void putString(String key, String value);
 
+  /**
+   * Persist a string value to the store for a limited time, for example a token or a cached lookup. Once the ttl has
+   * passed the key is treated as absent, and it is eventually removed from the store. Storing the key again without a
+   * ttl keeps it indefinitely. Not supported by default, as stores before this method was added had no way to expire
+   * values.
+   *
+   * @param key an identifier that can subsequently be used to retrieve the value from the store
+   * @param value the value to persist
+   * @param ttl how long the value is kept, must be positive
+   * @throws UnsupportedOperationException if the store does not support expiring values
+   */
+  default void putString(String key, String value, Duration ttl) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support expiring values");
+  }
+
   /**
    * Retrieve a Long value from the store
    *
@@ -47,4 +67,88 @@ public interface ConnectorStore {
    * @param value the value to persist
    */
   void putLong(String key, long value);
+
+  /**
+   * Persist a long value to the store for a limited time, see {@link #putString(String, String, Duration)}. The
+   * default implementation stores the value as a string, for stores whose {@link #getLong(String)} parses strings.
+   *
+   * @param key an identifier that can subsequently be used to retrieve the value from the store
+   * @param value the value to persist
+   * @param ttl how long the value is kept, must be positive
+   * @throws UnsupportedOperationException if the store does not support expiring values
+   */
+  default void putLong(String key, long value, Duration ttl) {
+    putString(key, String.valueOf(value), ttl);
+  }
+
+  /**
+   * Retrieve several String values from the store at once. The default implementation reads the keys one at a time.
+   *
+   * @param keys to use to retrieve the values from the store
+   * @return the values found by key, keys without a value are left out
+   */
+  default Map<String, String> getMany(Collection<String> keys) {
+    final Map<String, String> values = new LinkedHashMap<>();
+    for (String key : keys) {
+      getString(key).ifPresent(value -> values.put(key, value));
+    }
+    return values;
+  }
+
+  /**
+   * Persist several string values to the store at once. Either all of them are persisted or none is, if the store
+   * supports transactions; the default implementation persists the values one at a time, so a failure may leave some
+   * of them persisted.
+   *
+   * @param values the values to persist by key
+   */
+  default void putMany(Map<String, String> values) {
+    values.forEach(this::putString);
+  }
+
+  /**
+   * Remove a value from the store. Not supported by default, as stores before this method was added had no way to
+   * remove values.
+   *
+   * @param key identifier of the value to remove, nothing happens if there is no value stored for the key
+   * @throws UnsupportedOperationException if the store does not support removing values
+   */
+  default void delete(String key) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support removing values");
+  }
+
+  /**
+   * Remove several values from the store at once. The default implementation removes the keys one at a time, so a
+   * failure may leave some of them removed.
+   *
+   * @param keys identifiers of the values to remove
+   * @throws UnsupportedOperationException if the store does not support removing values
+   */
+  default void deleteMany(Collection<String> keys) {
+    keys.forEach(this::delete);
+  }
+
+  /**
+   * Retrieve all String values whose key starts with a prefix, for example all cursors of a sync stored under
+   * {@code "sync-cursor."}. Not supported by default, as listing keys needs support from the store.
+   *
+   * @param keyPrefix prefix of the keys to retrieve, matched case-sensitively
+   * @return the values found ordered by key
+   * @throws UnsupportedOperationException if the store can not list its keys
+   */
+  default Map<String, String> getByPrefix(String keyPrefix) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support listing keys");
+  }
+
+  /**
+   * Run several store operations atomically: either all of their changes are persisted or, if the operations throw,
+   * none is. Reads within the operations see the changes made so far. Not supported by default, as atomicity needs
+   * support from the store.
+   *
+   * @param operations the operations to run on the store passed to them, which is only valid within the call
+   * @throws UnsupportedOperationException if the store does not support transactions
+   */
+  default void inTransaction(Consumer<ConnectorStore> operations) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support transactions");
+  }
 }
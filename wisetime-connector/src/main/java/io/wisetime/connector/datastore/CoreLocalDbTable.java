@@ -21,8 +21,33 @@ public final class CoreLocalDbTable {
   public static final LocalDbTable TABLE_KEY_MAP = new LocalDbTable("key_map",
       "id INTEGER PRIMARY KEY AUTOINCREMENT, "
         + "key_name TEXT, "
-        + "value TEXT ", Collections.emptyList());
+        + "value TEXT ", Collections.emptyList(),
+      ImmutableList.of(
+          new LocalDbTable.Migration(1, "key the table by key_name",
+              ImmutableList.of(
+                  "CREATE TABLE key_map_v1 (key_name TEXT PRIMARY KEY NOT NULL, value TEXT)",
+                  // the latest row of a key wins, as it was the one updated
+                  "INSERT INTO key_map_v1 (key_name, value) SELECT key_name, value FROM key_map"
+                      + " WHERE id IN (SELECT MAX(id) FROM key_map WHERE key_name IS NOT NULL GROUP BY key_name)",
+                  "DROP TABLE key_map",
+                  "ALTER TABLE key_map_v1 RENAME TO key_map")),
+          new LocalDbTable.Migration(2, "expiry time of entries stored with a ttl",
+              ImmutableList.of(
+                  // epoch millis, null for entries kept indefinitely
+                  "ALTER TABLE key_map ADD COLUMN expires_at INTEGER",
+                  "CREATE INDEX key_map_expires_at ON key_map (expires_at) WHERE expires_at IS NOT NULL"))
+      ));
+
+  /**
+   * Prefix of the weekly partitions of the time groups received, see {@link #timeGroupsReceivedPartition(long)}.
+   */
+  public static final String TIME_GROUPS_RECEIVED_PARTITION_PREFIX = "time_groups_received_w";
 
+  /**
+   * Single table of the time groups received used by earlier versions. Its rows are moved to the weekly partitions when
+   * the time group store starts.
+   * @see #timeGroupsReceivedPartition(long)
+   */
   public static final LocalDbTable TABLE_TIME_GROUPS_RECEIVED = new LocalDbTable("time_groups_received",
       "time_group_id TEXT PRIMARY KEY, "
         + "created_ts INTEGER NOT NULL, "
@@ -31,5 +56,67 @@ public final class CoreLocalDbTable {
       ImmutableList.of(
           new LocalDbTable.Modification("message",
               "ALTER TABLE time_groups_received ADD COLUMN message TEXT NOT NULL DEFAULT ''")
+      ),
+      ImmutableList.of(
+          new LocalDbTable.Migration(1, "index received_timestamp for the purge of old records",
+              ImmutableList.of(
+                  "CREATE INDEX IF NOT EXISTS time_groups_received_ts ON time_groups_received (received_timestamp)"))
       ));
+
+  /**
+   * Time groups received during one week, by the time they were last updated.
+   * @param epochWeek number of whole weeks since the epoch
+   * @see io.wisetime.connector.time_poster.deduplication.TimeGroupIdStore
+   */
+  public static LocalDbTable timeGroupsReceivedPartition(long epochWeek) {
+    return new LocalDbTable(TIME_GROUPS_RECEIVED_PARTITION_PREFIX + epochWeek,
+        "time_group_id TEXT PRIMARY KEY, "
+          + "created_ts INTEGER NOT NULL, "
+          + "received_timestamp INTEGER NOT NULL, "
+          + "post_result TEXT NOT NULL, "
+          + "message TEXT NOT NULL DEFAULT ''",
+        Collections.emptyList());
+  }
+
+  /**
+   * Index of a weekly partition of the time groups received. The sweep for pending status updates looks for time groups
+   * with a given post result received before a given time, the index serves it with a range per post result.
+   * @param epochWeek number of whole weeks since the epoch
+   * @see #timeGroupsReceivedPartition(long)
+   */
+  public static String timeGroupsReceivedPartitionIndex(long epochWeek) {
+    final String partition = TIME_GROUPS_RECEIVED_PARTITION_PREFIX + epochWeek;
+    return "CREATE INDEX IF NOT EXISTS " + partition + "_result_ts ON " + partition + " (post_result, received_timestamp)";
+  }
+
+  /**
+   * Fingerprints of tag keywords already uploaded to WiseTime.
+   * @see io.wisetime.connector.adjunct_keywords.SentKeywordIndex
+   */
+  public static final LocalDbTable TABLE_KEYWORDS_SENT = new LocalDbTable("keywords_sent",
+      "fingerprint INTEGER PRIMARY KEY, "
+        + "sent_ts INTEGER NOT NULL",
+      Collections.emptyList());
+
+  /**
+   * Migrations applied to each table of the local database.
+   * @see SqLiteHelper#createTable(LocalDbTable)
+   */
+  public static final LocalDbTable TABLE_SCHEMA_VERSION = new LocalDbTable("schema_version",
+      "table_name TEXT NOT NULL, "
+        + "version INTEGER NOT NULL, "
+        + "description TEXT NOT NULL, "
+        + "applied_ts INTEGER NOT NULL, "
+        + "PRIMARY KEY (table_name, version)",
+      Collections.emptyList());
+
+  /**
+   * Leases held by connector instances in active/passive deployments.
+   * @see io.wisetime.connector.lease.SqLiteLease
+   */
+  public static final LocalDbTable TABLE_LEASE = new LocalDbTable("lease",
+      "lease_name TEXT PRIMARY KEY, "
+        + "owner TEXT NOT NULL, "
+        + "expires_at INTEGER NOT NULL",
+      Collections.emptyList());
 }
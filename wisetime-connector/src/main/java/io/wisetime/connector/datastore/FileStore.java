@@ -6,10 +6,25 @@ package io.wisetime.connector.datastore;
 
 import static io.wisetime.connector.datastore.CoreLocalDbTable.TABLE_KEY_MAP;
 
+import com.google.common.collect.Lists;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.tuple.Pair;
 import org.codejargon.fluentjdbc.api.query.Query;
-import org.codejargon.fluentjdbc.api.query.UpdateResult;
 
 /**
  * Sqlite implementation of {@link ConnectorStore}. If {@link io.wisetime.connector.config.ConnectorConfigKey#DATA_DIR} is
@@ -21,6 +36,19 @@ import org.codejargon.fluentjdbc.api.query.UpdateResult;
 @Slf4j
 public class FileStore implements ConnectorStore {
 
+  // stays well below the SQLite limit on bound parameters
+  private static final int MAX_QUERY_PARAMS = 500;
+
+  private static final String UPSERT = "INSERT INTO " + TABLE_KEY_MAP.getName()
+      + " (key_name, value, expires_at) VALUES (?,?,?)"
+      + " ON CONFLICT(key_name) DO UPDATE SET value=excluded.value, expires_at=excluded.expires_at";
+
+  // condition on keys that have not expired, takes the current time as parameter
+  private static final String NOT_EXPIRED = "(expires_at IS NULL OR expires_at > ?)";
+
+  // expired keys are deleted in batches, so that other writes are not held up while many keys expire
+  private static final int EXPIRY_BATCH_SIZE = 500;
+
   private static FileStore instance;
 
   private SqLiteHelper sqLiteHelper;
@@ -42,43 +70,290 @@ public class FileStore implements ConnectorStore {
     return instance;
   }
 
+  /**
+   * Forgets the static singleton if it uses the given database, so that it is not handed out once the database has
+   * been closed.
+   */
+  public static synchronized void releaseInstance(SqLiteHelper sqLiteHelper) {
+    if (instance != null && instance.sqLiteHelper == sqLiteHelper) {
+      instance = null;
+    }
+  }
+
   @Override
   public Optional<String> getString(String key) {
-    return sqLiteHelper.query()
-        .select("SELECT value FROM " + TABLE_KEY_MAP.getName() + " WHERE key_name=?")
-        .params(key)
-        .firstResult(rs -> rs.getString(1));
+    return new QueryStore(sqLiteHelper.readQuery()).getString(key);
   }
 
   @Override
   public void putString(String key, String value) {
-    final Query query = sqLiteHelper.query();
-    query.transaction().inNoResult(() -> {
-      UpdateResult result = query.update("UPDATE " + TABLE_KEY_MAP.getName() + " SET value=? WHERE key_name=?")
-          .params(value, key)
-          .run();
-      if (result.affectedRows() == 0) {
-        // new key value
-        query.update("INSERT INTO " + TABLE_KEY_MAP.getName() + " (key_name,value) VALUES (?,?)")
-            .params(key, value)
-            .run();
-      }
-    });
+    SqLiteHelper.await(putStringAsync(key, value));
+  }
+
+  /**
+   * Like {@link #putString(String, String)}, without waiting for the value to be committed.
+   *
+   * @return completes once the value has been committed
+   */
+  public CompletableFuture<Void> putStringAsync(String key, String value) {
+    return sqLiteHelper.writeNoResult(query -> new QueryStore(query).putString(key, value));
+  }
+
+  @Override
+  public void putString(String key, String value, Duration ttl) {
+    SqLiteHelper.await(sqLiteHelper.writeNoResult(query -> new QueryStore(query).putString(key, value, ttl)));
   }
 
   @Override
   public Optional<Long> getLong(String key) {
-    return getString(key).flatMap(value -> {
-      try {
-        return Optional.of(Long.valueOf(value));
-      } catch (NumberFormatException e) {
-        return Optional.empty();
-      }
-    });
+    return getString(key).flatMap(FileStore::parseLong);
   }
 
   @Override
   public void putLong(String key, long value) {
     putString(key, String.valueOf(value));
   }
+
+  @Override
+  public void putLong(String key, long value, Duration ttl) {
+    putString(key, String.valueOf(value), ttl);
+  }
+
+  @Override
+  public Map<String, String> getMany(Collection<String> keys) {
+    return new QueryStore(sqLiteHelper.readQuery()).getMany(keys);
+  }
+
+  /**
+   * Like {@link #getMany(Collection)}, with the expiry time of each value.
+   */
+  Map<String, StoreEntry> getEntries(Collection<String> keys) {
+    return new QueryStore(sqLiteHelper.readQuery()).getEntries(keys);
+  }
+
+  @Override
+  public void putMany(Map<String, String> values) {
+    SqLiteHelper.await(putManyAsync(values));
+  }
+
+  /**
+   * Like {@link #putMany(Map)}, without waiting for the values to be committed.
+   *
+   * @return completes once the values have been committed
+   */
+  public CompletableFuture<Void> putManyAsync(Map<String, String> values) {
+    final Map<String, String> valuesCopy = new LinkedHashMap<>(values);
+    return sqLiteHelper.writeNoResult(query -> new QueryStore(query).putMany(valuesCopy));
+  }
+
+  @Override
+  public void delete(String key) {
+    deleteMany(List.of(key));
+  }
+
+  @Override
+  public void deleteMany(Collection<String> keys) {
+    final List<String> keysCopy = List.copyOf(keys);
+    SqLiteHelper.await(sqLiteHelper.writeNoResult(query -> new QueryStore(query).deleteMany(keysCopy)));
+  }
+
+  @Override
+  public Map<String, String> getByPrefix(String keyPrefix) {
+    return new QueryStore(sqLiteHelper.readQuery()).getByPrefix(keyPrefix);
+  }
+
+  /**
+   * Like {@link #getByPrefix(String)}, with the expiry time of each value.
+   */
+  Map<String, StoreEntry> getEntriesByPrefix(String keyPrefix) {
+    return new QueryStore(sqLiteHelper.readQuery()).getEntriesByPrefix(keyPrefix);
+  }
+
+  /**
+   * Removes the keys whose ttl has passed. Expired keys are already treated as absent, removing them keeps the store
+   * from growing.
+   *
+   * @return the number of keys removed
+   */
+  public long deleteExpired() {
+    long deleted = 0;
+    long batchDeleted;
+    do {
+      batchDeleted = SqLiteHelper.await(sqLiteHelper.write(query -> query
+          .update("DELETE FROM " + TABLE_KEY_MAP.getName() + " WHERE key_name IN (SELECT key_name FROM "
+              + TABLE_KEY_MAP.getName() + " WHERE expires_at <= ? LIMIT ?)")
+          .params(System.currentTimeMillis(), EXPIRY_BATCH_SIZE)
+          .run()
+          .affectedRows()));
+      deleted += batchDeleted;
+    } while (batchDeleted == EXPIRY_BATCH_SIZE);
+    if (deleted > 0) {
+      log.debug("Deleted {} expired keys from the connector store", deleted);
+    }
+    return deleted;
+  }
+
+  /**
+   * The operations run on the local database writer thread while it holds the database write lock, so they should
+   * only touch the store and not wait on anything else.
+   */
+  @Override
+  public void inTransaction(Consumer<ConnectorStore> operations) {
+    SqLiteHelper.await(sqLiteHelper.writeNoResult(query -> operations.accept(new QueryStore(query))));
+  }
+
+  private static Optional<Long> parseLong(String value) {
+    try {
+      return Optional.of(Long.valueOf(value));
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Runs all store operations on one query, either a read query or the query of a write in progress.
+   */
+  private static class QueryStore implements ConnectorStore {
+
+    private final Query query;
+    // expiry is checked against the time the store was created, a transaction sees the same keys expired throughout
+    private final long nowMs = System.currentTimeMillis();
+
+    QueryStore(Query query) {
+      this.query = query;
+    }
+
+    @Override
+    public Optional<String> getString(String key) {
+      return query.select("SELECT value FROM " + TABLE_KEY_MAP.getName() + " WHERE key_name=? AND " + NOT_EXPIRED)
+          .params(key, nowMs)
+          .firstResult(rs -> rs.getString(1));
+    }
+
+    @Override
+    public void putString(String key, String value) {
+      upsert(key, value, null);
+    }
+
+    @Override
+    public void putString(String key, String value, Duration ttl) {
+      upsert(key, value, StoreEntry.withTtl(value, ttl, nowMs).getExpiresAtMs());
+    }
+
+    @Override
+    public Optional<Long> getLong(String key) {
+      return getString(key).flatMap(FileStore::parseLong);
+    }
+
+    @Override
+    public void putLong(String key, long value) {
+      putString(key, String.valueOf(value));
+    }
+
+    @Override
+    public void putLong(String key, long value, Duration ttl) {
+      putString(key, String.valueOf(value), ttl);
+    }
+
+    @Override
+    public Map<String, String> getMany(Collection<String> keys) {
+      return values(getEntries(keys));
+    }
+
+    Map<String, StoreEntry> getEntries(Collection<String> keys) {
+      final Map<String, StoreEntry> entries = new LinkedHashMap<>();
+      for (List<String> chunk : Lists.partition(List.copyOf(new LinkedHashSet<>(keys)), MAX_QUERY_PARAMS)) {
+        final List<Object> params = new ArrayList<>(chunk);
+        params.add(nowMs);
+        query.select("SELECT key_name, value, expires_at FROM " + TABLE_KEY_MAP.getName()
+                + " WHERE key_name IN (" + placeholders(chunk.size()) + ") AND " + NOT_EXPIRED)
+            .params(params)
+            .iterateResult(rs -> Pair.of(rs.getString(1), toEntry(rs)),
+                row -> entries.put(row.getKey(), row.getValue()));
+      }
+      return entries;
+    }
+
+    @Override
+    public void putMany(Map<String, String> values) {
+      final Stream<List<?>> rows = values.entrySet().stream()
+          .map(entry -> Arrays.asList(entry.getKey(), entry.getValue(), null));
+      query.batch(UPSERT)
+          .params(rows)
+          .run();
+    }
+
+    @Override
+    public void delete(String key) {
+      deleteMany(List.of(key));
+    }
+
+    @Override
+    public void deleteMany(Collection<String> keys) {
+      for (List<String> chunk : Lists.partition(List.copyOf(new LinkedHashSet<>(keys)), MAX_QUERY_PARAMS)) {
+        deleteChunk(chunk);
+      }
+    }
+
+    @Override
+    public Map<String, String> getByPrefix(String keyPrefix) {
+      return values(getEntriesByPrefix(keyPrefix));
+    }
+
+    Map<String, StoreEntry> getEntriesByPrefix(String keyPrefix) {
+      final Map<String, StoreEntry> entries = new LinkedHashMap<>();
+      // unlike LIKE, GLOB is case-sensitive and can use an index on key_name
+      query.select("SELECT key_name, value, expires_at FROM " + TABLE_KEY_MAP.getName()
+              + " WHERE key_name GLOB ? AND " + NOT_EXPIRED + " ORDER BY key_name")
+          .params(globPrefix(keyPrefix), nowMs)
+          .iterateResult(rs -> Pair.of(rs.getString(1), toEntry(rs)),
+              row -> entries.put(row.getKey(), row.getValue()));
+      return entries;
+    }
+
+    @Override
+    public void inTransaction(Consumer<ConnectorStore> operations) {
+      // already within a transaction
+      operations.accept(this);
+    }
+
+    private void upsert(String key, String value, Long expiresAtMs) {
+      query.update(UPSERT)
+          .params(key, value, expiresAtMs)
+          .run();
+    }
+
+    private void deleteChunk(List<String> keys) {
+      query.update("DELETE FROM " + TABLE_KEY_MAP.getName() + " WHERE key_name IN (" + placeholders(keys.size()) + ")")
+          .params(keys)
+          .run();
+    }
+
+    private static StoreEntry toEntry(ResultSet rs) throws SQLException {
+      final long expiresAtMs = rs.getLong(3);
+      return StoreEntry.of(rs.getString(2), rs.wasNull() ? StoreEntry.NO_EXPIRY : expiresAtMs);
+    }
+
+    private static Map<String, String> values(Map<String, StoreEntry> entries) {
+      final Map<String, String> values = new LinkedHashMap<>();
+      entries.forEach((key, entry) -> values.put(key, entry.getValue()));
+      return values;
+    }
+
+    private static String placeholders(int count) {
+      return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static String globPrefix(String prefix) {
+      final StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+      for (char c : prefix.toCharArray()) {
+        if (c == '*' || c == '?' || c == '[') {
+          pattern.append('[').append(c).append(']');
+        } else {
+          pattern.append(c);
+        }
+      }
+      return pattern.append('*').toString();
+    }
+  }
 }
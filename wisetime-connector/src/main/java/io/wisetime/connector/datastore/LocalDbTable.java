@@ -4,22 +4,46 @@
 
 package io.wisetime.connector.datastore;
 
+import com.google.common.base.Preconditions;
+import java.util.Collections;
 import java.util.List;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 
 /**
+ * A table of the local database. The table is created with {@code schema}, then brought up to date by its
+ * {@code modifications} and its {@code migrations}, see {@link SqLiteHelper#createTable(LocalDbTable)}.
+ *
  * @author galya.bogdanova@staff.wisetime.io
  */
 @Getter
 @ToString
-@RequiredArgsConstructor
 public class LocalDbTable {
 
   private final String name;
   private final String schema;
   private final List<Modification> modifications;
+  private final List<Migration> migrations;
+
+  public LocalDbTable(String name, String schema, List<Modification> modifications) {
+    this(name, schema, modifications, Collections.emptyList());
+  }
+
+  /**
+   * @param schema     the schema the table was first created with, changes since then are made by migrations
+   * @param migrations migrations in ascending version order
+   */
+  public LocalDbTable(String name, String schema, List<Modification> modifications, List<Migration> migrations) {
+    for (int i = 1; i < migrations.size(); i++) {
+      Preconditions.checkArgument(migrations.get(i - 1).getVersion() < migrations.get(i).getVersion(),
+          "migrations of table %s must be in ascending version order", name);
+    }
+    this.name = name;
+    this.schema = schema;
+    this.modifications = modifications;
+    this.migrations = migrations;
+  }
 
   @Getter
   @ToString
@@ -28,4 +52,18 @@ public class LocalDbTable {
     private final String columnName;
     private final String sql;
   }
+
+  /**
+   * A versioned change to the table, applied once per database. The statements of a migration run in a single
+   * transaction, so they can rebuild the table: create a replacement, copy the rows over, drop the table and rename the
+   * replacement.
+   */
+  @Getter
+  @ToString
+  @RequiredArgsConstructor
+  public static class Migration {
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+  }
 }
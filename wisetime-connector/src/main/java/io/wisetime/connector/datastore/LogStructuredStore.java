@@ -0,0 +1,795 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link ConnectorStore} kept in append-only, memory-mapped segment files instead of the local database, for
+ * connectors that keep a large number of small keys such as id maps or hashes.
+ * <p>
+ * Every write appends a record to the current segment and updates an in-memory index of where the latest value of
+ * each key is, so reads are a map lookup and a copy out of the mapped segment. A record holds all the changes of one
+ * operation and is checksummed, so a write cut short by the process dying is ignored when the segments are read back
+ * on startup. Writes reach the operating system when they return and survive the process dying, but like the
+ * {@link SqLiteProfile#THROUGHPUT} profile the latest ones may be lost if the machine loses power.
+ * <p>
+ * Overwritten, deleted and expired values stay in their segment until {@link #compactIfNeeded()} moves the live values
+ * of the full segments to the current one and deletes the full segments.
+ * <p>
+ * The store locks its directory, so a second store opened on the same directory, by this or another process, fails
+ * instead of corrupting the current segment. The segments are not part of the local database snapshots taken by
+ * {@link SqLiteBackup}.
+ */
+@Slf4j
+public class LogStructuredStore implements ConnectorStore, AutoCloseable {
+
+  public static final int DEFAULT_SEGMENT_SIZE_BYTES = 64 << 20;
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String NEW_SEGMENT_SUFFIX = ".log.new";
+  private static final String LOCK_FILE = ".lock";
+  // checksum, record length, entry count
+  private static final int RECORD_HEADER_BYTES = 12;
+  // type, expiry, key length, value length
+  private static final int ENTRY_HEADER_BYTES = 17;
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+  // full segments are compacted once less than this share of their bytes is live
+  private static final double COMPACTION_LIVE_RATIO = 0.5;
+  private static final int COMPACTION_BATCH_SIZE = 1_000;
+  // directories locked by stores of this process; closing a second channel on a lock file would release its lock
+  private static final Set<String> LOCKED_DIRECTORIES = ConcurrentHashMap.newKeySet();
+
+  private final File directory;
+  private final int segmentSizeBytes;
+  private final FileLock directoryLock;
+  private final ConcurrentSkipListMap<String, Location> index = new ConcurrentSkipListMap<>();
+  // appends, segment rolls and compaction
+  private final ReentrantLock writeLock = new ReentrantLock();
+  // guarded by writeLock
+  private final List<Segment> segments = new ArrayList<>();
+  private Segment active;
+  private volatile boolean closed;
+
+  public LogStructuredStore(File directory) {
+    this(directory, DEFAULT_SEGMENT_SIZE_BYTES, null);
+  }
+
+  /**
+   * @param importSource if not null and the directory holds no segments yet, the entries of this store are copied
+   *                     into the new store, so that a connector keeps its state when it switches store
+   */
+  public LogStructuredStore(File directory, int segmentSizeBytes, FileStore importSource) {
+    Preconditions.checkArgument(segmentSizeBytes > RECORD_HEADER_BYTES, "segment size is too small");
+    this.directory = Preconditions.checkNotNull(directory);
+    this.segmentSizeBytes = segmentSizeBytes;
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new IllegalStateException("Failed to create store directory: " + directory.getAbsolutePath());
+    }
+    directoryLock = lockDirectory(directory);
+    try {
+      // left behind by an import interrupted by the process stopping
+      Arrays.stream(listFiles(NEW_SEGMENT_SUFFIX)).forEach(File::delete);
+      final File[] segmentFiles = listFiles(SEGMENT_SUFFIX);
+      if (segmentFiles.length == 0 && importSource != null) {
+        importEntries(importSource.getEntriesByPrefix(""));
+      }
+      recover();
+    } catch (RuntimeException e) {
+      releaseDirectory(directory, directoryLock);
+      throw e;
+    }
+  }
+
+  @Override
+  public Optional<String> getString(String key) {
+    return read(index.get(key), System.currentTimeMillis());
+  }
+
+  @Override
+  public void putString(String key, String value) {
+    append(List.of(Change.put(key, StoreEntry.of(value))));
+  }
+
+  @Override
+  public void putString(String key, String value, Duration ttl) {
+    append(List.of(Change.put(key, StoreEntry.withTtl(value, ttl, System.currentTimeMillis()))));
+  }
+
+  @Override
+  public Optional<Long> getLong(String key) {
+    return getString(key).flatMap(LogStructuredStore::parseLong);
+  }
+
+  @Override
+  public void putLong(String key, long value) {
+    putString(key, String.valueOf(value));
+  }
+
+  @Override
+  public void putLong(String key, long value, Duration ttl) {
+    putString(key, String.valueOf(value), ttl);
+  }
+
+  @Override
+  public Map<String, String> getMany(Collection<String> keys) {
+    final long nowMs = System.currentTimeMillis();
+    final Map<String, String> values = new LinkedHashMap<>();
+    for (String key : new LinkedHashSet<>(keys)) {
+      read(index.get(key), nowMs).ifPresent(value -> values.put(key, value));
+    }
+    return values;
+  }
+
+  @Override
+  public void putMany(Map<String, String> values) {
+    final List<Change> changes = new ArrayList<>(values.size());
+    values.forEach((key, value) -> changes.add(Change.put(key, StoreEntry.of(value))));
+    append(changes);
+  }
+
+  @Override
+  public void delete(String key) {
+    deleteMany(List.of(key));
+  }
+
+  @Override
+  public void deleteMany(Collection<String> keys) {
+    final List<Change> changes = new ArrayList<>(keys.size());
+    new LinkedHashSet<>(keys).forEach(key -> changes.add(Change.delete(key)));
+    append(changes);
+  }
+
+  @Override
+  public Map<String, String> getByPrefix(String keyPrefix) {
+    final long nowMs = System.currentTimeMillis();
+    final Map<String, String> values = new LinkedHashMap<>();
+    for (Map.Entry<String, Location> entry : index.tailMap(keyPrefix).entrySet()) {
+      if (!entry.getKey().startsWith(keyPrefix)) {
+        break;
+      }
+      read(entry.getValue(), nowMs).ifPresent(value -> values.put(entry.getKey(), value));
+    }
+    return values;
+  }
+
+  /**
+   * The changes of the operations are appended as a single record once they complete. Other writes wait until then,
+   * reads do not.
+   */
+  @Override
+  public void inTransaction(Consumer<ConnectorStore> operations) {
+    writeLock.lock();
+    try {
+      final TransactionStore transaction = new TransactionStore();
+      operations.accept(transaction);
+      append(new ArrayList<>(transaction.changes.values()));
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Compacts the full segments once less than half of their bytes hold live values: the live values are appended to
+   * the current segment, then the full segments are deleted. Writes are held up for one batch of moved values at a
+   * time, reads are not held up.
+   *
+   * @return whether the segments were compacted
+   */
+  public boolean compactIfNeeded() {
+    final Set<Segment> full;
+    final long fullBytes;
+    final long liveBytes;
+    writeLock.lock();
+    try {
+      checkOpen();
+      full = new LinkedHashSet<>(segments.subList(0, segments.size() - 1));
+      fullBytes = full.stream().mapToLong(Segment::getSize).sum();
+      liveBytes = full.stream().mapToLong(Segment::getLiveBytes).sum();
+    } finally {
+      writeLock.unlock();
+    }
+    if (full.isEmpty() || liveBytes >= fullBytes * COMPACTION_LIVE_RATIO) {
+      return false;
+    }
+    final long startMs = System.currentTimeMillis();
+    final List<String> batch = new ArrayList<>(COMPACTION_BATCH_SIZE);
+    for (Map.Entry<String, Location> entry : index.entrySet()) {
+      if (full.contains(entry.getValue().segment)) {
+        batch.add(entry.getKey());
+        if (batch.size() == COMPACTION_BATCH_SIZE) {
+          moveLive(batch, full);
+          batch.clear();
+        }
+      }
+    }
+    moveLive(batch, full);
+
+    writeLock.lock();
+    try {
+      checkOpen();
+      segments.removeAll(full);
+      // the moved values must be on disk before the segments they were moved from are gone
+      segments.forEach(segment -> segment.buffer.force());
+      // oldest first, so that a delete is never lost while an older value of its key remains
+      for (Segment segment : full) {
+        segment.closeAndDelete();
+      }
+    } finally {
+      writeLock.unlock();
+    }
+    log.info("Compacted {} store segments holding {} live of {} bytes in {}ms",
+        full.size(), liveBytes, fullBytes, System.currentTimeMillis() - startMs);
+    return true;
+  }
+
+  /**
+   * Writes the mapped segments to disk and closes them. The store cannot be used afterwards.
+   */
+  @Override
+  public void close() {
+    writeLock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      for (Segment segment : segments) {
+        segment.close();
+      }
+      releaseDirectory(directory, directoryLock);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  int getSegmentCount() {
+    writeLock.lock();
+    try {
+      return segments.size();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private Optional<String> read(Location location, long nowMs) {
+    checkOpen();
+    if (location == null || location.expiresAtMs <= nowMs) {
+      return Optional.empty();
+    }
+    return Optional.of(location.segment.readString(location.valueOffset, location.valueLength));
+  }
+
+  private void append(List<Change> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    final byte[] record = encode(changes);
+    writeLock.lock();
+    try {
+      checkOpen();
+      if (active.remaining() < record.length) {
+        active = newSegment(nextSequence(), Math.max(segmentSizeBytes, record.length), SEGMENT_SUFFIX);
+        segments.add(active);
+      }
+      apply(active, active.append(record), changes);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Appends the values of the keys that still live in the full segments to the current segment.
+   */
+  private void moveLive(List<String> keys, Set<Segment> full) {
+    final long nowMs = System.currentTimeMillis();
+    writeLock.lock();
+    try {
+      final List<Change> changes = new ArrayList<>(keys.size());
+      for (String key : keys) {
+        final Location location = index.get(key);
+        // keys written since the batch was collected are already in a newer segment
+        if (location == null || !full.contains(location.segment)) {
+          continue;
+        }
+        if (location.expiresAtMs <= nowMs) {
+          index.remove(key, location);
+          location.segment.released(location.entryBytes);
+        } else {
+          final String value = location.segment.readString(location.valueOffset, location.valueLength);
+          changes.add(Change.put(key, StoreEntry.of(value, location.expiresAtMs)));
+        }
+      }
+      append(changes);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Points the index at the entries of a record written at {@code offset} of the segment.
+   */
+  private void apply(Segment segment, int offset, List<Change> changes) {
+    int entryOffset = offset + RECORD_HEADER_BYTES;
+    for (Change change : changes) {
+      final int entryBytes = change.entryBytes();
+      final Location previous;
+      if (change.type == PUT) {
+        final int valueOffset = entryOffset + ENTRY_HEADER_BYTES + change.keyBytes.length;
+        previous = index.put(change.key, new Location(segment, valueOffset, change.valueBytes.length,
+            change.expiresAtMs, entryBytes));
+        segment.retained(entryBytes);
+      } else {
+        previous = index.remove(change.key);
+      }
+      if (previous != null) {
+        previous.segment.released(previous.entryBytes);
+      }
+      entryOffset += entryBytes;
+    }
+  }
+
+  private void recover() {
+    final File[] segmentFiles = listFiles(SEGMENT_SUFFIX);
+    Arrays.sort(segmentFiles, Comparator.comparing(File::getName));
+    for (File file : segmentFiles) {
+      final Segment segment = openSegment(file);
+      segments.add(segment);
+      replay(segment);
+    }
+    if (segments.isEmpty()) {
+      segments.add(newSegment(0, segmentSizeBytes, SEGMENT_SUFFIX));
+    }
+    active = segments.get(segments.size() - 1);
+    log.info("Opened store {} with {} keys in {} segments", directory.getAbsolutePath(), index.size(),
+        segments.size());
+  }
+
+  private void replay(Segment segment) {
+    final ByteBuffer buffer = segment.buffer;
+    int position = 0;
+    while (position + RECORD_HEADER_BYTES <= buffer.capacity()) {
+      final int length = buffer.getInt(position + 4);
+      if (length == 0) {
+        break;
+      }
+      if (length < RECORD_HEADER_BYTES || length > buffer.capacity() - position
+          || buffer.getInt(position) != checksum(buffer, position, length)) {
+        log.warn("Ignoring incomplete record at {} of store segment {}", position, segment.file.getName());
+        // a shorter record written over it later must not be followed by its remains
+        segment.zeroFrom(position);
+        break;
+      }
+      final int count = buffer.getInt(position + 8);
+      final List<Change> changes = new ArrayList<>(count);
+      int entryOffset = position + RECORD_HEADER_BYTES;
+      for (int i = 0; i < count; i++) {
+        final byte type = buffer.get(entryOffset);
+        final long expiresAtMs = buffer.getLong(entryOffset + 1);
+        final byte[] key = new byte[buffer.getInt(entryOffset + 9)];
+        final byte[] value = new byte[buffer.getInt(entryOffset + 13)];
+        buffer.get(entryOffset + ENTRY_HEADER_BYTES, key);
+        buffer.get(entryOffset + ENTRY_HEADER_BYTES + key.length, value);
+        changes.add(new Change(type, new String(key, StandardCharsets.UTF_8), key, value, expiresAtMs));
+        entryOffset += ENTRY_HEADER_BYTES + key.length + value.length;
+      }
+      apply(segment, position, changes);
+      position += length;
+    }
+    segment.recovered(position);
+  }
+
+  private void importEntries(Map<String, StoreEntry> entries) {
+    final long nowMs = System.currentTimeMillis();
+    final List<Change> changes = new ArrayList<>(entries.size());
+    entries.forEach((key, entry) -> {
+      if (entry.valueAt(nowMs).isPresent()) {
+        changes.add(Change.put(key, entry));
+      }
+    });
+    final byte[] record = changes.isEmpty() ? new byte[0] : encode(changes);
+    // written under a temporary name, so that an interrupted import is started over
+    final Segment segment = newSegment(0, Math.max(segmentSizeBytes, record.length), NEW_SEGMENT_SUFFIX);
+    if (record.length > 0) {
+      segment.append(record);
+    }
+    segment.buffer.force();
+    segment.close();
+    try {
+      Files.move(segment.file.toPath(), segmentFile(0, SEGMENT_SUFFIX).toPath(), StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    log.info("Imported {} keys into store {}", changes.size(), directory.getAbsolutePath());
+  }
+
+  private long nextSequence() {
+    return segments.isEmpty() ? 0 : segments.get(segments.size() - 1).sequence + 1;
+  }
+
+  private Segment newSegment(long sequence, int sizeBytes, String suffix) {
+    final File file = segmentFile(sequence, suffix);
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      final FileChannel channel = randomAccessFile.getChannel();
+      // the mapping stays valid once the channel is closed
+      return new Segment(sequence, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create store segment " + file.getAbsolutePath(), e);
+    }
+  }
+
+  private Segment openSegment(File file) {
+    final long sequence = Long.parseLong(
+        file.getName().substring(SEGMENT_PREFIX.length(), file.getName().length() - SEGMENT_SUFFIX.length()));
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      final FileChannel channel = randomAccessFile.getChannel();
+      return new Segment(sequence, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open store segment " + file.getAbsolutePath(), e);
+    }
+  }
+
+  private File segmentFile(long sequence, String suffix) {
+    return new File(directory, String.format("%s%010d%s", SEGMENT_PREFIX, sequence, suffix));
+  }
+
+  private File[] listFiles(String suffix) {
+    final File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(suffix));
+    return files == null ? new File[0] : files;
+  }
+
+  /**
+   * @throws IllegalStateException if another store, of this or another process, has the directory open
+   */
+  private static FileLock lockDirectory(File directory) {
+    final String path = lockKey(directory);
+    if (!LOCKED_DIRECTORIES.add(path)) {
+      throw new IllegalStateException("Store directory is already in use by this process: " + path);
+    }
+    FileChannel channel = null;
+    try {
+      channel = FileChannel.open(new File(directory, LOCK_FILE).toPath(),
+          StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      final FileLock lock = channel.tryLock();
+      if (lock != null) {
+        return lock;
+      }
+    } catch (IOException e) {
+      closeQuietly(channel);
+      LOCKED_DIRECTORIES.remove(path);
+      throw new UncheckedIOException("Failed to lock store directory: " + path, e);
+    }
+    closeQuietly(channel);
+    LOCKED_DIRECTORIES.remove(path);
+    throw new IllegalStateException("Store directory is in use by another process: " + path);
+  }
+
+  private static void releaseDirectory(File directory, FileLock lock) {
+    try {
+      lock.release();
+    } catch (IOException e) {
+      log.warn("Failed to release the lock of store directory {}", directory.getAbsolutePath(), e);
+    }
+    closeQuietly(lock.channel());
+    LOCKED_DIRECTORIES.remove(lockKey(directory));
+  }
+
+  private static String lockKey(File directory) {
+    return directory.toPath().toAbsolutePath().normalize().toString();
+  }
+
+  private static void closeQuietly(FileChannel channel) {
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.close();
+    } catch (IOException e) {
+      log.warn("Failed to close store lock file", e);
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("store has been closed: " + directory.getAbsolutePath());
+    }
+  }
+
+  private static byte[] encode(List<Change> changes) {
+    int length = RECORD_HEADER_BYTES;
+    for (Change change : changes) {
+      length += change.entryBytes();
+    }
+    final ByteBuffer record = ByteBuffer.allocate(length);
+    record.putInt(0);
+    record.putInt(length);
+    record.putInt(changes.size());
+    for (Change change : changes) {
+      record.put(change.type);
+      record.putLong(change.expiresAtMs);
+      record.putInt(change.keyBytes.length);
+      record.putInt(change.valueBytes.length);
+      record.put(change.keyBytes);
+      record.put(change.valueBytes);
+    }
+    record.putInt(0, checksum(record, 0, length));
+    return record.array();
+  }
+
+  /**
+   * @return the checksum of a record, which covers everything but the checksum itself
+   */
+  private static int checksum(ByteBuffer buffer, int offset, int length) {
+    final CRC32C crc = new CRC32C();
+    crc.update(buffer.slice(offset + 4, length - 4));
+    return (int) crc.getValue();
+  }
+
+  private static Optional<Long> parseLong(String value) {
+    try {
+      return Optional.of(Long.valueOf(value));
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Where the latest value of a key is.
+   */
+  private static final class Location {
+
+    private final Segment segment;
+    private final int valueOffset;
+    private final int valueLength;
+    private final long expiresAtMs;
+    // size of the whole entry, for the count of live bytes of the segment
+    private final int entryBytes;
+
+    private Location(Segment segment, int valueOffset, int valueLength, long expiresAtMs, int entryBytes) {
+      this.segment = segment;
+      this.valueOffset = valueOffset;
+      this.valueLength = valueLength;
+      this.expiresAtMs = expiresAtMs;
+      this.entryBytes = entryBytes;
+    }
+  }
+
+  /**
+   * A change to a single key, as it is written to a segment.
+   */
+  private static final class Change {
+
+    private static final byte[] NO_VALUE = new byte[0];
+
+    private final byte type;
+    private final String key;
+    private final byte[] keyBytes;
+    private final byte[] valueBytes;
+    private final long expiresAtMs;
+
+    private Change(byte type, String key, byte[] keyBytes, byte[] valueBytes, long expiresAtMs) {
+      this.type = type;
+      this.key = key;
+      this.keyBytes = keyBytes;
+      this.valueBytes = valueBytes;
+      this.expiresAtMs = expiresAtMs;
+    }
+
+    static Change put(String key, StoreEntry entry) {
+      Preconditions.checkNotNull(entry.getValue(), "value of %s must not be null", key);
+      return new Change(PUT, key, key.getBytes(StandardCharsets.UTF_8),
+          entry.getValue().getBytes(StandardCharsets.UTF_8), entry.getExpiresAtMs());
+    }
+
+    static Change delete(String key) {
+      return new Change(DELETE, key, key.getBytes(StandardCharsets.UTF_8), NO_VALUE, StoreEntry.NO_EXPIRY);
+    }
+
+    int entryBytes() {
+      return ENTRY_HEADER_BYTES + keyBytes.length + valueBytes.length;
+    }
+
+    StoreEntry toEntry() {
+      return type == PUT ? StoreEntry.of(new String(valueBytes, StandardCharsets.UTF_8), expiresAtMs)
+          : StoreEntry.absent();
+    }
+  }
+
+  /**
+   * A memory-mapped segment file. Bytes are only appended while the segment is the current one, and are never changed
+   * once the index points to them, so reads need no lock.
+   */
+  private static final class Segment {
+
+    private final long sequence;
+    private final File file;
+    private final MappedByteBuffer buffer;
+    // guarded by the write lock of the store
+    private int size;
+    private long liveBytes;
+
+    private Segment(long sequence, File file, MappedByteBuffer buffer) {
+      this.sequence = sequence;
+      this.file = file;
+      this.buffer = buffer;
+    }
+
+    String readString(int offset, int length) {
+      final byte[] bytes = new byte[length];
+      buffer.get(offset, bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    int remaining() {
+      return buffer.capacity() - size;
+    }
+
+    /**
+     * @return offset the record was written at
+     */
+    int append(byte[] record) {
+      final int offset = size;
+      buffer.put(offset, record);
+      size += record.length;
+      return offset;
+    }
+
+    void recovered(int recoveredSize) {
+      size = recoveredSize;
+    }
+
+    void zeroFrom(int offset) {
+      buffer.put(offset, new byte[buffer.capacity() - offset]);
+    }
+
+    void retained(int bytes) {
+      liveBytes += bytes;
+    }
+
+    void released(int bytes) {
+      liveBytes -= bytes;
+    }
+
+    int getSize() {
+      return size;
+    }
+
+    long getLiveBytes() {
+      return liveBytes;
+    }
+
+    void close() {
+      // the mapping itself is released once no location refers to the segment
+      buffer.force();
+    }
+
+    void closeAndDelete() {
+      if (!file.delete()) {
+        log.warn("Failed to delete compacted store segment {}", file.getAbsolutePath());
+      }
+    }
+  }
+
+  /**
+   * Collects the changes of a transaction, which reads see before they are appended.
+   */
+  private final class TransactionStore implements ConnectorStore {
+
+    private final Map<String, Change> changes = new LinkedHashMap<>();
+
+    @Override
+    public Optional<String> getString(String key) {
+      final Change change = changes.get(key);
+      return change == null
+          ? LogStructuredStore.this.getString(key)
+          : change.toEntry().valueAt(System.currentTimeMillis());
+    }
+
+    @Override
+    public void putString(String key, String value) {
+      record(Change.put(key, StoreEntry.of(value)));
+    }
+
+    @Override
+    public void putString(String key, String value, Duration ttl) {
+      record(Change.put(key, StoreEntry.withTtl(value, ttl, System.currentTimeMillis())));
+    }
+
+    @Override
+    public Optional<Long> getLong(String key) {
+      return getString(key).flatMap(LogStructuredStore::parseLong);
+    }
+
+    @Override
+    public void putLong(String key, long value) {
+      putString(key, String.valueOf(value));
+    }
+
+    @Override
+    public void putLong(String key, long value, Duration ttl) {
+      putString(key, String.valueOf(value), ttl);
+    }
+
+    @Override
+    public Map<String, String> getMany(Collection<String> keys) {
+      final Map<String, String> values = new LinkedHashMap<>();
+      for (String key : new LinkedHashSet<>(keys)) {
+        getString(key).ifPresent(value -> values.put(key, value));
+      }
+      return values;
+    }
+
+    @Override
+    public void putMany(Map<String, String> values) {
+      values.forEach(this::putString);
+    }
+
+    @Override
+    public void delete(String key) {
+      record(Change.delete(key));
+    }
+
+    @Override
+    public void deleteMany(Collection<String> keys) {
+      keys.forEach(this::delete);
+    }
+
+    @Override
+    public Map<String, String> getByPrefix(String keyPrefix) {
+      final long nowMs = System.currentTimeMillis();
+      final TreeMap<String, String> values = new TreeMap<>(LogStructuredStore.this.getByPrefix(keyPrefix));
+      changes.forEach((key, change) -> {
+        if (key.startsWith(keyPrefix)) {
+          values.remove(key);
+          change.toEntry().valueAt(nowMs).ifPresent(value -> values.put(key, value));
+        }
+      });
+      return values;
+    }
+
+    @Override
+    public void inTransaction(Consumer<ConnectorStore> operations) {
+      operations.accept(this);
+    }
+
+    private void record(Change change) {
+      // a later change of the key replaces the earlier one, and is appended in the order of its latest change
+      changes.remove(change.key);
+      changes.put(change.key, change);
+    }
+  }
+}
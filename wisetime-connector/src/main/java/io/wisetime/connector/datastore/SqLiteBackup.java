@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.sqlite.SQLiteDataSource;
+import org.sqlite.SQLiteErrorCode;
+
+/**
+ * Online snapshots of the local database, so that cursors, posting history and time group deduplication state can be
+ * recovered when the database file is lost or corrupted.
+ * <p>
+ * A snapshot is written with {@code VACUUM INTO} on a read connection. In WAL mode the read transaction it runs in does
+ * not block writers, so a backup never holds up the writer thread; writes committed while the snapshot is written are
+ * left for the next one. Snapshots are written to a temporary file and renamed once complete, and only the latest are
+ * kept.
+ */
+@Slf4j
+public class SqLiteBackup {
+
+  private static final String SNAPSHOT_PREFIX = "wisetime-";
+  private static final String SNAPSHOT_SUFFIX = ".sqlite";
+  private static final String PARTIAL_SUFFIX = ".partial";
+  // names sort in the order the snapshots were taken
+  private static final DateTimeFormatter SNAPSHOT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS'Z'")
+      .withZone(ZoneOffset.UTC);
+
+  private final SqLiteHelper sqLiteHelper;
+  private final File backupDir;
+  private final int retainCount;
+
+  /**
+   * @param retainCount number of snapshots kept, older snapshots are deleted once a new one is complete
+   */
+  public SqLiteBackup(SqLiteHelper sqLiteHelper, File backupDir, int retainCount) {
+    Preconditions.checkArgument(retainCount > 0, "retained snapshot count must be positive");
+    this.sqLiteHelper = Preconditions.checkNotNull(sqLiteHelper);
+    this.backupDir = Preconditions.checkNotNull(backupDir);
+    this.retainCount = retainCount;
+  }
+
+  /**
+   * Writes a snapshot of the database and deletes the snapshots beyond the retained count.
+   *
+   * @return the snapshot file
+   */
+  public synchronized File backup() {
+    if (!backupDir.exists() && !backupDir.mkdirs()) {
+      throw new IllegalStateException("Failed to create backup directory: " + backupDir.getAbsolutePath());
+    }
+    // left behind by a backup interrupted by the process stopping
+    deleteFiles(listFiles(backupDir, PARTIAL_SUFFIX));
+
+    final long startMs = System.currentTimeMillis();
+    final File snapshot = new File(backupDir, SNAPSHOT_PREFIX + SNAPSHOT_TIMESTAMP.format(Instant.now()) + SNAPSHOT_SUFFIX);
+    final File partial = new File(backupDir, snapshot.getName() + PARTIAL_SUFFIX);
+    try {
+      sqLiteHelper.readQuery()
+          .update("VACUUM INTO ?")
+          .params(partial.getAbsolutePath())
+          .run();
+      Files.move(partial.toPath(), snapshot.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to complete snapshot " + snapshot.getAbsolutePath(), e);
+    } finally {
+      deleteFiles(List.of(partial));
+    }
+    log.info("Local database snapshot {} written in {}ms, {} bytes",
+        snapshot.getName(), System.currentTimeMillis() - startMs, snapshot.length());
+
+    final List<File> snapshots = listSnapshots(backupDir);
+    deleteFiles(snapshots.subList(Math.min(retainCount, snapshots.size()), snapshots.size()));
+    return snapshot;
+  }
+
+  /**
+   * Replaces a missing or corrupt database file with the latest snapshot that passes an integrity check. Must be called
+   * before the database is opened. A corrupt database file is kept next to the restored one.
+   * <p>
+   * The database only counts as corrupt if SQLite reports it so. Any other failure to check it, e.g. the database being
+   * locked by another instance or an I/O error, is thrown: restoring a snapshot would discard the commits since.
+   *
+   * @return whether the database file was restored
+   * @throws IllegalStateException if the database or a snapshot could not be checked
+   */
+  public static boolean restoreIfNeeded(File databaseFile, File backupDir) {
+    if (databaseFile.exists() && isIntact(databaseFile)) {
+      return false;
+    }
+    for (File snapshot : listSnapshots(backupDir)) {
+      if (!isIntact(snapshot)) {
+        log.warn("Skipping corrupt local database snapshot {}", snapshot.getAbsolutePath());
+        continue;
+      }
+      log.warn("Restoring {} local database {} from snapshot {}", databaseFile.exists() ? "corrupt" : "missing",
+          databaseFile.getAbsolutePath(), snapshot.getAbsolutePath());
+      try {
+        if (databaseFile.exists()) {
+          Files.move(databaseFile.toPath(),
+              new File(databaseFile.getAbsolutePath() + ".corrupt-" + System.currentTimeMillis()).toPath());
+        }
+        // the log of the replaced database must not be applied to the snapshot
+        deleteFiles(List.of(new File(databaseFile.getAbsolutePath() + "-wal"),
+            new File(databaseFile.getAbsolutePath() + "-shm")));
+        Files.copy(snapshot.toPath(), databaseFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to restore local database from " + snapshot.getAbsolutePath(), e);
+      }
+      return true;
+    }
+    if (databaseFile.exists()) {
+      log.error("Local database {} is corrupt and there is no snapshot to restore it from",
+          databaseFile.getAbsolutePath());
+    }
+    return false;
+  }
+
+  /**
+   * @return the snapshots in the directory, latest first
+   */
+  static List<File> listSnapshots(File backupDir) {
+    return listFiles(backupDir, SNAPSHOT_SUFFIX).stream()
+        .sorted(Comparator.comparing(File::getName).reversed())
+        .collect(Collectors.toList());
+  }
+
+  private static List<File> listFiles(File backupDir, String suffix) {
+    final File[] files = backupDir.listFiles((dir, name) -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(suffix));
+    return files == null ? List.of() : Arrays.asList(files);
+  }
+
+  private static boolean isIntact(File databaseFile) {
+    final SQLiteDataSource dataSource = new SQLiteDataSource();
+    dataSource.setUrl("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+    try (Connection connection = dataSource.getConnection();
+         Statement statement = connection.createStatement();
+         ResultSet rs = statement.executeQuery("PRAGMA quick_check")) {
+      return rs.next() && "ok".equalsIgnoreCase(rs.getString(1));
+    } catch (SQLException e) {
+      if (isCorruption(e)) {
+        log.warn("Local database {} is corrupt", databaseFile.getAbsolutePath(), e);
+        return false;
+      }
+      throw new IllegalStateException("Failed to check local database " + databaseFile.getAbsolutePath(), e);
+    }
+  }
+
+  private static boolean isCorruption(SQLException e) {
+    // extended result codes carry the primary code in their lowest byte
+    final int primaryCode = e.getErrorCode() & 0xff;
+    return primaryCode == SQLiteErrorCode.SQLITE_CORRUPT.code || primaryCode == SQLiteErrorCode.SQLITE_NOTADB.code;
+  }
+
+  private static void deleteFiles(List<File> files) {
+    for (File file : files) {
+      if (file.exists() && !file.delete()) {
+        log.warn("Failed to delete {}", file.getAbsolutePath());
+      }
+    }
+  }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+/**
+ * How {@link SqLiteHelper} manages its connections to the local database.
+ */
+public enum SqLiteConnectionMode {
+
+  /**
+   * A long-lived writer connection used by one thread at a time, a small pool of read connections, and a cache of
+   * prepared statements on each connection.
+   */
+  POOLED,
+
+  /**
+   * A new connection is opened for every query and closed afterwards.
+   */
+  PER_QUERY
+}
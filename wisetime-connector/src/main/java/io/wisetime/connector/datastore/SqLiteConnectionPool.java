@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.DataSource;
+import org.codejargon.fluentjdbc.api.integration.ConnectionProvider;
+
+/**
+ * Long-lived connections to the local database for {@link SqLiteConnectionMode#POOLED}.
+ * <p>
+ * All writes go through a single connection held by one thread at a time, which is the concurrency SQLite allows
+ * anyway, so writers queue up on a lock instead of retrying on busy errors. Reads run on a small pool of connections
+ * opened on demand; in WAL mode they do not wait for writes in progress.
+ */
+class SqLiteConnectionPool implements AutoCloseable {
+
+  private final DataSource dataSource;
+  private final int maxReadConnections;
+  private final int statementCacheSize;
+  private final SqLiteStatsRecorder stats;
+
+  private final ReentrantLock writerLock = new ReentrantLock();
+  // guarded by writerLock
+  private CachingConnection writer;
+
+  private final BlockingQueue<CachingConnection> idleReaders = new LinkedBlockingQueue<>();
+  // guarded by this
+  private final List<CachingConnection> readers = new ArrayList<>();
+  private volatile boolean closed;
+
+  SqLiteConnectionPool(DataSource dataSource, int maxReadConnections, int statementCacheSize,
+      SqLiteStatsRecorder stats) {
+    this.dataSource = dataSource;
+    this.maxReadConnections = maxReadConnections;
+    this.statementCacheSize = statementCacheSize;
+    this.stats = stats;
+  }
+
+  ConnectionProvider writeConnections() {
+    return query -> {
+      final long waitStartNanos = System.nanoTime();
+      writerLock.lock();
+      try {
+        checkOpen();
+        if (writer == null) {
+          writer = open();
+        }
+        final long useStartNanos = System.nanoTime();
+        stats.connectionAcquired(useStartNanos - waitStartNanos);
+        try {
+          query.receive(writer.getConnection());
+        } finally {
+          writer.reset();
+          stats.queryCompleted(System.nanoTime() - useStartNanos);
+        }
+      } finally {
+        writerLock.unlock();
+      }
+    };
+  }
+
+  ConnectionProvider readConnections() {
+    return query -> {
+      final long waitStartNanos = System.nanoTime();
+      final CachingConnection reader = acquireReader();
+      final long useStartNanos = System.nanoTime();
+      stats.connectionAcquired(useStartNanos - waitStartNanos);
+      try {
+        query.receive(reader.getConnection());
+      } finally {
+        stats.queryCompleted(System.nanoTime() - useStartNanos);
+        reader.reset();
+        if (closed) {
+          reader.close();
+        } else {
+          idleReaders.add(reader);
+        }
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    writerLock.lock();
+    try {
+      if (writer != null) {
+        writer.close();
+        writer = null;
+      }
+    } finally {
+      writerLock.unlock();
+    }
+    synchronized (this) {
+      // readers in use are closed when they are returned
+      idleReaders.forEach(CachingConnection::close);
+      idleReaders.clear();
+      readers.clear();
+    }
+  }
+
+  private CachingConnection acquireReader() throws SQLException {
+    final CachingConnection idle = idleReaders.poll();
+    if (idle != null) {
+      return idle;
+    }
+    synchronized (this) {
+      checkOpen();
+      if (readers.size() < maxReadConnections) {
+        final CachingConnection reader = open();
+        readers.add(reader);
+        return reader;
+      }
+    }
+    try {
+      return idleReaders.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for a local database connection", e);
+    }
+  }
+
+  private void checkOpen() throws SQLException {
+    if (closed) {
+      throw new SQLException("local database has been closed");
+    }
+  }
+
+  private CachingConnection open() throws SQLException {
+    final Connection connection = dataSource.getConnection();
+    stats.connectionOpened();
+    return new CachingConnection(connection, statementCacheSize, stats);
+  }
+}
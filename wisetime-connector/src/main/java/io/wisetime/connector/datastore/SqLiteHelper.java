@@ -5,6 +5,11 @@
 package io.wisetime.connector.datastore;
 
 import static io.wisetime.connector.config.ConnectorConfigKey.DATA_DIR;
+import static io.wisetime.connector.config.ConnectorConfigKey.SQLITE_BACKUP_DIR;
+import static io.wisetime.connector.config.ConnectorConfigKey.SQLITE_CONNECTION_MODE;
+import static io.wisetime.connector.config.ConnectorConfigKey.SQLITE_PROFILE;
+import static io.wisetime.connector.config.ConnectorConfigKey.SQLITE_RESTORE_FROM_BACKUP;
+import static io.wisetime.connector.datastore.CoreLocalDbTable.TABLE_SCHEMA_VERSION;
 
 import io.wisetime.connector.config.ConnectorConfigKey;
 import io.wisetime.connector.config.RuntimeConfig;
@@ -12,25 +17,70 @@ import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import javax.sql.DataSource;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.codejargon.fluentjdbc.api.FluentJdbc;
 import org.codejargon.fluentjdbc.api.FluentJdbcBuilder;
+import org.codejargon.fluentjdbc.api.integration.ConnectionProvider;
 import org.codejargon.fluentjdbc.api.mapper.Mappers;
 import org.codejargon.fluentjdbc.api.query.Query;
 import org.sqlite.SQLiteDataSource;
 
 /**
+ * Access to the local SQLite database. See {@link SqLiteConnectionMode} for how connections are managed; the mode is
+ * set with {@link io.wisetime.connector.config.ConnectorConfigKey#SQLITE_CONNECTION_MODE} and defaults to pooled.
+ * The {@link SqLiteProfile} is set with {@link io.wisetime.connector.config.ConnectorConfigKey#SQLITE_PROFILE} and
+ * defaults to throughput.
+ * <p>
+ * Snapshots of the database are written by {@link SqLiteBackup} to {@link #getBackupDir()}. If
+ * {@link io.wisetime.connector.config.ConnectorConfigKey#SQLITE_RESTORE_FROM_BACKUP} is set, a missing or corrupt
+ * database is restored from the latest snapshot before it is opened.
+ * <p>
+ * Writes should go through {@link #write(Function)}, which commits them in groups on a single writer thread instead
+ * of having every caller contend for the database write lock.
+ *
  * @author galya.bogdanova
  */
 @Slf4j
-public class SqLiteHelper {
+public class SqLiteHelper implements AutoCloseable {
 
-  private final FluentJdbc fluentJdbc;
+  private static final int MAX_READ_CONNECTIONS = 4;
+  private static final int STATEMENT_CACHE_SIZE = 64;
+  private static final int MAX_GROUP_COMMIT_SIZE = 256;
+
+  private final SqLiteConnectionMode connectionMode;
+  private final SqLiteProfile profile;
+  private final SqLiteStatsRecorder stats;
+  private File databaseFile;
+  private File walFile;
+  private File backupDir;
+  // null unless pooled
+  private SqLiteConnectionPool connectionPool;
+  private FluentJdbc fluentJdbc;
+  private FluentJdbc readFluentJdbc;
+  // started with the first write, guarded by this
+  private SqLiteWriter writer;
+  private boolean closed;
 
   public SqLiteHelper(File databaseFile) {
-    this.fluentJdbc = setupDataSource(databaseFile);
+    this(databaseFile, configuredConnectionMode());
+  }
+
+  public SqLiteHelper(File databaseFile, SqLiteConnectionMode connectionMode) {
+    this(databaseFile, connectionMode, configuredProfile());
+  }
+
+  public SqLiteHelper(File databaseFile, SqLiteConnectionMode connectionMode, SqLiteProfile profile) {
+    this.connectionMode = connectionMode;
+    this.profile = profile;
+    this.stats = new SqLiteStatsRecorder(connectionMode, profile);
+    setupDataSource(databaseFile);
   }
 
   /**
@@ -38,6 +88,9 @@ public class SqLiteHelper {
    *                              explicit location is provided via config.
    */
   public SqLiteHelper(boolean persistentStorageOnly) {
+    this.connectionMode = configuredConnectionMode();
+    this.profile = configuredProfile();
+    this.stats = new SqLiteStatsRecorder(connectionMode, profile);
     final String persistentStoreDirPath = RuntimeConfig.getString(DATA_DIR).orElse(null);
     if (persistentStorageOnly && StringUtils.isBlank(persistentStoreDirPath)) {
       throw new IllegalArgumentException(String.format(
@@ -50,7 +103,7 @@ public class SqLiteHelper {
       throw new IllegalArgumentException(
           String.format("Store directory does not exist: '%s'", persistentStoreDir.getAbsolutePath()));
     }
-    this.fluentJdbc = setupDataSource(new File(persistentStoreDir, "wisetime.sqlite"));
+    setupDataSource(new File(persistentStoreDir, "wisetime.sqlite"));
   }
 
   private File getPersistentStorageDir(String persistentStoreDirPath) {
@@ -77,19 +130,89 @@ public class SqLiteHelper {
     }
   }
 
-  private FluentJdbc setupDataSource(File databaseFile) {
+  private synchronized SqLiteWriter getWriter() {
+    if (closed) {
+      throw new IllegalStateException("local database has been closed");
+    }
+    if (writer == null) {
+      writer = new SqLiteWriter(this::query, MAX_GROUP_COMMIT_SIZE, stats);
+    }
+    return writer;
+  }
+
+  private static SqLiteConnectionMode configuredConnectionMode() {
+    return RuntimeConfig.getString(SQLITE_CONNECTION_MODE)
+        .map(SqLiteConnectionMode::valueOf)
+        .orElse(SqLiteConnectionMode.POOLED);
+  }
+
+  private static SqLiteProfile configuredProfile() {
+    return RuntimeConfig.getString(SQLITE_PROFILE)
+        .map(profile -> SqLiteProfile.valueOf(profile.trim().toUpperCase()))
+        .orElse(SqLiteProfile.THROUGHPUT);
+  }
+
+  private void setupDataSource(File databaseFile) {
+    this.databaseFile = databaseFile;
+    walFile = new File(databaseFile.getAbsolutePath() + "-wal");
+    final File dataDir = databaseFile.getAbsoluteFile().getParentFile();
+    // a shared backup directory holds a subdirectory per data directory, so that the connectors of a host do not
+    // delete or restore each other's snapshots
+    backupDir = RuntimeConfig.getString(SQLITE_BACKUP_DIR)
+        .map(dir -> new File(dir.trim(), dataDir.getName()))
+        .orElseGet(() -> new File(dataDir, "backups"));
+    if (RuntimeConfig.getBoolean(SQLITE_RESTORE_FROM_BACKUP).orElse(false)) {
+      SqLiteBackup.restoreIfNeeded(databaseFile, backupDir);
+    }
+    final DataSource dataSource = fileToDataSource(databaseFile);
+    if (connectionMode == SqLiteConnectionMode.POOLED) {
+      connectionPool = new SqLiteConnectionPool(dataSource, MAX_READ_CONNECTIONS, STATEMENT_CACHE_SIZE, stats);
+      fluentJdbc = buildFluentJdbc(connectionPool.writeConnections());
+      readFluentJdbc = buildFluentJdbc(connectionPool.readConnections());
+    } else {
+      fluentJdbc = buildFluentJdbc(perQueryConnections(dataSource));
+      readFluentJdbc = fluentJdbc;
+    }
+  }
+
+  private static FluentJdbc buildFluentJdbc(ConnectionProvider connectionProvider) {
     return new FluentJdbcBuilder()
-        .connectionProvider(fileToDataSource(databaseFile))
+        .connectionProvider(connectionProvider)
         .build();
   }
 
+  private ConnectionProvider perQueryConnections(DataSource dataSource) {
+    return query -> {
+      final long openStartNanos = System.nanoTime();
+      try (Connection connection = dataSource.getConnection()) {
+        final long useStartNanos = System.nanoTime();
+        stats.connectionOpened();
+        stats.connectionAcquired(useStartNanos - openStartNanos);
+        try {
+          query.receive(connection);
+        } finally {
+          stats.queryCompleted(System.nanoTime() - useStartNanos);
+        }
+      }
+    };
+  }
+
   private DataSource fileToDataSource(File databaseFile) {
     final SQLiteDataSource sqLiteDataSource = new SQLiteDataSource();
-    String jdbcUrl = "jdbc:sqlite:%s?journal_mode=WAL&synchronous=OFF&journal_size_limit=500";
-    sqLiteDataSource.setUrl(String.format(jdbcUrl, databaseFile.getAbsolutePath()));
+    // negative cache_size is in KiB rather than pages
+    String jdbcUrl = "jdbc:sqlite:%s?journal_mode=WAL&synchronous=%s&journal_size_limit=%d&mmap_size=%d"
+        + "&cache_size=-%d&temp_store=%s";
+    sqLiteDataSource.setUrl(String.format(jdbcUrl, databaseFile.getAbsolutePath(), profile.getSynchronous(),
+        profile.getJournalSizeLimitBytes(), profile.getMmapSizeBytes(), profile.getCacheSizeKib(),
+        profile.getTempStore()));
     return sqLiteDataSource;
   }
 
+  /**
+   * Creates the table if it does not exist yet, then applies its modifications and the migrations not yet applied to
+   * this database. Pending migrations are applied in version order, each in its own transaction together with the
+   * record of its version in {@code schema_version}.
+   */
   @SuppressWarnings("UnusedReturnValue")
   public boolean createTable(LocalDbTable table) {
     fluentJdbc.query()
@@ -105,9 +228,49 @@ public class SqLiteHelper {
         fluentJdbc.query().update(modification.getSql()).run();
       }
     }
+    migrate(table);
     return doesTableExist(table);
   }
 
+  /**
+   * @return the version of the latest migration applied to the table, 0 if none
+   */
+  public int getSchemaVersion(LocalDbTable table) {
+    if (!doesTableExist(TABLE_SCHEMA_VERSION)) {
+      return 0;
+    }
+    return query()
+        .select("SELECT MAX(version) FROM " + TABLE_SCHEMA_VERSION.getName() + " WHERE table_name=?")
+        .params(table.getName())
+        .singleResult(rs -> rs.getInt(1));
+  }
+
+  private void migrate(LocalDbTable table) {
+    if (table.getMigrations().isEmpty()) {
+      return;
+    }
+    createTable(TABLE_SCHEMA_VERSION);
+    for (LocalDbTable.Migration migration : table.getMigrations()) {
+      // versions are checked within the write, another process may be migrating the same database
+      await(writeNoResult(query -> {
+        final boolean applied = query
+            .select("SELECT COUNT(*) FROM " + TABLE_SCHEMA_VERSION.getName() + " WHERE table_name=? AND version=?")
+            .params(table.getName(), migration.getVersion())
+            .singleResult(rs -> rs.getLong(1)) > 0;
+        if (applied) {
+          return;
+        }
+        log.info("Migrating local table {} to version {}: {}",
+            table.getName(), migration.getVersion(), migration.getDescription());
+        migration.getStatements().forEach(sql -> query.update(sql).run());
+        query.update("INSERT INTO " + TABLE_SCHEMA_VERSION.getName()
+                + " (table_name, version, description, applied_ts) VALUES (?,?,?,?)")
+            .params(table.getName(), migration.getVersion(), migration.getDescription(), System.currentTimeMillis())
+            .run();
+      }));
+    }
+  }
+
   private boolean doesTableExist(LocalDbTable table) {
     int foundTables = fluentJdbc.query()
         .select("SELECT * FROM sqlite_master WHERE type='table' and name='" + table.getName() + "'")
@@ -116,7 +279,113 @@ public class SqLiteHelper {
     return foundTables >= 1;
   }
 
+  /**
+   * @return query for reads and writes. Transactions must be run on this query.
+   */
   public Query query() {
     return fluentJdbc.query();
   }
+
+  /**
+   * Query for reads outside of a transaction. In pooled mode it runs on one of the read connections, so it does not
+   * queue up behind writes, and it does not see changes of a transaction still in progress on {@link #query()}.
+   */
+  public Query readQuery() {
+    return readFluentJdbc.query();
+  }
+
+  /**
+   * Queues a write for the writer thread, which commits the writes of all callers in groups. Writes must not be
+   * submitted from within a transaction of {@link #query()}, which would hold the connection the writer needs.
+   *
+   * @param operation runs the statements of the write on the query it is given, within the group transaction
+   * @return completes with the result of the operation once it has been committed
+   */
+  public <T> CompletableFuture<T> write(Function<Query, T> operation) {
+    return getWriter().submit(operation);
+  }
+
+  /**
+   * Like {@link #write(Function)}, for writes without a result.
+   */
+  public CompletableFuture<Void> writeNoResult(Consumer<Query> operation) {
+    return write(query -> {
+      operation.accept(query);
+      return null;
+    });
+  }
+
+  /**
+   * Waits for a write submitted with {@link #write(Function)}, rethrowing its failure unwrapped.
+   */
+  public static <T> T await(CompletableFuture<T> write) {
+    try {
+      return write.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Copies the pages of the write-ahead log into the database file, without waiting for readers or writers. Pages still
+   * in use by a reader, or written while the checkpoint runs, are left for the next checkpoint.
+   * <p>
+   * Runs on a read connection, so it does not hold up writes.
+   */
+  public void checkpoint() {
+    final long startNanos = System.nanoTime();
+    // busy, frames in the log, frames checkpointed; both frame counts are -1 if the database is not in WAL mode
+    final long[] result = readQuery()
+        .select("PRAGMA wal_checkpoint(PASSIVE)")
+        .singleResult(rs -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+    stats.checkpointCompleted(result[0] != 0, result[1], result[2], System.nanoTime() - startNanos);
+    if (result[1] > result[2]) {
+      log.debug("Checkpointed {} of {} write-ahead log frames", result[2], result[1]);
+    }
+  }
+
+  public SqLiteConnectionMode getConnectionMode() {
+    return connectionMode;
+  }
+
+  public SqLiteProfile getProfile() {
+    return profile;
+  }
+
+  public File getDatabaseFile() {
+    return databaseFile;
+  }
+
+  /**
+   * @return the directory snapshots of this database are written to and restored from
+   */
+  public File getBackupDir() {
+    return backupDir;
+  }
+
+  public SqLiteStats getStats() {
+    return stats.snapshot(walFile.length());
+  }
+
+  /**
+   * Commits the writes already queued and closes the pooled connections. Queries fail once the helper has been
+   * closed.
+   */
+  @Override
+  public void close() {
+    final SqLiteWriter writer;
+    synchronized (this) {
+      closed = true;
+      writer = this.writer;
+    }
+    if (writer != null) {
+      writer.close();
+    }
+    if (connectionPool != null) {
+      connectionPool.close();
+    }
+  }
 }
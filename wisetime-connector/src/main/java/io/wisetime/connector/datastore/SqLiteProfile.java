@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * Performance settings of the local database, trading durability against speed. The database always runs in WAL
+ * mode; the profile sets how often it syncs to disk, how much of it is memory mapped and cached, and how often the
+ * write-ahead log is checkpointed into the database file.
+ */
+@Getter
+public enum SqLiteProfile {
+
+  /**
+   * Never waits for the disk to sync. Committed writes survive the process dying, but the latest ones may be lost if
+   * the machine loses power. Large memory map and page cache.
+   */
+  THROUGHPUT("OFF", 128L << 20, 32 << 10, "MEMORY", 500, Duration.ofMinutes(1)),
+
+  /**
+   * Syncs when the write-ahead log is checkpointed, so the database cannot be corrupted by a power loss but the latest
+   * commits may be rolled back.
+   */
+  BALANCED("NORMAL", 32L << 20, 8 << 10, "MEMORY", 4L << 20, Duration.ofSeconds(30)),
+
+  /**
+   * Syncs on every commit, so committed writes survive a power loss. No memory map and SQLite's default page cache.
+   */
+  DURABLE("FULL", 0, 2 << 10, "DEFAULT", 4L << 20, Duration.ofSeconds(10));
+
+  private final String synchronous;
+  private final long mmapSizeBytes;
+  private final int cacheSizeKib;
+  private final String tempStore;
+
+  /**
+   * Size the write-ahead log is truncated to after a checkpoint.
+   */
+  private final long journalSizeLimitBytes;
+
+  /**
+   * How often the write-ahead log is checkpointed in the background, in addition to SQLite's own checkpoints.
+   */
+  private final Duration checkpointInterval;
+
+  SqLiteProfile(String synchronous, long mmapSizeBytes, int cacheSizeKib, String tempStore,
+      long journalSizeLimitBytes, Duration checkpointInterval) {
+    this.synchronous = synchronous;
+    this.mmapSizeBytes = mmapSizeBytes;
+    this.cacheSizeKib = cacheSizeKib;
+    this.tempStore = tempStore;
+    this.journalSizeLimitBytes = journalSizeLimitBytes;
+    this.checkpointInterval = checkpointInterval;
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import lombok.Data;
+
+/**
+ * Snapshot of the connection and query timings of a {@link SqLiteHelper}.
+ */
+@Data
+public class SqLiteStats {
+
+  private final SqLiteConnectionMode connectionMode;
+  private final SqLiteProfile profile;
+  private final long connectionsOpened;
+
+  /**
+   * Connection uses, that is single queries or whole transactions.
+   */
+  private final long queries;
+
+  /**
+   * Time spent opening a connection or waiting for a pooled one.
+   */
+  private final long totalConnectionWaitMicros;
+  private final long maxConnectionWaitMicros;
+
+  /**
+   * Time spent using a connection.
+   */
+  private final long totalQueryMicros;
+  private final long maxQueryMicros;
+  private final long statementCacheHits;
+  private final long statementCacheMisses;
+
+  /**
+   * Transactions committed by the writer thread, and the writes they contained.
+   */
+  private final long groupCommits;
+  private final long groupedWrites;
+  private final long totalGroupCommitMicros;
+
+  /**
+   * Background checkpoints of the write-ahead log, and how many of them could not copy every frame.
+   */
+  private final long checkpoints;
+  private final long busyCheckpoints;
+  private final long totalCheckpointMicros;
+
+  /**
+   * Current size of the write-ahead log file.
+   */
+  private final long walSizeBytes;
+
+  /**
+   * Frames in the write-ahead log at the last checkpoint, and how many of them it copied into the database file.
+   */
+  private final long walFrames;
+  private final long checkpointedWalFrames;
+}
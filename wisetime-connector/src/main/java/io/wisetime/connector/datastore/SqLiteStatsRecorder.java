@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the timings behind {@link SqLiteStats}.
+ */
+class SqLiteStatsRecorder {
+
+  private final SqLiteConnectionMode connectionMode;
+  private final SqLiteProfile profile;
+  private final LongAdder connectionsOpened = new LongAdder();
+  private final LongAdder queries = new LongAdder();
+  private final LongAdder totalConnectionWaitNanos = new LongAdder();
+  private final AtomicLong maxConnectionWaitNanos = new AtomicLong();
+  private final LongAdder totalQueryNanos = new LongAdder();
+  private final AtomicLong maxQueryNanos = new AtomicLong();
+  private final LongAdder statementCacheHits = new LongAdder();
+  private final LongAdder statementCacheMisses = new LongAdder();
+  private final LongAdder groupCommits = new LongAdder();
+  private final LongAdder groupedWrites = new LongAdder();
+  private final LongAdder totalGroupCommitNanos = new LongAdder();
+  private final LongAdder checkpoints = new LongAdder();
+  private final LongAdder busyCheckpoints = new LongAdder();
+  private final LongAdder totalCheckpointNanos = new LongAdder();
+  private final AtomicLong walFrames = new AtomicLong();
+  private final AtomicLong checkpointedWalFrames = new AtomicLong();
+
+  SqLiteStatsRecorder(SqLiteConnectionMode connectionMode, SqLiteProfile profile) {
+    this.connectionMode = connectionMode;
+    this.profile = profile;
+  }
+
+  void connectionOpened() {
+    connectionsOpened.increment();
+  }
+
+  void connectionAcquired(long waitNanos) {
+    totalConnectionWaitNanos.add(waitNanos);
+    maxConnectionWaitNanos.accumulateAndGet(waitNanos, Math::max);
+  }
+
+  void queryCompleted(long durationNanos) {
+    queries.increment();
+    totalQueryNanos.add(durationNanos);
+    maxQueryNanos.accumulateAndGet(durationNanos, Math::max);
+  }
+
+  void statementCacheHit() {
+    statementCacheHits.increment();
+  }
+
+  void statementCacheMiss() {
+    statementCacheMisses.increment();
+  }
+
+  void groupCommitted(int writes, long durationNanos) {
+    groupCommits.increment();
+    groupedWrites.add(writes);
+    totalGroupCommitNanos.add(durationNanos);
+  }
+
+  void checkpointCompleted(boolean busy, long logFrames, long checkpointedFrames, long durationNanos) {
+    checkpoints.increment();
+    if (busy) {
+      busyCheckpoints.increment();
+    }
+    totalCheckpointNanos.add(durationNanos);
+    walFrames.set(Math.max(logFrames, 0));
+    checkpointedWalFrames.set(Math.max(checkpointedFrames, 0));
+  }
+
+  SqLiteStats snapshot(long walSizeBytes) {
+    return new SqLiteStats(
+        connectionMode,
+        profile,
+        connectionsOpened.sum(),
+        queries.sum(),
+        toMicros(totalConnectionWaitNanos.sum()),
+        toMicros(maxConnectionWaitNanos.get()),
+        toMicros(totalQueryNanos.sum()),
+        toMicros(maxQueryNanos.get()),
+        statementCacheHits.sum(),
+        statementCacheMisses.sum(),
+        groupCommits.sum(),
+        groupedWrites.sum(),
+        toMicros(totalGroupCommitNanos.sum()),
+        checkpoints.sum(),
+        busyCheckpoints.sum(),
+        toMicros(totalCheckpointNanos.sum()),
+        walSizeBytes,
+        walFrames.get(),
+        checkpointedWalFrames.get());
+  }
+
+  private static long toMicros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+}
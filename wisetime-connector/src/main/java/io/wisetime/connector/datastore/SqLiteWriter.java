@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.codejargon.fluentjdbc.api.query.Query;
+
+/**
+ * Runs all writes to the local database on a single thread and commits them in groups.
+ * <p>
+ * Writes are queued and picked up by the writer thread, which applies everything queued so far, up to
+ * {@code maxGroupSize} writes, in one transaction. Each write runs within its own savepoint, so a failing write is
+ * rolled back on its own without affecting the rest of the group. The future of a write completes once its group has
+ * been committed.
+ */
+@Slf4j
+class SqLiteWriter implements AutoCloseable {
+
+  private static final int QUEUE_CAPACITY = 10_000;
+  private static final long POLL_INTERVAL_MS = 250;
+  private static final String SAVEPOINT = "grouped_write";
+
+  private final Supplier<Query> queries;
+  private final int maxGroupSize;
+  private final SqLiteStatsRecorder stats;
+  private final BlockingQueue<WriteRequest<?>> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+  private final Thread writerThread;
+  private volatile boolean closed;
+
+  SqLiteWriter(Supplier<Query> queries, int maxGroupSize, SqLiteStatsRecorder stats) {
+    this.queries = queries;
+    this.maxGroupSize = maxGroupSize;
+    this.stats = stats;
+    this.writerThread = new Thread(this::writeLoop, "sqlite-writer");
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  /**
+   * Queues a write, blocking while the queue is full.
+   *
+   * @param operation runs the statements of the write on the query it is given
+   */
+  <T> CompletableFuture<T> submit(Function<Query, T> operation) {
+    if (Thread.currentThread() == writerThread) {
+      // a write issued by another write joins the group in progress
+      try {
+        return CompletableFuture.completedFuture(operation.apply(queries.get()));
+      } catch (RuntimeException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+    if (closed) {
+      return CompletableFuture.failedFuture(new IllegalStateException("local database writer has been closed"));
+    }
+    final WriteRequest<T> request = new WriteRequest<>(operation);
+    try {
+      queue.put(request);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      request.future.completeExceptionally(e);
+    }
+    return request.future;
+  }
+
+  /**
+   * Commits the writes already queued, then stops the writer thread.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      writerThread.join(TimeUnit.MINUTES.toMillis(1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (writerThread.isAlive()) {
+      log.warn("Local database writer did not finish within a minute, {} writes dropped", queue.size());
+      writerThread.interrupt();
+    }
+  }
+
+  private void writeLoop() {
+    final List<WriteRequest<?>> group = new ArrayList<>(maxGroupSize);
+    while (!closed || !queue.isEmpty()) {
+      try {
+        final WriteRequest<?> first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        group.add(first);
+        queue.drainTo(group, maxGroupSize - 1);
+        commit(group);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } finally {
+        group.clear();
+      }
+    }
+    final List<WriteRequest<?>> dropped = new ArrayList<>();
+    queue.drainTo(dropped);
+    dropped.forEach(request -> request.future.completeExceptionally(
+        new IllegalStateException("local database writer has been closed")));
+  }
+
+  private void commit(List<WriteRequest<?>> group) {
+    final Query query = queries.get();
+    final List<WriteRequest<?>> applied = new ArrayList<>(group.size());
+    final long startNanos = System.nanoTime();
+    try {
+      query.transaction().inNoResult(() -> {
+        applied.clear();
+        for (WriteRequest<?> request : group) {
+          query.update("SAVEPOINT " + SAVEPOINT).run();
+          try {
+            request.apply(query);
+            applied.add(request);
+          } catch (RuntimeException e) {
+            query.update("ROLLBACK TO " + SAVEPOINT).run();
+            request.future.completeExceptionally(e);
+          }
+          query.update("RELEASE " + SAVEPOINT).run();
+        }
+      });
+    } catch (RuntimeException e) {
+      log.error("Failed to commit {} grouped writes to the local database", group.size(), e);
+      group.forEach(request -> request.future.completeExceptionally(e));
+      return;
+    }
+    stats.groupCommitted(applied.size(), System.nanoTime() - startNanos);
+    applied.forEach(WriteRequest::complete);
+  }
+
+  private static class WriteRequest<T> {
+
+    private final Function<Query, T> operation;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private T result;
+
+    WriteRequest(Function<Query, T> operation) {
+      this.operation = operation;
+    }
+
+    void apply(Query query) {
+      result = operation.apply(query);
+    }
+
+    void complete() {
+      future.complete(result);
+    }
+  }
+}
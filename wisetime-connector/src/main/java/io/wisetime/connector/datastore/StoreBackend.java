@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+/**
+ * Where the {@link ConnectorStore} of a connector keeps its keys.
+ */
+public enum StoreBackend {
+
+  /**
+   * A table of the local database, see {@link FileStore}.
+   */
+  SQLITE,
+
+  /**
+   * Append-only memory-mapped segment files next to the local database, see {@link LogStructuredStore}. Suits
+   * connectors that keep a large number of small keys. The keys of the local database are copied over the first time
+   * the connector starts with this backend. The segment files are not included in the local database snapshots, so
+   * the connector store is not backed up with this backend. Not used when a lease is enabled, as the instances of a
+   * lease can not share the segment files; the store is then kept in the local database.
+   */
+  LOG_STRUCTURED
+}
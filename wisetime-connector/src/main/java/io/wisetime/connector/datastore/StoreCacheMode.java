@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+/**
+ * Whether the {@link ConnectorStore} of a connector is cached in memory, and when writes to it become durable.
+ */
+public enum StoreCacheMode {
+
+  /**
+   * Every read and write goes to the local database.
+   */
+  DISABLED,
+
+  /**
+   * Reads are served from memory once a key has been read. Writes are committed to the local database before they
+   * return, so nothing is lost if the process dies.
+   */
+  WRITE_THROUGH,
+
+  /**
+   * Reads and writes are served from memory. Writes are committed to the local database in the background on an
+   * interval and when the connector stops, so writes made since the last flush are lost if the process dies.
+   */
+  WRITE_BEHIND
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import lombok.Data;
+
+/**
+ * Snapshot of the effectiveness of a {@link CachingConnectorStore}.
+ */
+@Data
+public class StoreCacheStats {
+
+  private final StoreCacheMode mode;
+
+  /**
+   * Reads answered from memory, including reads of keys known to have no value.
+   */
+  private final long hits;
+
+  /**
+   * Reads that had to go to the local database.
+   */
+  private final long misses;
+  private final long evictions;
+  private final long entries;
+
+  /**
+   * Writes not yet committed to the local database, always zero unless in {@link StoreCacheMode#WRITE_BEHIND} mode.
+   */
+  private final long pendingWrites;
+  private final long flushes;
+  private final long flushedWrites;
+  private final long failedFlushes;
+}
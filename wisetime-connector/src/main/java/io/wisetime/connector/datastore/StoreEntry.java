@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import com.google.common.base.Preconditions;
+import java.time.Duration;
+import java.util.Optional;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * A value of the connector store together with its expiry time.
+ */
+@Getter(AccessLevel.PACKAGE)
+final class StoreEntry {
+
+  static final long NO_EXPIRY = Long.MAX_VALUE;
+
+  private static final StoreEntry ABSENT = new StoreEntry(null, NO_EXPIRY);
+
+  // null if the key has no value
+  private final String value;
+  private final long expiresAtMs;
+
+  private StoreEntry(String value, long expiresAtMs) {
+    this.value = value;
+    this.expiresAtMs = expiresAtMs;
+  }
+
+  static StoreEntry absent() {
+    return ABSENT;
+  }
+
+  static StoreEntry of(String value) {
+    return new StoreEntry(value, NO_EXPIRY);
+  }
+
+  static StoreEntry of(String value, long expiresAtMs) {
+    return new StoreEntry(value, expiresAtMs);
+  }
+
+  static StoreEntry withTtl(String value, Duration ttl, long nowMs) {
+    Preconditions.checkArgument(ttl.compareTo(Duration.ZERO) > 0, "ttl must be positive, was %s", ttl);
+    return new StoreEntry(value, nowMs + ttl.toMillis());
+  }
+
+  /**
+   * @return the value unless the key has no value or it has expired by {@code nowMs}
+   */
+  Optional<String> valueAt(long nowMs) {
+    return value == null || expiresAtMs <= nowMs ? Optional.empty() : Optional.of(value);
+  }
+
+  boolean isAbsent() {
+    return value == null;
+  }
+
+  boolean expires() {
+    return expiresAtMs != NO_EXPIRY;
+  }
+}
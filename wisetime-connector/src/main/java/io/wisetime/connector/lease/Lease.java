@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.lease;
+
+import java.time.Duration;
+
+/**
+ * Exclusive, time limited right of one connector instance to fetch posted time and run the syncs, for active/passive
+ * deployments of the same connector. Implementations must be safe to use from several processes at the same time.
+ *
+ * @see SqLiteLease
+ */
+public interface Lease {
+
+  /**
+   * Takes the lease if it is free or has expired, or extends it if this instance already holds it.
+   *
+   * @param ttl how long the lease remains valid without another renewal
+   * @return true if this instance holds the lease for the next {@code ttl}
+   */
+  boolean acquireOrRenew(Duration ttl);
+
+  /**
+   * Gives up the lease if this instance holds it, so that a standby instance can take over straight away.
+   */
+  void release();
+
+  /**
+   * @return id of this instance as a lease owner
+   */
+  String getOwnerId();
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.lease;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps a {@link Lease} with heartbeats and tells whether this instance is the active one.
+ * <p>
+ * Each run of the keeper takes or renews the lease, so it should run every {@link #getHeartbeatInterval()}. A standby
+ * instance takes over at its first heartbeat after the active instance released the lease or stopped renewing it,
+ * that is within the lease TTL plus one heartbeat interval. An instance considers itself active only until the lease
+ * it last renewed expires, so it steps down on time even if its heartbeats stall.
+ */
+@Slf4j
+public class LeaseKeeper implements Runnable, BooleanSupplier {
+
+  private static final int HEARTBEATS_PER_TTL = 3;
+
+  private final Lease lease;
+  private final Duration ttl;
+
+  private volatile boolean held;
+  private volatile long heldUntilNanos;
+
+  public LeaseKeeper(Lease lease, Duration ttl) {
+    this.lease = lease;
+    this.ttl = ttl;
+  }
+
+  public Duration getHeartbeatInterval() {
+    return ttl.dividedBy(HEARTBEATS_PER_TTL);
+  }
+
+  @Override
+  public void run() {
+    final long attemptNanos = System.nanoTime();
+    final boolean acquired;
+    try {
+      acquired = lease.acquireOrRenew(ttl);
+    } catch (RuntimeException e) {
+      // keep acting on the lease held so far, it lapses on its own if the store stays unavailable
+      log.warn("Failed to renew lease of {}", lease.getOwnerId(), e);
+      return;
+    }
+    if (acquired) {
+      heldUntilNanos = attemptNanos + ttl.toNanos();
+      if (!held) {
+        log.info("Acquired lease as {}, this instance is now active", lease.getOwnerId());
+      }
+    } else if (held) {
+      log.warn("Lost lease as {}, this instance is now on standby", lease.getOwnerId());
+    }
+    held = acquired;
+  }
+
+  /**
+   * @return true while this instance holds an unexpired lease
+   */
+  public boolean isHeld() {
+    return held && System.nanoTime() - heldUntilNanos < 0;
+  }
+
+  @Override
+  public boolean getAsBoolean() {
+    return isHeld();
+  }
+
+  /**
+   * Gives up the lease so that a standby instance can take over straight away.
+   */
+  public void release() {
+    if (!held) {
+      return;
+    }
+    held = false;
+    try {
+      lease.release();
+      log.info("Released lease of {}", lease.getOwnerId());
+    } catch (RuntimeException e) {
+      log.warn("Failed to release lease of {}, it expires within {}", lease.getOwnerId(), ttl, e);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.lease;
+
+import static io.wisetime.connector.datastore.CoreLocalDbTable.TABLE_LEASE;
+
+import io.wisetime.connector.datastore.SqLiteHelper;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * {@link Lease} stored as a row of the local SQLite database. Instances that compete for the lease must use the same
+ * database file, for example on shared storage.
+ * <p>
+ * Taking and renewing the lease is a single conditional UPDATE, which SQLite runs atomically across processes. Expiry
+ * times are wall clock times of the instances, so their clocks must be in sync to well within the lease TTL. SQLite
+ * relies on file locking, which is only dependable on local disks and a few network file systems.
+ */
+public class SqLiteLease implements Lease {
+
+  public static final String DEFAULT_LEASE_NAME = "connector";
+
+  private final SqLiteHelper sqLiteHelper;
+  private final String leaseName;
+  private final String ownerId;
+
+  public SqLiteLease(SqLiteHelper sqLiteHelper) {
+    this(sqLiteHelper, DEFAULT_LEASE_NAME, defaultOwnerId());
+  }
+
+  public SqLiteLease(SqLiteHelper sqLiteHelper, String leaseName, String ownerId) {
+    this.sqLiteHelper = sqLiteHelper;
+    this.leaseName = leaseName;
+    this.ownerId = ownerId;
+    sqLiteHelper.createTable(TABLE_LEASE);
+    // the row exists from here on, so acquiring never races on the insert
+    SqLiteHelper.await(sqLiteHelper.writeNoResult(query -> query
+        .update("INSERT OR IGNORE INTO " + TABLE_LEASE.getName() + " (lease_name, owner, expires_at) VALUES (?, '', 0)")
+        .params(leaseName)
+        .run()));
+  }
+
+  @Override
+  public boolean acquireOrRenew(Duration ttl) {
+    final long updated = SqLiteHelper.await(sqLiteHelper.write(query -> {
+      // read the clock when the update runs rather than when it was queued
+      final long now = System.currentTimeMillis();
+      return query.update("UPDATE " + TABLE_LEASE.getName()
+              + " SET owner=?, expires_at=? WHERE lease_name=? AND (owner=? OR expires_at<?)")
+          .params(ownerId, now + ttl.toMillis(), leaseName, ownerId, now)
+          .run()
+          .affectedRows();
+    }));
+    return updated == 1;
+  }
+
+  @Override
+  public void release() {
+    SqLiteHelper.await(sqLiteHelper.writeNoResult(query -> query
+        .update("UPDATE " + TABLE_LEASE.getName() + " SET expires_at=0 WHERE lease_name=? AND owner=?")
+        .params(leaseName, ownerId)
+        .run()));
+  }
+
+  @Override
+  public String getOwnerId() {
+    return ownerId;
+  }
+
+  private static String defaultOwnerId() {
+    return ProcessHandle.current().pid() + "-" + UUID.randomUUID();
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.metric;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Execution statistics of a runner: outcome counters and a histogram of run durations.
+ * <p>
+ * This class is fully threadsafe
+ */
+public class RunMetrics {
+
+  /**
+   * Upper bounds of the duration histogram buckets in milliseconds. Longer runs fall in a final unbounded bucket.
+   */
+  static final long[] BUCKET_UPPER_BOUNDS_MS = {
+      100,
+      TimeUnit.SECONDS.toMillis(1),
+      TimeUnit.SECONDS.toMillis(5),
+      TimeUnit.SECONDS.toMillis(15),
+      TimeUnit.SECONDS.toMillis(30),
+      TimeUnit.MINUTES.toMillis(1),
+      TimeUnit.MINUTES.toMillis(5),
+      TimeUnit.MINUTES.toMillis(15),
+      TimeUnit.MINUTES.toMillis(60)
+  };
+
+  private final String runnerName;
+  private final AtomicLongArray durationBuckets = new AtomicLongArray(BUCKET_UPPER_BOUNDS_MS.length + 1);
+  private final AtomicLong successCount = new AtomicLong();
+  private final AtomicLong failureCount = new AtomicLong();
+  private final AtomicLong skippedOverlapCount = new AtomicLong();
+  private final AtomicLong totalDurationMs = new AtomicLong();
+  private final AtomicLong maxDurationMs = new AtomicLong();
+  private final AtomicReference<Instant> lastSuccess = new AtomicReference<>();
+
+  public RunMetrics(String runnerName) {
+    this.runnerName = runnerName;
+  }
+
+  public void recordSuccess(long durationMs) {
+    recordDuration(durationMs);
+    successCount.incrementAndGet();
+    lastSuccess.set(Instant.now());
+  }
+
+  public void recordFailure(long durationMs) {
+    recordDuration(durationMs);
+    failureCount.incrementAndGet();
+  }
+
+  /**
+   * Records a run that was skipped because the previous run had not completed yet. The scheduler never starts a task
+   * while it is running, so this counts runs started outside the schedule, e.g. the managed config fetch at startup or
+   * a status update triggered by the time poster.
+   */
+  public void recordSkippedOverlap() {
+    skippedOverlapCount.incrementAndGet();
+  }
+
+  public RunMetricsInfo getInfo() {
+    final Map<Long, Long> histogram = new TreeMap<>();
+    for (int i = 0; i < durationBuckets.length(); i++) {
+      final long upperBound = i < BUCKET_UPPER_BOUNDS_MS.length ? BUCKET_UPPER_BOUNDS_MS[i] : Long.MAX_VALUE;
+      histogram.put(upperBound, durationBuckets.get(i));
+    }
+    final Instant lastSuccessTime = lastSuccess.get();
+    return RunMetricsInfo.builder()
+        .runnerName(runnerName)
+        .successCount(successCount.get())
+        .failureCount(failureCount.get())
+        .skippedOverlapCount(skippedOverlapCount.get())
+        .totalDurationMs(totalDurationMs.get())
+        .maxDurationMs(maxDurationMs.get())
+        .durationHistogram(histogram)
+        .lastSuccess(lastSuccessTime)
+        .timeSinceLastSuccess(lastSuccessTime == null ? null : Duration.between(lastSuccessTime, Instant.now()))
+        .build();
+  }
+
+  private void recordDuration(long durationMs) {
+    int bucket = 0;
+    while (bucket < BUCKET_UPPER_BOUNDS_MS.length && durationMs > BUCKET_UPPER_BOUNDS_MS[bucket]) {
+      bucket++;
+    }
+    durationBuckets.incrementAndGet(bucket);
+    totalDurationMs.addAndGet(durationMs);
+    maxDurationMs.accumulateAndGet(durationMs, Math::max);
+  }
+}
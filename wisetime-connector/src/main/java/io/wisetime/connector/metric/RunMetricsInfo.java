@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.metric;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Snapshot of the {@link RunMetrics} of a runner.
+ */
+@Data
+@Builder
+public class RunMetricsInfo {
+  private final String runnerName;
+  private final long successCount;
+  private final long failureCount;
+
+  /**
+   * Number of runs skipped because the previous run was still in progress.
+   */
+  private final long skippedOverlapCount;
+  private final long totalDurationMs;
+  private final long maxDurationMs;
+
+  /**
+   * Number of runs by duration bucket, keyed by the inclusive upper bound of the bucket in milliseconds. The last
+   * bucket, keyed by {@link Long#MAX_VALUE}, holds all longer runs.
+   */
+  private final Map<Long, Long> durationHistogram;
+
+  /**
+   * Completion time of the last successful run, or null if no run has succeeded yet.
+   */
+  private final Instant lastSuccess;
+  private final Duration timeSinceLastSuccess;
+}
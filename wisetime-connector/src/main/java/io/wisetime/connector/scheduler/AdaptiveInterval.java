@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.scheduler;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Interval that halves towards a minimum after runs that found work, and grows by half towards a maximum after idle
+ * runs. Changes are picked up quickly once they start flowing, while an idle system is polled less and less often.
+ */
+public class AdaptiveInterval {
+
+  private final long minMs;
+  private final long maxMs;
+
+  // guarded by this
+  private long currentMs;
+
+  public AdaptiveInterval(long minMs, long maxMs, long initialMs) {
+    Preconditions.checkArgument(minMs > 0, "minMs must be positive");
+    Preconditions.checkArgument(maxMs >= minMs, "maxMs must not be less than minMs");
+    this.minMs = minMs;
+    this.maxMs = maxMs;
+    this.currentMs = Math.max(minMs, Math.min(maxMs, initialMs));
+  }
+
+  /**
+   * @param workDone whether the last run found anything to do
+   * @return the interval until the next run
+   */
+  public synchronized long next(boolean workDone) {
+    if (workDone) {
+      currentMs = Math.max(minMs, currentMs / 2);
+    } else {
+      currentMs = Math.min(maxMs, currentMs + currentMs / 2);
+    }
+    return currentMs;
+  }
+
+  public synchronized long getCurrentMs() {
+    return currentMs;
+  }
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.scheduler;
+
+/**
+ * A task that decides its own delay until the next run, e.g. based on the amount of work done in the last run.
+ */
+public interface AdaptiveTask extends Runnable {
+
+  /**
+   * Called by the {@link ConnectorScheduler} after each run.
+   *
+   * @param periodMs the period of the task's {@link TaskSchedule}
+   * @return delay before the next run in milliseconds, before jitter is applied
+   */
+  long nextDelayMs(long periodMs);
+}
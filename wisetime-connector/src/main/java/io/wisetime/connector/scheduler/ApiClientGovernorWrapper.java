@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.scheduler;
+
+import io.wisetime.connector.api_client.AddKeywordsResult;
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.connector.scheduler.ResourceGovernor.Permit;
+import io.wisetime.connector.scheduler.ResourceGovernor.Priority;
+import io.wisetime.generated.connect.AddKeywordsRequest;
+import io.wisetime.generated.connect.SyncActivityTypesRequest;
+import io.wisetime.generated.connect.SyncActivityTypesResponse;
+import io.wisetime.generated.connect.TagCategory;
+import io.wisetime.generated.connect.TimeGroupStatus;
+import io.wisetime.generated.connect.UpsertTagRequest;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+
+/**
+ * Wrapper for {@link ApiClient} that takes a {@link ResourceGovernor} permit for each upload, so that background sync
+ * uploads yield to time group status updates.
+ */
+@RequiredArgsConstructor
+public class ApiClientGovernorWrapper implements ApiClient {
+
+  private static final int SINGLE_WEIGHT = 1;
+  private static final int BATCH_WEIGHT = 2;
+
+  @Delegate(excludes = Governed.class)
+  private final ApiClient apiClient;
+  private final ResourceGovernor governor;
+
+  @Override
+  public void tagUpsert(UpsertTagRequest upsertTagRequest) throws IOException {
+    try (Permit ignored = acquire(Priority.LOW, SINGLE_WEIGHT)) {
+      apiClient.tagUpsert(upsertTagRequest);
+    }
+  }
+
+  @Override
+  public void tagUpsertBatch(List<UpsertTagRequest> upsertTagRequests) throws IOException {
+    try (Permit ignored = acquire(Priority.LOW, BATCH_WEIGHT)) {
+      apiClient.tagUpsertBatch(upsertTagRequests);
+    }
+  }
+
+  @Override
+  public AddKeywordsResult tagAddKeywords(AddKeywordsRequest addKeywordsRequest) throws IOException {
+    try (Permit ignored = acquire(Priority.LOW, SINGLE_WEIGHT)) {
+      return apiClient.tagAddKeywords(addKeywordsRequest);
+    }
+  }
+
+  @Override
+  public List<AddKeywordsResult> tagAddKeywordsBatch(List<AddKeywordsRequest> addKeywordsRequests) throws IOException {
+    try (Permit ignored = acquire(Priority.LOW, BATCH_WEIGHT)) {
+      return apiClient.tagAddKeywordsBatch(addKeywordsRequests);
+    }
+  }
+
+  @Override
+  public List<TagCategory> tagCategoryUpsertBatch(List<TagCategory> categories) throws IOException {
+    try (Permit ignored = acquire(Priority.LOW, BATCH_WEIGHT)) {
+      return apiClient.tagCategoryUpsertBatch(categories);
+    }
+  }
+
+  @Override
+  public SyncActivityTypesResponse syncActivityTypes(SyncActivityTypesRequest syncActivityTypesRequest)
+      throws IOException {
+    try (Permit ignored = acquire(Priority.LOW, BATCH_WEIGHT)) {
+      return apiClient.syncActivityTypes(syncActivityTypesRequest);
+    }
+  }
+
+  @Override
+  public void updatePostedTimeStatus(TimeGroupStatus timeGroupStatus) throws IOException {
+    try (Permit ignored = acquire(Priority.HIGH, SINGLE_WEIGHT)) {
+      apiClient.updatePostedTimeStatus(timeGroupStatus);
+    }
+  }
+
+  private Permit acquire(Priority priority, int weight) throws InterruptedIOException {
+    try {
+      return governor.acquire(priority, weight);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for an upload permit");
+    }
+  }
+
+  @SuppressWarnings("unused")
+  private interface Governed {
+    void tagUpsert(UpsertTagRequest upsertTagRequest) throws IOException;
+
+    void tagUpsertBatch(List<UpsertTagRequest> upsertTagRequests) throws IOException;
+
+    AddKeywordsResult tagAddKeywords(AddKeywordsRequest addKeywordsRequest) throws IOException;
+
+    List<AddKeywordsResult> tagAddKeywordsBatch(List<AddKeywordsRequest> addKeywordsRequests) throws IOException;
+
+    List<TagCategory> tagCategoryUpsertBatch(List<TagCategory> categories) throws IOException;
+
+    SyncActivityTypesResponse syncActivityTypes(SyncActivityTypesRequest syncActivityTypesRequest) throws IOException;
+
+    void updatePostedTimeStatus(TimeGroupStatus timeGroupStatus) throws IOException;
+  }
+}
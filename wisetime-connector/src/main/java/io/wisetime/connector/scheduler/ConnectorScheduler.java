@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.scheduler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the periodic tasks of a connector on a single dispatcher thread and a small, bounded pool of worker threads.
+ * Short tasks that must keep running while the workers are busy with slow syncs, such as the health check or the
+ * failover lease heartbeat, are scheduled with {@link #scheduleDedicated(String, Runnable, TaskSchedule)} and run on
+ * threads outside the bounded pool instead.
+ * <p>
+ * Tasks are scheduled with fixed-delay semantics: the next run is planned when the previous run ends, so a task never
+ * overlaps with itself and a late or slow run does not cause a burst of catch-up runs. The delay is randomised by the
+ * configured jitter ratio to spread out tasks with the same period. An {@link AdaptiveTask} chooses its own delay after
+ * every run. A run exceeding the timeout of its {@link TaskSchedule} is interrupted; tasks that ignore interruption
+ * keep their worker until they return.
+ * <p>
+ * Several connectors can share the threads of one scheduler through {@link #createChild(String)}. Each child keeps its
+ * own task names, statistics and lifecycle.
+ */
+@Slf4j
+public class ConnectorScheduler implements AutoCloseable {
+
+  private static final long CHILD_TERMINATION_POLL_MS = 50;
+
+  private final ScheduledExecutorService dispatcher;
+  private final ExecutorService workers;
+  private final ExecutorService dedicatedWorkers;
+  private final double jitterRatio;
+  private final Map<String, ScheduledTask> tasks = new ConcurrentHashMap<>();
+  private final ConnectorScheduler parent;
+  private final String taskNamePrefix;
+  private final List<ConnectorScheduler> children = new CopyOnWriteArrayList<>();
+
+  private volatile boolean closed;
+
+  /**
+   * @param name prefix of the scheduler thread names
+   * @param workerThreads maximum number of tasks running at the same time
+   * @param jitterRatio maximum deviation from the scheduled delay, as a fraction of the delay between 0 and 1
+   */
+  public ConnectorScheduler(String name, int workerThreads, double jitterRatio) {
+    Preconditions.checkArgument(workerThreads > 0, "workerThreads must be positive");
+    Preconditions.checkArgument(jitterRatio >= 0 && jitterRatio < 1, "jitterRatio must be between 0 and 1");
+    this.jitterRatio = jitterRatio;
+    this.dispatcher = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory(name + "-dispatcher"));
+    this.workers = Executors.newFixedThreadPool(workerThreads, daemonThreadFactory(name + "-worker"));
+    this.dedicatedWorkers = Executors.newCachedThreadPool(daemonThreadFactory(name + "-dedicated"));
+    this.parent = null;
+    this.taskNamePrefix = "";
+  }
+
+  private ConnectorScheduler(ConnectorScheduler parent, String name) {
+    this.jitterRatio = parent.jitterRatio;
+    this.dispatcher = parent.dispatcher;
+    this.workers = parent.workers;
+    this.dedicatedWorkers = parent.dedicatedWorkers;
+    this.parent = parent;
+    this.taskNamePrefix = parent.taskNamePrefix + name + "/";
+  }
+
+  /**
+   * Creates a scheduler that runs its tasks on the threads of this one. Closing the child only cancels its own tasks;
+   * closing this scheduler stops the children too.
+   *
+   * @param name prefix of the names of the child's tasks in logs and statistics
+   */
+  public ConnectorScheduler createChild(String name) {
+    Preconditions.checkState(!isClosed(), "scheduler has been closed");
+    final ConnectorScheduler child = new ConnectorScheduler(this, name);
+    children.add(child);
+    return child;
+  }
+
+  /**
+   * Schedules a task to run repeatedly until it is cancelled or the scheduler is closed.
+   *
+   * @param taskName unique name of the task, used in logs and statistics
+   */
+  public ScheduledTask schedule(String taskName, Runnable task, TaskSchedule schedule) {
+    return schedule(taskName, task, schedule, false);
+  }
+
+  /**
+   * Schedules a task that is never held up by other tasks occupying the worker pool. Its runs start on a thread of
+   * their own, so it should only be used for a few short tasks.
+   *
+   * @param taskName unique name of the task, used in logs and statistics
+   */
+  public ScheduledTask scheduleDedicated(String taskName, Runnable task, TaskSchedule schedule) {
+    return schedule(taskName, task, schedule, true);
+  }
+
+  private ScheduledTask schedule(String taskName, Runnable task, TaskSchedule schedule, boolean dedicated) {
+    Preconditions.checkState(!isClosed(), "scheduler has been closed");
+    final ScheduledTask scheduledTask = new ScheduledTask(taskNamePrefix + taskName, task, schedule, dedicated);
+    Preconditions.checkArgument(tasks.putIfAbsent(taskName, scheduledTask) == null,
+        "a task named '%s' is already scheduled", taskName);
+    scheduleNext(scheduledTask, schedule.getInitialDelayMs());
+    return scheduledTask;
+  }
+
+  public Optional<ScheduledTask> getTask(String taskName) {
+    return Optional.ofNullable(tasks.get(taskName));
+  }
+
+  /**
+   * Runs a task as soon as a worker is available instead of waiting for its next scheduled run. If the task is running,
+   * it runs again as soon as the current run ends. The schedule continues from the end of the triggered run.
+   *
+   * @return false if the task is unknown, cancelled or paused
+   */
+  public boolean runNow(String taskName) {
+    final ScheduledTask task = tasks.get(taskName);
+    if (task == null || isClosed() || task.isCancelled() || task.isPaused()) {
+      return false;
+    }
+    synchronized (task) {
+      if (task.requestRun()) {
+        scheduleNext(task, 0);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return run statistics of every scheduled task, including those of child schedulers, ordered by task name
+   */
+  public List<TaskStats> getStats() {
+    return Stream.concat(
+            tasks.values().stream().map(ScheduledTask::getStats),
+            children.stream().flatMap(child -> child.getStats().stream()))
+        .sorted((left, right) -> left.getTaskName().compareTo(right.getTaskName()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Stops scheduling new runs, including those of child schedulers. Runs in progress are not interrupted; use
+   * {@link #awaitTermination(Duration)} to wait for them. Safe to call from within a scheduled task.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    tasks.values().forEach(ScheduledTask::cancel);
+    children.forEach(ConnectorScheduler::close);
+    if (parent == null) {
+      dispatcher.shutdownNow();
+      workers.shutdown();
+      dedicatedWorkers.shutdown();
+    } else {
+      parent.children.remove(this);
+    }
+  }
+
+  /**
+   * @return true if all runs completed within the timeout
+   */
+  public boolean awaitTermination(Duration timeout) throws InterruptedException {
+    final long deadline = System.nanoTime() + timeout.toNanos();
+    if (parent == null) {
+      return workers.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)
+          && dedicatedWorkers.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+    // the threads are shared, wait for the runs of this child only
+    while (tasks.values().stream().anyMatch(task -> task.getStats().isRunning())) {
+      if (System.nanoTime() >= deadline) {
+        return false;
+      }
+      Thread.sleep(CHILD_TERMINATION_POLL_MS);
+    }
+    return true;
+  }
+
+  private boolean isClosed() {
+    return closed || (parent != null && parent.isClosed());
+  }
+
+  @VisibleForTesting
+  long withJitter(long delayMs) {
+    if (jitterRatio == 0 || delayMs == 0) {
+      return delayMs;
+    }
+    final double factor = 1 + ThreadLocalRandom.current().nextDouble(-jitterRatio, jitterRatio);
+    return Math.round(delayMs * factor);
+  }
+
+  private void scheduleNext(ScheduledTask task, long delayMs) {
+    if (isClosed() || task.isCancelled()) {
+      return;
+    }
+    try {
+      task.setNextRun(dispatcher.schedule(() -> dispatch(task), delayMs, MILLISECONDS));
+    } catch (RejectedExecutionException e) {
+      log.debug("Scheduler is shutting down, {} will not run again", task.getName());
+    }
+  }
+
+  private void dispatch(ScheduledTask task) {
+    if (isClosed() || task.isCancelled()) {
+      return;
+    }
+    if (task.isPaused()) {
+      log.debug("{} is paused, skipping run", task.getName());
+      scheduleNext(task, withJitter(task.getSchedule().getPeriodMs()));
+      return;
+    }
+    task.markRunning();
+    try {
+      (task.isDedicated() ? dedicatedWorkers : workers).execute(() -> execute(task));
+    } catch (RejectedExecutionException e) {
+      task.markRunEnded();
+      log.debug("Scheduler is shutting down, skipping run of {}", task.getName());
+    }
+  }
+
+  private void execute(ScheduledTask task) {
+    final FutureTask<Void> execution = new FutureTask<>(task.getTask(), null);
+    final ScheduledFuture<?> watchdog = scheduleTimeout(task, execution);
+    final long startNanos = System.nanoTime();
+    boolean failed = false;
+    boolean timedOut = false;
+    try {
+      execution.run();
+      execution.get();
+    } catch (CancellationException e) {
+      timedOut = true;
+      log.warn("{} did not complete within {} ms and was interrupted", task.getName(),
+          task.getSchedule().getTimeoutMs());
+    } catch (ExecutionException e) {
+      failed = true;
+      log.error("Scheduled task {} failed", task.getName(), e.getCause());
+    } catch (InterruptedException e) {
+      // not expected, get() returns immediately once the run has completed
+      log.debug("Interrupted while reading the result of {}", task.getName());
+    } finally {
+      if (watchdog != null) {
+        watchdog.cancel(false);
+      }
+      // don't let an interrupt from a timeout leak into the next task run by this worker
+      Thread.interrupted();
+      task.recordRun(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), failed, timedOut);
+      synchronized (task) {
+        scheduleNext(task, task.markRunEnded() ? 0 : withJitter(nextDelayMs(task)));
+      }
+    }
+  }
+
+  private long nextDelayMs(ScheduledTask task) {
+    final long periodMs = task.getSchedule().getPeriodMs();
+    if (!(task.getTask() instanceof AdaptiveTask)) {
+      return periodMs;
+    }
+    try {
+      return ((AdaptiveTask) task.getTask()).nextDelayMs(periodMs);
+    } catch (RuntimeException e) {
+      log.error("Failed to get the next delay of {}, using its period", task.getName(), e);
+      return periodMs;
+    }
+  }
+
+  private ScheduledFuture<?> scheduleTimeout(ScheduledTask task, FutureTask<Void> execution) {
+    final long timeoutMs = task.getSchedule().getTimeoutMs();
+    if (timeoutMs <= 0) {
+      return null;
+    }
+    try {
+      return dispatcher.schedule(() -> execution.cancel(true), timeoutMs, MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      return null;
+    }
+  }
+
+  private static ThreadFactory daemonThreadFactory(String namePrefix) {
+    final AtomicInteger threadCount = new AtomicInteger();
+    return runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+      thread.setName(namePrefix + "-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.scheduler;
+
+import com.google.common.base.Preconditions;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares a fixed budget of concurrent work between the connector's activities.
+ * <p>
+ * Callers acquire a weighted {@link Permit} before using a shared resource, such as the HTTP connection pool, and close
+ * it when done. {@link Priority#HIGH} work, like posting time and sending time group statuses, gets permits as soon as
+ * there is capacity. {@link Priority#LOW} work, like background syncs, additionally yields while any high priority work
+ * is running or waiting, unless it has already waited for longer than the starvation limit.
+ * <p>
+ * Low priority work requested by a thread that already holds a high priority permit, such as an upload the connector
+ * makes while posting time, is treated as high priority rather than yielding to its own caller.
+ */
+public class ResourceGovernor {
+
+  public enum Priority {
+    HIGH, LOW
+  }
+
+  private final int capacity;
+  private final long maxLowPriorityWaitNanos;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+
+  // guarded by lock
+  private int inUse;
+  private int highPriorityActive;
+  private int highPriorityWaiting;
+  private final Map<Thread, Integer> highPriorityHolders = new HashMap<>();
+
+  /**
+   * @param capacity total weight of permits that can be held at the same time
+   * @param maxLowPriorityWaitMs time after which low priority work stops yielding to high priority work
+   */
+  public ResourceGovernor(int capacity, long maxLowPriorityWaitMs) {
+    Preconditions.checkArgument(capacity > 0, "capacity must be positive");
+    this.capacity = capacity;
+    this.maxLowPriorityWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxLowPriorityWaitMs);
+  }
+
+  /**
+   * Blocks until a permit of the given weight is available. Weights above the capacity are reduced to the capacity.
+   */
+  public Permit acquire(Priority requestedPriority, int weight) throws InterruptedException {
+    Preconditions.checkArgument(weight > 0, "weight must be positive");
+    final int permitWeight = Math.min(weight, capacity);
+    final long waitStart = System.nanoTime();
+    final Thread owner = Thread.currentThread();
+    lock.lockInterruptibly();
+    try {
+      final Priority priority = highPriorityHolders.containsKey(owner) ? Priority.HIGH : requestedPriority;
+      if (priority == Priority.HIGH) {
+        highPriorityWaiting++;
+        try {
+          while (inUse + permitWeight > capacity) {
+            released.await();
+          }
+        } finally {
+          highPriorityWaiting--;
+        }
+        highPriorityActive++;
+        highPriorityHolders.merge(owner, 1, Integer::sum);
+      } else {
+        while (inUse + permitWeight > capacity || mustYield(waitStart)) {
+          if (inUse + permitWeight <= capacity) {
+            // only yielding: re-check once the starvation limit is reached, even if nothing is released
+            released.awaitNanos(Math.max(1, maxLowPriorityWaitNanos - (System.nanoTime() - waitStart)));
+          } else {
+            released.await();
+          }
+        }
+      }
+      inUse += permitWeight;
+      return new Permit(priority, permitWeight, owner);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getAvailable() {
+    lock.lock();
+    try {
+      return capacity - inUse;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean mustYield(long waitStart) {
+    return (highPriorityActive > 0 || highPriorityWaiting > 0)
+        && System.nanoTime() - waitStart < maxLowPriorityWaitNanos;
+  }
+
+  private void release(Permit permit) {
+    lock.lock();
+    try {
+      inUse -= permit.weight;
+      if (permit.priority == Priority.HIGH) {
+        highPriorityActive--;
+        highPriorityHolders.computeIfPresent(permit.owner, (thread, held) -> held > 1 ? held - 1 : null);
+      }
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Share of the budget held by a caller, returned to the governor when closed.
+   */
+  public final class Permit implements AutoCloseable {
+
+    private final Priority priority;
+    private final int weight;
+    private final Thread owner;
+    private boolean closed;
+
+    private Permit(Priority priority, int weight, Thread owner) {
+      this.priority = priority;
+      this.weight = weight;
+      this.owner = owner;
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        release(this);
+      }
+    }
+  }
+}
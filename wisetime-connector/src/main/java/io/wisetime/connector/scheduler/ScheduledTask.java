@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.scheduler;
+
+import java.time.Instant;
+import java.util.concurrent.Future;
+import lombok.Getter;
+
+/**
+ * Handle of a task registered with the {@link ConnectorScheduler}.
+ */
+public class ScheduledTask {
+
+  @Getter
+  private final String name;
+  @Getter
+  private final TaskSchedule schedule;
+  private final Runnable task;
+  private final boolean dedicated;
+
+  private volatile boolean cancelled;
+  private volatile boolean paused;
+  private volatile Future<?> nextRun;
+
+  // guarded by this
+  private boolean running;
+  private boolean runRequested;
+  private long runs;
+  private long failures;
+  private long timeouts;
+  private long lastDurationMs;
+  private long maxDurationMs;
+  private Instant lastRunEnd;
+
+  ScheduledTask(String name, Runnable task, TaskSchedule schedule, boolean dedicated) {
+    this.name = name;
+    this.task = task;
+    this.schedule = schedule;
+    this.dedicated = dedicated;
+  }
+
+  /**
+   * Stops further runs of the task. A run that is in progress is allowed to complete.
+   */
+  public void cancel() {
+    cancelled = true;
+    final Future<?> next = nextRun;
+    if (next != null) {
+      next.cancel(false);
+    }
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Skips the runs of the task until it is resumed. A run that is in progress is allowed to complete.
+   */
+  public void pause() {
+    paused = true;
+  }
+
+  public void resume() {
+    paused = false;
+  }
+
+  public boolean isPaused() {
+    return paused;
+  }
+
+  public synchronized TaskStats getStats() {
+    return new TaskStats(name, runs, failures, timeouts, lastDurationMs, maxDurationMs, lastRunEnd, running, paused);
+  }
+
+  Runnable getTask() {
+    return task;
+  }
+
+  /**
+   * @return whether the task runs outside the bounded worker pool
+   */
+  boolean isDedicated() {
+    return dedicated;
+  }
+
+  void setNextRun(Future<?> nextRun) {
+    this.nextRun = nextRun;
+  }
+
+  synchronized void markRunning() {
+    running = true;
+  }
+
+  /**
+   * @return true if another run was requested while this one was in progress
+   */
+  synchronized boolean markRunEnded() {
+    running = false;
+    final boolean requested = runRequested;
+    runRequested = false;
+    return requested;
+  }
+
+  /**
+   * @return true if the pending run was withdrawn and should be rescheduled to run now
+   */
+  synchronized boolean requestRun() {
+    if (running) {
+      // the next run is planned when this one ends
+      runRequested = true;
+      return false;
+    }
+    final Future<?> next = nextRun;
+    return next != null && next.cancel(false);
+  }
+
+  synchronized void recordRun(long durationMs, boolean failed, boolean timedOut) {
+    runs++;
+    if (failed) {
+      failures++;
+    }
+    if (timedOut) {
+      timeouts++;
+    }
+    lastDurationMs = durationMs;
+    maxDurationMs = Math.max(maxDurationMs, durationMs);
+    lastRunEnd = Instant.now();
+  }
+}
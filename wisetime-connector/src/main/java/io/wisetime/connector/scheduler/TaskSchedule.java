@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.scheduler;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Timing of a task run by the {@link ConnectorScheduler}. Values are read before every run, so changes take effect from
+ * the next run on.
+ */
+@Data
+@AllArgsConstructor
+public class TaskSchedule {
+
+  private long initialDelayMs;
+
+  /**
+   * Delay between the end of one run and the start of the next, before jitter is applied.
+   */
+  private long periodMs;
+
+  /**
+   * Maximum duration of a single run after which the task is interrupted, or 0 for no limit.
+   */
+  private long timeoutMs;
+
+  public TaskSchedule(long initialDelayMs, long periodMs) {
+    this(initialDelayMs, periodMs, 0);
+  }
+}
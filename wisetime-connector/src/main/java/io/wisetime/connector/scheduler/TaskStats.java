@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.scheduler;
+
+import java.time.Instant;
+import lombok.Data;
+
+/**
+ * Snapshot of the run statistics of a scheduled task.
+ */
+@Data
+public class TaskStats {
+
+  private final String taskName;
+  private final long runs;
+
+  /**
+   * Runs that ended with an exception.
+   */
+  private final long failures;
+
+  /**
+   * Runs that were interrupted for exceeding their timeout.
+   */
+  private final long timeouts;
+  private final long lastDurationMs;
+  private final long maxDurationMs;
+
+  /**
+   * End of the last run, or null if the task has not run yet.
+   */
+  private final Instant lastRunEnd;
+  private final boolean running;
+  private final boolean paused;
+}
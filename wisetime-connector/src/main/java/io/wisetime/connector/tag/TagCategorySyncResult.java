@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.tag;
+
+import lombok.Data;
+
+/**
+ * Outcome of a {@link TagCategorySyncer} run.
+ */
+@Data
+public class TagCategorySyncResult {
+
+  /**
+   * Number of tag categories created or updated in WiseTime.
+   */
+  private final int upserted;
+
+  /**
+   * Number of tag categories deleted from WiseTime because they are no longer in the connected system.
+   */
+  private final int deleted;
+
+  /**
+   * Number of tag categories skipped because they did not change since they were last uploaded.
+   */
+  private final int unchanged;
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.tag;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.connector.datastore.ConnectorStore;
+import io.wisetime.connector.utils.SyncSnapshot;
+import io.wisetime.generated.connect.DeleteTagCategoryRequest;
+import io.wisetime.generated.connect.TagCategory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Keeps the tag categories in WiseTime in line with the connected system by uploading only the difference to the state
+ * that was last uploaded.
+ * <p>
+ * Categories are identified by their external id. A fingerprint of every uploaded category is kept in the
+ * {@link ConnectorStore}; on each {@link #sync(Collection)} new and changed categories are upserted in batches, and
+ * categories that were uploaded before but are no longer provided are deleted. Progress is saved as it is made, so a
+ * failed sync only repeats the remaining work.
+ */
+@Slf4j
+public class TagCategorySyncer {
+
+  @VisibleForTesting
+  static final int UPSERT_BATCH_SIZE = 500;
+
+  @VisibleForTesting
+  static final String SNAPSHOT_KEY = "wt_tag_category_sync_snapshot";
+
+  private final ApiClient apiClient;
+  private final SyncSnapshot snapshot;
+
+  public TagCategorySyncer(ApiClient apiClient, ConnectorStore connectorStore) {
+    this.apiClient = apiClient;
+    this.snapshot = new SyncSnapshot(connectorStore, SNAPSHOT_KEY);
+  }
+
+  /**
+   * @param categories all tag categories of the connected system
+   */
+  public TagCategorySyncResult sync(Collection<TagCategory> categories) throws IOException {
+    final Map<String, String> previous = snapshot.load();
+    final Map<String, TagCategory> byExternalId = byExternalId(categories);
+
+    final Map<String, String> current = new HashMap<>();
+    final List<TagCategory> changed = new ArrayList<>();
+    byExternalId.forEach((externalId, category) -> {
+      final String fingerprint = SyncSnapshot.fingerprint(category);
+      current.put(externalId, fingerprint);
+      if (!fingerprint.equals(previous.get(externalId))) {
+        changed.add(category);
+      }
+    });
+    final List<String> removed = previous.keySet().stream()
+        .filter(externalId -> !current.containsKey(externalId))
+        .collect(Collectors.toList());
+
+    if (changed.isEmpty() && removed.isEmpty()) {
+      return new TagCategorySyncResult(0, 0, current.size());
+    }
+
+    final Map<String, String> synced = new HashMap<>(previous);
+    try {
+      for (List<TagCategory> batch : Lists.partition(changed, UPSERT_BATCH_SIZE)) {
+        apiClient.tagCategoryUpsertBatch(batch);
+        batch.forEach(category -> synced.put(category.getExternalId(), current.get(category.getExternalId())));
+      }
+      for (String externalId : removed) {
+        apiClient.tagCategoryDelete(new DeleteTagCategoryRequest().externalId(externalId));
+        synced.remove(externalId);
+      }
+    } finally {
+      snapshot.save(synced);
+    }
+
+    log.info("Synced tag categories: {} upserted, {} deleted", changed.size(), removed.size());
+    return new TagCategorySyncResult(changed.size(), removed.size(), current.size() - changed.size());
+  }
+
+  private static Map<String, TagCategory> byExternalId(Collection<TagCategory> categories) {
+    final Map<String, TagCategory> byExternalId = new LinkedHashMap<>();
+    for (TagCategory category : categories) {
+      if (StringUtils.isBlank(category.getExternalId())) {
+        log.warn("Skipping tag category without an external id: {}", category);
+        continue;
+      }
+      if (byExternalId.put(category.getExternalId(), category) != null) {
+        log.warn("Duplicate tag category external id '{}', only the last one is uploaded", category.getExternalId());
+      }
+    }
+    return byExternalId;
+  }
+}
@@ -27,7 +27,7 @@ public class TagRunner extends BaseRunner {
 
   @Override
   protected void performAction() {
-    connector.performTagUpdate();
+    connector.performTagUpdate(getRunContext());
   }
 
   @Override
@@ -27,7 +27,7 @@ public class TagSlowLoopRunner extends BaseRunner {
 
   @Override
   protected void performAction() {
-    connector.performTagUpdateSlowLoop();
+    connector.performTagUpdateSlowLoop(getRunContext());
   }
 
   @Override
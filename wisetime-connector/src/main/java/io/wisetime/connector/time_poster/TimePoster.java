@@ -5,6 +5,9 @@
 package io.wisetime.connector.time_poster;
 
 import io.wisetime.connector.health.HealthIndicator;
+import io.wisetime.connector.metric.RunMetrics;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Common runner interface between webhooks and fetch clients.
@@ -25,4 +28,22 @@ public interface TimePoster extends HealthIndicator {
    * @throws Exception if any error occurred during shut down
    */
   void stop() throws Exception;
+
+  /**
+   * Stops accepting new time groups and waits for the ones in progress to be posted and their statuses sent to
+   * WiseTime. Called before {@link #stop()} when the connector shuts down.
+   *
+   * @param budget maximum time to wait
+   * @return true if all work in progress completed within the budget
+   */
+  default boolean drain(Duration budget) {
+    return true;
+  }
+
+  /**
+   * @return run metrics of the runners the time poster schedules itself, if any
+   */
+  default List<RunMetrics> getRunMetrics() {
+    return List.of();
+  }
 }
@@ -5,23 +5,40 @@
 package io.wisetime.connector.time_poster.deduplication;
 
 import static io.wisetime.connector.datastore.CoreLocalDbTable.TABLE_TIME_GROUPS_RECEIVED;
+import static io.wisetime.connector.datastore.CoreLocalDbTable.TIME_GROUPS_RECEIVED_PARTITION_PREFIX;
 
 import io.wisetime.connector.api_client.PostResult;
 import io.wisetime.connector.api_client.PostResult.PostResultStatus;
+import io.wisetime.connector.datastore.CoreLocalDbTable;
+import io.wisetime.connector.datastore.LocalDbTable;
 import io.wisetime.connector.datastore.SqLiteHelper;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
+import org.codejargon.fluentjdbc.api.mapper.Mapper;
 import org.codejargon.fluentjdbc.api.query.Query;
-import org.codejargon.fluentjdbc.api.query.UpdateResult;
 
 /**
  * A store for time groups ids for deduplication. Blocks a provided time group id IN_PROGRESS for 8 minutes. Other
  * status will be returned as stored.
+ * <p>
+ * Time groups are stored in one table per week, by the week they were last updated in. An update moves the time group
+ * to the partition of the current week, so it is only ever found in one partition, and lookups check the most recent
+ * partitions first. Old time groups are removed by dropping whole partitions once the week they cover is past the
+ * retention period. A lookup queries all partitions in one statement.
  *
  * @author pascal.filippi@gmail.com
  */
+@Slf4j
 public class TimeGroupIdStore {
 
   public static final String IN_PROGRESS = "IN_PROGRESS";
@@ -32,31 +49,36 @@ public class TimeGroupIdStore {
   private static final long MAX_IN_PROGRESS_TIME = 8;
   // Time in days
   private static final long MAX_STATUS_STORAGE_TIME = 60;
+  private static final long WEEK_MS = TimeUnit.DAYS.toMillis(7);
+  // lookups leave out partitions this close to being dropped, a write may drop them while the lookup runs
+  private static final long DROP_MARGIN_MS = TimeUnit.MINUTES.toMillis(1);
 
   private final SqLiteHelper sqLiteHelper;
+  // listing the tables on every lookup would be wasteful, see partitionWeeks()
+  private volatile List<Long> partitionWeeks;
 
   public TimeGroupIdStore(SqLiteHelper sqLiteHelper) {
     this.sqLiteHelper = sqLiteHelper;
-    sqLiteHelper.createTable(TABLE_TIME_GROUPS_RECEIVED);
-  }
-
-  private void deleteOldRecords() {
-    sqLiteHelper.query().update("DELETE FROM " + TABLE_TIME_GROUPS_RECEIVED.getName()
-        + " WHERE received_timestamp < ?")
-        .params(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(MAX_STATUS_STORAGE_TIME))
-        .run();
+    if (tableExists(sqLiteHelper.readQuery(), TABLE_TIME_GROUPS_RECEIVED.getName())) {
+      // brings a table of an old version up to date before its rows are moved
+      sqLiteHelper.createTable(TABLE_TIME_GROUPS_RECEIVED);
+    }
+    SqLiteHelper.await(sqLiteHelper.writeNoResult(query -> {
+      moveSingleTableRows(query);
+      // indexes partitions created by earlier versions
+      listPartitionWeeks(query).forEach(week -> createPartition(query, week));
+      currentPartition(query, System.currentTimeMillis());
+    }));
   }
 
   public Optional<String> alreadySeenFetchClient(String timeGroupId) {
-    return sqLiteHelper.query()
-        // always return status for SUCCESS, TRANSIENT_FAILURE and PERMANENT_FAILURE
-        // If a time group is IN_PROGRESS for more than 8 minutes: assume failure and allow to try again
-        .select("SELECT post_result FROM " + TABLE_TIME_GROUPS_RECEIVED.getName()
-            + " WHERE time_group_id=? AND (received_timestamp > ? or post_result != ?)")
-        .params(timeGroupId,
+    // always return status for SUCCESS, TRANSIENT_FAILURE and PERMANENT_FAILURE
+    // If a time group is IN_PROGRESS for more than 8 minutes: assume failure and allow to try again
+    return findInPartitions("post_result", "time_group_id=? AND (received_timestamp > ? or post_result != ?)",
+        List.of(timeGroupId,
             System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(MAX_IN_PROGRESS_TIME),
-            IN_PROGRESS)
-        .firstResult(rs -> rs.getString(1));
+            IN_PROGRESS),
+        rs -> rs.getString(1));
   }
 
   /**
@@ -65,62 +87,239 @@ public class TimeGroupIdStore {
    * time greater than the retry timeout
    */
   public Optional<String> getPostStatusForFetchClient(String timeGroupId) {
-    return sqLiteHelper.query()
-        .select("SELECT post_result FROM " + TABLE_TIME_GROUPS_RECEIVED.getName()
-            + " WHERE time_group_id=?")
-        .params(timeGroupId)
-        .firstResult(rs -> rs.getString(1));
+    return findInPartitions("post_result", "time_group_id=?", List.of(timeGroupId), rs -> rs.getString(1));
   }
 
   public Optional<PostResult> alreadySeenWebHook(String timeGroupId) {
-    return sqLiteHelper.query()
-        // always return status for SUCCESS, TRANSIENT_FAILURE and PERMANENT_FAILURE
-        // If a time group is IN_PROGRESS for more than 5 minutes: assume failure and allow to try again
-        .select("SELECT post_result, message FROM " + TABLE_TIME_GROUPS_RECEIVED.getName()
-            + " WHERE time_group_id=? AND (received_timestamp > ? or post_result != ?)")
-        .params(timeGroupId,
+    // always return status for SUCCESS, TRANSIENT_FAILURE and PERMANENT_FAILURE
+    // If a time group is IN_PROGRESS for more than 5 minutes: assume failure and allow to try again
+    return findInPartitions("post_result, message",
+        "time_group_id=? AND (received_timestamp > ? or post_result != ?)",
+        List.of(timeGroupId,
             System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(MAX_IN_PROGRESS_TIME),
-            IN_PROGRESS)
-        .firstResult(rs -> PostResult.valueOf(rs.getString(1)).withMessage(rs.getString(2)));
+            IN_PROGRESS),
+        rs -> PostResult.valueOf(rs.getString(1)).withMessage(rs.getString(2)));
   }
 
   public List<Pair<String, PostResult>> getAllWithPendingStatusUpdate() {
-    return sqLiteHelper.query()
-        // Get all statuses with SUCCESS or PERMANENT_FAILURE for updating
-        // give the async immediate status updater some time to complete before retrying by table sweep
-        .select("SELECT time_group_id, post_result, message FROM " + TABLE_TIME_GROUPS_RECEIVED.getName()
-            + " WHERE (post_result = :success or post_result = :permFail) and received_timestamp < :ts")
-        .namedParam("success", PostResultStatus.SUCCESS.name())
-        .namedParam("permFail", PostResultStatus.PERMANENT_FAILURE.name())
-        .namedParam("ts", System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1))
-        .listResult(rs -> Pair.of(rs.getString(1),
-            PostResult.valueOf(rs.getString(2)).withMessage(rs.getString(3))));
+    // give the async immediate status updater some time to complete before retrying by table sweep
+    return getAllWithPendingStatusUpdate(Duration.ofMinutes(1));
+  }
+
+  /**
+   * @param minAge how long ago the status must have been stored, zero for all pending statuses
+   */
+  public List<Pair<String, PostResult>> getAllWithPendingStatusUpdate(Duration minAge) {
+    final long receivedBeforeMs = System.currentTimeMillis() - minAge.toMillis();
+    final List<Pair<String, PostResult>> pending = new ArrayList<>();
+    final Query query = sqLiteHelper.readQuery();
+    for (long week : partitionWeeks()) {
+      pending.addAll(query
+          // Get all statuses with SUCCESS or PERMANENT_FAILURE for updating
+          .select("SELECT time_group_id, post_result, message FROM " + partitionName(week)
+              + " WHERE (post_result = :success or post_result = :permFail) and received_timestamp <= :ts")
+          .namedParam("success", PostResultStatus.SUCCESS.name())
+          .namedParam("permFail", PostResultStatus.PERMANENT_FAILURE.name())
+          .namedParam("ts", receivedBeforeMs)
+          .listResult(rs -> Pair.of(rs.getString(1),
+              PostResult.valueOf(rs.getString(2)).withMessage(rs.getString(3)))));
+    }
+    return pending;
   }
 
   public void putTimeGroupId(String timeGroupId, String postResult, String message) {
-    // purge old records when inserting new ones
-    deleteOldRecords();
-    final Query query = sqLiteHelper.query();
-    query.transaction().inNoResult(() -> {
+    SqLiteHelper.await(putTimeGroupIdAsync(timeGroupId, postResult, message));
+  }
+
+  /**
+   * Like {@link #putTimeGroupId(String, String, String)}, without waiting for the status to be committed.
+   *
+   * @return completes once the status has been committed
+   */
+  public CompletableFuture<Void> putTimeGroupIdAsync(String timeGroupId, String postResult, String message) {
+    return sqLiteHelper.writeNoResult(query -> {
       long timeStamp = System.currentTimeMillis();
-      UpdateResult result = query.update("UPDATE " + TABLE_TIME_GROUPS_RECEIVED.getName()
-          + " SET received_timestamp=?, post_result=?, message=? WHERE time_group_id=?")
+      final String partition = currentPartition(query, timeStamp);
+      // most updates are of time groups received moments ago, which are already in the current partition
+      final long updated = query
+          .update("UPDATE " + partition + " SET received_timestamp=?, post_result=?, message=? WHERE time_group_id=?")
           .params(timeStamp, postResult, message, timeGroupId)
+          .run()
+          .affectedRows();
+      if (updated > 0) {
+        return;
+      }
+      // created_ts is kept from the first time the time group was received, wherever it was last updated
+      long createdTs = timeStamp;
+      for (long week : listPartitionWeeks(query)) {
+        final String olderPartition = partitionName(week);
+        if (olderPartition.equals(partition)) {
+          continue;
+        }
+        final Optional<Long> moved = query
+            .select("SELECT created_ts FROM " + olderPartition + " WHERE time_group_id=?")
+            .params(timeGroupId)
+            .firstResult(rs -> rs.getLong(1));
+        if (moved.isPresent()) {
+          createdTs = moved.get();
+          query.update("DELETE FROM " + olderPartition + " WHERE time_group_id=?")
+              .params(timeGroupId)
+              .run();
+          break;
+        }
+      }
+      query.update("INSERT INTO " + partition
+          + " (time_group_id, post_result, received_timestamp, created_ts, message) VALUES (?,?,?,?,?)"
+          + " ON CONFLICT(time_group_id) DO UPDATE SET received_timestamp=excluded.received_timestamp,"
+          + " post_result=excluded.post_result, message=excluded.message")
+          .params(timeGroupId, postResult, timeStamp, createdTs, message)
           .run();
+    });
+  }
 
-      if (result.affectedRows() == 0) {
-        // new key value
-        query.update("INSERT INTO " + TABLE_TIME_GROUPS_RECEIVED.getName()
-            + " (time_group_id, post_result, received_timestamp, created_ts, message) VALUES (?,?,?,?,?)")
-            .params(timeGroupId, postResult, timeStamp, timeStamp, message)
+  public void deleteTimeGroupId(String timeGroupId) {
+    SqLiteHelper.await(sqLiteHelper.writeNoResult(query -> {
+      for (long week : listPartitionWeeks(query)) {
+        query.update("DELETE FROM " + partitionName(week) + " WHERE time_group_id=?")
+            .params(timeGroupId)
             .run();
       }
-    });
+    }));
   }
 
-  public void deleteTimeGroupId(String timeGroupId) {
-    sqLiteHelper.query().update("DELETE FROM " + TABLE_TIME_GROUPS_RECEIVED.getName() + " WHERE time_group_id=?")
-        .params(timeGroupId)
-        .run();
+  /**
+   * @return the partition holding the time groups received at {@code timestampMs}
+   */
+  static LocalDbTable partitionOf(long timestampMs) {
+    return CoreLocalDbTable.timeGroupsReceivedPartition(Math.floorDiv(timestampMs, WEEK_MS));
+  }
+
+  /**
+   * Looks up a time group in all partitions with a single query. A time group is only ever in one partition.
+   *
+   * @param condition applied to each partition, with {@code params} bound for each of them
+   */
+  private <T> Optional<T> findInPartitions(String columns, String condition, List<Object> params, Mapper<T> mapper) {
+    final List<Long> weeks = partitionWeeks();
+    if (weeks.isEmpty()) {
+      return Optional.empty();
+    }
+    final StringJoiner union = new StringJoiner(" UNION ALL ", "", " LIMIT 1");
+    final List<Object> unionParams = new ArrayList<>();
+    for (long week : weeks) {
+      union.add("SELECT " + columns + " FROM " + partitionName(week) + " WHERE " + condition);
+      unionParams.addAll(params);
+    }
+    return sqLiteHelper.readQuery()
+        .select(union.toString())
+        .params(unionParams)
+        .firstResult(mapper);
+  }
+
+  /**
+   * Creates the partition of the current week if needed, and drops the partitions past the retention period.
+   *
+   * @return name of the partition of the current week
+   */
+  private String currentPartition(Query query, long nowMs) {
+    final LocalDbTable partition = partitionOf(nowMs);
+    final List<Long> weeks = listPartitionWeeks(query);
+    if (weeks.isEmpty() || !partitionName(weeks.get(0)).equals(partition.getName())) {
+      createPartition(query, Math.floorDiv(nowMs, WEEK_MS));
+    }
+    for (long week : weeks) {
+      if (!isRetained(week, nowMs)) {
+        log.info("Dropping time groups received in the week of {}", Instant.ofEpochMilli(week * WEEK_MS));
+        query.update("DROP TABLE IF EXISTS " + partitionName(week)).run();
+      }
+    }
+    return partition.getName();
+  }
+
+  /**
+   * Partitions are only ever created for the current week, and dropped once past the retention period. So the tables
+   * are only listed again when the partition of the current week is missing from the last listing; partitions dropped
+   * since then are left out by their week.
+   *
+   * @return weeks of the committed partitions within the retention period, most recent first
+   */
+  private List<Long> partitionWeeks() {
+    final long nowMs = System.currentTimeMillis();
+    List<Long> weeks = partitionWeeks;
+    if (weeks == null || !weeks.contains(Math.floorDiv(nowMs, WEEK_MS))) {
+      weeks = listPartitionWeeks(sqLiteHelper.readQuery());
+      partitionWeeks = weeks;
+    }
+    return weeks.stream()
+        .filter(week -> isRetained(week, nowMs + DROP_MARGIN_MS))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Lists the partitions without the cache, as seen by the query. Writes use it as they may see partitions not yet
+   * committed.
+   *
+   * @return weeks of the existing partitions, most recent first
+   */
+  private static List<Long> listPartitionWeeks(Query query) {
+    return query
+        .select("SELECT name FROM sqlite_master WHERE type='table' AND name GLOB ?")
+        .params(TIME_GROUPS_RECEIVED_PARTITION_PREFIX + "[0-9]*")
+        .listResult(rs -> Long.valueOf(rs.getString(1).substring(TIME_GROUPS_RECEIVED_PARTITION_PREFIX.length())))
+        .stream()
+        .sorted(Comparator.reverseOrder())
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  /**
+   * Moves the time groups of the single table used by earlier versions to the weekly partitions.
+   */
+  private void moveSingleTableRows(Query query) {
+    final String singleTable = TABLE_TIME_GROUPS_RECEIVED.getName();
+    if (!tableExists(query, singleTable)) {
+      return;
+    }
+    final long retainedFromMs = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(MAX_STATUS_STORAGE_TIME);
+    final List<Long> weeks = query
+        .select("SELECT DISTINCT received_timestamp / ? FROM " + singleTable + " WHERE received_timestamp >= ?")
+        .params(WEEK_MS, retainedFromMs)
+        .listResult(rs -> rs.getLong(1));
+    for (long week : weeks) {
+      final String partition = createPartition(query, week);
+      query.update("INSERT OR REPLACE INTO " + partition
+              + " (time_group_id, post_result, received_timestamp, created_ts, message)"
+              + " SELECT time_group_id, post_result, received_timestamp, created_ts, message FROM " + singleTable
+              + " WHERE received_timestamp >= ? AND received_timestamp < ?")
+          .params(week * WEEK_MS, (week + 1) * WEEK_MS)
+          .run();
+    }
+    query.update("DROP TABLE " + singleTable).run();
+    log.info("Moved time groups received of {} weeks to weekly partitions", weeks.size());
+  }
+
+  /**
+   * Creates the partition and its indexes if they do not exist yet.
+   *
+   * @return name of the partition
+   */
+  private static String createPartition(Query query, long week) {
+    final LocalDbTable partition = CoreLocalDbTable.timeGroupsReceivedPartition(week);
+    query.update("CREATE TABLE IF NOT EXISTS " + partition.getName() + " ( " + partition.getSchema() + " ) ").run();
+    query.update(CoreLocalDbTable.timeGroupsReceivedPartitionIndex(week)).run();
+    return partition.getName();
+  }
+
+  private static boolean isRetained(long week, long nowMs) {
+    return (week + 1) * WEEK_MS > nowMs - TimeUnit.DAYS.toMillis(MAX_STATUS_STORAGE_TIME);
+  }
+
+  private static boolean tableExists(Query query, String tableName) {
+    return query.select("SELECT COUNT(*) FROM sqlite_master WHERE type='table' AND name=?")
+        .params(tableName)
+        .singleResult(rs -> rs.getLong(1)) > 0;
+  }
+
+  private static String partitionName(long week) {
+    return TIME_GROUPS_RECEIVED_PARTITION_PREFIX + week;
   }
 }
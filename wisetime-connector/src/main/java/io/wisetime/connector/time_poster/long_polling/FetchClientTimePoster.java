@@ -14,16 +14,24 @@ import io.wisetime.connector.api_client.PostResult;
 import io.wisetime.connector.api_client.PostResult.PostResultStatus;
 import io.wisetime.connector.datastore.SqLiteHelper;
 import io.wisetime.connector.health.HealthCheck;
+import io.wisetime.connector.metric.RunMetrics;
+import io.wisetime.connector.scheduler.ConnectorScheduler;
+import io.wisetime.connector.scheduler.ResourceGovernor;
+import io.wisetime.connector.scheduler.ResourceGovernor.Permit;
+import io.wisetime.connector.scheduler.ResourceGovernor.Priority;
 import io.wisetime.connector.time_poster.TimePoster;
 import io.wisetime.connector.time_poster.deduplication.TimeGroupIdStore;
 import io.wisetime.generated.connect.TimeGroup;
 import java.net.SocketTimeoutException;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 
@@ -37,6 +45,7 @@ import lombok.extern.slf4j.Slf4j;
 public class FetchClientTimePoster implements Runnable, TimePoster {
 
   private static final int MAX_MINS_SINCE_SUCCESS = 10;
+  private static final long STANDBY_CHECK_INTERVAL_MS = 1000;
 
   private final AtomicReference<ZonedDateTime> lastSuccessfulRun = new AtomicReference<>(ZonedDateTime.now());
 
@@ -50,29 +59,55 @@ public class FetchClientTimePoster implements Runnable, TimePoster {
   private final ApiClient apiClient;
   private final WiseTimeConnector wiseTimeConnector;
   private final Supplier<ExecutorService> executorProvider;
+  private final ConnectorScheduler scheduler;
+  private final ResourceGovernor resourceGovernor;
+  private final BooleanSupplier activeGate;
+
+  // held while a fetched batch is being posted
+  private final ReentrantLock postingLock = new ReentrantLock();
+  private volatile boolean draining;
 
   @SuppressWarnings("ParameterNumber")
   public FetchClientTimePoster(WiseTimeConnector wiseTimeConnector, ApiClient apiClient, HealthCheck healthCheck,
-      Supplier<ExecutorService> executorProvider, SqLiteHelper sqLiteHelper, int timeGroupsFetchLimit) {
-    this(wiseTimeConnector, apiClient, healthCheck, executorProvider, new TimeGroupIdStore(sqLiteHelper),
-        timeGroupsFetchLimit);
+      Supplier<ExecutorService> executorProvider, ConnectorScheduler scheduler, ResourceGovernor resourceGovernor,
+      SqLiteHelper sqLiteHelper, int timeGroupsFetchLimit, BooleanSupplier activeGate) {
+    this(wiseTimeConnector, apiClient, healthCheck, executorProvider, scheduler, resourceGovernor,
+        new TimeGroupIdStore(sqLiteHelper), timeGroupsFetchLimit, activeGate);
   }
 
+  /**
+   * @param activeGate whether this instance should fetch posted time, false while it is a standby instance
+   */
   @SuppressWarnings("ParameterNumber")
   public FetchClientTimePoster(WiseTimeConnector wiseTimeConnector, ApiClient apiClient, HealthCheck healthCheck,
-      Supplier<ExecutorService> executorProvider, TimeGroupIdStore timeGroupIdStore, int timeGroupsFetchLimit) {
+      Supplier<ExecutorService> executorProvider, ConnectorScheduler scheduler, ResourceGovernor resourceGovernor,
+      TimeGroupIdStore timeGroupIdStore, int timeGroupsFetchLimit, BooleanSupplier activeGate) {
     this.wiseTimeConnector = wiseTimeConnector;
     this.apiClient = apiClient;
     this.timeGroupIdStore = timeGroupIdStore;
     this.timeGroupsFetchLimit = timeGroupsFetchLimit;
     this.executorProvider = executorProvider;
+    this.scheduler = scheduler;
+    this.resourceGovernor = resourceGovernor;
+    this.activeGate = activeGate;
     timeGroupStatusUpdater = new TimeGroupStatusUpdater(timeGroupIdStore, apiClient, executorProvider);
+    timeGroupStatusUpdater.setRunGate(activeGate);
     healthCheck.addHealthIndicator(timeGroupStatusUpdater);
   }
 
   @Override
   public void run() {
-    while (!Thread.currentThread().isInterrupted()) {
+    while (!draining && !Thread.currentThread().isInterrupted()) {
+      if (!activeGate.getAsBoolean()) {
+        // standby: the active instance fetches posted time, stay healthy while waiting to take over
+        lastSuccessfulRun.set(ZonedDateTime.now());
+        try {
+          Thread.sleep(STANDBY_CHECK_INTERVAL_MS);
+        } catch (InterruptedException e) {
+          return;
+        }
+        continue;
+      }
       try {
         final List<TimeGroup> fetchedTimeGroups = apiClient.fetchTimeGroups(timeGroupsFetchLimit);
         processTimeGroups(fetchedTimeGroups);
@@ -100,22 +135,47 @@ public class FetchClientTimePoster implements Runnable, TimePoster {
   @VisibleForTesting
   void processTimeGroups(List<TimeGroup> fetchedTimeGroups) {
     log.debug("Received {} for time posting", fetchedTimeGroups);
-    for (TimeGroup timeGroup : fetchedTimeGroups) {
-      Optional<String> timeGroupStatus = timeGroupIdStore.alreadySeenFetchClient(timeGroup.getGroupId());
+    if (!fetchedTimeGroups.isEmpty()) {
+      postingLock.lock();
+      // background syncs yield their uploads while time is being posted
+      try (Permit ignored = resourceGovernor.acquire(Priority.HIGH, 1)) {
+        for (TimeGroup timeGroup : fetchedTimeGroups) {
+          if (draining) {
+            // not marked as IN_PROGRESS, so the time group is fetched again straight after the restart
+            log.info("Connector is stopping, time group {} will be posted after restart", timeGroup.getGroupId());
+            continue;
+          }
+          if (!activeGate.getAsBoolean()) {
+            // the lease was lost while posting the batch, leave the rest for the instance taking over
+            log.info("Instance is on standby, time group {} is left for the active instance", timeGroup.getGroupId());
+            continue;
+          }
+          processTimeGroup(timeGroup);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        postingLock.unlock();
+      }
+    }
+    lastSuccessfulRun.set(ZonedDateTime.now());
+  }
 
-      if (!skip(timeGroupStatus)) {
-        // skip will skip anything with state `IN_PROGRESS`, SUCCESS or SUCCESS_AND_SENT
-        log.debug("Processing time group: {}", timeGroup);
+  private void processTimeGroup(TimeGroup timeGroup) {
+    Optional<String> timeGroupStatus = timeGroupIdStore.alreadySeenFetchClient(timeGroup.getGroupId());
 
-        // save the rows to the DB synchronously as IN_PROGRESS
-        timeGroupIdStore.putTimeGroupId(timeGroup.getGroupId(), IN_PROGRESS, "");
+    if (!skip(timeGroupStatus)) {
+      // skip will skip anything with state `IN_PROGRESS`, SUCCESS or SUCCESS_AND_SENT
+      log.debug("Processing time group: {}", timeGroup);
 
-        postTime(timeGroup);
-      } else if (timeGroupStatus.map(this::resendSuccessMessage).orElse(false)) {
-        timeGroupStatusUpdater.processSingle(timeGroup.getGroupId(), PostResult.SUCCESS());
-      }
+      // save the rows to the DB synchronously as IN_PROGRESS
+      timeGroupIdStore.putTimeGroupId(timeGroup.getGroupId(), IN_PROGRESS, "");
+
+      postTime(timeGroup);
+    } else if (timeGroupStatus.map(this::resendSuccessMessage).orElse(false)) {
+      timeGroupStatusUpdater.processSingle(timeGroup.getGroupId(), PostResult.SUCCESS());
     }
-    lastSuccessfulRun.set(ZonedDateTime.now());
   }
 
   private void postTime(TimeGroup timeGroup) {
@@ -165,13 +225,36 @@ public class FetchClientTimePoster implements Runnable, TimePoster {
 
   public void start() {
     executorProvider.get().submit(this);
-    timeGroupStatusUpdater.startScheduler();
+    timeGroupStatusUpdater.startScheduler(scheduler);
   }
 
   public void stop() {
     timeGroupStatusUpdater.stopScheduler();
   }
 
+  @Override
+  public List<RunMetrics> getRunMetrics() {
+    return List.of(timeGroupStatusUpdater.getRunMetrics());
+  }
+
+  @Override
+  public boolean drain(Duration budget) {
+    draining = true;
+    final long deadline = System.nanoTime() + budget.toNanos();
+    try {
+      // waits for the time group being posted, the remaining ones of the batch are skipped
+      if (!postingLock.tryLock(budget.toNanos(), TimeUnit.NANOSECONDS)) {
+        log.warn("Time posting did not complete within {}", budget);
+        return false;
+      }
+      postingLock.unlock();
+      return timeGroupStatusUpdater.flush(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
   @Override
   public boolean isHealthy() {
     return ZonedDateTime.now().minusMinutes(MAX_MINS_SINCE_SUCCESS).isBefore(lastSuccessfulRun.get());
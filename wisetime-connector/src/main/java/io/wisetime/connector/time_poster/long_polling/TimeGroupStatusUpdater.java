@@ -10,13 +10,22 @@ import static io.wisetime.connector.time_poster.deduplication.TimeGroupIdStore.T
 
 import io.wisetime.connector.api_client.ApiClient;
 import io.wisetime.connector.api_client.PostResult;
+import io.wisetime.connector.scheduler.ConnectorScheduler;
+import io.wisetime.connector.scheduler.ScheduledTask;
+import io.wisetime.connector.scheduler.TaskSchedule;
 import io.wisetime.connector.time_poster.deduplication.TimeGroupIdStore;
 import io.wisetime.connector.utils.BaseRunner;
 import io.wisetime.generated.connect.TimeGroupStatus;
+import java.time.Duration;
 import java.util.List;
-import java.util.Timer;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
@@ -31,15 +40,15 @@ class TimeGroupStatusUpdater extends BaseRunner {
   private static final int MAX_MINS_SINCE_SUCCESS = 10;
   private final TimeGroupIdStore timeGroupIdStore;
   private final ApiClient apiClient;
-  private final Timer timeGroupStatusUpdaterTimer;
   private final Supplier<ExecutorService> executorService;
+  private final Set<Future<?>> pendingUpdates = ConcurrentHashMap.newKeySet();
+  private ScheduledTask scheduledTask;
 
   TimeGroupStatusUpdater(TimeGroupIdStore timeGroupIdStore, ApiClient apiClient, Supplier<ExecutorService> executorService) {
     this.timeGroupIdStore = timeGroupIdStore;
     this.apiClient = apiClient;
-    this.executorService = executorService;
     // uploading statuses is mostly waiting on server response: We can afford a lot of parallelism
-    this.timeGroupStatusUpdaterTimer = new Timer("status-uploader-timer", true);
+    this.executorService = executorService;
   }
 
   @Override
@@ -55,21 +64,64 @@ class TimeGroupStatusUpdater extends BaseRunner {
     return log;
   }
 
-  void startScheduler() {
-    timeGroupStatusUpdaterTimer.scheduleAtFixedRate(this, TimeUnit.SECONDS.toMillis(30L),
-        TimeUnit.SECONDS.toMillis(30L));
+  void startScheduler(ConnectorScheduler scheduler) {
+    scheduledTask = scheduler.scheduleDedicated("time-group-status-update", this, new TaskSchedule(
+        TimeUnit.SECONDS.toMillis(30L), TimeUnit.SECONDS.toMillis(30L), TimeUnit.MINUTES.toMillis(5L)));
   }
 
   void stopScheduler() {
-    timeGroupStatusUpdaterTimer.cancel();
-    timeGroupStatusUpdaterTimer.purge();
+    if (scheduledTask != null) {
+      scheduledTask.cancel();
+    }
   }
 
   void processSingle(String timeGroupId, PostResult result) {
-    executorService.get().submit(() -> updateTimeGroupStatus(timeGroupId, result));
+    pendingUpdates.removeIf(Future::isDone);
+    final Future<?> update = executorService.get().submit(() -> updateTimeGroupStatus(timeGroupId, result));
+    if (update != null) {
+      pendingUpdates.add(update);
+    }
+  }
+
+  /**
+   * Waits for the status updates in progress, then sends any statuses still pending, including those of posts that
+   * completed moments ago and whose update failed.
+   *
+   * @return true if all statuses were sent within the timeout
+   */
+  boolean flush(Duration timeout) {
+    final long deadline = System.nanoTime() + timeout.toNanos();
+    for (Future<?> update : pendingUpdates) {
+      try {
+        update.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        pendingUpdates.removeIf(Future::isDone);
+        log.warn("{} time group status updates did not complete within {}", pendingUpdates.size(), timeout);
+        return false;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      } catch (ExecutionException | CancellationException e) {
+        // not expected, updateTimeGroupStatus handles its errors; the status is still pending and sent below
+        log.error("Time group status update failed", e);
+      }
+    }
+    // statuses of posts that completed while their update could not be sent, e.g. during an outage
+    boolean allSent = true;
+    for (Pair<String, PostResult> timeGroupStatus : timeGroupIdStore.getAllWithPendingStatusUpdate(Duration.ZERO)) {
+      if (System.nanoTime() - deadline >= 0) {
+        log.warn("Pending time group statuses were not all sent within {}", timeout);
+        return false;
+      }
+      allSent &= updateTimeGroupStatus(timeGroupStatus.getLeft(), timeGroupStatus.getRight());
+    }
+    return allSent;
   }
 
-  private void updateTimeGroupStatus(String timeGroupId, PostResult result) {
+  /**
+   * @return whether the status was sent, a failed status stays pending and is sent again by a later run
+   */
+  private boolean updateTimeGroupStatus(String timeGroupId, PostResult result) {
     try {
       log.info("Processed time group {}, result: {}", timeGroupId, result);
       switch (result.getStatus()) {
@@ -97,8 +149,10 @@ class TimeGroupStatusUpdater extends BaseRunner {
         default:
           log.warn("Unknown post result status to update time group status: {}", result.getStatus());
       }
+      return true;
     } catch (Exception e) {
       log.error("Error while updating posted time status.", e);
+      return false;
     }
   }
 
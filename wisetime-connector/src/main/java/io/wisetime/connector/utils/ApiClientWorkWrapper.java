@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.utils;
+
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.generated.connect.SyncActivityTypesRequest;
+import io.wisetime.generated.connect.SyncActivityTypesResponse;
+import io.wisetime.generated.connect.TagCategory;
+import io.wisetime.generated.connect.UpsertTagRequest;
+import java.io.IOException;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+
+/**
+ * Wrapper for {@link ApiClient} that records uploads as work done by the {@link BaseRunner} making them, which drives
+ * adaptive runner intervals.
+ *
+ * @see BaseRunner#recordWork(int)
+ */
+@RequiredArgsConstructor
+public class ApiClientWorkWrapper implements ApiClient {
+
+  @Delegate(excludes = Uploads.class)
+  private final ApiClient apiClient;
+
+  @Override
+  public void tagUpsert(UpsertTagRequest upsertTagRequest) throws IOException {
+    apiClient.tagUpsert(upsertTagRequest);
+    BaseRunner.recordWork(1);
+  }
+
+  @Override
+  public void tagUpsertBatch(List<UpsertTagRequest> upsertTagRequests) throws IOException {
+    apiClient.tagUpsertBatch(upsertTagRequests);
+    BaseRunner.recordWork(upsertTagRequests.size());
+  }
+
+  @Override
+  public List<TagCategory> tagCategoryUpsertBatch(List<TagCategory> categories) throws IOException {
+    final List<TagCategory> result = apiClient.tagCategoryUpsertBatch(categories);
+    BaseRunner.recordWork(categories.size());
+    return result;
+  }
+
+  @Override
+  public SyncActivityTypesResponse syncActivityTypes(SyncActivityTypesRequest syncActivityTypesRequest)
+      throws IOException {
+    final SyncActivityTypesResponse response = apiClient.syncActivityTypes(syncActivityTypesRequest);
+    if (syncActivityTypesRequest.getActivityTypes() != null) {
+      BaseRunner.recordWork(syncActivityTypesRequest.getActivityTypes().size());
+    }
+    return response;
+  }
+
+  @SuppressWarnings("unused")
+  private interface Uploads {
+    void tagUpsert(UpsertTagRequest upsertTagRequest) throws IOException;
+
+    void tagUpsertBatch(List<UpsertTagRequest> upsertTagRequests) throws IOException;
+
+    List<TagCategory> tagCategoryUpsertBatch(List<TagCategory> categories) throws IOException;
+
+    SyncActivityTypesResponse syncActivityTypes(SyncActivityTypesRequest syncActivityTypesRequest) throws IOException;
+  }
+}
@@ -5,28 +5,49 @@
 package io.wisetime.connector.utils;
 
 import com.google.common.annotations.VisibleForTesting;
+import io.wisetime.connector.RunContext;
 import io.wisetime.connector.config.ConnectorConfigKey;
 import io.wisetime.connector.config.RuntimeConfig;
 import io.wisetime.connector.health.HealthIndicator;
+import io.wisetime.connector.metric.RunMetrics;
+import io.wisetime.connector.scheduler.AdaptiveInterval;
+import io.wisetime.connector.scheduler.AdaptiveTask;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 
 /**
  * Base runner that encapsulates concurrency restriction and health checks.
+ * <p>
+ * With an adaptive interval enabled, the runner is scheduled sooner after runs that did work and later after idle runs.
+ * Work is signalled with {@link #recordWork(int)} from the thread running {@link #performAction()}.
  *
  * @author yehor.lashkul
  */
 @Slf4j
-public abstract class BaseRunner extends TimerTask implements HealthIndicator {
+public abstract class BaseRunner extends TimerTask implements HealthIndicator, AdaptiveTask {
 
   private static final int MAX_MINS_SINCE_SUCCESS_DEFAULT = 60;
+  private static final ThreadLocal<BaseRunner> CURRENT_RUNNER = new ThreadLocal<>();
 
   private final AtomicBoolean runLock = new AtomicBoolean(false);
   private final int maxMinsSinceSuccess;
+  private final AtomicLong workInCurrentRun = new AtomicLong();
+  private volatile long workInLastRun;
+  private volatile AdaptiveInterval adaptiveInterval;
+  private final RunMetrics runMetrics = new RunMetrics(getClass().getSimpleName());
+  private volatile Duration runBudget;
+  private volatile RunContext runContext = RunContext.unbounded();
+  private volatile BooleanSupplier runGate = () -> true;
+  private volatile boolean stopping;
 
   @VisibleForTesting
   public ZonedDateTime lastSuccessfulRun;
@@ -45,22 +66,118 @@ public abstract class BaseRunner extends TimerTask implements HealthIndicator {
 
   @Override
   public void run() {
+    if (stopping) {
+      // the scheduler may still dispatch runs while the connector shuts down
+      return;
+    }
+    if (!runGate.getAsBoolean()) {
+      // e.g. a standby instance: nothing to do, and nothing is wrong
+      onSuccess();
+      return;
+    }
+    // scheduled runs never overlap, but a runner may also be run directly, e.g. the status updater by the time poster
     if (!runLock.compareAndSet(false, true)) {
       log.info("Skip {} timer instantiation, previous process is yet to complete", getClass().getSimpleName());
+      runMetrics.recordSkippedOverlap();
       return;
     }
 
+    workInCurrentRun.set(0);
+    runContext = new RunContext(
+        runBudget == null ? null : Instant.now().plus(runBudget),
+        workInCurrentRun::addAndGet,
+        runGate);
+    if (stopping) {
+      // stopRuns() may have cancelled the context of the previous run instead of this one
+      runContext.cancel();
+    }
+    CURRENT_RUNNER.set(this);
+    final long startNanos = System.nanoTime();
     try {
       performAction();
       onSuccess();
+      runMetrics.recordSuccess(elapsedMs(startNanos));
     } catch (Exception e) {
+      runMetrics.recordFailure(elapsedMs(startNanos));
       getLogger().error(e.getMessage(), e);
     } finally {
+      CURRENT_RUNNER.remove();
+      workInLastRun = workInCurrentRun.get();
       // ensure lock is released
       runLock.set(false);
     }
   }
 
+  /**
+   * Sets the time a run may take before it should stop, usually the interval between runs. Unlimited by default.
+   */
+  public void setRunBudget(Duration runBudget) {
+    this.runBudget = runBudget;
+  }
+
+  /**
+   * Sets the condition for runs to go ahead, e.g. holding the failover lease. Runs are skipped while it is false, and a
+   * run in progress is asked to stop through {@link RunContext#shouldStop()} once it turns false.
+   */
+  public void setRunGate(BooleanSupplier runGate) {
+    this.runGate = runGate;
+  }
+
+  /**
+   * Asks the run in progress, if any, to stop at the next opportunity.
+   *
+   * @see RunContext#cancel()
+   */
+  public void cancelCurrentRun() {
+    runContext.cancel();
+  }
+
+  /**
+   * Asks the run in progress, if any, to stop, and skips all later runs. Used when the connector shuts down, as the
+   * scheduler keeps dispatching runs until it is closed.
+   */
+  public void stopRuns() {
+    stopping = true;
+    cancelCurrentRun();
+  }
+
+  /**
+   * @return context of the run in progress, for passing on to the connector
+   */
+  protected RunContext getRunContext() {
+    return runContext;
+  }
+
+  public RunMetrics getRunMetrics() {
+    return runMetrics;
+  }
+
+  /**
+   * Records items processed by the runner performing its action on the current thread, if any. Uploads through the
+   * {@link io.wisetime.connector.api_client.ApiClient} provided to the connector are recorded automatically.
+   */
+  public static void recordWork(int items) {
+    final BaseRunner runner = CURRENT_RUNNER.get();
+    if (runner != null && items > 0) {
+      runner.workInCurrentRun.addAndGet(items);
+    }
+  }
+
+  /**
+   * Schedule the runner between the given bounds depending on the work found, instead of at the fixed period. The
+   * maximum is capped at half the health check threshold, so an idle runner is never reported unhealthy.
+   */
+  public void enableAdaptiveInterval(long minMs, long maxMs, long initialMs) {
+    final long healthyMaxMs = Math.max(minMs, TimeUnit.MINUTES.toMillis(maxMinsSinceSuccess) / 2);
+    adaptiveInterval = new AdaptiveInterval(minMs, Math.min(maxMs, healthyMaxMs), initialMs);
+  }
+
+  @Override
+  public long nextDelayMs(long periodMs) {
+    final AdaptiveInterval interval = adaptiveInterval;
+    return interval == null ? periodMs : interval.next(workInLastRun > 0);
+  }
+
   @Override
   public boolean isHealthy() {
     return ChronoUnit.MINUTES.between(lastSuccessfulRun, ZonedDateTime.now()) < maxMinsSinceSuccess;
@@ -75,4 +192,8 @@ public abstract class BaseRunner extends TimerTask implements HealthIndicator {
         .getInt(ConnectorConfigKey.HEALTH_MAX_MINS_SINCE_SUCCESS)
         .orElse(MAX_MINS_SINCE_SUCCESS_DEFAULT);
   }
+
+  private static long elapsedMs(long startNanos) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+  }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.hash.Hashing;
+import io.wisetime.connector.api_client.support.TolerantObjectMapper;
+import io.wisetime.connector.datastore.ConnectorStore;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Content fingerprints of the entities last uploaded to WiseTime, keyed by the entity's external identifier and
+ * persisted as a single {@link ConnectorStore} entry. Sync helpers compare the current state of the connected system
+ * against the snapshot to upload only what changed.
+ */
+@Slf4j
+public class SyncSnapshot {
+
+  private static final ObjectMapper OBJECT_MAPPER = TolerantObjectMapper.create()
+      .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+  private static final TypeReference<Map<String, String>> SNAPSHOT_TYPE = new TypeReference<>() {
+  };
+
+  private final ConnectorStore connectorStore;
+  private final String storeKey;
+
+  public SyncSnapshot(ConnectorStore connectorStore, String storeKey) {
+    this.connectorStore = connectorStore;
+    this.storeKey = storeKey;
+  }
+
+  /**
+   * @return fingerprints by entity id, empty if nothing has been uploaded yet or the snapshot can't be read
+   */
+  public Map<String, String> load() {
+    return connectorStore.getString(storeKey)
+        .map(json -> {
+          try {
+            return OBJECT_MAPPER.readValue(json, SNAPSHOT_TYPE);
+          } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable sync snapshot '{}', everything will be uploaded again", storeKey, e);
+            return Collections.<String, String>emptyMap();
+          }
+        })
+        .orElse(Collections.emptyMap());
+  }
+
+  public void save(Map<String, String> fingerprints) {
+    try {
+      connectorStore.putString(storeKey, OBJECT_MAPPER.writeValueAsString(fingerprints));
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @return a hash of the JSON representation of the entity, which changes whenever any uploaded field changes
+   */
+  public static String fingerprint(Object entity) {
+    try {
+      return Hashing.murmur3_128().hashBytes(OBJECT_MAPPER.writeValueAsBytes(entity)).toString();
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class RunContextTest {
+
+  @Test
+  void shouldStop_afterDeadline() {
+    RunContext runContext = new RunContext(Instant.now().minusSeconds(1), items -> { });
+
+    assertThat(runContext.isDeadlineExceeded()).isTrue();
+    assertThat(runContext.shouldStop()).isTrue();
+  }
+
+  @Test
+  void shouldStop_whenCancelled() {
+    RunContext runContext = RunContext.unbounded();
+    assertThat(runContext.shouldStop()).isFalse();
+
+    runContext.cancel();
+
+    assertThat(runContext.shouldStop()).isTrue();
+  }
+
+  @Test
+  void shouldStop_whenNoLongerActive() {
+    AtomicBoolean active = new AtomicBoolean(true);
+    RunContext runContext = new RunContext(null, items -> { }, active::get);
+    assertThat(runContext.shouldStop()).isFalse();
+
+    active.set(false);
+
+    assertThat(runContext.shouldStop())
+        .as("a run stops once this instance loses the failover lease")
+        .isTrue();
+  }
+
+  @Test
+  void hasTimeFor_comparesWithDeadline() {
+    RunContext runContext = new RunContext(Instant.now().plusSeconds(60), items -> { });
+
+    assertThat(runContext.hasTimeFor(Duration.ofSeconds(10))).isTrue();
+    assertThat(runContext.hasTimeFor(Duration.ofMinutes(5))).isFalse();
+    assertThat(RunContext.unbounded().hasTimeFor(Duration.ofDays(365)))
+        .as("no deadline")
+        .isTrue();
+  }
+
+  @Test
+  void reportProgress_notifiesListener() {
+    AtomicLong reported = new AtomicLong();
+    RunContext runContext = new RunContext(null, reported::addAndGet);
+
+    runContext.reportProgress(5);
+    runContext.reportProgress(0);
+    runContext.reportProgress(3);
+
+    assertThat(runContext.getProgress()).isEqualTo(8);
+    assertThat(reported.get()).isEqualTo(8);
+  }
+}
@@ -5,10 +5,12 @@
 package io.wisetime.connector.activity_type;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import io.wisetime.connector.RunContext;
 import io.wisetime.connector.WiseTimeConnector;
 import java.time.ZonedDateTime;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,7 +40,7 @@ class ActivityTypeRunnerTest {
         .as("expect last success was updated")
         .isGreaterThan(startRun.toInstant().toEpochMilli());
 
-    verify(connector, times(1)).performActivityTypeUpdate();
+    verify(connector, times(1)).performActivityTypeUpdate(any(RunContext.class));
   }
 
   @Test
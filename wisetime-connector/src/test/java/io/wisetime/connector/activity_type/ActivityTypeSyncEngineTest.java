@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.activity_type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.connector.datastore.FileStore;
+import io.wisetime.connector.datastore.SqLiteHelper;
+import io.wisetime.connector.test_util.TemporaryFolder;
+import io.wisetime.connector.test_util.TemporaryFolderExtension;
+import io.wisetime.generated.connect.ActivityType;
+import io.wisetime.generated.connect.SyncActivityTypesRequest;
+import io.wisetime.generated.connect.SyncActivityTypesResponse;
+import io.wisetime.generated.connect.SyncSession;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class ActivityTypeSyncEngineTest {
+
+  @SuppressWarnings("unused")
+  private TemporaryFolder testFolder;
+
+  private ApiClient apiClientMock;
+  private ActivityTypeSyncEngine syncEngine;
+  private final SyncSession session = new SyncSession().syncSessionId("session-1");
+
+  @BeforeEach
+  void setup() throws IOException {
+    apiClientMock = mock(ApiClient.class);
+    stubApiClient();
+    syncEngine = new ActivityTypeSyncEngine(
+        apiClientMock, new FileStore(new SqLiteHelper(testFolder.newFile("store.db"))), 4);
+  }
+
+  @Test
+  void fullSync_uploadsInBatchesWithinSession() throws Exception {
+    ActivityTypeSyncResult result = syncEngine.fullSync(activityTypes(5000));
+
+    ArgumentCaptor<SyncActivityTypesRequest> captor = ArgumentCaptor.forClass(SyncActivityTypesRequest.class);
+    verify(apiClientMock, times(4)).syncActivityTypes(captor.capture());
+    assertThat(captor.getAllValues())
+        .as("batches are spread over the upload threads and sent within the session")
+        .allSatisfy(request -> {
+          assertThat(request.getActivityTypes()).hasSizeLessThanOrEqualTo(ActivityTypeSyncEngine.MAX_BATCH_SIZE);
+          assertThat(request.getSyncSessionId()).isEqualTo("session-1");
+        });
+    assertThat(captor.getAllValues().stream().mapToInt(request -> request.getActivityTypes().size()).sum())
+        .isEqualTo(5000);
+    verify(apiClientMock).activityTypesCompleteSyncSession(session);
+    assertThat(result.getUploaded()).isEqualTo(5000);
+    assertThat(result.isSyncSessionUsed()).isTrue();
+  }
+
+  @Test
+  void fullSync_skipsUnchangedActivityTypes() throws Exception {
+    syncEngine.fullSync(activityTypes(10));
+    ActivityTypeSyncResult result = syncEngine.fullSync(activityTypes(10));
+
+    verify(apiClientMock, times(1)).activityTypesStartSyncSession();
+    assertThat(result.getUnchanged()).isEqualTo(10);
+    assertThat(result.getUploaded()).isZero();
+  }
+
+  @Test
+  void fullSync_runsSessionOnceIntervalElapsed() throws Exception {
+    syncEngine = new ActivityTypeSyncEngine(
+        apiClientMock, new FileStore(new SqLiteHelper(testFolder.newFile("interval.db"))), 4, Duration.ZERO);
+    syncEngine.fullSync(activityTypes(10));
+    ActivityTypeSyncResult result = syncEngine.fullSync(activityTypes(10));
+
+    verify(apiClientMock, times(2)).activityTypesCompleteSyncSession(session);
+    assertThat(result.isSyncSessionUsed())
+        .as("unchanged activity types are still synced once the interval has elapsed, to repair server side drift")
+        .isTrue();
+  }
+
+  @Test
+  void fullSync_runsSessionWhenActivityTypeRemoved() throws Exception {
+    syncEngine.fullSync(activityTypes(10));
+    ActivityTypeSyncResult result = syncEngine.fullSync(activityTypes(9));
+
+    verify(apiClientMock, times(2)).activityTypesCompleteSyncSession(session);
+    assertThat(result.getRemoved()).isEqualTo(1);
+  }
+
+  @Test
+  void fullSync_cancelsSessionOnError() throws Exception {
+    when(apiClientMock.syncActivityTypes(any())).thenThrow(new IOException("upload failed"));
+
+    assertThatThrownBy(() -> syncEngine.fullSync(activityTypes(10)))
+        .isInstanceOf(IOException.class)
+        .hasMessage("upload failed");
+    verify(apiClientMock).activityTypesCancelSyncSession(session);
+    verify(apiClientMock, never()).activityTypesCompleteSyncSession(any());
+
+    // a failed sync is not remembered, so the retry runs a new session
+    reset(apiClientMock);
+    stubApiClient();
+    syncEngine.fullSync(activityTypes(10));
+    verify(apiClientMock).activityTypesCompleteSyncSession(session);
+  }
+
+  @Test
+  void deltaSync_uploadsOnlyChangedActivityTypes() throws Exception {
+    syncEngine.fullSync(activityTypes(10));
+    List<ActivityType> activityTypes = activityTypes(11);
+    activityTypes.get(0).label("renamed");
+
+    ActivityTypeSyncResult result = syncEngine.deltaSync(activityTypes);
+
+    ArgumentCaptor<SyncActivityTypesRequest> captor = ArgumentCaptor.forClass(SyncActivityTypesRequest.class);
+    verify(apiClientMock, times(2)).syncActivityTypes(captor.capture());
+    SyncActivityTypesRequest deltaRequest = captor.getAllValues().get(1);
+    assertThat(deltaRequest.getSyncSessionId()).as("delta uploads don't use a session").isNull();
+    assertThat(deltaRequest.getActivityTypes())
+        .extracting(ActivityType::getCode)
+        .containsExactlyInAnyOrder("code-0", "code-10");
+    assertThat(result.getUploaded()).isEqualTo(2);
+    assertThat(result.getUnchanged()).isEqualTo(9);
+  }
+
+  @Test
+  void batchSize_isClamped() {
+    assertThat(syncEngine.batchSize(10)).isEqualTo(100);
+    assertThat(syncEngine.batchSize(2000)).isEqualTo(500);
+    assertThat(syncEngine.batchSize(100_000)).isEqualTo(ActivityTypeSyncEngine.MAX_BATCH_SIZE);
+  }
+
+  private void stubApiClient() throws IOException {
+    when(apiClientMock.activityTypesStartSyncSession()).thenReturn(session);
+    when(apiClientMock.syncActivityTypes(any())).thenReturn(new SyncActivityTypesResponse());
+  }
+
+  private static List<ActivityType> activityTypes(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> new ActivityType().code("code-" + i).label("label " + i))
+        .collect(Collectors.toList());
+  }
+}
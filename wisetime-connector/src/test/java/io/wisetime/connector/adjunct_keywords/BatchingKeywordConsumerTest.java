@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.adjunct_keywords;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.javafaker.Faker;
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.generated.connect.AddKeywordsRequest;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class BatchingKeywordConsumerTest {
+
+  private final Faker faker = new Faker();
+
+  private ApiClient apiClientMock;
+  private BatchingKeywordConsumer keywordConsumer;
+
+  @BeforeEach
+  void setup() {
+    apiClientMock = mock(ApiClient.class);
+    keywordConsumer = new BatchingKeywordConsumer(apiClientMock, 10, 5, 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    keywordConsumer.close();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void flushUploadQueue_uploadsAllUpdatesInBatches() throws Exception {
+    when(apiClientMock.tagAddKeywordsBatch(anyList())).thenReturn(Collections.emptyList());
+
+    for (int i = 0; i < 45; i++) {
+      keywordConsumer.persistKeywordAsync(keywordUpdate("tag-" + i, faker.lorem().word()));
+    }
+    keywordConsumer.flushUploadQueue();
+
+    ArgumentCaptor<List<AddKeywordsRequest>> captor = ArgumentCaptor.forClass(List.class);
+    verify(apiClientMock, atLeastOnce()).tagAddKeywordsBatch(captor.capture());
+    assertThat(captor.getAllValues())
+        .as("no request should exceed the batch size")
+        .allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(10));
+    assertThat(captor.getAllValues().stream().flatMap(List::stream).map(AddKeywordsRequest::getTagName))
+        .as("every update accepted before the flush has been uploaded")
+        .hasSize(45)
+        .doesNotHaveDuplicates();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void flushUploadQueue_mergesUpdatesForSameTag() throws Exception {
+    when(apiClientMock.tagAddKeywordsBatch(anyList())).thenReturn(Collections.emptyList());
+    keywordConsumer.close();
+    // single uploader, so both updates are picked up in one batch
+    keywordConsumer = new BatchingKeywordConsumer(apiClientMock, 10, 10, 1);
+
+    keywordConsumer.persistKeywordAsync(keywordUpdate("tag", "one"));
+    keywordConsumer.persistKeywordAsync(keywordUpdate("tag", "two"));
+    keywordConsumer.flushUploadQueue();
+
+    ArgumentCaptor<List<AddKeywordsRequest>> captor = ArgumentCaptor.forClass(List.class);
+    verify(apiClientMock, atLeastOnce()).tagAddKeywordsBatch(captor.capture());
+    Set<String> uploaded = captor.getAllValues().stream()
+        .flatMap(List::stream)
+        .flatMap(request -> request.getAdditionalKeywords().stream())
+        .collect(Collectors.toSet());
+    assertThat(uploaded).containsExactlyInAnyOrder("one", "two");
+  }
+
+  @Test
+  void flushUploadQueue_rethrowsUploadFailure() throws Exception {
+    when(apiClientMock.tagAddKeywordsBatch(anyList())).thenThrow(new IOException("upload failed"));
+
+    keywordConsumer.persistKeywordAsync(keywordUpdate("tag", "keyword"));
+
+    assertThatThrownBy(() -> keywordConsumer.flushUploadQueue())
+        .as("upload errors are surfaced at the flush barrier")
+        .isInstanceOf(IOException.class)
+        .hasMessage("upload failed");
+  }
+
+  @Test
+  void flushUploadQueue_reportsFailureSeenByPersist() throws Exception {
+    final CountDownLatch uploadFailed = new CountDownLatch(1);
+    when(apiClientMock.tagAddKeywordsBatch(anyList())).thenAnswer(invocation -> {
+      uploadFailed.countDown();
+      throw new IOException("upload failed");
+    });
+    keywordConsumer.persistKeywordAsync(keywordUpdate("tag", "keyword"));
+    assertThat(uploadFailed.await(10, TimeUnit.SECONDS)).isTrue();
+
+    assertThatThrownBy(() -> {
+      // the failure is recorded once the upload call has returned
+      for (int i = 0; i < 100; i++) {
+        keywordConsumer.persistKeywordAsync(keywordUpdate("tag-" + i, "keyword"));
+        Thread.sleep(10);
+      }
+    }).hasMessage("upload failed");
+    assertThatThrownBy(() -> keywordConsumer.flushUploadQueue())
+        .as("the failure is kept for the flush barrier")
+        .hasMessage("upload failed");
+  }
+
+  @Test
+  void flushUploadQueue_returnsWhenUpdatesDroppedOnClose() throws Exception {
+    final CountDownLatch uploadStarted = new CountDownLatch(1);
+    when(apiClientMock.tagAddKeywordsBatch(anyList())).thenAnswer(invocation -> {
+      uploadStarted.countDown();
+      try {
+        Thread.sleep(TimeUnit.MINUTES.toMillis(5));
+      } catch (InterruptedException e) {
+        throw new InterruptedIOException("upload interrupted");
+      }
+      return Collections.emptyList();
+    });
+    keywordConsumer.close();
+    // single uploader taking one update at a time, so the rest stay queued while it is blocked
+    keywordConsumer = new BatchingKeywordConsumer(apiClientMock, 1, 5, 1);
+    for (int i = 0; i < 3; i++) {
+      keywordConsumer.persistKeywordAsync(keywordUpdate("tag-" + i, "keyword"));
+    }
+    assertThat(uploadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+    // an interrupted close stops the uploaders without waiting for them
+    Thread.currentThread().interrupt();
+    keywordConsumer.close();
+    assertThat(Thread.interrupted()).isTrue();
+
+    assertThatThrownBy(() -> keywordConsumer.flushUploadQueue())
+        .as("queued updates are counted down rather than waited on forever")
+        .isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void persistKeywordAsync_failsWhenClosedWhileQueueFull() throws Exception {
+    final CountDownLatch uploadStarted = new CountDownLatch(1);
+    when(apiClientMock.tagAddKeywordsBatch(anyList())).thenAnswer(invocation -> {
+      uploadStarted.countDown();
+      try {
+        Thread.sleep(TimeUnit.MINUTES.toMillis(5));
+      } catch (InterruptedException e) {
+        throw new InterruptedIOException("upload interrupted");
+      }
+      return Collections.emptyList();
+    });
+    keywordConsumer.close();
+    keywordConsumer = new BatchingKeywordConsumer(apiClientMock, 1, 1, 1);
+    keywordConsumer.persistKeywordAsync(keywordUpdate("tag-0", "keyword"));
+    assertThat(uploadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+    keywordConsumer.persistKeywordAsync(keywordUpdate("tag-1", "keyword"));
+
+    final AtomicReference<Throwable> producerFailure = new AtomicReference<>();
+    final Thread producer = new Thread(() -> {
+      try {
+        keywordConsumer.persistKeywordAsync(keywordUpdate("tag-2", "keyword"));
+      } catch (Throwable t) {
+        producerFailure.set(t);
+      }
+    });
+    producer.start();
+    Thread.currentThread().interrupt();
+    keywordConsumer.close();
+    assertThat(Thread.interrupted()).isTrue();
+
+    producer.join(TimeUnit.SECONDS.toMillis(10));
+    assertThat(producer.isAlive())
+        .as("the producer waiting on the full queue gives up once the consumer is closed")
+        .isFalse();
+    assertThat(producerFailure.get()).isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> keywordConsumer.flushUploadQueue())
+        .as("the flush does not wait for the update that was never queued")
+        .isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void persistKeywordAsync_ignoresEmptyUpdates() throws Exception {
+    keywordConsumer.persistKeywordAsync(new KeywordUpdate().setTagId(new TagId().setName("tag")));
+    keywordConsumer.flushUploadQueue();
+
+    verify(apiClientMock, never()).tagAddKeywordsBatch(anyList());
+  }
+
+  @Test
+  void sentKeywordIndex_notCreatedUntilFirstUpdate() throws Exception {
+    when(apiClientMock.tagAddKeywordsBatch(anyList())).thenReturn(Collections.emptyList());
+    final AtomicInteger indexCreated = new AtomicInteger();
+    keywordConsumer.close();
+    keywordConsumer = new BatchingKeywordConsumer(apiClientMock, 10, () -> {
+      indexCreated.incrementAndGet();
+      return null;
+    });
+
+    keywordConsumer.persistKeywordAsync(new KeywordUpdate().setTagId(new TagId().setName("tag")));
+    keywordConsumer.flushUploadQueue();
+    assertThat(indexCreated)
+        .as("nothing to send yet, the index is not needed")
+        .hasValue(0);
+
+    keywordConsumer.persistKeywordAsync(keywordUpdate("tag", "keyword"));
+    keywordConsumer.persistKeywordAsync(keywordUpdate("tag", "other"));
+    keywordConsumer.flushUploadQueue();
+    assertThat(indexCreated)
+        .as("the index is created once, with the first update")
+        .hasValue(1);
+  }
+
+  private KeywordUpdate keywordUpdate(String tagName, String keyword) {
+    return new KeywordUpdate()
+        .setTagId(new TagId().setName(tagName))
+        .setAdditionalKeywords(Set.of(keyword));
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.adjunct_keywords;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.wisetime.connector.api_client.SyncScope;
+import io.wisetime.connector.datastore.FileStore;
+import io.wisetime.connector.datastore.SqLiteHelper;
+import io.wisetime.connector.test_util.TemporaryFolder;
+import io.wisetime.connector.test_util.TemporaryFolderExtension;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class KeywordRunnerTest {
+
+  @SuppressWarnings("unused")
+  private TemporaryFolder testFolder;
+
+  private KeywordExtractor keywordExtractorMock;
+  private BatchingKeywordConsumer keywordConsumerMock;
+  private FileStore fileStore;
+  private KeywordRunner keywordRunner;
+
+  @BeforeEach
+  void setup() throws IOException {
+    keywordExtractorMock = mock(KeywordExtractor.class);
+    when(keywordExtractorMock.validateExpectedState()).thenReturn(true);
+    keywordConsumerMock = mock(BatchingKeywordConsumer.class);
+    when(keywordConsumerMock.getBatchSize()).thenReturn(50);
+    fileStore = new FileStore(new SqLiteHelper(testFolder.newFile("keywords.db")));
+    keywordRunner = new KeywordRunner(keywordExtractorMock, fileStore, keywordConsumerMock, TimeUnit.DAYS.toMillis(1));
+  }
+
+  @Test
+  void run_firstSweepIsFull() throws Exception {
+    keywordRunner.run();
+
+    ArgumentCaptor<KeywordConfig> configCaptor = ArgumentCaptor.forClass(KeywordConfig.class);
+    verify(keywordExtractorMock).fetchKeywords(configCaptor.capture(), eq(keywordConsumerMock));
+    verify(keywordConsumerMock).flushUploadQueue();
+    assertThat(configCaptor.getValue().getSyncScope()).isEqualTo(SyncScope.FULL_SYNC);
+    assertThat(configCaptor.getValue().getCursorEpochMs()).isZero();
+    assertThat(configCaptor.getValue().getBatchSize()).isEqualTo(50);
+
+    assertThat(fileStore.getLong(KeywordRunner.CURSOR_KEY_PREFIX + SyncScope.FULL_SYNC.name()))
+        .as("full sweep cursor persisted")
+        .isPresent();
+    assertThat(fileStore.getLong(KeywordRunner.CURSOR_KEY_PREFIX + SyncScope.DELTA_SYNC.name()))
+        .as("full sweep also advances the incremental cursor")
+        .isEqualTo(fileStore.getLong(KeywordRunner.CURSOR_KEY_PREFIX + SyncScope.FULL_SYNC.name()));
+  }
+
+  @Test
+  void run_incrementalSweepUsesPersistedCursor() {
+    keywordRunner.run();
+    final long cursor = fileStore.getLong(KeywordRunner.CURSOR_KEY_PREFIX + SyncScope.DELTA_SYNC.name()).get();
+
+    keywordRunner.run();
+
+    ArgumentCaptor<KeywordConfig> configCaptor = ArgumentCaptor.forClass(KeywordConfig.class);
+    verify(keywordExtractorMock, times(2)).fetchKeywords(configCaptor.capture(), any());
+    KeywordConfig secondRun = configCaptor.getAllValues().get(1);
+    assertThat(secondRun.getSyncScope()).isEqualTo(SyncScope.DELTA_SYNC);
+    assertThat(secondRun.getCursorEpochMs()).isEqualTo(cursor);
+  }
+
+  @Test
+  void run_uploadFailureKeepsCursor() throws Exception {
+    doThrow(new IOException("upload failed")).when(keywordConsumerMock).flushUploadQueue();
+
+    keywordRunner.run();
+
+    assertThat(fileStore.getLong(KeywordRunner.CURSOR_KEY_PREFIX + SyncScope.FULL_SYNC.name()))
+        .as("cursor must not advance when keywords were not uploaded")
+        .isEmpty();
+    assertThat(keywordRunner.nextSyncScope(System.currentTimeMillis()))
+        .isEqualTo(SyncScope.FULL_SYNC);
+  }
+
+  @Test
+  void run_invalidExtractorStateSkipsSweep() {
+    when(keywordExtractorMock.validateExpectedState()).thenReturn(false);
+
+    keywordRunner.run();
+
+    verify(keywordExtractorMock, never()).fetchKeywords(any(), any());
+  }
+}
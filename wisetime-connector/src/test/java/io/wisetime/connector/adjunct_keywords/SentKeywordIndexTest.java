@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.adjunct_keywords;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.wisetime.connector.datastore.SqLiteHelper;
+import io.wisetime.connector.test_util.TemporaryFolder;
+import io.wisetime.connector.test_util.TemporaryFolderExtension;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class SentKeywordIndexTest {
+
+  @SuppressWarnings("unused")
+  private TemporaryFolder testFolder;
+
+  private File databaseFile;
+  private SqLiteHelper sqLiteHelper;
+  private SentKeywordIndex sentKeywordIndex;
+
+  @BeforeEach
+  void setup() throws IOException {
+    databaseFile = testFolder.newFile("keywords.db");
+    sqLiteHelper = new SqLiteHelper(databaseFile);
+    sentKeywordIndex = new SentKeywordIndex(sqLiteHelper);
+  }
+
+  @Test
+  void trimSent_newKeywordsPassThrough() {
+    KeywordUpdate update = keywordUpdate("tag", Set.of("one", "two"));
+
+    assertThat(sentKeywordIndex.trimSent(update))
+        .as("nothing has been sent yet")
+        .contains(update);
+  }
+
+  @Test
+  void trimSent_removesSentKeywords() {
+    sentKeywordIndex.recordSent("tag", List.of("one"));
+
+    assertThat(sentKeywordIndex.trimSent(keywordUpdate("tag", Set.of("one", "two"))))
+        .hasValueSatisfying(trimmed -> assertThat(trimmed.getAdditionalKeywords()).containsExactly("two"));
+    assertThat(sentKeywordIndex.trimSent(keywordUpdate("tag", Set.of("one"))))
+        .as("update without new keywords is dropped")
+        .isEmpty();
+    assertThat(sentKeywordIndex.trimSent(keywordUpdate("other tag", Set.of("one"))))
+        .as("keywords are remembered per tag")
+        .isPresent();
+  }
+
+  @Test
+  void trimSent_survivesRestart() {
+    sentKeywordIndex.recordSent("tag", List.of("one"));
+
+    SentKeywordIndex reloaded = new SentKeywordIndex(new SqLiteHelper(databaseFile));
+
+    assertThat(reloaded.trimSent(keywordUpdate("tag", Set.of("one"))))
+        .as("fingerprints are loaded from the database")
+        .isEmpty();
+  }
+
+  @Test
+  void trimSent_expiredKeywordsAreResent() {
+    sentKeywordIndex.recordSent("tag", List.of("one", "two"));
+    final long expiredTs = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(SentKeywordIndex.RETENTION_DAYS + 1);
+    sqLiteHelper.query()
+        .update("UPDATE keywords_sent SET sent_ts = ? WHERE fingerprint = ?")
+        .params(expiredTs, SentKeywordIndex.fingerprint("tag", "one"))
+        .run();
+
+    assertThat(sentKeywordIndex.trimSent(keywordUpdate("tag", Set.of("one", "two"))))
+        .as("a fingerprint past retention is ignored without a restart")
+        .hasValueSatisfying(trimmed -> assertThat(trimmed.getAdditionalKeywords()).containsExactly("one"));
+  }
+
+  @Test
+  void trimSent_passesThroughUpdatesWithoutTagName() {
+    final KeywordUpdate update = new KeywordUpdate()
+        .setTagId(new TagId().setExternalId("external"))
+        .setAdditionalKeywords(Set.of("one"));
+
+    assertThat(sentKeywordIndex.trimSent(update)).contains(update);
+  }
+
+  private KeywordUpdate keywordUpdate(String tagName, Set<String> keywords) {
+    return new KeywordUpdate()
+        .setTagId(new TagId().setName(tagName))
+        .setAdditionalKeywords(keywords);
+  }
+}
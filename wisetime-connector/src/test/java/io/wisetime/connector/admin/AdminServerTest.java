@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.admin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.wisetime.connector.ConnectorController;
+import io.wisetime.connector.datastore.SqLiteConnectionMode;
+import io.wisetime.connector.datastore.SqLiteProfile;
+import io.wisetime.connector.datastore.SqLiteStats;
+import io.wisetime.connector.datastore.StoreCacheMode;
+import io.wisetime.connector.datastore.StoreCacheStats;
+import io.wisetime.connector.metric.MetricInfo;
+import io.wisetime.connector.metric.RunMetrics;
+import io.wisetime.connector.scheduler.ConnectorScheduler;
+import io.wisetime.connector.scheduler.ScheduledTask;
+import io.wisetime.connector.scheduler.TaskSchedule;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AdminServerTest {
+
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+
+  private ConnectorController controllerMock;
+  private ConnectorScheduler scheduler;
+  private AdminServer adminServer;
+  private ScheduledTask tagSync;
+  private final AtomicInteger tagSyncRuns = new AtomicInteger();
+
+  @BeforeEach
+  void setup() throws Exception {
+    scheduler = new ConnectorScheduler("test-scheduler", 2, 0);
+    tagSync = scheduler.schedule("tag-sync", tagSyncRuns::incrementAndGet,
+        new TaskSchedule(TimeUnit.HOURS.toMillis(1), TimeUnit.HOURS.toMillis(1)));
+    scheduler.schedule("health-check", () -> { },
+        new TaskSchedule(TimeUnit.HOURS.toMillis(1), TimeUnit.HOURS.toMillis(1)));
+
+    final RunMetrics tagRunnerMetrics = new RunMetrics("TagRunner");
+    tagRunnerMetrics.recordSuccess(50);
+    tagRunnerMetrics.recordFailure(2000);
+    controllerMock = mock(ConnectorController.class);
+    when(controllerMock.isHealthy()).thenReturn(true);
+    when(controllerMock.getMetrics()).thenReturn(MetricInfo.builder().processedTags(3).processedTimeGroups(2).build());
+    when(controllerMock.getRunnerMetrics()).thenReturn(Collections.singletonList(tagRunnerMetrics.getInfo()));
+    when(controllerMock.getTaskStats()).then(invocation -> scheduler.getStats());
+    when(controllerMock.getLocalDatabaseStats()).thenReturn(new SqLiteStats(SqLiteConnectionMode.POOLED,
+        SqLiteProfile.BALANCED, 2, 120, 0, 0, 900, 40, 100, 20, 30, 60, 700, 4, 1, 80, 32_992, 8, 6));
+
+    adminServer = new AdminServer(0, controllerMock, scheduler, Set.of("tag-sync"));
+    adminServer.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    adminServer.close();
+    scheduler.close();
+  }
+
+  @Test
+  void health() throws Exception {
+    assertThat(get("/health").statusCode()).isEqualTo(200);
+
+    when(controllerMock.isHealthy()).thenReturn(false);
+    final HttpResponse<String> response = get("/health");
+    assertThat(response.statusCode()).isEqualTo(503);
+    assertThat(response.body()).contains("\"healthy\":false");
+  }
+
+  @Test
+  void metrics_prometheusFormat() throws Exception {
+    final HttpResponse<String> response = get("/metrics");
+
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.body())
+        .contains("# TYPE wisetime_connector_processed_tags_total counter\n")
+        .contains("wisetime_connector_processed_tags_total 3\n")
+        .contains("wisetime_connector_runner_runs_total{runner=\"TagRunner\",result=\"failure\"} 1\n")
+        .as("histogram buckets are cumulative")
+        .contains("wisetime_connector_runner_duration_ms_bucket{runner=\"TagRunner\",le=\"100\"} 1\n")
+        .contains("wisetime_connector_runner_duration_ms_bucket{runner=\"TagRunner\",le=\"+Inf\"} 2\n")
+        .contains("wisetime_connector_runner_duration_ms_sum{runner=\"TagRunner\"} 2050\n")
+        .contains("wisetime_connector_task_paused{task=\"tag-sync\"} 0\n");
+  }
+
+  @Test
+  void metrics_storeCache() throws Exception {
+    assertThat(get("/metrics").body())
+        .as("no store cache metrics while the store is not cached")
+        .doesNotContain("store_cache");
+
+    when(controllerMock.getStoreCacheStats()).thenReturn(Optional.of(
+        new StoreCacheStats(StoreCacheMode.WRITE_BEHIND, 40, 2, 0, 2, 1, 3, 5, 0)));
+    assertThat(get("/metrics").body())
+        .contains("wisetime_connector_store_cache_requests_total{result=\"hit\"} 40\n")
+        .contains("wisetime_connector_store_cache_requests_total{result=\"miss\"} 2\n")
+        .contains("wisetime_connector_store_cache_pending_writes 1\n");
+  }
+
+  @Test
+  void metrics_localDatabase() throws Exception {
+    assertThat(get("/metrics").body())
+        .contains("wisetime_connector_sqlite_profile{profile=\"BALANCED\"} 1\n")
+        .contains("wisetime_connector_sqlite_wal_size_bytes 32992\n")
+        .contains("wisetime_connector_sqlite_wal_frames{state=\"pending\"} 2\n")
+        .contains("wisetime_connector_sqlite_checkpoints_total{result=\"complete\"} 3\n")
+        .contains("wisetime_connector_sqlite_checkpoints_total{result=\"busy\"} 1\n");
+  }
+
+  @Test
+  void runners_listsTaskStates() throws Exception {
+    final HttpResponse<String> response = get("/runners");
+
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.body())
+        .contains("\"taskName\":\"tag-sync\"")
+        .contains("\"runnerName\":\"TagRunner\"");
+  }
+
+  @Test
+  void runNow_triggersTask() throws Exception {
+    assertThat(post("/runners/tag-sync/run").statusCode()).isEqualTo(202);
+
+    final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+    while (tagSyncRuns.get() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(tagSyncRuns.get())
+        .as("the hourly task ran straight away")
+        .isEqualTo(1);
+  }
+
+  @Test
+  void pauseAndResume() throws Exception {
+    assertThat(post("/runners/tag-sync/pause").statusCode()).isEqualTo(202);
+    assertThat(tagSync.isPaused()).isTrue();
+    assertThat(post("/runners/tag-sync/run").statusCode())
+        .as("a paused task can not be triggered")
+        .isEqualTo(409);
+
+    assertThat(post("/runners/tag-sync/resume").statusCode()).isEqualTo(202);
+    assertThat(tagSync.isPaused()).isFalse();
+  }
+
+  @Test
+  void rejectsUncontrollableTasksAndWrongMethods() throws Exception {
+    assertThat(post("/runners/health-check/pause").statusCode())
+        .as("only the sync loops can be controlled")
+        .isEqualTo(404);
+    assertThat(post("/runners/tag-sync/stop").statusCode()).isEqualTo(404);
+    assertThat(get("/runners/tag-sync/run").statusCode()).isEqualTo(405);
+    assertThat(post("/metrics").statusCode()).isEqualTo(405);
+  }
+
+  private HttpResponse<String> get(String path) throws Exception {
+    return httpClient.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private HttpResponse<String> post(String path) throws Exception {
+    return httpClient.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.noBody()).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://127.0.0.1:" + adminServer.getPort() + path);
+  }
+}
@@ -13,6 +13,8 @@ import static org.mockito.Mockito.when;
 
 import io.wisetime.connector.ConnectorController;
 import io.wisetime.connector.WiseTimeConnector;
+import io.wisetime.connector.datastore.LogStructuredStore;
+import io.wisetime.connector.datastore.StoreBackend;
 import io.wisetime.generated.connect.HealthCheckFailureNotify;
 import io.wisetime.generated.connect.HealthCheckFailureNotify.ErrorTypeEnum;
 import java.time.Duration;
@@ -55,6 +57,21 @@ class ConnectorControllerImplTest {
         .isEqualTo(TimeUnit.MINUTES.toMillis(15));
   }
 
+  @Test
+  void logStructuredStoreNotUsedWithLease() {
+    final ConnectorController connectorController = ConnectorController.newBuilder()
+        .withApiKey("api key")
+        .withWiseTimeConnector(mock(WiseTimeConnector.class))
+        .disablePostedTimeFetching()
+        .useLocalLease(30)
+        .withStoreBackend(StoreBackend.LOG_STRUCTURED)
+        .build();
+
+    assertThat(connectorController.getConnectorModule().getConnectorStore())
+        .as("a standby instance can not open the segments of the active instance")
+        .isNotInstanceOf(LogStructuredStore.class);
+  }
+
   @Test
   void stop() {
     Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
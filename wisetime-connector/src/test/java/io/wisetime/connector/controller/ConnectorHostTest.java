@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import io.wisetime.connector.ConnectorController;
+import io.wisetime.connector.WiseTimeConnector;
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.connector.config.ConnectorConfigKey;
+import io.wisetime.connector.config.RuntimeConfig;
+import io.wisetime.connector.datastore.ConnectorStore;
+import io.wisetime.connector.scheduler.TaskStats;
+import io.wisetime.connector.test_util.TemporaryFolder;
+import io.wisetime.connector.test_util.TemporaryFolderExtension;
+import java.io.File;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class ConnectorHostTest {
+
+  @SuppressWarnings("unused")
+  private TemporaryFolder testFolder;
+
+  private File dataDir;
+  private ConnectorHost host;
+
+  @BeforeEach
+  void setup() throws Exception {
+    dataDir = testFolder.newFolder();
+    host = new ConnectorHost(dataDir, 2, 4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    host.close();
+  }
+
+  @Test
+  void addConnector_isolatesLocalStores() {
+    final ConnectorController first = host.addConnector("first", connectorBuilder());
+    final ConnectorController second = host.addConnector("second", connectorBuilder());
+
+    final ConnectorStore firstStore = first.getConnectorModule().getConnectorStore();
+    final ConnectorStore secondStore = second.getConnectorModule().getConnectorStore();
+    firstStore.putString("key", "first value");
+
+    assertThat(secondStore.getString("key"))
+        .as("each tenant has its own SQLite store")
+        .isEmpty();
+    assertThat(new File(dataDir, "first/wisetime.sqlite")).exists();
+    assertThat(new File(dataDir, "second/wisetime.sqlite")).exists();
+  }
+
+  @Test
+  void start_runsConnectorsOnSharedScheduler() throws Exception {
+    host.addConnector("first", connectorBuilder());
+    host.addConnector("second", connectorBuilder());
+    host.start();
+
+    final long deadline = System.currentTimeMillis() + 5000;
+    while (!hasTask("second/tag-sync") && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(host.getTaskStats())
+        .extracting(TaskStats::getTaskName)
+        .as("task names are prefixed with the tenant id")
+        .contains("first/tag-sync", "second/tag-sync");
+    assertThat(host.getConnector("first").orElseThrow().getTaskStats())
+        .extracting(TaskStats::getTaskName)
+        .as("a connector only reports its own tasks")
+        .allMatch(taskName -> taskName.startsWith("first/"));
+    assertThat(host.getMetrics()).containsOnlyKeys("first", "second");
+  }
+
+  @Test
+  void addConnector_rejectsDuplicateAndInvalidTenantIds() {
+    host.addConnector("tenant", connectorBuilder());
+
+    assertThatThrownBy(() -> host.addConnector("tenant", connectorBuilder()))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> host.addConnector("../escape", connectorBuilder()))
+        .as("tenant ids are used as directory names")
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void addConnector_rejectsSharedAdminServerPort() {
+    RuntimeConfig.setProperty(ConnectorConfigKey.ADMIN_SERVER_PORT, "8091");
+    try {
+      assertThatThrownBy(() -> host.addConnector("tenant", connectorBuilder()))
+          .as("every tenant would bind the same port")
+          .isInstanceOf(IllegalStateException.class);
+    } finally {
+      RuntimeConfig.clearProperty(ConnectorConfigKey.ADMIN_SERVER_PORT);
+    }
+  }
+
+  private boolean hasTask(String taskName) {
+    return host.getTaskStats().stream().anyMatch(stats -> stats.getTaskName().equals(taskName));
+  }
+
+  private ConnectorController.Builder connectorBuilder() {
+    return ConnectorController.newBuilder()
+        .withWiseTimeConnector(mock(WiseTimeConnector.class))
+        .withApiClient(mock(ApiClient.class))
+        .disablePostedTimeFetching();
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class StartupPhasesTest {
+
+  private final StartupPhases startupPhases = new StartupPhases("test");
+
+  @Test
+  void run_recordsPhaseDurations() {
+    assertThat(startupPhases.run("first", () -> "result")).isEqualTo("result");
+    startupPhases.run("second", () -> { });
+
+    assertThat(startupPhases.getDurationsMs().keySet())
+        .as("phases are listed in completion order")
+        .containsExactly("first", "second");
+  }
+
+  @Test
+  void run_rethrowsFailure() {
+    assertThatThrownBy(() -> startupPhases.run("failing", () -> {
+      throw new IllegalStateException("boom");
+    }))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("boom");
+    assertThat(startupPhases.getDurationsMs())
+        .as("failed phases are not recorded as completed")
+        .isEmpty();
+  }
+
+  @Test
+  void runAsync_runsAlongsideCaller() throws Exception {
+    final CountDownLatch callerReady = new CountDownLatch(1);
+    final CompletableFuture<String> phase = startupPhases.runAsync("async", () -> {
+      try {
+        // only completes if the caller carried on while the phase was running
+        return callerReady.await(5, TimeUnit.SECONDS) ? "done" : "timed out";
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    callerReady.countDown();
+
+    assertThat(StartupPhases.await(phase)).isEqualTo("done");
+    assertThat(startupPhases.getDurationsMs()).containsOnlyKeys("async");
+  }
+
+  @Test
+  void await_unwrapsFailure() {
+    final CompletableFuture<Object> phase = startupPhases.runAsync("failing", () -> {
+      throw new IllegalArgumentException("no data dir");
+    });
+
+    assertThatThrownBy(() -> StartupPhases.await(phase))
+        .as("callers see the same exception as when the phase ran inline")
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("no data dir");
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableMap;
+import io.wisetime.connector.test_util.TemporaryFolder;
+import io.wisetime.connector.test_util.TemporaryFolderExtension;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class CachingConnectorStoreTest {
+
+  @SuppressWarnings("unused")
+  private TemporaryFolder testFolder;
+
+  private SqLiteHelper sqLiteHelper;
+  private FileStore fileStore;
+
+  @BeforeEach
+  void setup() throws IOException {
+    sqLiteHelper = new SqLiteHelper(testFolder.newFile("cached.db"), SqLiteConnectionMode.POOLED);
+    fileStore = new FileStore(sqLiteHelper);
+  }
+
+  @AfterEach
+  void tearDown() {
+    sqLiteHelper.close();
+  }
+
+  @Test
+  void writeThrough_readsFromMemory() {
+    final CachingConnectorStore store = new CachingConnectorStore(fileStore, StoreCacheMode.WRITE_THROUGH, 100);
+    fileStore.putString("cursor", "1");
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(store.getString("cursor")).contains("1");
+    }
+    assertThat(store.getString("absent")).isEmpty();
+    assertThat(store.getString("absent"))
+        .as("absent keys are cached as well")
+        .isEmpty();
+    assertThat(store.getStats().getMisses()).isEqualTo(2);
+    assertThat(store.getStats().getHits()).isEqualTo(10);
+
+    store.putLong("cursor", 2);
+    assertThat(fileStore.getLong("cursor"))
+        .as("write is committed before it returns")
+        .contains(2L);
+    assertThat(store.getLong("cursor")).contains(2L);
+    assertThat(store.getStats().getPendingWrites()).isZero();
+  }
+
+  @Test
+  void writeThrough_evictsLeastRecentlyUsed() {
+    final CachingConnectorStore store = new CachingConnectorStore(fileStore, StoreCacheMode.WRITE_THROUGH, 2);
+    store.putString("a", "1");
+    store.putString("b", "2");
+    store.putString("c", "3");
+    assertThat(store.getStats().getEntries())
+        .as("written values are read back before they are cached")
+        .isZero();
+    List.of("a", "b", "c").forEach(store::getString);
+
+    assertThat(store.getStats().getEntries()).isEqualTo(2);
+    assertThat(store.getStats().getEvictions()).isEqualTo(1);
+    assertThat(store.getMany(List.of("a", "b", "c")))
+        .as("evicted keys are read from the local database")
+        .containsExactlyInAnyOrderEntriesOf(ImmutableMap.of("a", "1", "b", "2", "c", "3"));
+  }
+
+  @Test
+  void writeBehind_commitsOnFlush() {
+    final CachingConnectorStore store = new CachingConnectorStore(fileStore, StoreCacheMode.WRITE_BEHIND, 100);
+    fileStore.putString("flag", "on");
+    store.putString("cursor", "5");
+    store.delete("flag");
+
+    assertThat(store.getString("cursor")).contains("5");
+    assertThat(store.getString("flag")).isEmpty();
+    assertThat(fileStore.getString("cursor"))
+        .as("writes are not committed before the flush")
+        .isEmpty();
+    assertThat(store.getStats().getPendingWrites()).isEqualTo(2);
+
+    store.flush();
+    assertThat(fileStore.getString("cursor")).contains("5");
+    assertThat(fileStore.getString("flag")).isEmpty();
+    assertThat(store.getStats().getPendingWrites()).isZero();
+    assertThat(store.getStats().getFlushes()).isEqualTo(1);
+  }
+
+  @Test
+  void writeBehind_flushesWhenPendingWritesReachCacheSize() {
+    final CachingConnectorStore store = new CachingConnectorStore(fileStore, StoreCacheMode.WRITE_BEHIND, 3);
+    store.putString("a", "1");
+    store.putString("b", "2");
+    assertThat(fileStore.getString("a")).isEmpty();
+
+    store.putString("c", "3");
+    assertThat(fileStore.getMany(List.of("a", "b", "c"))).hasSize(3);
+    assertThat(store.getStats().getPendingWrites()).isZero();
+  }
+
+  @Test
+  void writeBehind_getByPrefixIncludesPendingWrites() {
+    final CachingConnectorStore store = new CachingConnectorStore(fileStore, StoreCacheMode.WRITE_BEHIND, 100);
+    fileStore.putMany(ImmutableMap.of("sync.a", "1", "sync.b", "2", "other", "3"));
+    store.delete("sync.a");
+    store.putString("sync.c", "4");
+
+    assertThat(store.getByPrefix("sync."))
+        .containsExactly(entry("sync.b", "2"), entry("sync.c", "4"));
+  }
+
+  @Test
+  void writeBehind_inTransactionCommitsPendingWrites() {
+    final CachingConnectorStore store = new CachingConnectorStore(fileStore, StoreCacheMode.WRITE_BEHIND, 100);
+    store.putString("pending", "x");
+
+    store.inTransaction(transaction -> {
+      assertThat(transaction.getString("pending"))
+          .as("pending writes are visible within the transaction")
+          .contains("x");
+      transaction.putString("pending", "y");
+    });
+    assertThat(fileStore.getString("pending")).contains("y");
+    assertThat(store.getString("pending")).contains("y");
+    assertThat(store.getStats().getPendingWrites()).isZero();
+  }
+
+  @Test
+  void writeThrough_concurrentWritesOfKeyCacheCommittedValue() throws Exception {
+    final CachingConnectorStore store = new CachingConnectorStore(fileStore, StoreCacheMode.WRITE_THROUGH, 100);
+    final int writers = 8;
+    final ExecutorService executor = Executors.newFixedThreadPool(writers);
+    try {
+      for (int round = 0; round < 20; round++) {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> writes = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+          final String value = round + "-" + i;
+          writes.add(executor.submit(() -> {
+            start.await();
+            store.putString("cursor", value);
+            return null;
+          }));
+        }
+        start.countDown();
+        for (Future<?> write : writes) {
+          write.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(store.getString("cursor"))
+            .as("the cache serves the value committed last")
+            .isEqualTo(fileStore.getString("cursor"));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void writeThrough_cachedValuesExpire() throws InterruptedException {
+    final CachingConnectorStore store = new CachingConnectorStore(fileStore, StoreCacheMode.WRITE_THROUGH, 100);
+    fileStore.putString("loaded", "x", Duration.ofMillis(50));
+    assertThat(store.getString("loaded")).contains("x");
+    store.putString("written", "y", Duration.ofMillis(50));
+    assertThat(store.getString("written")).contains("y");
+
+    Thread.sleep(100);
+    assertThat(store.getString("loaded"))
+        .as("the ttl of a value read from the local database is kept")
+        .isEmpty();
+    assertThat(store.getString("written")).isEmpty();
+  }
+
+  @Test
+  void writeBehind_flushKeepsTtl() throws InterruptedException {
+    final CachingConnectorStore store = new CachingConnectorStore(fileStore, StoreCacheMode.WRITE_BEHIND, 100);
+    store.putString("token", "t", Duration.ofMillis(200));
+    store.flush();
+    assertThat(fileStore.getString("token")).contains("t");
+
+    Thread.sleep(250);
+    assertThat(fileStore.getString("token")).isEmpty();
+    assertThat(store.getString("token")).isEmpty();
+  }
+
+  @Test
+  void writeBehind_failedFlushKeepsWritesPending() {
+    final FileStore failingStore = mock(FileStore.class);
+    doThrow(new IllegalStateException("disk full")).when(failingStore).inTransaction(any());
+    final CachingConnectorStore store = new CachingConnectorStore(failingStore, StoreCacheMode.WRITE_BEHIND, 100);
+    store.putString("cursor", "7");
+
+    assertThatThrownBy(store::flush).isInstanceOf(IllegalStateException.class);
+    assertThat(store.getString("cursor")).contains("7");
+    assertThat(store.getStats().getPendingWrites()).isEqualTo(1);
+    assertThat(store.getStats().getFailedFlushes()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.wisetime.connector.test_util.TemporaryFolder;
+import io.wisetime.connector.test_util.TemporaryFolderExtension;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Compares point writes and reads of the connector store backends. Only runs when the {@code benchmark} system
+ * property is set to true, as its timings depend on the machine.
+ */
+@Slf4j
+@ExtendWith(TemporaryFolderExtension.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ConnectorStoreBenchmarkTest {
+
+  private static final int KEYS = 50_000;
+  private static final int READS = 500_000;
+
+  @SuppressWarnings("unused")
+  private TemporaryFolder testFolder;
+
+  @Test
+  void pointWritesAndReads() throws IOException {
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("benchmark.db"), SqLiteConnectionMode.POOLED);
+         LogStructuredStore logStructuredStore = new LogStructuredStore(testFolder.newFolder())) {
+      run("sqlite", new FileStore(sqLiteHelper));
+      run("log-structured", logStructuredStore);
+    }
+  }
+
+  private static void run(String backend, ConnectorStore store) {
+    final long writeStartNanos = System.nanoTime();
+    for (int i = 0; i < KEYS; i++) {
+      store.putString("id-map." + i, "external-" + i);
+    }
+    final long writeNanos = System.nanoTime() - writeStartNanos;
+
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final long readStartNanos = System.nanoTime();
+    int found = 0;
+    for (int i = 0; i < READS; i++) {
+      if (store.getString("id-map." + random.nextInt(KEYS)).isPresent()) {
+        found++;
+      }
+    }
+    final long readNanos = System.nanoTime() - readStartNanos;
+
+    assertThat(found).isEqualTo(READS);
+    log.info("{}: {}ns per write, {}ns per read", backend, writeNanos / KEYS, readNanos / READS);
+  }
+}
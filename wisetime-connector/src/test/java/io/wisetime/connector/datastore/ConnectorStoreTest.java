@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.google.common.collect.ImmutableMap;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class ConnectorStoreTest {
+
+  private final MinimalStore store = new MinimalStore();
+
+  @Test
+  void getMany_readsEachKey() {
+    store.putString("a", "1");
+    store.putString("b", "2");
+
+    assertThat(store.getMany(List.of("a", "b", "missing")))
+        .containsOnly(entry("a", "1"), entry("b", "2"));
+  }
+
+  @Test
+  void putMany_putsEachValue() {
+    store.putMany(ImmutableMap.of("a", "1", "b", "2"));
+
+    assertThat(store.getString("a")).contains("1");
+    assertThat(store.getString("b")).contains("2");
+  }
+
+  @Test
+  void inTransaction_unsupportedByDefault() {
+    assertThatThrownBy(() -> store.inTransaction(transaction -> transaction.putLong("cursor", 42)))
+        .as("the default can not make the operations atomic")
+        .isInstanceOf(UnsupportedOperationException.class);
+    assertThat(store.getLong("cursor")).isEmpty();
+  }
+
+  @Test
+  void delete_unsupportedByDefault() {
+    assertThatThrownBy(() -> store.delete("a"))
+        .isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> store.getByPrefix("a"))
+        .isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  void putWithTtl_unsupportedByDefault() {
+    assertThatThrownBy(() -> store.putString("a", "1", Duration.ofMinutes(1)))
+        .isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> store.putLong("a", 1, Duration.ofMinutes(1)))
+        .isInstanceOf(UnsupportedOperationException.class);
+    assertThat(store.getString("a"))
+        .as("nothing is stored without expiry")
+        .isEmpty();
+  }
+
+  /**
+   * Store implementing only the methods of the original interface, as a connector's own store might.
+   */
+  private static class MinimalStore implements ConnectorStore {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    @Override
+    public Optional<String> getString(String key) {
+      return Optional.ofNullable(values.get(key));
+    }
+
+    @Override
+    public void putString(String key, String value) {
+      values.put(key, value);
+    }
+
+    @Override
+    public Optional<Long> getLong(String key) {
+      return getString(key).map(Long::parseLong);
+    }
+
+    @Override
+    public void putLong(String key, long value) {
+      putString(key, String.valueOf(value));
+    }
+  }
+}
@@ -5,9 +5,14 @@
 package io.wisetime.connector.datastore;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.github.javafaker.Faker;
+import com.google.common.collect.ImmutableMap;
 import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 
@@ -17,11 +22,12 @@ import org.junit.jupiter.api.Test;
  */
 class FileStoreTest {
 
+  private final SqLiteHelper sqLiteHelper;
   private final FileStore fileStore;
   private final Faker faker = new Faker();
 
   FileStoreTest() {
-    final SqLiteHelper sqLiteHelper = new SqLiteHelper(new File("temp.db"));
+    this.sqLiteHelper = new SqLiteHelper(new File("temp.db"));
     this.fileStore = new FileStore(sqLiteHelper);
   }
 
@@ -68,6 +74,118 @@ class FileStoreTest {
         .isEmpty();
   }
 
+  @Test
+  void putManyAndGetMany() {
+    final String keyA = randomKey();
+    final String keyB = randomKey();
+    fileStore.putString(keyA, "old");
+    fileStore.putMany(ImmutableMap.of(keyA, "a", keyB, "b"));
+
+    assertThat(fileStore.getMany(List.of(keyA, keyB, randomKey())))
+        .as("existing values are replaced and keys without a value are left out")
+        .containsExactlyInAnyOrderEntriesOf(ImmutableMap.of(keyA, "a", keyB, "b"));
+    assertThat(fileStore.getString(keyA)).contains("a");
+  }
+
+  @Test
+  void deleteMany() {
+    final String keyA = randomKey();
+    final String keyB = randomKey();
+    fileStore.putMany(ImmutableMap.of(keyA, "a", keyB, "b"));
+
+    fileStore.delete(keyA);
+    assertThat(fileStore.getString(keyA)).isEmpty();
+    fileStore.deleteMany(List.of(keyB, randomKey()));
+    assertThat(fileStore.getString(keyB)).isEmpty();
+  }
+
+  @Test
+  void getByPrefix() {
+    final String prefix = randomKey() + "*[cursor?].";
+    fileStore.putMany(ImmutableMap.of(
+        prefix + "b", "2",
+        prefix + "a", "1",
+        prefix.toUpperCase() + "c", "upper case",
+        prefix.replace("*", "x") + "d", "wildcard match"));
+
+    assertThat(fileStore.getByPrefix(prefix))
+        .as("only keys starting with the exact prefix, ordered by key")
+        .containsExactly(Map.entry(prefix + "a", "1"), Map.entry(prefix + "b", "2"));
+  }
+
+  @Test
+  void inTransaction_rollsBackAllChangesOnFailure() {
+    final String keyA = randomKey();
+    final String keyB = randomKey();
+    fileStore.putString(keyA, "before");
+
+    assertThatThrownBy(() -> fileStore.inTransaction(store -> {
+      store.putString(keyA, "changed");
+      store.putString(keyB, "added");
+      assertThat(store.getString(keyA))
+          .as("changes are visible within the transaction")
+          .contains("changed");
+      throw new IllegalStateException("abort");
+    })).isInstanceOf(IllegalStateException.class);
+
+    assertThat(fileStore.getString(keyA)).contains("before");
+    assertThat(fileStore.getString(keyB)).isEmpty();
+
+    fileStore.inTransaction(store -> {
+      store.putString(keyA, "committed");
+      store.delete(keyB);
+    });
+    assertThat(fileStore.getString(keyA)).contains("committed");
+  }
+
+  @Test
+  void putWithTtl_expiredKeysAreAbsent() throws InterruptedException {
+    final String prefix = randomKey() + ".";
+    fileStore.putString(prefix + "token", "secret", Duration.ofMillis(50));
+    fileStore.putLong(prefix + "count", 3, Duration.ofHours(1));
+    assertThat(fileStore.getString(prefix + "token")).contains("secret");
+
+    Thread.sleep(100);
+    assertThat(fileStore.getString(prefix + "token"))
+        .as("key is absent once its ttl has passed")
+        .isEmpty();
+    assertThat(fileStore.getMany(List.of(prefix + "token", prefix + "count")))
+        .containsExactly(Map.entry(prefix + "count", "3"));
+    assertThat(fileStore.getByPrefix(prefix))
+        .containsExactly(Map.entry(prefix + "count", "3"));
+  }
+
+  @Test
+  void putWithoutTtl_keepsKeyIndefinitely() throws InterruptedException {
+    final String key = randomKey();
+    fileStore.putString(key, "temporary", Duration.ofMillis(50));
+    fileStore.putString(key, "permanent");
+
+    Thread.sleep(100);
+    assertThat(fileStore.getString(key)).contains("permanent");
+    assertThatThrownBy(() -> fileStore.putString(key, "value", Duration.ZERO))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void deleteExpired() throws InterruptedException {
+    final String keyA = randomKey();
+    final String keyB = randomKey();
+    final String keyC = randomKey();
+    fileStore.putString(keyA, "a", Duration.ofMillis(20));
+    fileStore.putString(keyB, "b", Duration.ofMillis(20));
+    fileStore.putString(keyC, "c", Duration.ofHours(1));
+
+    Thread.sleep(50);
+    assertThat(fileStore.deleteExpired()).isGreaterThanOrEqualTo(2);
+    assertThat(sqLiteHelper.query()
+        .select("SELECT key_name FROM key_map WHERE key_name IN (?,?,?)")
+        .params(keyA, keyB, keyC)
+        .listResult(rs -> rs.getString(1)))
+        .as("expired rows are removed from the table")
+        .containsExactly(keyC);
+  }
+
   private String randomKey() {
     return faker.numerify("key##########");
   }
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.google.common.collect.ImmutableMap;
+import io.wisetime.connector.test_util.TemporaryFolder;
+import io.wisetime.connector.test_util.TemporaryFolderExtension;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class LogStructuredStoreTest {
+
+  private static final int SEGMENT_SIZE_BYTES = 4 << 10;
+
+  @SuppressWarnings("unused")
+  private TemporaryFolder testFolder;
+
+  @Test
+  void putGetAndDelete() throws IOException {
+    try (LogStructuredStore store = open(testFolder.newFolder())) {
+      store.putString("a", "1");
+      store.putLong("b", 2);
+      store.putString("a", "updated");
+      store.delete("b");
+
+      assertThat(store.getString("a")).contains("updated");
+      assertThat(store.getLong("b")).isEmpty();
+      assertThat(store.getString("missing")).isEmpty();
+
+      store.putMany(ImmutableMap.of("sync.b", "2", "sync.a", "1", "other", "3"));
+      assertThat(store.getMany(List.of("sync.a", "other", "missing")))
+          .containsOnly(entry("sync.a", "1"), entry("other", "3"));
+      assertThat(store.getByPrefix("sync."))
+          .containsExactly(entry("sync.a", "1"), entry("sync.b", "2"));
+    }
+  }
+
+  @Test
+  void valuesExpire() throws Exception {
+    try (LogStructuredStore store = open(testFolder.newFolder())) {
+      store.putString("token", "t", Duration.ofMillis(50));
+      assertThat(store.getString("token")).contains("t");
+
+      Thread.sleep(100);
+      assertThat(store.getString("token")).isEmpty();
+      assertThat(store.getByPrefix("")).isEmpty();
+    }
+  }
+
+  @Test
+  void inTransaction_appliesAllOrNothing() throws IOException {
+    try (LogStructuredStore store = open(testFolder.newFolder())) {
+      store.putString("cursor", "1");
+      assertThatThrownBy(() -> store.inTransaction(transaction -> {
+        transaction.putString("cursor", "2");
+        assertThat(transaction.getString("cursor"))
+            .as("changes are visible within the transaction")
+            .contains("2");
+        throw new IllegalStateException("abort");
+      })).isInstanceOf(IllegalStateException.class);
+      assertThat(store.getString("cursor")).contains("1");
+
+      store.inTransaction(transaction -> {
+        transaction.putString("cursor", "3");
+        transaction.delete("flag");
+      });
+      assertThat(store.getString("cursor")).contains("3");
+    }
+  }
+
+  @Test
+  void reopen_recoversLatestValues() throws IOException {
+    final File directory = testFolder.newFolder();
+    try (LogStructuredStore store = open(directory)) {
+      for (int i = 0; i < 200; i++) {
+        store.putString("key-" + (i % 20), "value-" + i);
+      }
+      store.delete("key-0");
+      store.putString("ttl", "x", Duration.ofHours(1));
+      assertThat(store.getSegmentCount())
+          .as("records roll over into new segments")
+          .isGreaterThan(1);
+    }
+
+    try (LogStructuredStore store = open(directory)) {
+      assertThat(store.getString("key-0")).isEmpty();
+      assertThat(store.getString("key-19")).contains("value-199");
+      assertThat(store.getString("ttl")).contains("x");
+      assertThat(store.getByPrefix("key-")).hasSize(19);
+    }
+  }
+
+  @Test
+  void reopen_ignoresIncompleteRecord() throws IOException {
+    final File directory = testFolder.newFolder();
+    try (LogStructuredStore store = open(directory)) {
+      store.putString("complete", "1");
+      store.putString("torn", "2");
+    }
+    // corrupt the last byte of the second record, as if the process died while writing it
+    final File segment = new File(directory, "segment-0000000000.log");
+    final int firstRecordBytes = 12 + 17 + "complete".length() + "1".length();
+    final int secondRecordBytes = 12 + 17 + "torn".length() + "2".length();
+    try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+      file.seek(firstRecordBytes + secondRecordBytes - 1);
+      file.write(0x7f);
+    }
+
+    try (LogStructuredStore store = open(directory)) {
+      assertThat(store.getString("complete")).contains("1");
+      assertThat(store.getString("torn")).isEmpty();
+      store.putString("after", "3");
+      assertThat(store.getString("after")).contains("3");
+    }
+    try (LogStructuredStore store = open(directory)) {
+      assertThat(store.getString("after"))
+          .as("writes after an incomplete record are read back")
+          .contains("3");
+    }
+  }
+
+  @Test
+  void compactIfNeeded_dropsOverwrittenValues() throws IOException {
+    final File directory = testFolder.newFolder();
+    try (LogStructuredStore store = open(directory)) {
+      assertThat(store.compactIfNeeded())
+          .as("a single segment is not compacted")
+          .isFalse();
+      for (int i = 0; i < 500; i++) {
+        store.putString("key-" + (i % 5), "value-" + i);
+      }
+      store.putString("expiring", "x", Duration.ofMillis(1));
+      store.putString("deleted", "x");
+      store.delete("deleted");
+      final int segmentsBefore = store.getSegmentCount();
+
+      assertThat(store.compactIfNeeded()).isTrue();
+      assertThat(store.getSegmentCount()).isLessThan(segmentsBefore);
+      assertThat(store.getByPrefix("key-")).containsOnly(
+          entry("key-0", "value-495"), entry("key-1", "value-496"), entry("key-2", "value-497"),
+          entry("key-3", "value-498"), entry("key-4", "value-499"));
+    }
+
+    try (LogStructuredStore store = open(directory)) {
+      assertThat(store.getString("key-4")).contains("value-499");
+      assertThat(store.getString("deleted")).isEmpty();
+      assertThat(store.getString("expiring")).isEmpty();
+    }
+  }
+
+  @Test
+  void open_failsWhileDirectoryInUse() throws IOException {
+    final File directory = testFolder.newFolder();
+    try (LogStructuredStore store = open(directory)) {
+      store.putString("a", "1");
+
+      assertThatThrownBy(() -> open(directory))
+          .as("a second store would corrupt the current segment")
+          .isInstanceOf(IllegalStateException.class);
+      assertThat(store.getString("a")).contains("1");
+    }
+
+    try (LogStructuredStore store = open(directory)) {
+      assertThat(store.getString("a"))
+          .as("the directory can be opened again once the store is closed")
+          .contains("1");
+    }
+  }
+
+  @Test
+  void importsFileStoreOnce() throws IOException {
+    final File directory = testFolder.newFolder();
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("import.db"), SqLiteConnectionMode.POOLED)) {
+      final FileStore fileStore = new FileStore(sqLiteHelper);
+      fileStore.putString("cursor", "42");
+      fileStore.putString("token", "t", Duration.ofHours(1));
+
+      try (LogStructuredStore store = new LogStructuredStore(directory, SEGMENT_SIZE_BYTES, fileStore)) {
+        assertThat(store.getString("cursor")).contains("42");
+        assertThat(store.getString("token")).contains("t");
+        store.delete("cursor");
+      }
+      try (LogStructuredStore store = new LogStructuredStore(directory, SEGMENT_SIZE_BYTES, fileStore)) {
+        assertThat(store.getString("cursor"))
+            .as("keys are only imported into a new store")
+            .isEmpty();
+      }
+    }
+  }
+
+  private static LogStructuredStore open(File directory) {
+    return new LogStructuredStore(directory, SEGMENT_SIZE_BYTES, null);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.wisetime.connector.test_util.TemporaryFolder;
+import io.wisetime.connector.test_util.TemporaryFolderExtension;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class SqLiteBackupTest {
+
+  @SuppressWarnings("unused")
+  private TemporaryFolder testFolder;
+
+  @Test
+  void backup_keepsLatestSnapshots() throws Exception {
+    final File backupDir = testFolder.newFolder();
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("source.db"), SqLiteConnectionMode.POOLED)) {
+      final FileStore fileStore = new FileStore(sqLiteHelper);
+      final SqLiteBackup backup = new SqLiteBackup(sqLiteHelper, backupDir, 2);
+      for (int i = 0; i < 3; i++) {
+        fileStore.putLong("cursor", i);
+        backup.backup();
+        // snapshot names are unique to the millisecond
+        Thread.sleep(5);
+      }
+
+      final List<File> snapshots = SqLiteBackup.listSnapshots(backupDir);
+      assertThat(snapshots).hasSize(2);
+      try (SqLiteHelper snapshotHelper = new SqLiteHelper(snapshots.get(0), SqLiteConnectionMode.POOLED)) {
+        assertThat(new FileStore(snapshotHelper).getLong("cursor"))
+            .as("latest snapshot is listed first")
+            .contains(2L);
+      }
+    }
+  }
+
+  @Test
+  void backup_doesNotBlockWrites() throws Exception {
+    final File backupDir = testFolder.newFolder();
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("busy.db"), SqLiteConnectionMode.POOLED)) {
+      final FileStore fileStore = new FileStore(sqLiteHelper);
+      for (int i = 0; i < 2_000; i++) {
+        fileStore.putStringAsync("key-" + i, "value-" + i);
+      }
+      final SqLiteBackup backup = new SqLiteBackup(sqLiteHelper, backupDir, 1);
+
+      final CompletableFuture<File> snapshot = CompletableFuture.supplyAsync(backup::backup);
+      fileStore.putString("written-during-backup", "x");
+      assertThat(snapshot.get(30, TimeUnit.SECONDS)).exists();
+      assertThat(fileStore.getString("written-during-backup")).contains("x");
+    }
+  }
+
+  @Test
+  void restoreIfNeeded_replacesCorruptDatabase() throws IOException {
+    final File backupDir = testFolder.newFolder();
+    final File databaseFile = testFolder.newFile("restored.db");
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(databaseFile, SqLiteConnectionMode.POOLED)) {
+      new FileStore(sqLiteHelper).putString("cursor", "saved");
+      new SqLiteBackup(sqLiteHelper, backupDir, 1).backup();
+    }
+    assertThat(SqLiteBackup.restoreIfNeeded(databaseFile, backupDir))
+        .as("an intact database is left alone")
+        .isFalse();
+
+    Files.write(databaseFile.toPath(), "not a database".getBytes(StandardCharsets.UTF_8));
+    assertThat(SqLiteBackup.restoreIfNeeded(databaseFile, backupDir)).isTrue();
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(databaseFile, SqLiteConnectionMode.POOLED)) {
+      assertThat(new FileStore(sqLiteHelper).getString("cursor")).contains("saved");
+    }
+  }
+
+  @Test
+  void restoreIfNeeded_keepsDatabaseThatCanNotBeChecked() throws Exception {
+    final File backupDir = testFolder.newFolder();
+    final File databaseFile = testFolder.newFile("locked.db");
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(databaseFile, SqLiteConnectionMode.POOLED)) {
+      new FileStore(sqLiteHelper).putString("cursor", "saved");
+      new SqLiteBackup(sqLiteHelper, backupDir, 1).backup();
+    }
+
+    // e.g. the active instance of a lease holding the database on shared storage
+    try (Connection lockHolder = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+         Statement statement = lockHolder.createStatement()) {
+      statement.execute("PRAGMA locking_mode=EXCLUSIVE");
+      statement.execute("CREATE TABLE lock_holder (id INTEGER)");
+
+      assertThatThrownBy(() -> SqLiteBackup.restoreIfNeeded(databaseFile, backupDir))
+          .as("a busy database is not corrupt")
+          .isInstanceOf(IllegalStateException.class);
+    }
+    assertThat(databaseFile.getParentFile().list((dir, name) -> name.contains(".corrupt-")))
+        .as("the database is left in place")
+        .isEmpty();
+  }
+
+  @Test
+  void restoreIfNeeded_withoutSnapshots() throws IOException {
+    final File databaseFile = new File(testFolder.newFolder(), "missing.db");
+
+    assertThat(SqLiteBackup.restoreIfNeeded(databaseFile, testFolder.newFolder())).isFalse();
+    assertThat(databaseFile).doesNotExist();
+  }
+}
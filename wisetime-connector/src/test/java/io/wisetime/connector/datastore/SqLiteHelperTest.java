@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.datastore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableMap;
+import io.wisetime.connector.config.ConnectorConfigKey;
+import io.wisetime.connector.config.RuntimeConfig;
+import io.wisetime.connector.test_util.TemporaryFolder;
+import io.wisetime.connector.test_util.TemporaryFolderExtension;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class SqLiteHelperTest {
+
+  @SuppressWarnings("unused")
+  private TemporaryFolder testFolder;
+
+  @Test
+  void pooled_reusesConnectionsAndStatements() throws IOException {
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("pooled.db"), SqLiteConnectionMode.POOLED)) {
+      final FileStore fileStore = new FileStore(sqLiteHelper);
+      for (int i = 0; i < 50; i++) {
+        fileStore.putLong("key", i);
+        assertThat(fileStore.getLong("key")).contains((long) i);
+      }
+
+      final SqLiteStats stats = sqLiteHelper.getStats();
+      assertThat(stats.getConnectionsOpened())
+          .as("one writer and one reader serve all queries of a single thread")
+          .isEqualTo(2);
+      assertThat(stats.getStatementCacheHits())
+          .as("repeated statements are prepared once per connection")
+          .isGreaterThan(stats.getStatementCacheMisses());
+      assertThat(stats.getQueries()).isGreaterThanOrEqualTo(100);
+    }
+  }
+
+  @Test
+  void backupDir_isPerDatabaseWhenShared() throws IOException {
+    final File sharedBackupDir = testFolder.newFolder();
+    RuntimeConfig.setProperty(ConnectorConfigKey.SQLITE_BACKUP_DIR, sharedBackupDir.getAbsolutePath());
+    try (SqLiteHelper tenantA = new SqLiteHelper(new File(testFolder.newFolder(), "wisetime.sqlite"));
+        SqLiteHelper tenantB = new SqLiteHelper(new File(testFolder.newFolder(), "wisetime.sqlite"))) {
+      assertThat(tenantA.getBackupDir().getParentFile()).isEqualTo(sharedBackupDir);
+      assertThat(tenantA.getBackupDir())
+          .as("connectors sharing the backup directory keep their snapshots apart")
+          .isNotEqualTo(tenantB.getBackupDir());
+    } finally {
+      RuntimeConfig.clearProperty(ConnectorConfigKey.SQLITE_BACKUP_DIR);
+    }
+  }
+
+  @Test
+  void perQuery_opensConnectionForEachQuery() throws IOException {
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("per-query.db"),
+        SqLiteConnectionMode.PER_QUERY)) {
+      final FileStore fileStore = new FileStore(sqLiteHelper);
+      fileStore.putString("key", "value");
+      assertThat(fileStore.getString("key")).contains("value");
+
+      final SqLiteStats stats = sqLiteHelper.getStats();
+      assertThat(stats.getConnectionsOpened()).isEqualTo(stats.getQueries());
+      assertThat(stats.getStatementCacheHits()).isZero();
+    }
+  }
+
+  @Test
+  void pooled_failedTransactionDoesNotLeakIntoNextUse() throws IOException {
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("rollback.db"), SqLiteConnectionMode.POOLED)) {
+      final FileStore fileStore = new FileStore(sqLiteHelper);
+      assertThatThrownBy(() -> sqLiteHelper.query().transaction().inNoResult(() -> {
+        sqLiteHelper.query().update("INSERT INTO key_map (key_name, value) VALUES ('rolled-back', 'x')").run();
+        throw new IllegalStateException("abort");
+      })).isInstanceOf(RuntimeException.class);
+
+      fileStore.putString("committed", "y");
+      assertThat(fileStore.getString("rolled-back")).isEmpty();
+      assertThat(fileStore.getString("committed"))
+          .as("writer connection is back in auto-commit mode")
+          .contains("y");
+    }
+  }
+
+  @Test
+  void pooled_concurrentReadsAndWrites() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("concurrent.db"),
+        SqLiteConnectionMode.POOLED)) {
+      final FileStore fileStore = new FileStore(sqLiteHelper);
+      final List<Future<?>> results = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        final String key = "key-" + thread;
+        results.add(executor.submit(() -> {
+          for (int i = 0; i < 20; i++) {
+            fileStore.putLong(key, i);
+            assertThat(fileStore.getLong(key)).contains((long) i);
+          }
+        }));
+      }
+      for (Future<?> result : results) {
+        result.get(30, TimeUnit.SECONDS);
+      }
+
+      assertThat(sqLiteHelper.getStats().getConnectionsOpened())
+          .as("a single writer and at most four readers")
+          .isLessThanOrEqualTo(5);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void write_groupsConcurrentWrites() throws IOException {
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("grouped.db"), SqLiteConnectionMode.POOLED)) {
+      final FileStore fileStore = new FileStore(sqLiteHelper);
+      final List<CompletableFuture<Void>> writes = new ArrayList<>();
+      for (int i = 0; i < 500; i++) {
+        writes.add(fileStore.putStringAsync("key-" + i, "value-" + i));
+      }
+      CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+
+      assertThat(fileStore.getString("key-499"))
+          .as("value is readable once its write has completed")
+          .contains("value-499");
+      final SqLiteStats stats = sqLiteHelper.getStats();
+      assertThat(stats.getGroupedWrites()).isEqualTo(500);
+      assertThat(stats.getGroupCommits())
+          .as("queued writes are committed together")
+          .isLessThan(500);
+    }
+  }
+
+  @Test
+  void write_failureOnlyAffectsFailingWrite() throws IOException {
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("savepoint.db"), SqLiteConnectionMode.POOLED)) {
+      final FileStore fileStore = new FileStore(sqLiteHelper);
+      final CompletableFuture<Void> before = fileStore.putStringAsync("before", "a");
+      final CompletableFuture<Void> failing = sqLiteHelper.writeNoResult(query -> {
+        query.update("INSERT INTO key_map (key_name, value) VALUES ('partial', 'x')").run();
+        query.update("INSERT INTO no_such_table (value) VALUES ('x')").run();
+      });
+      final CompletableFuture<Void> after = fileStore.putStringAsync("after", "b");
+
+      assertThatThrownBy(() -> SqLiteHelper.await(failing)).isInstanceOf(RuntimeException.class);
+      SqLiteHelper.await(before);
+      SqLiteHelper.await(after);
+      assertThat(fileStore.getString("partial"))
+          .as("statements of the failed write are rolled back")
+          .isEmpty();
+      assertThat(fileStore.getString("before")).contains("a");
+      assertThat(fileStore.getString("after")).contains("b");
+    }
+  }
+
+  @Test
+  void write_nestedWriteJoinsGroup() throws IOException {
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("nested.db"), SqLiteConnectionMode.POOLED)) {
+      final FileStore fileStore = new FileStore(sqLiteHelper);
+      SqLiteHelper.await(sqLiteHelper.writeNoResult(query -> fileStore.putString("nested", "c")));
+
+      assertThat(fileStore.getString("nested")).contains("c");
+    }
+  }
+
+  @Test
+  void createTable_migratesLegacyKeyMap() throws IOException {
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("legacy.db"), SqLiteConnectionMode.POOLED)) {
+      // key_map as created by earlier versions, which could end up with several rows for a key
+      sqLiteHelper.query().update("CREATE TABLE key_map (id INTEGER PRIMARY KEY AUTOINCREMENT, key_name TEXT, "
+          + "value TEXT)").run();
+      sqLiteHelper.query().update("INSERT INTO key_map (key_name, value) VALUES ('a', 'old'), ('a', 'new'), "
+          + "('b', 'x')").run();
+
+      final FileStore fileStore = new FileStore(sqLiteHelper);
+      assertThat(sqLiteHelper.getSchemaVersion(CoreLocalDbTable.TABLE_KEY_MAP)).isEqualTo(2);
+      assertThat(fileStore.getMany(List.of("a", "b")))
+          .as("the latest row of each key is kept")
+          .containsExactlyInAnyOrderEntriesOf(ImmutableMap.of("a", "new", "b", "x"));
+      assertThat(sqLiteHelper.query().select("PRAGMA table_info(key_map)").listResult(rs -> rs.getString("name")))
+          .containsExactly("key_name", "value", "expires_at");
+
+      new FileStore(sqLiteHelper).putString("a", "newer");
+      assertThat(fileStore.getString("a"))
+          .as("migration is not applied again, the existing row is updated")
+          .contains("newer");
+    }
+  }
+
+  @Test
+  void createTable_failedMigrationIsNotRecorded() throws IOException {
+    final LocalDbTable table = new LocalDbTable("migrated", "id INTEGER PRIMARY KEY, name TEXT",
+        Collections.emptyList(),
+        List.of(
+            new LocalDbTable.Migration(1, "index name", List.of("CREATE INDEX migrated_name ON migrated (name)")),
+            new LocalDbTable.Migration(2, "broken", List.of(
+                "ALTER TABLE migrated ADD COLUMN extra TEXT",
+                "CREATE INDEX migrated_missing ON migrated (missing)"))));
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("migrations.db"),
+        SqLiteConnectionMode.POOLED)) {
+      assertThatThrownBy(() -> sqLiteHelper.createTable(table)).isInstanceOf(RuntimeException.class);
+
+      assertThat(sqLiteHelper.getSchemaVersion(table)).isEqualTo(1);
+      assertThat(sqLiteHelper.query().select("PRAGMA table_info(migrated)").listResult(rs -> rs.getString("name")))
+          .as("statements of the failed migration are rolled back")
+          .containsExactly("id", "name");
+      assertThat(sqLiteHelper.query().select("SELECT name FROM sqlite_master WHERE type='index' AND tbl_name='migrated'")
+          .listResult(rs -> rs.getString(1)))
+          .containsExactly("migrated_name");
+    }
+  }
+
+  @Test
+  void profile_appliedToConnections() throws IOException {
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("durable.db"), SqLiteConnectionMode.POOLED,
+        SqLiteProfile.DURABLE)) {
+      assertThat(sqLiteHelper.readQuery().select("PRAGMA synchronous").singleResult(rs -> rs.getInt(1)))
+          .as("synchronous is FULL")
+          .isEqualTo(2);
+      assertThat(sqLiteHelper.readQuery().select("PRAGMA journal_mode").singleResult(rs -> rs.getString(1)))
+          .isEqualToIgnoringCase("wal");
+      assertThat(sqLiteHelper.readQuery().select("PRAGMA cache_size").singleResult(rs -> rs.getLong(1)))
+          .isEqualTo(-SqLiteProfile.DURABLE.getCacheSizeKib());
+      assertThat(sqLiteHelper.getStats().getProfile()).isEqualTo(SqLiteProfile.DURABLE);
+    }
+  }
+
+  @Test
+  void checkpoint_copiesWriteAheadLog() throws IOException {
+    try (SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("checkpoint.db"), SqLiteConnectionMode.POOLED,
+        SqLiteProfile.BALANCED)) {
+      final FileStore fileStore = new FileStore(sqLiteHelper);
+      for (int i = 0; i < 20; i++) {
+        fileStore.putString("key-" + i, "value-" + i);
+      }
+      assertThat(sqLiteHelper.getStats().getWalSizeBytes()).isPositive();
+
+      sqLiteHelper.checkpoint();
+      final SqLiteStats stats = sqLiteHelper.getStats();
+      assertThat(stats.getCheckpoints()).isEqualTo(1);
+      assertThat(stats.getWalFrames()).isPositive();
+      assertThat(stats.getCheckpointedWalFrames())
+          .as("nothing holds up a checkpoint while no query runs")
+          .isEqualTo(stats.getWalFrames());
+      assertThat(fileStore.getString("key-19")).contains("value-19");
+    }
+  }
+
+  @Test
+  void close_failsLaterQueries() throws IOException {
+    final SqLiteHelper sqLiteHelper = new SqLiteHelper(testFolder.newFile("closed.db"), SqLiteConnectionMode.POOLED);
+    final FileStore fileStore = new FileStore(sqLiteHelper);
+    sqLiteHelper.close();
+
+    assertThatThrownBy(() -> fileStore.getString("key"))
+        .as("queries fail once the pool has been closed")
+        .isInstanceOf(RuntimeException.class);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.lease;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class LeaseKeeperTest {
+
+  private final Lease leaseMock = mock(Lease.class);
+
+  @Test
+  void run_tracksLeaseState() {
+    final LeaseKeeper keeper = new LeaseKeeper(leaseMock, Duration.ofMinutes(1));
+    assertThat(keeper.isHeld())
+        .as("not held before the first heartbeat")
+        .isFalse();
+
+    when(leaseMock.acquireOrRenew(any())).thenReturn(true);
+    keeper.run();
+    assertThat(keeper.isHeld()).isTrue();
+
+    when(leaseMock.acquireOrRenew(any())).thenThrow(new IllegalStateException("database locked"));
+    keeper.run();
+    assertThat(keeper.isHeld())
+        .as("a failed renewal keeps the unexpired lease")
+        .isTrue();
+
+    when(leaseMock.acquireOrRenew(any())).thenReturn(false);
+    keeper.run();
+    assertThat(keeper.isHeld())
+        .as("lease taken over by another instance")
+        .isFalse();
+  }
+
+  @Test
+  void isHeld_expiresWithoutHeartbeat() throws Exception {
+    when(leaseMock.acquireOrRenew(any())).thenReturn(true);
+    final LeaseKeeper keeper = new LeaseKeeper(leaseMock, Duration.ofMillis(50));
+    keeper.run();
+    Thread.sleep(100);
+
+    assertThat(keeper.isHeld())
+        .as("instance steps down once the lease it last renewed has expired")
+        .isFalse();
+  }
+
+  @Test
+  void release_onlyWhenHeld() {
+    final LeaseKeeper keeper = new LeaseKeeper(leaseMock, Duration.ofMinutes(1));
+    keeper.release();
+    verify(leaseMock, never()).release();
+
+    when(leaseMock.acquireOrRenew(any())).thenReturn(true);
+    keeper.run();
+    keeper.release();
+    verify(leaseMock).release();
+    assertThat(keeper.isHeld()).isFalse();
+  }
+}
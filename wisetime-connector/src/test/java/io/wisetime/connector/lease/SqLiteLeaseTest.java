@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.lease;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.wisetime.connector.datastore.SqLiteHelper;
+import io.wisetime.connector.test_util.TemporaryFolder;
+import io.wisetime.connector.test_util.TemporaryFolderExtension;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class SqLiteLeaseTest {
+
+  @SuppressWarnings("unused")
+  private TemporaryFolder testFolder;
+
+  private SqLiteLease active;
+  private SqLiteLease standby;
+
+  @BeforeEach
+  void setup() throws IOException {
+    // two helpers on the same file stand in for two connector processes sharing storage
+    final File databaseFile = testFolder.newFile("shared.db");
+    active = new SqLiteLease(new SqLiteHelper(databaseFile), SqLiteLease.DEFAULT_LEASE_NAME, "active");
+    standby = new SqLiteLease(new SqLiteHelper(databaseFile), SqLiteLease.DEFAULT_LEASE_NAME, "standby");
+  }
+
+  @Test
+  void acquireOrRenew_exclusive() {
+    assertThat(active.acquireOrRenew(Duration.ofMinutes(1)))
+        .as("free lease is acquired")
+        .isTrue();
+    assertThat(standby.acquireOrRenew(Duration.ofMinutes(1)))
+        .as("lease held by another instance can not be acquired")
+        .isFalse();
+    assertThat(active.acquireOrRenew(Duration.ofMinutes(1)))
+        .as("holder renews its lease")
+        .isTrue();
+  }
+
+  @Test
+  void acquireOrRenew_takesOverExpiredLease() throws Exception {
+    assertThat(active.acquireOrRenew(Duration.ofMillis(50))).isTrue();
+    Thread.sleep(100);
+
+    assertThat(standby.acquireOrRenew(Duration.ofMinutes(1)))
+        .as("expired lease is taken over")
+        .isTrue();
+    assertThat(active.acquireOrRenew(Duration.ofMinutes(1)))
+        .as("former holder can not renew a lease taken over")
+        .isFalse();
+  }
+
+  @Test
+  void release_letsStandbyTakeOver() {
+    assertThat(active.acquireOrRenew(Duration.ofMinutes(1))).isTrue();
+    standby.release();
+    assertThat(standby.acquireOrRenew(Duration.ofMinutes(1)))
+        .as("only the holder can release the lease")
+        .isFalse();
+
+    active.release();
+    assertThat(standby.acquireOrRenew(Duration.ofMinutes(1)))
+        .as("released lease is taken over straight away")
+        .isTrue();
+  }
+}
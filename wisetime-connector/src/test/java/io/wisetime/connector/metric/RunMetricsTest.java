@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.metric;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class RunMetricsTest {
+
+  @Test
+  void getInfo_reportsRecordedRuns() {
+    RunMetrics runMetrics = new RunMetrics("TagRunner");
+
+    runMetrics.recordSuccess(50);
+    runMetrics.recordSuccess(100);
+    runMetrics.recordFailure(TimeUnit.SECONDS.toMillis(3));
+    runMetrics.recordSuccess(TimeUnit.HOURS.toMillis(2));
+    runMetrics.recordSkippedOverlap();
+
+    RunMetricsInfo info = runMetrics.getInfo();
+    assertThat(info.getRunnerName()).isEqualTo("TagRunner");
+    assertThat(info.getSuccessCount()).isEqualTo(3);
+    assertThat(info.getFailureCount()).isEqualTo(1);
+    assertThat(info.getSkippedOverlapCount()).isEqualTo(1);
+    assertThat(info.getMaxDurationMs()).isEqualTo(TimeUnit.HOURS.toMillis(2));
+    assertThat(info.getDurationHistogram())
+        .as("bucket upper bounds are inclusive")
+        .containsEntry(100L, 2L)
+        .containsEntry(TimeUnit.SECONDS.toMillis(5), 1L)
+        .containsEntry(Long.MAX_VALUE, 1L)
+        .hasSize(RunMetrics.BUCKET_UPPER_BOUNDS_MS.length + 1);
+    assertThat(info.getLastSuccess()).isNotNull();
+  }
+
+  @Test
+  void getInfo_noSuccessYet() {
+    RunMetricsInfo info = new RunMetrics("TagRunner").getInfo();
+
+    assertThat(info.getLastSuccess()).isNull();
+    assertThat(info.getTimeSinceLastSuccess()).isNull();
+  }
+}
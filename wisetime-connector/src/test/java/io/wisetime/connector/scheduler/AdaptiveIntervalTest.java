@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveIntervalTest {
+
+  @Test
+  void next_staysWithinBounds() {
+    AdaptiveInterval interval = new AdaptiveInterval(1_000, 8_000, 4_000);
+
+    assertThat(interval.next(true)).isEqualTo(2_000);
+    assertThat(interval.next(true)).isEqualTo(1_000);
+    assertThat(interval.next(true))
+        .as("never shorter than the minimum")
+        .isEqualTo(1_000);
+
+    for (int i = 0; i < 10; i++) {
+      interval.next(false);
+    }
+    assertThat(interval.getCurrentMs())
+        .as("never longer than the maximum")
+        .isEqualTo(8_000);
+  }
+
+  @Test
+  void constructor_clampsInitialInterval() {
+    assertThat(new AdaptiveInterval(1_000, 8_000, 60_000).getCurrentMs()).isEqualTo(8_000);
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConnectorSchedulerTest {
+
+  private ConnectorScheduler scheduler;
+
+  @BeforeEach
+  void setup() {
+    scheduler = new ConnectorScheduler("test-scheduler", 2, 0);
+  }
+
+  @AfterEach
+  void tearDown() {
+    scheduler.close();
+  }
+
+  @Test
+  void schedule_runsWithFixedDelayWithoutOverlap() throws Exception {
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    final CountDownLatch runs = new CountDownLatch(5);
+    scheduler.schedule("slow-task", () -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      sleep(20);
+      running.decrementAndGet();
+      runs.countDown();
+    }, new TaskSchedule(0, 1));
+
+    assertThat(runs.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(maxRunning.get())
+        .as("a task never runs concurrently with itself")
+        .isEqualTo(1);
+  }
+
+  @Test
+  void scheduleDedicated_runsWhileWorkersAreBusy() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    for (int i = 0; i < 2; i++) {
+      scheduler.schedule("slow-sync-" + i, () -> {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }, new TaskSchedule(0, TimeUnit.MINUTES.toMillis(1)));
+    }
+    final CountDownLatch healthChecks = new CountDownLatch(3);
+    scheduler.scheduleDedicated("health-check", healthChecks::countDown, new TaskSchedule(50, 10));
+
+    try {
+      assertThat(healthChecks.await(5, TimeUnit.SECONDS))
+          .as("dedicated tasks are not held up by tasks occupying every worker")
+          .isTrue();
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  void schedule_interruptsRunExceedingTimeout() throws Exception {
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    final ScheduledTask task = scheduler.schedule("stuck-task", () -> {
+      try {
+        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+    }, new TaskSchedule(0, TimeUnit.MINUTES.toMillis(1), 50));
+
+    assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    awaitRuns(task, 1);
+    assertThat(task.getStats().getTimeouts()).isEqualTo(1);
+  }
+
+  @Test
+  void schedule_recordsFailuresAndKeepsRunning() throws Exception {
+    final ScheduledTask task = scheduler.schedule("failing-task", () -> {
+      throw new IllegalStateException("failed");
+    }, new TaskSchedule(0, 1));
+
+    awaitRuns(task, 3);
+    assertThat(task.getStats().getFailures())
+        .as("failed runs don't stop the schedule")
+        .isGreaterThanOrEqualTo(3);
+    assertThat(scheduler.getStats()).extracting(TaskStats::getTaskName).containsExactly("failing-task");
+  }
+
+  @Test
+  void schedule_rejectsDuplicateTaskName() {
+    scheduler.schedule("task", () -> { }, new TaskSchedule(0, 1000));
+
+    assertThatThrownBy(() -> scheduler.schedule("task", () -> { }, new TaskSchedule(0, 1000)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void cancel_stopsFurtherRuns() throws Exception {
+    final ScheduledTask task = scheduler.schedule("task", () -> { }, new TaskSchedule(0, 1));
+    awaitRuns(task, 1);
+
+    task.cancel();
+    // let a run that was already dispatched complete
+    sleep(50);
+    final long runs = task.getStats().getRuns();
+    sleep(50);
+
+    assertThat(task.getStats().getRuns()).isEqualTo(runs);
+  }
+
+  @Test
+  void withJitter_staysWithinRatio() {
+    scheduler.close();
+    scheduler = new ConnectorScheduler("test-scheduler", 1, 0.1);
+
+    for (int i = 0; i < 1000; i++) {
+      assertThat(scheduler.withJitter(1000)).isBetween(900L, 1100L);
+    }
+  }
+
+  @Test
+  void close_letsRunningTaskComplete() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final AtomicInteger completed = new AtomicInteger();
+    scheduler.schedule("task", () -> {
+      started.countDown();
+      sleep(100);
+      completed.incrementAndGet();
+    }, new TaskSchedule(0, TimeUnit.MINUTES.toMillis(1)));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+    scheduler.close();
+
+    assertThat(scheduler.awaitTermination(Duration.ofSeconds(5))).isTrue();
+    assertThat(completed.get()).isEqualTo(1);
+  }
+
+  @Test
+  void runNow_bringsForwardNextRun() throws Exception {
+    final ScheduledTask task = scheduler.schedule("hourly-task", () -> { },
+        new TaskSchedule(TimeUnit.HOURS.toMillis(1), TimeUnit.HOURS.toMillis(1)));
+
+    assertThat(scheduler.runNow("hourly-task")).isTrue();
+    awaitRuns(task, 1);
+    assertThat(task.getStats().getRuns()).isEqualTo(1);
+    assertThat(scheduler.runNow("unknown-task")).isFalse();
+  }
+
+  @Test
+  void runNow_whileRunning_runsAgainAfterCurrentRun() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final ScheduledTask task = scheduler.schedule("task", () -> {
+      started.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, new TaskSchedule(0, TimeUnit.HOURS.toMillis(1)));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(task.getStats().isRunning()).isTrue();
+
+    assertThat(scheduler.runNow("task")).isTrue();
+    release.countDown();
+
+    awaitRuns(task, 2);
+    assertThat(task.getStats().getRuns())
+        .as("the requested run follows the one in progress instead of overlapping it")
+        .isEqualTo(2);
+  }
+
+  @Test
+  void pause_skipsRunsUntilResumed() throws Exception {
+    final AtomicInteger runs = new AtomicInteger();
+    final ScheduledTask task = scheduler.schedule("task", runs::incrementAndGet, new TaskSchedule(0, 10));
+    task.pause();
+    // let a run that was already dispatched complete
+    sleep(50);
+    final int runsWhenPaused = runs.get();
+    sleep(100);
+
+    assertThat(runs.get()).isEqualTo(runsWhenPaused);
+    assertThat(task.getStats().isPaused()).isTrue();
+    assertThat(scheduler.runNow("task"))
+        .as("a paused task can not be triggered")
+        .isFalse();
+
+    task.resume();
+    awaitRuns(task, runsWhenPaused + 1);
+    assertThat(runs.get()).isGreaterThan(runsWhenPaused);
+  }
+
+  @Test
+  void createChild_sharesThreadsButNotTasks() throws Exception {
+    final ConnectorScheduler child = scheduler.createChild("tenant");
+    final ScheduledTask childTask = child.schedule("task", () -> { }, new TaskSchedule(0, 10));
+    scheduler.schedule("task", () -> { }, new TaskSchedule(0, TimeUnit.HOURS.toMillis(1)));
+
+    awaitRuns(childTask, 1);
+    assertThat(child.getStats()).extracting(TaskStats::getTaskName).containsExactly("tenant/task");
+    assertThat(scheduler.getStats()).extracting(TaskStats::getTaskName).containsExactly("task", "tenant/task");
+    assertThat(child.getTask("task")).contains(childTask);
+
+    child.close();
+    assertThat(childTask.isCancelled()).isTrue();
+    assertThat(scheduler.getStats())
+        .as("closing a child leaves the parent running")
+        .extracting(TaskStats::getTaskName)
+        .containsExactly("task");
+  }
+
+  private static void awaitRuns(ScheduledTask task, long runs) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+    while (task.getStats().getRuns() < runs && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
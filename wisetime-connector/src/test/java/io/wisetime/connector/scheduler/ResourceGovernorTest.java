@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.wisetime.connector.scheduler.ResourceGovernor.Permit;
+import io.wisetime.connector.scheduler.ResourceGovernor.Priority;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ResourceGovernorTest {
+
+  @Test
+  void acquire_lowPriorityYieldsToHighPriority() throws Exception {
+    ResourceGovernor governor = new ResourceGovernor(4, TimeUnit.MINUTES.toMillis(1));
+    Permit high = governor.acquire(Priority.HIGH, 1);
+
+    CompletableFuture<Permit> low = acquireAsync(governor, Priority.LOW, 1);
+    Thread.sleep(100);
+    assertThat(low)
+        .as("low priority work waits while high priority work is running, even with capacity left")
+        .isNotDone();
+
+    high.close();
+    assertThat(low.get(5, TimeUnit.SECONDS)).isNotNull();
+    assertThat(governor.getAvailable()).isEqualTo(3);
+  }
+
+  @Test
+  void acquire_lowPriorityFromThreadHoldingHighPriorityDoesNotYield() throws Exception {
+    ResourceGovernor governor = new ResourceGovernor(4, TimeUnit.MINUTES.toMillis(1));
+
+    final CompletableFuture<Void> nested = CompletableFuture.runAsync(() -> {
+      try (Permit high = governor.acquire(Priority.HIGH, 1);
+           Permit low = governor.acquire(Priority.LOW, 1)) {
+        assertThat(governor.getAvailable()).isEqualTo(2);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    nested.get(5, TimeUnit.SECONDS);
+    assertThat(governor.getAvailable()).isEqualTo(4);
+
+    Permit low = acquireAsync(governor, Priority.LOW, 1).get(5, TimeUnit.SECONDS);
+    assertThat(low)
+        .as("the thread is no longer treated as high priority once its permit is closed")
+        .isNotNull();
+  }
+
+  @Test
+  void acquire_lowPriorityStopsYieldingAfterStarvationLimit() throws Exception {
+    ResourceGovernor governor = new ResourceGovernor(4, 100);
+    governor.acquire(Priority.HIGH, 1);
+
+    assertThat(acquireAsync(governor, Priority.LOW, 1).get(5, TimeUnit.SECONDS))
+        .as("low priority work is not starved indefinitely")
+        .isNotNull();
+  }
+
+  @Test
+  void acquire_respectsCapacity() throws Exception {
+    ResourceGovernor governor = new ResourceGovernor(2, 0);
+    Permit first = governor.acquire(Priority.HIGH, 2);
+
+    CompletableFuture<Permit> second = acquireAsync(governor, Priority.HIGH, 1);
+    Thread.sleep(100);
+    assertThat(second).isNotDone();
+
+    first.close();
+    first.close();
+    assertThat(second.get(5, TimeUnit.SECONDS)).isNotNull();
+    assertThat(governor.getAvailable())
+        .as("closing a permit twice releases it once")
+        .isEqualTo(1);
+  }
+
+  @Test
+  void acquire_weightIsCappedAtCapacity() throws Exception {
+    ResourceGovernor governor = new ResourceGovernor(2, 0);
+
+    try (Permit ignored = governor.acquire(Priority.LOW, 10)) {
+      assertThat(governor.getAvailable()).isZero();
+    }
+    assertThat(governor.getAvailable()).isEqualTo(2);
+  }
+
+  private static CompletableFuture<Permit> acquireAsync(ResourceGovernor governor, Priority priority, int weight) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return governor.acquire(priority, weight);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+  }
+}
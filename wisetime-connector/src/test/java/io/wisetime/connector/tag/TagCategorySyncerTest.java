@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.tag;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.connector.datastore.FileStore;
+import io.wisetime.connector.datastore.SqLiteHelper;
+import io.wisetime.connector.test_util.TemporaryFolder;
+import io.wisetime.connector.test_util.TemporaryFolderExtension;
+import io.wisetime.generated.connect.DeleteTagCategoryRequest;
+import io.wisetime.generated.connect.TagCategory;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class TagCategorySyncerTest {
+
+  @SuppressWarnings("unused")
+  private TemporaryFolder testFolder;
+
+  private ApiClient apiClientMock;
+  private TagCategorySyncer syncer;
+
+  @BeforeEach
+  void setup() throws IOException {
+    apiClientMock = mock(ApiClient.class);
+    syncer = new TagCategorySyncer(apiClientMock, new FileStore(new SqLiteHelper(testFolder.newFile("store.db"))));
+  }
+
+  @Test
+  void sync_uploadsNewCategoriesInBatches() throws Exception {
+    TagCategorySyncResult result = syncer.sync(categories(1200));
+
+    verify(apiClientMock, times(3)).tagCategoryUpsertBatch(anyList());
+    assertThat(result).isEqualTo(new TagCategorySyncResult(1200, 0, 0));
+  }
+
+  @Test
+  void sync_skipsUnchangedCategories() throws Exception {
+    syncer.sync(categories(10));
+    clearInvocations(apiClientMock);
+
+    TagCategorySyncResult result = syncer.sync(categories(10));
+
+    verifyNoInteractions(apiClientMock);
+    assertThat(result).isEqualTo(new TagCategorySyncResult(0, 0, 10));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void sync_uploadsDelta() throws Exception {
+    syncer.sync(categories(10));
+    clearInvocations(apiClientMock);
+    List<TagCategory> categories = categories(9);
+    categories.get(0).id("changed");
+
+    TagCategorySyncResult result = syncer.sync(categories);
+
+    ArgumentCaptor<List<TagCategory>> upserted = ArgumentCaptor.forClass(List.class);
+    verify(apiClientMock).tagCategoryUpsertBatch(upserted.capture());
+    assertThat(upserted.getValue())
+        .extracting(TagCategory::getExternalId)
+        .containsExactly("category-0");
+    ArgumentCaptor<DeleteTagCategoryRequest> deleted = ArgumentCaptor.forClass(DeleteTagCategoryRequest.class);
+    verify(apiClientMock).tagCategoryDelete(deleted.capture());
+    assertThat(deleted.getValue().getExternalId()).isEqualTo("category-9");
+    assertThat(result).isEqualTo(new TagCategorySyncResult(1, 1, 8));
+  }
+
+  @Test
+  void sync_keepsProgressOnFailure() throws Exception {
+    syncer.sync(categories(2));
+    clearInvocations(apiClientMock);
+    doThrow(new IOException("delete failed")).doNothing().when(apiClientMock).tagCategoryDelete(any());
+    List<TagCategory> categories = categories(1);
+    categories.get(0).id("changed");
+
+    assertThatThrownBy(() -> syncer.sync(categories))
+        .isInstanceOf(IOException.class);
+    verify(apiClientMock).tagCategoryUpsertBatch(anyList());
+
+    // the upsert was saved, only the failed deletion is retried
+    TagCategorySyncResult result = syncer.sync(categories);
+    verify(apiClientMock, times(1)).tagCategoryUpsertBatch(anyList());
+    verify(apiClientMock, times(2)).tagCategoryDelete(any());
+    assertThat(result).isEqualTo(new TagCategorySyncResult(0, 1, 1));
+  }
+
+  private static List<TagCategory> categories(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> new TagCategory().externalId("category-" + i))
+        .collect(Collectors.toList());
+  }
+}
@@ -5,11 +5,17 @@
 package io.wisetime.connector.tag;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import io.wisetime.connector.RunContext;
 import io.wisetime.connector.WiseTimeConnector;
+import io.wisetime.connector.utils.BaseRunner;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,7 +44,10 @@ class TagRunnerTest {
         .as("expect last success was updated")
         .isGreaterThan(startRun.toInstant().toEpochMilli());
 
-    verify(connector, times(1)).performTagUpdate();
+    verify(connector, times(1)).performTagUpdate(any(RunContext.class));
+    assertThat(tagRunner.getRunMetrics().getInfo().getSuccessCount())
+        .as("run is recorded in the runner metrics")
+        .isEqualTo(1);
   }
 
   @Test
@@ -55,4 +64,55 @@ class TagRunnerTest {
         .as("last successful run was long time ago - expecting false")
         .isFalse();
   }
+
+  @Test
+  void nextDelayMs_adaptsToWorkDone() {
+    assertThat(tagRunner.nextDelayMs(60_000))
+        .as("fixed period unless an adaptive interval is enabled")
+        .isEqualTo(60_000);
+
+    tagRunner.enableAdaptiveInterval(15_000, 240_000, 60_000);
+    doAnswer(invocation -> {
+      BaseRunner.recordWork(3);
+      return null;
+    }).when(connector).performTagUpdate(any(RunContext.class));
+    tagRunner.run();
+    assertThat(tagRunner.nextDelayMs(60_000))
+        .as("interval shrinks after a run that uploaded tags")
+        .isEqualTo(30_000);
+
+    doAnswer(invocation -> null).when(connector).performTagUpdate(any(RunContext.class));
+    tagRunner.run();
+    assertThat(tagRunner.nextDelayMs(60_000))
+        .as("interval grows after an idle run")
+        .isEqualTo(45_000);
+  }
+
+  @Test
+  void run_passesContextWithDeadline() {
+    tagRunner.setRunBudget(Duration.ofMinutes(1));
+    doAnswer(invocation -> {
+      RunContext runContext = invocation.getArgument(0);
+      assertThat(runContext.getDeadline()).isPresent();
+      assertThat(runContext.shouldStop()).isFalse();
+      tagRunner.cancelCurrentRun();
+      assertThat(runContext.shouldStop())
+          .as("cancelling the runner stops the run in progress")
+          .isTrue();
+      return null;
+    }).when(connector).performTagUpdate(any(RunContext.class));
+
+    tagRunner.run();
+
+    verify(connector).performTagUpdate(any(RunContext.class));
+  }
+
+  @Test
+  void stopRuns_skipsLaterRuns() {
+    tagRunner.stopRuns();
+
+    tagRunner.run();
+
+    verify(connector, never()).performTagUpdate(any(RunContext.class));
+  }
 }
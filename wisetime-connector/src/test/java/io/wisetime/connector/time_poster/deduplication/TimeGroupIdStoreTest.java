@@ -12,17 +12,27 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.wisetime.connector.api_client.PostResult;
 import io.wisetime.connector.api_client.PostResult.PostResultStatus;
+import io.wisetime.connector.datastore.LocalDbTable;
+import io.wisetime.connector.datastore.SqLiteConnectionMode;
 import io.wisetime.connector.datastore.SqLiteHelper;
+import io.wisetime.connector.test_util.TemporaryFolder;
+import io.wisetime.connector.test_util.TemporaryFolderExtension;
 import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 /**
  * @author pascal.filippi@gmail.com
  */
+@ExtendWith(TemporaryFolderExtension.class)
 class TimeGroupIdStoreTest {
 
+  @SuppressWarnings("unused")
+  private TemporaryFolder testFolder;
+
   private final TimeGroupIdStore timeGroupIdStore;
   private final SqLiteHelper sqLiteHelper;
   private final Faker faker = new Faker();
@@ -67,23 +77,86 @@ class TimeGroupIdStoreTest {
   }
 
   @Test
-  void deleteOldOnInsert() {
+  void dropExpiredPartitionOnInsert() {
     final String oldId = faker.numerify("tg##########");
-    sqLiteHelper.query().update("INSERT INTO " + TABLE_TIME_GROUPS_RECEIVED.getName()
-        + " (time_group_id, post_result, received_timestamp, created_ts, message) VALUES (?,?,?,?,?)")
-        .params(oldId, PostResultStatus.SUCCESS.name(), System.currentTimeMillis() - TimeUnit.DAYS.toMillis(70),
-            System.currentTimeMillis() - TimeUnit.DAYS.toMillis(70), "")
-        .run();
+    final long oldTimestamp = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(70);
+    final LocalDbTable oldPartition = TimeGroupIdStore.partitionOf(oldTimestamp);
+    insertIntoPartition(oldPartition, oldId, oldTimestamp);
     final String id = faker.numerify("tg##########");
 
     assertThat(timeGroupIdStore.alreadySeenFetchClient(oldId))
-        .as("old id should be found")
-        .isPresent();
+        .as("partitions past the retention period are not searched")
+        .isNotPresent();
 
     // store a value
     timeGroupIdStore.putTimeGroupId(id, PostResultStatus.SUCCESS.name(), "");
-    assertThat(timeGroupIdStore.alreadySeenFetchClient(oldId))
-        .isNotPresent();
+    assertThat(sqLiteHelper.query()
+        .select("SELECT COUNT(*) FROM sqlite_master WHERE type='table' AND name=?")
+        .params(oldPartition.getName())
+        .singleResult(rs -> rs.getLong(1)))
+        .as("the whole partition is dropped")
+        .isZero();
+  }
+
+  @Test
+  void updateMovesTimeGroupToCurrentPartition() {
+    final String id = faker.numerify("tg##########");
+    final long receivedTimestamp = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(21);
+    final LocalDbTable olderPartition = TimeGroupIdStore.partitionOf(receivedTimestamp);
+    insertIntoPartition(olderPartition, id, receivedTimestamp);
+    assertThat(timeGroupIdStore.getPostStatusForFetchClient(id))
+        .as("older partitions are searched as well")
+        .hasValue(PostResultStatus.SUCCESS.name());
+
+    timeGroupIdStore.putTimeGroupId(id, TimeGroupIdStore.SUCCESS_AND_SENT, "");
+    assertThat(timeGroupIdStore.getPostStatusForFetchClient(id)).hasValue(TimeGroupIdStore.SUCCESS_AND_SENT);
+    assertThat(sqLiteHelper.query()
+        .select("SELECT COUNT(*) FROM " + olderPartition.getName() + " WHERE time_group_id=?")
+        .params(id)
+        .singleResult(rs -> rs.getLong(1)))
+        .isZero();
+    assertThat(sqLiteHelper.query()
+        .select("SELECT created_ts FROM " + TimeGroupIdStore.partitionOf(System.currentTimeMillis()).getName()
+            + " WHERE time_group_id=?")
+        .params(id)
+        .singleResult(rs -> rs.getLong(1)))
+        .as("created_ts is kept when the time group moves")
+        .isEqualTo(receivedTimestamp);
+  }
+
+  @Test
+  void partitionsAreIndexedForPendingStatusSweep() {
+    final String currentPartition = TimeGroupIdStore.partitionOf(System.currentTimeMillis()).getName();
+
+    assertThat(sqLiteHelper.query()
+        .select("SELECT sql FROM sqlite_master WHERE type='index' AND tbl_name=? AND sql IS NOT NULL")
+        .params(currentPartition)
+        .listResult(rs -> rs.getString(1)))
+        .as("received_timestamp is indexed per post result")
+        .anySatisfy(sql -> assertThat(sql).contains("(post_result, received_timestamp)"));
+  }
+
+  @Test
+  void movesSingleTableToPartitions() throws IOException {
+    try (SqLiteHelper legacyHelper = new SqLiteHelper(testFolder.newFile("legacy.db"), SqLiteConnectionMode.POOLED)) {
+      final long recent = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(10);
+      legacyHelper.createTable(TABLE_TIME_GROUPS_RECEIVED);
+      legacyHelper.query().update("INSERT INTO " + TABLE_TIME_GROUPS_RECEIVED.getName()
+          + " (time_group_id, post_result, received_timestamp, created_ts, message) VALUES (?,?,?,?,?), (?,?,?,?,?)")
+          .params("recent", PostResultStatus.SUCCESS.name(), recent, recent, "",
+              "expired", PostResultStatus.SUCCESS.name(), recent - TimeUnit.DAYS.toMillis(70), recent, "")
+          .run();
+
+      final TimeGroupIdStore store = new TimeGroupIdStore(legacyHelper);
+      assertThat(store.getPostStatusForFetchClient("recent")).hasValue(PostResultStatus.SUCCESS.name());
+      assertThat(store.getPostStatusForFetchClient("expired")).isEmpty();
+      assertThat(legacyHelper.query()
+          .select("SELECT COUNT(*) FROM sqlite_master WHERE type='table' AND name=?")
+          .params(TABLE_TIME_GROUPS_RECEIVED.getName())
+          .singleResult(rs -> rs.getLong(1)))
+          .as("the single table is dropped once its rows are moved")
+          .isZero();
+    }
   }
 
   @Test
@@ -143,7 +216,7 @@ class TimeGroupIdStoreTest {
     // the following line should not be found, because its too new
     timeGroupIdStore.putTimeGroupId(id6, PostResultStatus.SUCCESS.name(), "");
 
-    sqLiteHelper.query().batch("update " + TABLE_TIME_GROUPS_RECEIVED.getName()
+    sqLiteHelper.query().batch("update " + TimeGroupIdStore.partitionOf(System.currentTimeMillis()).getName()
         + " set received_timestamp = :ts where time_group_id = :id")
         .namedParams(ImmutableList.of(
             ImmutableMap.of("ts", System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(2), "id", id1),
@@ -158,4 +231,12 @@ class TimeGroupIdStoreTest {
             Pair.of(id2, PostResult.SUCCESS().withMessage(message2)),
             Pair.of(id5, PostResult.SUCCESS().withMessage(message3)));
   }
+
+  private void insertIntoPartition(LocalDbTable partition, String timeGroupId, long timestamp) {
+    sqLiteHelper.createTable(partition);
+    sqLiteHelper.query().update("INSERT INTO " + partition.getName()
+        + " (time_group_id, post_result, received_timestamp, created_ts, message) VALUES (?,?,?,?,?)")
+        .params(timeGroupId, PostResultStatus.SUCCESS.name(), timestamp, timestamp, "")
+        .run();
+  }
 }
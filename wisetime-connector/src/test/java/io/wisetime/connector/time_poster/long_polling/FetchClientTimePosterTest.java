@@ -17,6 +17,8 @@ import io.wisetime.connector.WiseTimeConnector;
 import io.wisetime.connector.api_client.ApiClient;
 import io.wisetime.connector.api_client.PostResult;
 import io.wisetime.connector.health.HealthCheck;
+import io.wisetime.connector.scheduler.ConnectorScheduler;
+import io.wisetime.connector.scheduler.ResourceGovernor;
 import io.wisetime.connector.test_util.FakeEntities;
 import io.wisetime.connector.time_poster.deduplication.TimeGroupIdStore;
 import io.wisetime.generated.connect.TimeGroup;
@@ -24,10 +26,13 @@ import io.wisetime.generated.connect.TimeGroupStatus;
 import io.wisetime.generated.connect.TimeGroupStatus.StatusEnum;
 import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -63,7 +68,8 @@ class FetchClientTimePosterTest {
           return null;
         });
     fetchClient = new FetchClientTimePoster(wiseTimeConnectorMock, apiClientMock,
-        mock(HealthCheck.class), () -> executorService, timeGroupIdStoreMock, 25);
+        mock(HealthCheck.class), () -> executorService, mock(ConnectorScheduler.class),
+        new ResourceGovernor(4, 1000), timeGroupIdStoreMock, 25, () -> true);
   }
 
   @Test
@@ -82,6 +88,29 @@ class FetchClientTimePosterTest {
     assertThat(statusCaptor.getValue().getStatus()).isEqualTo(TimeGroupStatus.StatusEnum.SUCCESS);
   }
 
+  @Test
+  void leaseLostDuringBatch_leavesRemainingTimeGroups() throws Exception {
+    final AtomicBoolean active = new AtomicBoolean(true);
+    final ExecutorService executorService = mock(ExecutorService.class);
+    fetchClient = new FetchClientTimePoster(wiseTimeConnectorMock, apiClientMock,
+        mock(HealthCheck.class), () -> executorService, mock(ConnectorScheduler.class),
+        new ResourceGovernor(4, 1000), timeGroupIdStoreMock, 25, active::get);
+    TimeGroup first = fakeEntities.randomTimeGroup();
+    TimeGroup second = fakeEntities.randomTimeGroup();
+    when(timeGroupIdStoreMock.alreadySeenFetchClient(any())).thenReturn(Optional.empty());
+    when(timeGroupIdStoreMock.getPostStatusForFetchClient(any())).thenReturn(Optional.of("IN_PROGRESS"));
+    when(wiseTimeConnectorMock.postTime(any())).then(invocation -> {
+      active.set(false);
+      return PostResult.SUCCESS();
+    });
+
+    fetchClient.processTimeGroups(List.of(first, second));
+
+    verify(wiseTimeConnectorMock).postTime(first);
+    verify(wiseTimeConnectorMock, never()).postTime(second);
+    verify(timeGroupIdStoreMock, never()).putTimeGroupId(eq(second.getGroupId()), any(), any());
+  }
+
   @Test
   void previouslySuccessfulTimeGroup() {
     TimeGroup timeGroup = fakeEntities.randomTimeGroup();
@@ -152,6 +181,73 @@ class FetchClientTimePosterTest {
     verify(apiClientMock, never()).updatePostedTimeStatus(any());
   }
 
+  @Test
+  void drain_skipsTimeGroupsNotYetStarted() {
+    TimeGroup timeGroup = fakeEntities.randomTimeGroup();
+    when(timeGroupIdStoreMock.alreadySeenFetchClient(timeGroup.getGroupId())).thenReturn(Optional.empty());
+
+    assertThat(fetchClient.drain(Duration.ofSeconds(1)))
+        .as("nothing is being posted, so draining completes straight away")
+        .isTrue();
+    fetchClient.processTimeGroups(Collections.singletonList(timeGroup));
+
+    verify(wiseTimeConnectorMock, never()).postTime(any());
+    verify(timeGroupIdStoreMock, never()).putTimeGroupId(any(), any(), any());
+  }
+
+  @Test
+  void drain_waitsForTimeGroupBeingPosted() throws Exception {
+    TimeGroup timeGroup = fakeEntities.randomTimeGroup();
+    when(timeGroupIdStoreMock.alreadySeenFetchClient(timeGroup.getGroupId())).thenReturn(Optional.empty());
+    when(timeGroupIdStoreMock.getPostStatusForFetchClient(timeGroup.getGroupId()))
+        .thenReturn(Optional.of("IN_PROGRESS"));
+    final CountDownLatch posting = new CountDownLatch(1);
+    when(wiseTimeConnectorMock.postTime(eq(timeGroup))).then(invocation -> {
+      posting.countDown();
+      Thread.sleep(200);
+      return PostResult.SUCCESS();
+    });
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> fetchClient.processTimeGroups(Collections.singletonList(timeGroup)));
+      assertThat(posting.await(5, TimeUnit.SECONDS)).isTrue();
+
+      assertThat(fetchClient.drain(Duration.ofSeconds(5)))
+          .as("drain waits for the post in progress to finish")
+          .isTrue();
+      verify(apiClientMock, times(1)).updatePostedTimeStatus(any());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void drain_timesOut() throws Exception {
+    TimeGroup timeGroup = fakeEntities.randomTimeGroup();
+    when(timeGroupIdStoreMock.alreadySeenFetchClient(timeGroup.getGroupId())).thenReturn(Optional.empty());
+    final CountDownLatch posting = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    when(wiseTimeConnectorMock.postTime(eq(timeGroup))).then(invocation -> {
+      posting.countDown();
+      release.await();
+      return PostResult.SUCCESS();
+    });
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> fetchClient.processTimeGroups(Collections.singletonList(timeGroup)));
+      assertThat(posting.await(5, TimeUnit.SECONDS)).isTrue();
+
+      assertThat(fetchClient.drain(Duration.ofMillis(100)))
+          .as("post still in progress when the budget runs out")
+          .isFalse();
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
   @Test
   void start_stop() {
     final ExecutorService executor = Executors.newSingleThreadExecutor();
@@ -5,7 +5,9 @@
 package io.wisetime.connector.time_poster.long_polling;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -17,6 +19,8 @@ import io.wisetime.connector.api_client.PostResult;
 import io.wisetime.connector.api_client.PostResult.PostResultStatus;
 import io.wisetime.connector.time_poster.deduplication.TimeGroupIdStore;
 import io.wisetime.generated.connect.TimeGroupStatus;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.concurrent.Executors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -74,6 +78,31 @@ class TimeGroupStatusUpdaterTest {
     assertThat(statusCaptor.getValue().getMessage()).isNull();
   }
 
+  @Test
+  void flush_sendsStatusesStoredMomentsAgo() throws Exception {
+    final Pair<String, PostResult> pendingStatus = createPendingStatus(PostResultStatus.SUCCESS);
+    when(timeGroupIdStoreMock.getAllWithPendingStatusUpdate(Duration.ZERO))
+        .thenReturn(ImmutableList.of(pendingStatus));
+
+    assertThat(timeGroupStatusUpdater.flush(Duration.ofSeconds(10))).isTrue();
+
+    verify(apiClientMock).updatePostedTimeStatus(any(TimeGroupStatus.class));
+    verify(timeGroupIdStoreMock)
+        .putTimeGroupId(pendingStatus.getLeft(), TimeGroupIdStore.SUCCESS_AND_SENT, "");
+  }
+
+  @Test
+  void flush_reportsStatusesNotSent() throws Exception {
+    when(timeGroupIdStoreMock.getAllWithPendingStatusUpdate(Duration.ZERO))
+        .thenReturn(ImmutableList.of(createPendingStatus(PostResultStatus.SUCCESS)));
+    doThrow(new IOException("WiseTime unavailable"))
+        .when(apiClientMock).updatePostedTimeStatus(any(TimeGroupStatus.class));
+
+    assertThat(timeGroupStatusUpdater.flush(Duration.ofSeconds(10)))
+        .as("the status is still pending")
+        .isFalse();
+  }
+
   private Pair<String, PostResult> createPendingStatus(PostResultStatus status) {
     return createPendingStatus(status, null);
   }